@@ -38,6 +38,9 @@ android {
     versionCode = 1
     versionName = "1.1.0"
     multiDexEnabled = true
+    testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    // Benchmarks are placed within the app instrumented tests, which always run on debug build.
+    testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "DEBUGGABLE,EMULATOR"
 
     ksp {
       arg("room.schemaLocation", "${projectDir}/schemas")
@@ -86,6 +89,9 @@ android {
   kotlin { jvmToolchain(17) }
 
   testOptions { unitTests.isReturnDefaultValues = true }
+
+  // Exported schemas are required by `MigrationTestHelper` to create the old database versions.
+  sourceSets { getByName("androidTest").assets.srcDir("${projectDir}/schemas") }
 }
 
 dependencies {
@@ -95,6 +101,7 @@ dependencies {
   implementation(libs.androidx.navigation.fragment)
   implementation(libs.androidx.navigation.ui)
   implementation(libs.androidx.webkit)
+  implementation(libs.androidx.work.runtime)
   implementation(libs.google.android.material)
 
   implementation(libs.androidx.room.runtime)
@@ -112,6 +119,11 @@ dependencies {
   testImplementation(libs.junit.jupiter)
   testImplementation(libs.mockito.core)
 
+  androidTestImplementation(libs.androidx.benchmark.junit4)
+  androidTestImplementation(libs.androidx.room.testing)
+  androidTestImplementation(libs.androidx.test.ext.junit)
+  androidTestImplementation(libs.androidx.test.runner)
+
   debugImplementation(libs.squareup.leakcanary.android)
 }
 
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Room
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.model.CustomerDebtInfo
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.data.model.ProductOrderModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter
+import com.robifr.ledger.local.LocalDatabase
+import java.math.BigDecimal
+import java.time.Instant
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compare counting customers debt from their unpaid queues on every read — either one by one for
+ * each customer as the original path did, or with a single aggregate — against reading the
+ * materialized `customer.debt` column from
+ * [com.robifr.ledger.local.access.CustomerDao.selectAllInfoWithDebt].
+ */
+@RunWith(Parameterized::class)
+class CustomerDebtBenchmark(private val _customerCount: Int) {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private lateinit var _database: LocalDatabase
+
+  companion object {
+    @JvmStatic
+    @Parameterized.Parameters(name = "customers={0}")
+    fun parameters(): List<Int> = listOf(1_000, 10_000, 100_000)
+  }
+
+  @Before
+  fun before() {
+    _database =
+        Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().targetContext,
+                LocalDatabase::class.java)
+            .addCallback(LocalDatabase.Callback())
+            .build()
+    _database.runInTransaction {
+      for (i in 1.._customerCount) {
+        val customerRowId: Long =
+            _database.customerDao().insert(CustomerModel(name = "Customer $i"))
+        val customerId: Long = _database.customerDao().selectIdByRowId(customerRowId)
+        // Every customer has one unpaid queue and one completed queue, each with two orders.
+        for (status in listOf(QueueModel.Status.UNPAID, QueueModel.Status.COMPLETED)) {
+          val queueRowId: Long =
+              _database
+                  .queueDao()
+                  .insert(
+                      QueueModel(
+                          customerId = customerId,
+                          status = status,
+                          date = Instant.now(),
+                          paymentMethod = QueueModel.PaymentMethod.CASH))
+          val queueId: Long = _database.queueDao().selectIdByRowId(queueRowId)
+          _database
+              .productOrderDao()
+              .insert(
+                  List(2) {
+                    ProductOrderModel(
+                        queueId = queueId,
+                        productName = "Apple",
+                        productPrice = 500L,
+                        quantity = 2.0)
+                  })
+        }
+      }
+    }
+  }
+
+  @After
+  fun after() {
+    _database.close()
+  }
+
+  @Test
+  fun selectAllInfoWithDebt_perCustomer() {
+    benchmarkRule.measureRepeated {
+      val info: List<CustomerDebtInfo> =
+          _database.runInTransaction<List<CustomerDebtInfo>> {
+            _selectAllCustomerIds().mapNotNull { id ->
+              val debt: BigDecimal =
+                  _selectUnpaidQueueTotalPrice(id).fold(BigDecimal.ZERO, BigDecimal::subtract)
+              if (debt < BigDecimal.ZERO) CustomerDebtInfo(id, debt) else null
+            }
+          }
+      runWithTimingDisabled { assertEquals(_customerCount, info.size) }
+    }
+  }
+
+  @Test
+  fun selectAllInfoWithDebt_recounted() {
+    benchmarkRule.measureRepeated {
+      val info: List<CustomerDebtInfo> =
+          _database.runInTransaction<List<CustomerDebtInfo>> {
+            _database
+                .query(
+                    """
+                    SELECT queue.customer_id AS id, -SUM(product_order.total_price) AS debt
+                    FROM product_order
+                    INNER JOIN queue ON queue.id = product_order.queue_id
+                    WHERE queue.customer_id IS NOT NULL AND queue.status == 'UNPAID'
+                    GROUP BY queue.customer_id
+                    HAVING debt < 0
+                    """,
+                    null)
+                .use { cursor ->
+                  generateSequence { if (cursor.moveToNext()) cursor else null }
+                      .map {
+                        CustomerDebtInfo(
+                            it.getLong(0), MoneyConverter.toBigDecimal(it.getLong(1)))
+                      }
+                      .toList()
+                }
+          }
+      runWithTimingDisabled { assertEquals(_customerCount, info.size) }
+    }
+  }
+
+  @Test
+  fun selectAllInfoWithDebt_materialized() {
+    benchmarkRule.measureRepeated {
+      val info: List<CustomerDebtInfo> = _database.customerDao().selectAllInfoWithDebt()
+      runWithTimingDisabled { assertEquals(_customerCount, info.size) }
+    }
+  }
+
+  private fun _selectAllCustomerIds(): List<Long> =
+      _database.query("SELECT id FROM customer", null).use { cursor ->
+        generateSequence { if (cursor.moveToNext()) cursor.getLong(0) else null }.toList()
+      }
+
+  /** Same correlated subquery as the one used for each customer before the aggregate. */
+  private fun _selectUnpaidQueueTotalPrice(customerId: Long): List<BigDecimal> =
+      _database
+          .query(
+              """
+              SELECT product_order.total_price FROM product_order
+              WHERE product_order.queue_id = (
+                SELECT queue.id FROM queue
+                WHERE queue.id = product_order.queue_id
+                    AND queue.customer_id = ?
+                    AND queue.status == 'UNPAID'
+              )
+              """,
+              arrayOf(customerId))
+          .use { cursor ->
+            generateSequence {
+                  if (cursor.moveToNext()) MoneyConverter.toBigDecimal(cursor.getLong(0)) else null
+                }
+                .toList()
+          }
+}
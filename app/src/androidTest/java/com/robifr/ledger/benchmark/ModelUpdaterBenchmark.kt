@@ -0,0 +1,105 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import com.robifr.ledger.data.ModelUpdater
+import com.robifr.ledger.data.model.CustomerModel
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compare applying changed models into a list of models by scanning the list for each change
+ * against indexing the list by ID once with [ModelUpdater].
+ */
+@RunWith(Parameterized::class)
+class ModelUpdaterBenchmark(private val _modelCount: Int, private val _changeCount: Int) {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private lateinit var _models: List<CustomerModel>
+  private lateinit var _changedModels: List<CustomerModel>
+  private lateinit var _upsertedModels: List<CustomerModel>
+
+  companion object {
+    @JvmStatic
+    @Parameterized.Parameters(name = "models={0}, changes={1}")
+    fun parameters(): List<Array<Int>> =
+        listOf(10_000, 100_000).flatMap { modelCount ->
+          listOf(1, 100, 1_000).map { changeCount -> arrayOf(modelCount, changeCount) }
+        }
+  }
+
+  @Before
+  fun before() {
+    _models = List(_modelCount) { _customer(it + 1L, "Customer ${it + 1}") }
+    // Spread the changes evenly, so that the scan can't end early for most of them.
+    _changedModels =
+        List(_changeCount) {
+          val id: Long = (it + 1L) * _modelCount / _changeCount
+          _customer(id, "Changed $id")
+        }
+    _upsertedModels =
+        _changedModels + List(_changeCount) { _customer(_modelCount + it + 1L, "New ${it + 1}") }
+  }
+
+  @Test
+  fun updateModel_nestedScan() {
+    benchmarkRule.measureRepeated {
+      val models: ArrayList<CustomerModel> = ArrayList(_models)
+      for (changedModel in _changedModels) {
+        for (i in models.indices) {
+          if (models[i].id == changedModel.id) {
+            models[i] = changedModel
+            break
+          }
+        }
+      }
+      runWithTimingDisabled { assertEquals(_modelCount, models.size) }
+    }
+  }
+
+  @Test
+  fun updateModel_indexed() {
+    benchmarkRule.measureRepeated {
+      val models: List<CustomerModel> = ModelUpdater.updateModel(_models, _changedModels)
+      runWithTimingDisabled { assertEquals(_modelCount, models.size) }
+    }
+  }
+
+  @Test
+  fun upsertModel_indexed() {
+    benchmarkRule.measureRepeated {
+      val models: List<CustomerModel> = ModelUpdater.upsertModel(_models, _upsertedModels)
+      runWithTimingDisabled { assertEquals(_modelCount + _changeCount, models.size) }
+    }
+  }
+
+  @Test
+  fun deleteModel_indexed() {
+    benchmarkRule.measureRepeated {
+      val models: List<CustomerModel> = ModelUpdater.deleteModel(_models, _changedModels)
+      runWithTimingDisabled { assertEquals(_modelCount - _changeCount, models.size) }
+    }
+  }
+
+  private fun _customer(id: Long, name: String): CustomerModel =
+      CustomerModel.toBuilder().withName(name).withId(id)
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Room
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.SupportSQLiteStatement
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.local.LocalDatabase
+import kotlin.random.Random
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+
+/**
+ * Compare the external content `customer_fts` table tokenized by `unicode61`, against the FTS4
+ * table which stored a copy of the names with a space after every character prior to version 7.
+ * Both of them index the same 20k customers.
+ */
+class NameFtsBenchmark {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private val _context: Context = InstrumentationRegistry.getInstrumentation().targetContext
+  private val _customerCount: Int = 20_000
+  private lateinit var _database: LocalDatabase
+  private lateinit var _db: SupportSQLiteDatabase
+
+  @Before
+  fun before() {
+    _database =
+        Room.inMemoryDatabaseBuilder(_context, LocalDatabase::class.java)
+            .addCallback(LocalDatabase.Callback())
+            .build()
+    _db = _database.openHelper.writableDatabase
+    val random: Random = Random(0)
+    val words: List<String> = listOf("Budi", "Siti", "Agus", "Dewi", "Éka", "Putra", "Santoso")
+    _database.runInTransaction {
+      for (i in 0..<_customerCount) {
+        _database
+            .customerDao()
+            .insert(CustomerModel(name = "${words.random(random)} ${words.random(random)} $i"))
+      }
+    }
+    _db.execSQL("CREATE VIRTUAL TABLE spaced_fts USING FTS4(name TEXT NOT NULL)")
+    _database.runInTransaction { _rebuildSpaced() }
+  }
+
+  @After
+  fun after() {
+    _database.close()
+  }
+
+  @Test
+  fun rebuild_spaced() {
+    benchmarkRule.measureRepeated { _database.runInTransaction { _rebuildSpaced() } }
+  }
+
+  @Test
+  fun rebuild_externalContent() {
+    benchmarkRule.measureRepeated {
+      _database.runInTransaction {
+        _db.execSQL("INSERT INTO customer_fts(customer_fts) VALUES ('rebuild')")
+      }
+    }
+  }
+
+  @Test
+  fun search_spaced() {
+    // Phrase of the spaced characters, which matches them anywhere within the name.
+    benchmarkRule.measureRepeated {
+      val count: Int = _searchCount("spaced_fts", "*\"${_spaced("san")}\"*")
+      runWithTimingDisabled { assertEquals(_searchCount("customer_fts", "\"san*\""), count) }
+    }
+  }
+
+  @Test
+  fun search_externalContent() {
+    benchmarkRule.measureRepeated {
+      val count: Int = _searchCount("customer_fts", "\"san*\"")
+      runWithTimingDisabled { assertTrue(count > 0) }
+    }
+  }
+
+  @Test
+  fun indexSize() {
+    val spacedSize: Long = _indexSize("spaced_fts", true)
+    val externalContentSize: Long = _indexSize("customer_fts", false)
+    assertTrue(
+        "Index size of spaced: $spacedSize bytes, external content: $externalContentSize bytes",
+        externalContentSize < spacedSize)
+  }
+
+  private fun _rebuildSpaced() {
+    _db.execSQL("DELETE FROM spaced_fts")
+    val insert: SupportSQLiteStatement =
+        _db.compileStatement("INSERT INTO spaced_fts(docid, name) VALUES (?, ?)")
+    _db.query("SELECT rowid, name FROM customer").use { cursor ->
+      while (cursor.moveToNext()) {
+        insert.bindLong(1, cursor.getLong(0))
+        insert.bindString(2, _spaced(cursor.getString(1)))
+        insert.executeInsert()
+      }
+    }
+    insert.close()
+  }
+
+  private fun _searchCount(table: String, query: String): Int =
+      _db.query(
+              """
+              SELECT * FROM customer
+              WHERE customer.rowid IN (SELECT rowid FROM $table WHERE $table MATCH ?)
+              ORDER BY customer.name
+              """,
+              arrayOf(query))
+          .use { it.count }
+
+  /** Size of the FTS index after merging its segments, including the copy of names if any. */
+  private fun _indexSize(table: String, isContentStored: Boolean): Long {
+    _db.execSQL("INSERT INTO $table($table) VALUES ('optimize')")
+    val contentSize: String =
+        if (isContentStored) "(SELECT IFNULL(SUM(length(c0name)), 0) FROM ${table}_content)"
+        else "0"
+    return _db.query(
+            """
+            SELECT (SELECT IFNULL(SUM(length(block)), 0) FROM ${table}_segments)
+              + (SELECT IFNULL(SUM(length(root)), 0) FROM ${table}_segdir)
+              + $contentSize
+            """)
+        .use {
+          it.moveToFirst()
+          it.getLong(0)
+        }
+  }
+
+  /** Space after every character except whitespace, as the names were stored prior to version 7. */
+  private fun _spaced(name: String): String = name.replace(Regex("(?<=.)(?<![$\\s])"), " ")
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import com.robifr.ledger.data.ModelListPipeline
+import com.robifr.ledger.data.display.CustomerSorter
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.repository.ModelSnapshotStore
+import com.robifr.ledger.repository.NameSearchIndex
+import java.util.concurrent.CompletableFuture
+import kotlin.random.Random
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+
+/**
+ * Measure [NameSearchIndex.searchRanked] over 100k customers, for queries with and without typos.
+ * The worst case is a single character query, which is compared against every name.
+ */
+class NameSearchBenchmark {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private val _customerCount: Int = 100_000
+  private lateinit var _index: NameSearchIndex<CustomerModel>
+  private lateinit var _usages: Map<Long, Int>
+
+  @Before
+  fun before() {
+    val random: Random = Random(0)
+    val words: List<String> =
+        listOf(
+            "Budi", "Siti", "Agus", "Dewi", "Éka", "Putra", "Santoso", "Wijaya", "Lestari",
+            "Kurniawan", "Setiawan", "Pratama", "Hidayat", "Rahma", "Nur", "Hadi")
+    val customers: List<CustomerModel> =
+        List(_customerCount) {
+          CustomerModel(
+              id = it + 1L, name = "${words.random(random)} ${words.random(random)} ${it + 1}")
+        }
+    _usages = customers.associate { it.id!! to random.nextInt(100) }
+
+    val store: ModelSnapshotStore<CustomerModel> =
+        ModelSnapshotStore { CompletableFuture.completedFuture(customers) }
+    _index =
+        NameSearchIndex(store, ModelListPipeline.defaultExecutor(), CustomerModel::name) {
+          CustomerSorter().comparator()
+        }
+    _index.warm()
+    while (!_index.isWarm()) Thread.sleep(10L)
+  }
+
+  @Test
+  fun searchRanked_exact() {
+    _measureSearchRanked("santoso")
+  }
+
+  @Test
+  fun searchRanked_typo() {
+    _measureSearchRanked("kurniwan")
+  }
+
+  @Test
+  fun searchRanked_swappedTypo() {
+    _measureSearchRanked("setiawna")
+  }
+
+  @Test
+  fun searchRanked_singleCharacter() {
+    _measureSearchRanked("a")
+  }
+
+  private fun _measureSearchRanked(query: String) {
+    benchmarkRule.measureRepeated {
+      val customers: List<CustomerModel>? =
+          _index.searchRanked(query, NameSearchIndex.RANKED_LIMIT) { _usages[it.id] ?: 0 }
+      runWithTimingDisabled { assertEquals(NameSearchIndex.RANKED_LIMIT, customers?.size) }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import androidx.appcompat.app.AppCompatDelegate
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import com.robifr.ledger.data.display.CollationKeyCache
+import com.robifr.ledger.data.display.CustomerSortMethod
+import com.robifr.ledger.data.display.CustomerSorter
+import com.robifr.ledger.data.model.CustomerModel
+import java.text.Collator
+import java.util.Locale
+import kotlin.random.Random
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+
+/**
+ * Compare sorting 50k customers by name with a [Collator] on each comparison, against the
+ * collation keys computed for each name once and cached by [CollationKeyCache].
+ */
+class NameSortBenchmark {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private val _customerCount: Int = 50_000
+  private val _sorter: CustomerSorter =
+      CustomerSorter().apply {
+        setSortMethod(CustomerSortMethod(CustomerSortMethod.SortBy.NAME, true))
+      }
+  private lateinit var _locale: Locale
+  private lateinit var _customers: List<CustomerModel>
+
+  @Before
+  fun before() {
+    _locale = Locale.forLanguageTag(AppCompatDelegate.getApplicationLocales().toLanguageTags())
+    val random: Random = Random(0)
+    // Mix of case and accents, which are the ones the collator has to decompose.
+    val letters: String = "aAáÁeEéÉiIoOuUnNñ "
+    _customers =
+        List(_customerCount) {
+          val name: String = String(CharArray(12) { letters[random.nextInt(letters.length)] })
+          CustomerModel(id = it + 1L, name = "Customer $name")
+        }
+  }
+
+  @Test
+  fun sortByName_collator() {
+    benchmarkRule.measureRepeated {
+      val collator: Collator = Collator.getInstance(_locale).apply { strength = Collator.SECONDARY }
+      val customers: List<CustomerModel> = _customers.sortedWith(compareBy(collator) { it.name })
+      runWithTimingDisabled { assertEquals(_customerCount, customers.size) }
+    }
+  }
+
+  @Test
+  fun sortByName_coldCollationKeys() {
+    benchmarkRule.measureRepeated {
+      val collationKeys: CollationKeyCache = CollationKeyCache(_locale)
+      val customers: List<CustomerModel> = _customers.sortedBy { collationKeys.keyOf(it.name) }
+      runWithTimingDisabled { assertEquals(_customerCount, customers.size) }
+    }
+  }
+
+  @Test
+  fun sortByName_cachedCollationKeys() {
+    _sorter.sort(_customers) // Warm up the cache of the app locale.
+    benchmarkRule.measureRepeated {
+      val customers: List<CustomerModel> = _sorter.sort(_customers)
+      runWithTimingDisabled { assertEquals(_customerCount, customers.size) }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Room
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.display.QueueSortMethod
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.data.model.ProductOrderModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.LocalDatabase
+import java.time.Instant
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measure the first and a deep page from [com.robifr.ledger.local.access.QueueDao.selectPage],
+ * which should stay the same regardless of how many queues there are.
+ */
+@RunWith(Parameterized::class)
+class QueuePageBenchmark(
+    private val _queueCount: Int,
+    private val _sortBy: QueueSortMethod.SortBy
+) {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private lateinit var _database: LocalDatabase
+
+  companion object {
+    private const val _PAGE_SIZE: Int = 50
+
+    @JvmStatic
+    @Parameterized.Parameters(name = "queues={0}, sortBy={1}")
+    fun parameters(): List<Array<Any>> =
+        listOf(1_000, 100_000).flatMap { count ->
+          QueueSortMethod.SortBy.entries.map { arrayOf(count, it) }
+        }
+  }
+
+  @Before
+  fun before() {
+    _database =
+        Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().targetContext,
+                LocalDatabase::class.java)
+            .addCallback(LocalDatabase.Callback())
+            .build()
+    _database.runInTransaction {
+      val customerIds: List<Long> =
+          List(100) {
+            val customerRowId: Long =
+                _database.customerDao().insert(CustomerModel(name = "Customer $it"))
+            _database.customerDao().selectIdByRowId(customerRowId)
+          }
+      for (i in 0..<_queueCount) {
+        val queueRowId: Long =
+            _database
+                .queueDao()
+                .insert(
+                    QueueModel(
+                        customerId = customerIds[i % customerIds.size],
+                        status = QueueModel.Status.UNPAID,
+                        date = Instant.ofEpochSecond(i.toLong()),
+                        paymentMethod = QueueModel.PaymentMethod.CASH))
+        _database
+            .productOrderDao()
+            .insert(
+                ProductOrderModel(
+                    queueId = _database.queueDao().selectIdByRowId(queueRowId),
+                    productName = "Apple",
+                    productPrice = (i % 1_000).toLong(),
+                    quantity = 1.0))
+      }
+    }
+  }
+
+  @After
+  fun after() {
+    _database.close()
+  }
+
+  @Test
+  fun selectPage_first() {
+    benchmarkRule.measureRepeated {
+      val queues: List<QueueModel> =
+          _database.queueDao().selectPage(null, QueueSortMethod(_sortBy, true), null, _PAGE_SIZE)
+      runWithTimingDisabled { assertEquals(_PAGE_SIZE, queues.size) }
+    }
+  }
+
+  @Test
+  fun selectPage_deep() {
+    val sortMethod = QueueSortMethod(_sortBy, true)
+    // Continue from a queue at the middle of the list.
+    val afterQueue: QueueModel =
+        _database.queueDao().selectPage(null, sortMethod, null, _queueCount / 2).last()
+
+    benchmarkRule.measureRepeated {
+      val queues: List<QueueModel> =
+          _database.queueDao().selectPage(null, sortMethod, afterQueue, _PAGE_SIZE)
+      runWithTimingDisabled { assertEquals(_PAGE_SIZE, queues.size) }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Room
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.model.ProductOrderModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.LocalDatabase
+import com.robifr.ledger.local.StorageProfile
+import java.time.Instant
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compare [StorageProfile.DEFAULT] against Room defaults without any profile. It's measured on a
+ * database file rather than in-memory, as journal mode and synchronous level only matter on disk.
+ */
+@RunWith(Parameterized::class)
+class StorageProfileBenchmark(
+    @Suppress("unused") private val _profileName: String,
+    private val _profile: StorageProfile?
+) {
+  @get:Rule val benchmarkRule: BenchmarkRule = BenchmarkRule()
+  private val _context: Context = InstrumentationRegistry.getInstrumentation().targetContext
+  private val _databaseName: String = "storage-profile-benchmark.db"
+  private lateinit var _database: LocalDatabase
+
+  companion object {
+    private const val _QUEUE_COUNT: Int = 20_000
+
+    @JvmStatic
+    @Parameterized.Parameters(name = "profile={0}")
+    fun parameters(): List<Array<Any?>> =
+        listOf(arrayOf("none", null), arrayOf("default", StorageProfile.DEFAULT))
+  }
+
+  @Before
+  fun before() {
+    _context.deleteDatabase(_databaseName)
+    val builder =
+        Room.databaseBuilder(_context, LocalDatabase::class.java, _databaseName)
+            .addCallback(LocalDatabase.Callback())
+    _database = (_profile?.applyTo(builder) ?: builder).build()
+    _database.runInTransaction {
+      for (i in 0..<_QUEUE_COUNT) _insertQueue(Instant.ofEpochSecond(i * 60L))
+    }
+  }
+
+  @After
+  fun after() {
+    _database.close()
+    _context.deleteDatabase(_databaseName)
+  }
+
+  @Test
+  fun insert() {
+    var i: Long = _QUEUE_COUNT.toLong()
+    // Each insertion is its own transaction, so that every one of them is committed to disk.
+    benchmarkRule.measureRepeated {
+      _database.runInTransaction { _insertQueue(Instant.ofEpochSecond(i++ * 60L)) }
+    }
+  }
+
+  @Test
+  fun selectAllInRange() {
+    // A week worth of queues, taken from the middle of the date range.
+    val startDate: Instant = Instant.ofEpochSecond(_QUEUE_COUNT / 4 * 60L)
+    val endDate: Instant = startDate.plusSeconds(7L * 24L * 60L * 60L)
+
+    benchmarkRule.measureRepeated {
+      val queues: List<QueueModel> = _database.queueDao().selectAllInRange(startDate, endDate)
+      runWithTimingDisabled { assertEquals(7 * 24 * 60 + 1, queues.size) }
+    }
+  }
+
+  private fun _insertQueue(date: Instant) {
+    val queueRowId: Long =
+        _database
+            .queueDao()
+            .insert(
+                QueueModel(
+                    status = QueueModel.Status.UNPAID,
+                    date = date,
+                    paymentMethod = QueueModel.PaymentMethod.CASH))
+    _database
+        .productOrderDao()
+        .insert(
+            ProductOrderModel(
+                queueId = _database.queueDao().selectIdByRowId(queueRowId),
+                productName = "Apple",
+                productPrice = 1_000L,
+                quantity = 1.0))
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access
+
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.display.QueueSortMethod
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.data.model.ProductOrderModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.LocalDatabase
+import java.time.Instant
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class QueueDaoTest {
+  private lateinit var _database: LocalDatabase
+  private var _amyId: Long = 0L
+  private var _calId: Long = 0L
+  private lateinit var _queue: QueueModel
+
+  @Before
+  fun before() {
+    _database =
+        Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().targetContext,
+                LocalDatabase::class.java)
+            .addCallback(LocalDatabase.Callback())
+            .build()
+    _amyId = _insertCustomer(CustomerModel(name = "Amy", balance = 10_000L))
+    _calId = _insertCustomer(CustomerModel(name = "Cal", balance = 5_000L))
+    _queue =
+        QueueModel(
+            customerId = _amyId,
+            status = QueueModel.Status.COMPLETED,
+            date = Instant.now(),
+            paymentMethod = QueueModel.PaymentMethod.ACCOUNT_BALANCE,
+            productOrders =
+                listOf(
+                    ProductOrderModel(productName = "Apple", productPrice = 1_000L, quantity = 2.0),
+                    ProductOrderModel(productName = "Pear", productPrice = 500L, quantity = 1.0)))
+  }
+
+  @After
+  fun after() {
+    _database.close()
+  }
+
+  @Test
+  fun insertWithForeign_payWithCustomerBalance() {
+    val queueId: Long = _database.queueDao().insertWithForeign(_queue)
+
+    assertEquals(2, _database.productOrderDao().selectAllByQueueId(queueId).size)
+    assertEquals(
+        0,
+        2_500.toBigDecimal().compareTo(_database.queueDao().selectById(queueId)?.grandTotalPrice))
+    assertEquals(7_500L, _database.customerDao().selectById(_amyId)?.balance)
+  }
+
+  @Test
+  fun updateWithForeign_switchCustomerAndProductOrders() {
+    val queueId: Long = _database.queueDao().insertWithForeign(_queue)
+    val apple: ProductOrderModel =
+        _database.productOrderDao().selectAllByQueueId(queueId).first { it.productName == "Apple" }
+    val updatedApple: ProductOrderModel =
+        apple
+            .withQuantity(3.0)
+            .withTotalPrice(ProductOrderModel.calculateTotalPrice(apple.productPrice, 3.0, 0L))
+
+    // Switch to another customer, while the pear is removed.
+    val oldQueue: QueueModel? =
+        _database
+            .queueDao()
+            .updateWithForeign(
+                _queue
+                    .withId(queueId)
+                    .withCustomerId(_calId)
+                    .withProductOrders(listOf(updatedApple)))
+
+    assertEquals(_amyId, oldQueue?.customerId)
+    assertEquals(
+        listOf(apple.id to 3.0),
+        _database.productOrderDao().selectAllByQueueId(queueId).map { it.id to it.quantity })
+    assertEquals(
+        0,
+        3_000.toBigDecimal().compareTo(_database.queueDao().selectById(queueId)?.grandTotalPrice))
+    assertEquals(
+        "Revert back the old customer balance",
+        10_000L,
+        _database.customerDao().selectById(_amyId)?.balance)
+    assertEquals(
+        "Deduct the new customer balance",
+        2_000L,
+        _database.customerDao().selectById(_calId)?.balance)
+  }
+
+  @Test
+  fun deleteWithForeign_revertCustomerBalance() {
+    val queueId: Long = _database.queueDao().insertWithForeign(_queue)
+    val deletedQueue: QueueModel? = _database.queueDao().deleteWithForeign(_queue.withId(queueId))
+
+    assertEquals(queueId, deletedQueue?.id)
+    assertNull(_database.queueDao().selectById(queueId))
+    assertEquals(0, _database.productOrderDao().selectAllByQueueId(queueId).size)
+    assertEquals(10_000L, _database.customerDao().selectById(_amyId)?.balance)
+  }
+
+  @Test
+  fun updateWithForeign_missingQueue() {
+    assertNull(_database.queueDao().updateWithForeign(_queue.withId(999L)))
+    assertNull(_database.queueDao().deleteWithForeign(_queue.withId(999L)))
+    assertEquals(10_000L, _database.customerDao().selectById(_amyId)?.balance)
+  }
+
+  @Test
+  fun selectPage_continueAfterDeletedQueue() {
+    val customerIds: List<Long?> = listOf(_amyId, _calId, null)
+    // Some of the queues share the same date and total price, to be ordered by their ID.
+    for (i in 0..<16) {
+      _database
+          .queueDao()
+          .insertWithForeign(
+              _queue
+                  .withCustomerId(customerIds[i % customerIds.size])
+                  .withPaymentMethod(QueueModel.PaymentMethod.CASH)
+                  .withDate(Instant.ofEpochSecond((i % 5).toLong()))
+                  .withProductOrders(
+                      listOf(
+                          ProductOrderModel(
+                              productName = "Apple",
+                              productPrice = 100L * (i % 4),
+                              quantity = 1.0))))
+    }
+
+    for (sortBy in QueueSortMethod.SortBy.entries) {
+      for (isAscending in listOf(true, false)) {
+        val sortMethod = QueueSortMethod(sortBy, isAscending)
+        val queues: List<QueueModel> =
+            _database.queueDao().selectPage(null, sortMethod, null, Int.MAX_VALUE)
+        val lastQueue: QueueModel =
+            _database.queueDao().selectPage(null, sortMethod, null, 2).last()
+        _database.queueDao().deleteWithForeign(lastQueue)
+
+        assertEquals(
+            "Continue right after the deleted queue, sorted by $sortMethod",
+            queues.drop(2).take(3).map { it.id },
+            _database.queueDao().selectPage(null, sortMethod, lastQueue, 3).map { it.id })
+      }
+    }
+  }
+
+  private fun _insertCustomer(customer: CustomerModel): Long =
+      _database.customerDao().selectIdByRowId(_database.customerDao().insert(customer))
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access
+
+import androidx.core.util.Pair
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.display.QueueDate
+import com.robifr.ledger.data.display.QueueFilterer
+import com.robifr.ledger.data.display.QueueFilters
+import com.robifr.ledger.data.display.QueueSortMethod
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.data.model.ProductOrderModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.LocalDatabase
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalTime
+import java.time.ZoneId
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class QueueQueryTest {
+  private lateinit var _database: LocalDatabase
+  private lateinit var _customerIds: List<Long>
+  private val _queues: MutableList<QueueModel> = mutableListOf()
+
+  @Before
+  fun before() {
+    _database =
+        Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().targetContext,
+                LocalDatabase::class.java)
+            .addCallback(LocalDatabase.Callback())
+            .build()
+    _customerIds =
+        List(3) {
+          val customerRowId: Long =
+              _database.customerDao().insert(CustomerModel(name = "Customer $it"))
+          _database.customerDao().selectIdByRowId(customerRowId)
+        }
+
+    val today: LocalDate = LocalDate.now()
+    val zone: ZoneId = ZoneId.systemDefault()
+    // Include the edge of a day and a fractional second, to make sure the date range is inclusive.
+    val dates =
+        listOf(
+            today.atStartOfDay(zone).toInstant(),
+            today.atTime(23, 59, 59, 999_000_000).atZone(zone).toInstant(),
+            today.minusDays(1).atTime(12, 30, 15, 500_000_000).atZone(zone).toInstant(),
+            today.minusDays(40).atStartOfDay(zone).toInstant(),
+            today.minusYears(2).atTime(LocalTime.NOON).atZone(zone).toInstant())
+    for ((i, date) in dates.withIndex()) {
+      for (status in QueueModel.Status.entries) {
+        for (customerId in _customerIds + listOf(null)) {
+          val queue =
+              QueueModel(
+                  customerId = customerId,
+                  status = status,
+                  date = date,
+                  paymentMethod = QueueModel.PaymentMethod.CASH)
+          val queueId: Long =
+              _database.queueDao().selectIdByRowId(_database.queueDao().insert(queue))
+          // Vary the number of product orders, including queue without any.
+          val productOrders: List<ProductOrderModel> =
+              List((i + status.ordinal) % 3) {
+                ProductOrderModel(
+                    queueId = queueId,
+                    productName = "Apple",
+                    productPrice = 1_000L * (it + 1),
+                    quantity = 1.5,
+                    discount = 100L * i)
+              }
+          _database.productOrderDao().insert(productOrders)
+          _queues.add(queue.withId(queueId).withProductOrders(productOrders))
+        }
+      }
+    }
+  }
+
+  @After
+  fun after() {
+    _database.close()
+  }
+
+  @Test
+  fun selectAll_defaultFilters() {
+    _assertSameAsFilterer(QueueFilters.toBuilder().build())
+  }
+
+  @Test
+  fun selectAll_filterCustomer() {
+    _assertSameAsFilterer(QueueFilters.toBuilder().setNullCustomerShown(false).build())
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder().setFilteredCustomerIds(_customerIds.take(2)).build())
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder()
+            .setFilteredCustomerIds(_customerIds.take(1))
+            .setNullCustomerShown(false)
+            .build())
+  }
+
+  @Test
+  fun selectAll_filterStatus() {
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder().setFilteredStatus(setOf(QueueModel.Status.UNPAID)).build())
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder()
+            .setFilteredStatus(setOf(QueueModel.Status.IN_QUEUE, QueueModel.Status.COMPLETED))
+            .build())
+    _assertSameAsFilterer(QueueFilters.toBuilder().setFilteredStatus(setOf()).build())
+  }
+
+  @Test
+  fun selectAll_filterDate() {
+    for (range in QueueDate.Range.entries.filter { it != QueueDate.Range.CUSTOM }) {
+      _assertSameAsFilterer(
+          QueueFilters.toBuilder().setFilteredDate(QueueDate.withRange(range)).build())
+    }
+
+    val today: LocalDate = LocalDate.now()
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder()
+            .setFilteredDate(
+                QueueDate.withCustomRange(
+                    today.minusDays(40).atStartOfDay(ZoneId.systemDefault()),
+                    today.minusDays(1).atStartOfDay(ZoneId.systemDefault())))
+            .build())
+  }
+
+  @Test
+  fun selectAll_filterTotalPrice() {
+    for (bounds in
+        listOf<Pair<BigDecimal?, BigDecimal?>>(
+            Pair(1_500.toBigDecimal(), null),
+            Pair(null, 1_400.toBigDecimal()),
+            Pair(BigDecimal.ZERO, BigDecimal.ZERO),
+            Pair(1_500.toBigDecimal(), 4_400.toBigDecimal()))) {
+      _assertSameAsFilterer(QueueFilters.toBuilder().setFilteredTotalPrice(bounds).build())
+    }
+  }
+
+  @Test
+  fun selectAll_combinedFilters() {
+    _assertSameAsFilterer(
+        QueueFilters.toBuilder()
+            .setFilteredCustomerIds(_customerIds.drop(1))
+            .setFilteredStatus(setOf(QueueModel.Status.UNPAID, QueueModel.Status.COMPLETED))
+            .setFilteredDate(QueueDate.withRange(QueueDate.Range.THIS_YEAR))
+            .setFilteredTotalPrice(Pair(1_000.toBigDecimal(), null))
+            .build())
+  }
+
+  @Test
+  fun selectPage_combinedFilters() {
+    val filters: QueueFilters =
+        QueueFilters.toBuilder()
+            .setFilteredCustomerIds(_customerIds.drop(1))
+            .setFilteredStatus(setOf(QueueModel.Status.UNPAID, QueueModel.Status.COMPLETED))
+            .setFilteredTotalPrice(Pair(1_000.toBigDecimal(), null))
+            .build()
+    val filterer = QueueFilterer()
+    filterer.setFilters(filters)
+
+    for (sortBy in QueueSortMethod.SortBy.entries) {
+      val sortMethod = QueueSortMethod(sortBy, true)
+      val queueIds: MutableList<Long?> = mutableListOf()
+      var afterQueue: QueueModel? = null
+      do {
+        val page: List<QueueModel> =
+            _database.queueDao().selectPage(filters, sortMethod, afterQueue, 7)
+        queueIds.addAll(page.map { it.id })
+        afterQueue = page.lastOrNull()
+      } while (page.size == 7)
+
+      assertEquals(
+          sortMethod.toString(),
+          filterer.filter(_queues).map { it.id }.sortedBy { it },
+          queueIds.sortedBy { it })
+    }
+  }
+
+  private fun _assertSameAsFilterer(filters: QueueFilters) {
+    val filterer = QueueFilterer()
+    filterer.setFilters(filters)
+
+    assertEquals(
+        filters.toString(),
+        filterer.filter(_queues).map { it.id }.sortedBy { it },
+        _database.queueDao().selectAll(filters).map { it.id }.sortedBy { it })
+  }
+}
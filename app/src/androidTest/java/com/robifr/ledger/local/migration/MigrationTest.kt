@@ -0,0 +1,222 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration
+
+import androidx.room.Room
+import androidx.room.testing.MigrationTestHelper
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.robifr.ledger.data.model.CustomerModel
+import com.robifr.ledger.data.model.QueueModel
+import com.robifr.ledger.local.LocalDatabase
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class MigrationTest {
+  @get:Rule
+  val helper: MigrationTestHelper =
+      MigrationTestHelper(
+          InstrumentationRegistry.getInstrumentation(), LocalDatabase::class.java)
+
+  private val _databaseName: String = "migration-test.db"
+
+  companion object {
+    private const val _LATEST_VERSION: Int = 7
+  }
+
+  @Before
+  fun before() {
+    helper.createDatabase(_databaseName, 1).use { db ->
+      db.execSQL("INSERT INTO customer (id, name, balance) VALUES (1, 'Amy', 500)")
+      db.execSQL("INSERT INTO customer (id, name, balance) VALUES (2, 'Cal', 0)")
+      db.execSQL("INSERT INTO customer_fts (docid, name) VALUES (1, 'A m y'), (2, 'C a l')")
+      db.execSQL("INSERT INTO product (id, name, price) VALUES (1, 'Apple', 1000)")
+      db.execSQL("INSERT INTO product_fts (docid, name) VALUES (1, 'A p p l e')")
+      db.execSQL(
+          """
+          INSERT INTO queue (id, customer_id, status, date, payment_method) VALUES
+            (1, 1, 'UNPAID', '2024-01-01T10:00:00Z', 'CASH'),
+            (2, 1, 'COMPLETED', '2024-01-02T10:00:00Z', 'ACCOUNT_BALANCE'),
+            (3, NULL, 'IN_QUEUE', '2024-01-03T10:00:00.500Z', 'CASH')
+          """)
+      db.execSQL(
+          """
+          INSERT INTO product_order
+            (id, queue_id, product_id, product_name, product_price, quantity, discount, total_price)
+          VALUES
+            (1, 1, 1, 'Apple', 1000, 2.0, 0, '2000'),
+            (2, 1, NULL, 'Pear', 500, 1.0, 100, '400'),
+            (3, 2, 1, 'Apple', 1000, 1.0, 0, '1000'),
+            (4, 3, 1, 'Apple', 1000, 3.0, 0, '3000'),
+            (5, 3, NULL, 'Salt', 1, 0.123456, 0, '0.123456')
+          """)
+    }
+  }
+
+  @Test
+  fun migrate_toLatestVersion_keepData() {
+    val db: SupportSQLiteDatabase =
+        helper.runMigrationsAndValidate(
+            _databaseName, _LATEST_VERSION, true, *LocalDatabase.migrations())
+
+    assertEquals(2, _count(db, "SELECT COUNT(*) FROM customer"))
+    assertEquals(3, _count(db, "SELECT COUNT(*) FROM queue"))
+    assertEquals(5, _count(db, "SELECT COUNT(*) FROM product_order"))
+    assertEquals(1, _count(db, "SELECT COUNT(*) FROM product"))
+    assertEquals(
+        "Customer debt is counted from the existing unpaid queues",
+        -240_000_000,
+        _count(db, "SELECT debt FROM customer WHERE id = 1"))
+    assertEquals(0, _count(db, "SELECT debt FROM customer WHERE id = 2"))
+    assertEquals(
+        "Money is converted into minor units, rounded to the declared scale",
+        listOf(200_000_000, 12_346),
+        listOf(1, 5).map { _count(db, "SELECT total_price FROM product_order WHERE id = $it") })
+    assertEquals(
+        "Queue totals are counted from the existing product orders",
+        listOf(240_000_000, 100_000_000, 300_012_346),
+        listOf(1, 2, 3).map { _count(db, "SELECT grand_total FROM queue WHERE id = $it") })
+    assertEquals(10_000_000, _count(db, "SELECT total_discount FROM queue WHERE id = 1"))
+    assertEquals(
+        "Money columns are stored as integer",
+        0,
+        _count(
+            db,
+            """
+            SELECT COUNT(*) FROM product_order
+            INNER JOIN queue ON queue.id = product_order.queue_id
+            INNER JOIN customer ON customer.id = queue.customer_id
+            WHERE typeof(product_order.total_price) != 'integer'
+              OR typeof(queue.grand_total) != 'integer'
+              OR typeof(customer.debt) != 'integer'
+            """))
+    assertEquals(
+        "Date is converted into epoch milliseconds, including the fractional second",
+        listOf(1, 1),
+        listOf(1_704_103_200_000L, 1_704_276_000_500L).map {
+          _count(db, "SELECT COUNT(*) FROM queue WHERE typeof(date) = 'integer' AND date = $it")
+        })
+    assertEquals(
+        "Existing names are indexed without the spaces between characters",
+        listOf(1, 1),
+        listOf(
+            _count(db, "SELECT COUNT(*) FROM customer_fts WHERE customer_fts MATCH 'amy*'"),
+            _count(db, "SELECT COUNT(*) FROM product_fts WHERE product_fts MATCH 'app*'")))
+    assertEquals(
+        "Queue indexes are created",
+        4,
+        _count(
+            db,
+            """
+            SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name IN (
+              'index_queue_date',
+              'index_queue_status_date',
+              'index_queue_customer_id_status',
+              'index_queue_grand_total'
+            )
+            """))
+  }
+
+  @Test
+  fun migrate_toVersion2_countDebtExactly() {
+    val db: SupportSQLiteDatabase =
+        helper.runMigrationsAndValidate(_databaseName, 2, true, Migration1To2())
+    db.execSQL(
+        """
+        INSERT INTO queue (id, customer_id, status, date, payment_method)
+        VALUES (4, 2, 'UNPAID', '2024-01-04T10:00:00Z', 'CASH')
+        """)
+    db.execSQL(
+        """
+        INSERT INTO product_order (id, queue_id, product_name, quantity, discount, total_price)
+        VALUES (6, 4, 'Pear', 1.0, 0, '0.1'), (7, 4, 'Salt', 1.0, 0, '0.2')
+        """)
+
+    assertEquals(
+        "Debt is summed as minor units, where 0.1 + 0.2 doesn't turn into 0.30000000000000004",
+        listOf("-2400.00000", "-0.30000"),
+        listOf(1, 2).map { _string(db, "SELECT debt FROM customer WHERE id = $it") })
+  }
+
+  @Test
+  fun migrate_toLatestVersion_openedByRoom() {
+    val database: LocalDatabase =
+        Room.databaseBuilder(
+                InstrumentationRegistry.getInstrumentation().targetContext,
+                LocalDatabase::class.java,
+                _databaseName)
+            .addCallback(LocalDatabase.Callback())
+            .addMigrations(*LocalDatabase.migrations())
+            .build()
+    helper.closeWhenFinished(database)
+
+    val customers: List<CustomerModel> = database.customerDao().selectAll()
+    val queues: List<QueueModel> = database.queueDao().selectAll()
+
+    assertEquals(listOf(1L, 2L), customers.mapNotNull { it.id }.sorted())
+    assertEquals(listOf(1L, 2L, 3L), queues.mapNotNull { it.id }.sorted())
+    assertEquals(listOf(1L), database.customerDao().search("Am").mapNotNull { it.id })
+    assertEquals(listOf(1L), database.productDao().search("app").mapNotNull { it.id })
+    assertTrue(database.customerDao().repairDebt().isEmpty())
+
+    // Triggers created by the migration keep the FTS index up-to-date, without the ones Room
+    // recreates after migrating indexing the same row twice.
+    database.customerDao().update(customers.first { it.id == 2L }.withName("Élan"))
+    assertEquals(listOf(2L), database.customerDao().search("ela").mapNotNull { it.id })
+    assertTrue(database.customerDao().search("Cal").isEmpty())
+    val insertedId: Long = database.customerDao().insert(CustomerModel(name = "Bob"))
+    assertEquals(listOf(insertedId), database.customerDao().search("bo").mapNotNull { it.id })
+    database.customerDao().update(
+        database.customerDao().selectById(insertedId)!!.withName("Dan"))
+    assertEquals(listOf(insertedId), database.customerDao().search("da").mapNotNull { it.id })
+    assertTrue(database.customerDao().search("bo").isEmpty())
+    assertEquals(
+        "Only our FTS triggers are left",
+        0,
+        _count(
+            database.openHelper.readableDatabase,
+            "SELECT COUNT(*) FROM sqlite_master WHERE name LIKE 'room_fts_content_sync_%'"))
+
+    // Triggers created by the migration keep the debt up-to-date.
+    database.queueDao().update(queues.first { it.id == 1L }.withStatus(QueueModel.Status.COMPLETED))
+    assertEquals(0, database.customerDao().selectById(1L)?.debt?.signum())
+    database.productOrderDao().delete(database.productOrderDao().selectById(2L)!!)
+    assertEquals(
+        0, 2000.toBigDecimal().compareTo(database.queueDao().selectById(1L)?.grandTotalPrice))
+    assertEquals(
+        0,
+        "3000.12346".toBigDecimal().compareTo(database.queueDao().selectById(3L)?.grandTotalPrice))
+  }
+
+  private fun _count(db: SupportSQLiteDatabase, query: String): Int =
+      db.query(query).use { cursor ->
+        cursor.moveToFirst()
+        cursor.getInt(0)
+      }
+
+  private fun _string(db: SupportSQLiteDatabase, query: String): String =
+      db.query(query).use { cursor ->
+        cursor.moveToFirst()
+        cursor.getString(0)
+      }
+}
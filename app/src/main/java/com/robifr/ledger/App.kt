@@ -18,6 +18,7 @@ package com.robifr.ledger
 
 import android.app.Application
 import android.webkit.WebView
+import com.robifr.ledger.local.DatabaseBackupWorker
 import dagger.hilt.android.HiltAndroidApp
 
 @HiltAndroidApp
@@ -25,5 +26,6 @@ class App : Application() {
   override fun onCreate() {
     super.onCreate()
     WebView.setWebContentsDebuggingEnabled(BuildConfig.DEBUG)
+    DatabaseBackupWorker.schedule(this)
   }
 }
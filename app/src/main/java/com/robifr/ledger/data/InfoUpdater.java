@@ -20,7 +20,6 @@ import androidx.annotation.NonNull;
 import com.robifr.ledger.data.model.Info;
 import com.robifr.ledger.data.model.Model;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
@@ -45,6 +44,10 @@ public class InfoUpdater {
     return info;
   }
 
+  /**
+   * Replace the old info with the new ones having the same ID, otherwise add them as new. Takes
+   * O(n + m) by indexing the old info by their ID once.
+   */
   @NonNull
   public static <M extends Model, I extends Info> List<I> updateInfo(
       @NonNull List<M> models,
@@ -54,15 +57,29 @@ public class InfoUpdater {
     Objects.requireNonNull(modelToInfoConverter);
     Objects.requireNonNull(oldInfo);
 
-    final ArrayList<I> info = new ArrayList<>(oldInfo);
-    final List<I> newInfo = models.stream().map(modelToInfoConverter).collect(Collectors.toList());
-    final HashMap<Long, I> filteredInfo = new HashMap<>();
+    final ArrayList<I> info = new ArrayList<>(oldInfo.size() + models.size());
+    info.addAll(oldInfo);
+    final ModelIdIndex index = ModelIdIndex.ofInfo(info);
+
+    for (M model : models) {
+      final I newInfo = modelToInfoConverter.apply(model);
+      final Long id = newInfo.modelId();
+      final int position = id != null ? index.indexOf(id) : -1;
+
+      if (position >= 0) {
+        info.set(position, newInfo);
+      } else {
+        if (id != null) index.put(id, info.size());
+        info.add(newInfo);
+      }
+    }
 
-    info.forEach(i -> filteredInfo.put(i.modelId(), i));
-    newInfo.forEach(i -> filteredInfo.put(i.modelId(), i)); // Override duplicate ID.
-    return new ArrayList<>(filteredInfo.values());
+    return info;
   }
 
+  /**
+   * Remove the old info having the same ID as the models, in a single pass over the old info.
+   */
   @NonNull
   public static <M extends Model, I extends Info> List<I> deleteInfo(
       @NonNull List<M> models,
@@ -72,14 +89,12 @@ public class InfoUpdater {
     Objects.requireNonNull(modelToInfoConverter);
     Objects.requireNonNull(oldInfo);
 
-    final ArrayList<I> info = new ArrayList<>(oldInfo);
+    final ModelIdIndex deletedIds = ModelIdIndex.ofModels(models);
+    final ArrayList<I> info = new ArrayList<>(oldInfo.size());
 
-    for (M m : models) {
-      for (int i = info.size(); i-- > 0; ) {
-        if (info.get(i).modelId() != null && info.get(i).modelId().equals(m.modelId())) {
-          info.remove(i);
-          break;
-        }
+    for (I currentInfo : oldInfo) {
+      if (currentInfo.modelId() == null || !deletedIds.contains(currentInfo.modelId())) {
+        info.add(currentInfo);
       }
     }
 
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data;
+
+import androidx.annotation.NonNull;
+import com.robifr.ledger.data.model.Info;
+import com.robifr.ledger.data.model.Model;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Map of model ID to its position within a list, backed by primitive arrays with open addressing
+ * to avoid boxing each ID. Models without ID aren't indexed.
+ */
+public final class ModelIdIndex {
+  private static final int _ABSENT = -1;
+  private static final long _GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  @NonNull private long[] _ids;
+  @NonNull private int[] _indexes;
+  private int _shift;
+  private int _size = 0;
+
+  /**
+   * @param expectedSize Number of IDs expected to be put, for the initial capacity.
+   */
+  public ModelIdIndex(int expectedSize) {
+    if (expectedSize < 0) throw new IllegalArgumentException("Expected size can't be negative");
+
+    this._allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+  }
+
+  /**
+   * Index the models by their position. When the same ID appears more than once, only its first
+   * position is kept.
+   */
+  @NonNull
+  public static <M extends Model> ModelIdIndex ofModels(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    final ModelIdIndex index = new ModelIdIndex(models.size());
+    for (int i = 0; i < models.size(); i++) {
+      final Long id = models.get(i).modelId();
+      if (id != null) index.putIfAbsent(id, i);
+    }
+
+    return index;
+  }
+
+  /**
+   * @see #ofModels(List)
+   */
+  @NonNull
+  public static <I extends Info> ModelIdIndex ofInfo(@NonNull List<I> info) {
+    Objects.requireNonNull(info);
+
+    final ModelIdIndex index = new ModelIdIndex(info.size());
+    for (int i = 0; i < info.size(); i++) {
+      final Long id = info.get(i).modelId();
+      if (id != null) index.putIfAbsent(id, i);
+    }
+
+    return index;
+  }
+
+  /**
+   * @return Position of the ID, or -1 when it isn't indexed.
+   */
+  public int indexOf(long id) {
+    final int mask = this._ids.length - 1;
+
+    for (int slot = this._slotOf(id); ; slot = (slot + 1) & mask) {
+      if (this._indexes[slot] == ModelIdIndex._ABSENT) return ModelIdIndex._ABSENT;
+      if (this._ids[slot] == id) return this._indexes[slot];
+    }
+  }
+
+  public boolean contains(long id) {
+    return this.indexOf(id) != ModelIdIndex._ABSENT;
+  }
+
+  /**
+   * @return Previous position of the ID, or -1 when it wasn't indexed.
+   */
+  public int put(long id, int index) {
+    return this._put(id, index, true);
+  }
+
+  /**
+   * @return Current position of the ID, or -1 when it's newly indexed.
+   */
+  public int putIfAbsent(long id, int index) {
+    return this._put(id, index, false);
+  }
+
+  public int size() {
+    return this._size;
+  }
+
+  private int _put(long id, int index, boolean isReplacing) {
+    if (index < 0) throw new IllegalArgumentException("Index can't be negative");
+
+    final int mask = this._ids.length - 1;
+
+    for (int slot = this._slotOf(id); ; slot = (slot + 1) & mask) {
+      if (this._indexes[slot] == ModelIdIndex._ABSENT) {
+        this._ids[slot] = id;
+        this._indexes[slot] = index;
+        // Keep the load factor at most a half, so that probing stays short.
+        if (++this._size * 2 > this._ids.length) this._grow();
+        return ModelIdIndex._ABSENT;
+      }
+
+      if (this._ids[slot] == id) {
+        final int oldIndex = this._indexes[slot];
+        if (isReplacing) this._indexes[slot] = index;
+        return oldIndex;
+      }
+    }
+  }
+
+  private int _slotOf(long id) {
+    return (int) ((id * ModelIdIndex._GOLDEN_RATIO) >>> this._shift);
+  }
+
+  private void _allocate(int capacity) {
+    this._ids = new long[capacity];
+    this._indexes = new int[capacity];
+    this._shift = Long.numberOfLeadingZeros(capacity - 1);
+    Arrays.fill(this._indexes, ModelIdIndex._ABSENT);
+  }
+
+  private void _grow() {
+    final long[] oldIds = this._ids;
+    final int[] oldIndexes = this._indexes;
+
+    this._allocate(oldIds.length * 2);
+    this._size = 0;
+    for (int slot = 0; slot < oldIds.length; slot++) {
+      if (oldIndexes[slot] != ModelIdIndex._ABSENT) this._put(oldIds[slot], oldIndexes[slot], true);
+    }
+  }
+}
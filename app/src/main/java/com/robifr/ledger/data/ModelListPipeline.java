@@ -0,0 +1,255 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data;
+
+import androidx.annotation.NonNull;
+import com.robifr.ledger.data.model.Model;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Filter and sort a list of models off the main thread. Operations are computed one batch at a
+ * time on the latest state, where a reset supersedes the resets and re-sorts submitted before it.
+ * Only the final list of a batch is published, once there's no newer operation to compute.
+ *
+ * @param <M> Model to display.
+ */
+public final class ModelListPipeline<M extends Model> {
+  @NonNull private static final ExecutorService _DEFAULT_EXECUTOR = _newDefaultExecutor();
+
+  @NonNull private final Executor _executor;
+  @NonNull private final Executor _publishExecutor;
+  @NonNull private final Consumer<Result<M>> _publisher;
+
+  /** Only accessed by the computation, which runs one at a time. */
+  @NonNull private final SortedModelList<M> _models;
+
+  /** Only accessed by the computation, which runs one at a time. */
+  @NonNull private Predicate<M> _filter;
+
+  @NonNull private final ArrayList<Operation<M>> _pendingOperations = new ArrayList<>();
+  private boolean _isComputing = false;
+
+  /**
+   * @return Executor the pipelines compute on by default. It's also used to filter and sort models
+   *     outside of a pipeline, so that such work doesn't run on the common fork-join pool.
+   */
+  @NonNull
+  public static Executor defaultExecutor() {
+    return ModelListPipeline._DEFAULT_EXECUTOR;
+  }
+
+  /**
+   * @param executor Executor to compute on.
+   * @param publishExecutor Executor to publish the result on, like the main thread.
+   */
+  public ModelListPipeline(
+      @NonNull Executor executor,
+      @NonNull Executor publishExecutor,
+      @NonNull Comparator<M> comparator,
+      @NonNull Predicate<M> filter,
+      @NonNull Consumer<Result<M>> publisher) {
+    this._executor = Objects.requireNonNull(executor);
+    this._publishExecutor = Objects.requireNonNull(publishExecutor);
+    this._filter = Objects.requireNonNull(filter);
+    this._models = new SortedModelList<>(Objects.requireNonNull(comparator), this._filter);
+    this._publisher = Objects.requireNonNull(publisher);
+  }
+
+  public ModelListPipeline(
+      @NonNull Executor publishExecutor,
+      @NonNull Comparator<M> comparator,
+      @NonNull Predicate<M> filter,
+      @NonNull Consumer<Result<M>> publisher) {
+    this(ModelListPipeline._DEFAULT_EXECUTOR, publishExecutor, comparator, filter, publisher);
+  }
+
+  /**
+   * Replace the whole list with the models which pass the filter, sorted by the comparator. Both
+   * of them might be called from any thread, so they mustn't depend on any mutable state.
+   */
+  public void reset(
+      @NonNull Comparator<M> comparator, @NonNull Predicate<M> filter, @NonNull List<M> models) {
+    Objects.requireNonNull(comparator);
+    Objects.requireNonNull(filter);
+    Objects.requireNonNull(models);
+
+    this._submit(new Reset<>(comparator, filter, List.copyOf(models)));
+  }
+
+  /**
+   * Re-sort the current list, including the changes which aren't published yet.
+   *
+   * @see #reset(Comparator, Predicate, List)
+   */
+  public void resort(@NonNull Comparator<M> comparator) {
+    Objects.requireNonNull(comparator);
+
+    this._submit(new Resort<>(comparator));
+  }
+
+  /** Apply the changed models by relocating them within the current order. */
+  public void apply(@NonNull List<M> deletedModels, @NonNull List<M> upsertedModels) {
+    Objects.requireNonNull(deletedModels);
+    Objects.requireNonNull(upsertedModels);
+
+    this._submit(new Apply<>(List.copyOf(deletedModels), List.copyOf(upsertedModels)));
+  }
+
+  private void _submit(@NonNull Operation<M> operation) {
+    Objects.requireNonNull(operation);
+
+    synchronized (this._pendingOperations) {
+      this._pendingOperations.add(operation);
+      if (this._isComputing) return;
+
+      this._isComputing = true;
+    }
+
+    this._executor.execute(this::_compute);
+  }
+
+  private void _compute() {
+    try {
+      this._computePendingOperations();
+    } catch (RuntimeException e) {
+      // Let the upcoming operations be computed, rather than being stuck forever.
+      synchronized (this._pendingOperations) {
+        this._isComputing = false;
+      }
+
+      throw e;
+    }
+  }
+
+  private void _computePendingOperations() {
+    final ArrayList<SortedModelList.Change> changes = new ArrayList<>();
+    boolean isReordered = false;
+
+    while (true) {
+      final ArrayList<Operation<M>> operations;
+      synchronized (this._pendingOperations) {
+        operations = new ArrayList<>(this._pendingOperations);
+        this._pendingOperations.clear();
+      }
+
+      isReordered |= this._computeOperations(operations, changes);
+
+      final List<M> models;
+      synchronized (this._pendingOperations) {
+        // Newer operations supersede this result, only publish the final one.
+        if (!this._pendingOperations.isEmpty()) continue;
+
+        models = this._models.toList();
+        this._isComputing = false;
+      }
+
+      final Result<M> result =
+          new Result<>(models, isReordered ? List.of() : List.copyOf(changes), isReordered);
+      this._publishExecutor.execute(() -> this._publisher.accept(result));
+      return;
+    }
+  }
+
+  /**
+   * @return Whether the whole list is reordered, in which the positional changes are meaningless.
+   */
+  private boolean _computeOperations(
+      @NonNull List<Operation<M>> operations, @NonNull List<SortedModelList.Change> changes) {
+    Objects.requireNonNull(operations);
+    Objects.requireNonNull(changes);
+
+    Reset<M> lastReset = null;
+    Comparator<M> lastComparator = null;
+    final ArrayList<Apply<M>> applies = new ArrayList<>();
+
+    for (Operation<M> operation : operations) {
+      if (operation instanceof Reset<M> reset) {
+        lastReset = reset;
+        lastComparator = null;
+      } else if (operation instanceof Resort<M> resort) {
+        lastComparator = resort.comparator();
+      } else if (operation instanceof Apply<M> apply) {
+        // Changes before the reset are applied after it, as they're idempotent by their ID.
+        applies.add(apply);
+      }
+    }
+
+    if (lastReset != null) {
+      this._filter = lastReset.filter();
+      this._models.reset(lastReset.comparator(), this._filter, lastReset.models());
+    }
+
+    if (lastComparator != null) {
+      this._models.reset(lastComparator, this._filter, this._models.toList());
+    }
+
+    for (Apply<M> apply : applies) {
+      changes.addAll(this._models.delete(apply.deletedModels()));
+      changes.addAll(this._models.upsert(apply.upsertedModels()));
+    }
+
+    return lastReset != null || lastComparator != null;
+  }
+
+  @NonNull
+  private static ExecutorService _newDefaultExecutor() {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        2,
+        runnable -> {
+          final Thread thread =
+              new Thread(runnable, "model-list-pipeline-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * @param models Filtered and sorted models.
+   * @param changes Positional changes from the previously published models, in the order they
+   *     were applied. Empty when the list is reordered.
+   * @param isReordered Whether the list was reset or re-sorted.
+   */
+  public record Result<M extends Model>(
+      @NonNull List<M> models, @NonNull List<SortedModelList.Change> changes, boolean isReordered) {
+    public Result {
+      Objects.requireNonNull(models);
+      Objects.requireNonNull(changes);
+    }
+  }
+
+  private interface Operation<M extends Model> {}
+
+  private record Reset<M extends Model>(
+      @NonNull Comparator<M> comparator, @NonNull Predicate<M> filter, @NonNull List<M> models)
+      implements Operation<M> {}
+
+  private record Resort<M extends Model>(@NonNull Comparator<M> comparator)
+      implements Operation<M> {}
+
+  private record Apply<M extends Model>(
+      @NonNull List<M> deletedModels, @NonNull List<M> upsertedModels) implements Operation<M> {}
+}
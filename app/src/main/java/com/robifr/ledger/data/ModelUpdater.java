@@ -36,6 +36,10 @@ public class ModelUpdater {
     return models;
   }
 
+  /**
+   * Replace the old models with the new ones having the same ID, while the others are ignored.
+   * Takes O(n + m) by indexing the old models by their ID once.
+   */
   @NonNull
   public static <M extends Model> List<M> updateModel(
       @NonNull List<M> oldModels, @NonNull List<M> newModels) {
@@ -43,67 +47,65 @@ public class ModelUpdater {
     Objects.requireNonNull(oldModels);
 
     final ArrayList<M> models = new ArrayList<>(oldModels);
+    final ModelIdIndex index = ModelIdIndex.ofModels(models);
 
     for (M updatedModel : newModels) {
-      for (int i = 0; i < models.size(); i++) {
-        final M currentModel = models.get(i);
-
-        if (currentModel.modelId() != null
-            && currentModel.modelId().equals(updatedModel.modelId())) {
-          models.set(i, updatedModel);
-          break;
-        }
-      }
+      if (updatedModel.modelId() == null) continue;
+
+      final int position = index.indexOf(updatedModel.modelId());
+      if (position >= 0) models.set(position, updatedModel);
     }
 
     return models;
   }
 
+  /**
+   * Remove the old models having the same ID as the new ones, in a single pass over the old
+   * models.
+   */
   @NonNull
   public static <M extends Model> List<M> deleteModel(
       @NonNull List<M> oldModels, @NonNull List<M> newModels) {
     Objects.requireNonNull(newModels);
     Objects.requireNonNull(oldModels);
 
-    final ArrayList<M> models = new ArrayList<>(oldModels);
+    final ModelIdIndex deletedIds = ModelIdIndex.ofModels(newModels);
+    final ArrayList<M> models = new ArrayList<>(oldModels.size());
 
-    for (M updatedModel : newModels) {
-      for (int i = 0; i < models.size(); i++) {
-        final M currentModel = models.get(i);
-
-        if (currentModel.modelId() != null
-            && currentModel.modelId().equals(updatedModel.modelId())) {
-          models.remove(i);
-          break;
-        }
+    for (M currentModel : oldModels) {
+      if (currentModel.modelId() == null || !deletedIds.contains(currentModel.modelId())) {
+        models.add(currentModel);
       }
     }
 
     return models;
   }
 
+  /**
+   * Replace the old models with the new ones having the same ID, otherwise add them as new.
+   *
+   * @see #updateModel(List, List)
+   */
   @NonNull
   public static <M extends Model> List<M> upsertModel(
       @NonNull List<M> oldModels, @NonNull List<M> newModels) {
     Objects.requireNonNull(newModels);
     Objects.requireNonNull(oldModels);
 
-    final ArrayList<M> models = new ArrayList<>(oldModels);
-
-    for (M updatedModels : newModels) {
-      for (int i = 0; i < models.size(); i++) {
-        final M currentModel = models.get(i);
+    final ArrayList<M> models = new ArrayList<>(oldModels.size() + newModels.size());
+    models.addAll(oldModels);
+    final ModelIdIndex index = ModelIdIndex.ofModels(models);
 
-        // Update when having the same ID.
-        if (currentModel.modelId() != null
-            && currentModel.modelId().equals(updatedModels.modelId())) {
-          models.set(i, updatedModels);
-          break;
-        }
+    for (M upsertedModel : newModels) {
+      final Long id = upsertedModel.modelId();
+      final int position = id != null ? index.indexOf(id) : -1;
 
-        // Add as new when reached the end of array
-        // while can't find model with the same ID.
-        if (i == models.size() - 1) models.add(updatedModels);
+      if (position >= 0) {
+        models.set(position, upsertedModel);
+      } else {
+        // Index the added model as well, in case the same ID appears again later.
+        if (id != null) index.put(id, models.size());
+        models.add(upsertedModel);
       }
     }
 
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.robifr.ledger.data.model.Model;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Filtered and sorted models which are maintained incrementally. A changed model is relocated by
+ * binary search instead of re-filtering and re-sorting the whole list, so that it costs O(log n)
+ * comparisons, plus shifting the backing array when it moves.
+ *
+ * <p>The comparator must impose a total order, like by breaking ties with the model ID, otherwise
+ * a model can't be located among the others which compare equal to it.
+ */
+public final class SortedModelList<M extends Model> {
+  @NonNull private Comparator<M> _comparator;
+  @NonNull private Predicate<M> _filter;
+  @NonNull private final ArrayList<M> _models = new ArrayList<>();
+
+  /** Models within {@link #_models} by their ID, to locate them by their previous state. */
+  @NonNull private final HashMap<Long, M> _modelsById = new HashMap<>();
+
+  /**
+   * @param filter Whether a model should be included.
+   */
+  public SortedModelList(@NonNull Comparator<M> comparator, @NonNull Predicate<M> filter) {
+    this._comparator = Objects.requireNonNull(comparator);
+    this._filter = Objects.requireNonNull(filter);
+  }
+
+  /**
+   * Replace the whole list with the models which pass the filter, sorted by the comparator. Takes
+   * O(n log n), use this only when the filter or the comparator itself has changed.
+   */
+  public void reset(
+      @NonNull Comparator<M> comparator,
+      @NonNull Predicate<M> filter,
+      @NonNull List<M> models) {
+    this._comparator = Objects.requireNonNull(comparator);
+    this._filter = Objects.requireNonNull(filter);
+    Objects.requireNonNull(models);
+
+    this._models.clear();
+    this._modelsById.clear();
+
+    for (M model : models) {
+      if (!this._filter.test(model)) continue;
+
+      final Long id = model.modelId();
+      // Keep only the last of the duplicated ID.
+      if (id != null && this._modelsById.put(id, model) != null) {
+        this._models.removeIf(m -> id.equals(m.modelId()));
+      }
+
+      this._models.add(model);
+    }
+
+    this._models.sort(this._comparator);
+  }
+
+  /**
+   * Insert the models which pass the filter, or relocate them when they're already in the list.
+   * Models which no longer pass the filter are removed.
+   *
+   * @return Positional changes, in the order they were applied.
+   */
+  @NonNull
+  public List<Change> upsert(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    final ArrayList<Change> changes = new ArrayList<>();
+
+    for (M model : models) {
+      final int oldPosition = this._removeById(model.modelId());
+      if (!this._filter.test(model)) {
+        if (oldPosition >= 0) changes.add(new Change(Change.Type.REMOVED, oldPosition, -1));
+        continue;
+      }
+
+      final int newPosition = this._insert(model);
+      if (oldPosition < 0) {
+        changes.add(new Change(Change.Type.INSERTED, -1, newPosition));
+      } else if (oldPosition == newPosition) {
+        changes.add(new Change(Change.Type.CHANGED, oldPosition, newPosition));
+      } else {
+        changes.add(new Change(Change.Type.MOVED, oldPosition, newPosition));
+      }
+    }
+
+    return changes;
+  }
+
+  /**
+   * Remove the models having the same ID.
+   *
+   * @return Positional changes, in the order they were applied.
+   */
+  @NonNull
+  public List<Change> delete(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    final ArrayList<Change> changes = new ArrayList<>();
+
+    for (M model : models) {
+      final int oldPosition = this._removeById(model.modelId());
+      if (oldPosition >= 0) changes.add(new Change(Change.Type.REMOVED, oldPosition, -1));
+    }
+
+    return changes;
+  }
+
+  /**
+   * @return Position where the model is, or where it would be inserted as {@code -(position + 1)}.
+   */
+  public int positionOf(@NonNull M model) {
+    Objects.requireNonNull(model);
+
+    return Collections.binarySearch(this._models, model, this._comparator);
+  }
+
+  public int size() {
+    return this._models.size();
+  }
+
+  @NonNull
+  public M get(int position) {
+    return this._models.get(position);
+  }
+
+  /**
+   * @return Snapshot of the current list, which won't be affected by the upcoming changes.
+   */
+  @NonNull
+  public List<M> toList() {
+    return Collections.unmodifiableList(new ArrayList<>(this._models));
+  }
+
+  /**
+   * @return Previous position of the model, or -1 when it wasn't in the list.
+   */
+  private int _removeById(@Nullable Long id) {
+    if (id == null) return -1;
+
+    final M oldModel = this._modelsById.remove(id);
+    if (oldModel == null) return -1;
+
+    final int position = this.positionOf(oldModel);
+    if (position < 0) throw new IllegalStateException("Model is missing from its sorted position");
+
+    this._models.remove(position);
+    return position;
+  }
+
+  private int _insert(@NonNull M model) {
+    Objects.requireNonNull(model);
+
+    final int position = this.positionOf(model);
+    // Model comparing equal to another one is placed after it.
+    final int insertPosition = position >= 0 ? position + 1 : -(position + 1);
+
+    this._models.add(insertPosition, model);
+    if (model.modelId() != null) this._modelsById.put(model.modelId(), model);
+    return insertPosition;
+  }
+
+  /**
+   * @param fromPosition Position before the change, or -1 when the model is inserted.
+   * @param toPosition Position after the change, or -1 when the model is removed.
+   */
+  public record Change(@NonNull Type type, int fromPosition, int toPosition) {
+    public Change {
+      Objects.requireNonNull(type);
+    }
+
+    /**
+     * @param position Position of another model before this change, or -1 for none.
+     * @return Position of that model after this change. -1 when it's the one being removed.
+     */
+    public int positionAfter(int position) {
+      if (position < 0) return -1;
+
+      return switch (this.type) {
+        case INSERTED -> position >= this.toPosition ? position + 1 : position;
+        case REMOVED -> {
+          if (position == this.fromPosition) yield -1;
+          yield position > this.fromPosition ? position - 1 : position;
+        }
+        case MOVED -> {
+          if (position == this.fromPosition) yield this.toPosition;
+          final int shiftedPosition = position > this.fromPosition ? position - 1 : position;
+          yield shiftedPosition >= this.toPosition ? shiftedPosition + 1 : shiftedPosition;
+        }
+        case CHANGED -> position;
+      };
+    }
+
+    public enum Type {
+      INSERTED,
+      REMOVED,
+      MOVED,
+      CHANGED
+    }
+  }
+}
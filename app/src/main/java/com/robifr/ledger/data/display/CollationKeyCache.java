@@ -0,0 +1,92 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data.display;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatDelegate;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collation keys of the names to sort with, computed once per name and reused across the sorts.
+ * Comparing two keys is a plain byte comparison, unlike {@link Collator#compare(String, String)}
+ * which decomposes both names on each comparison.
+ *
+ * <p>Keys are cached by the name itself, so a renamed model simply gets a new key. The whole cache
+ * is replaced when the app locale changes.
+ */
+public final class CollationKeyCache {
+  /** Cached keys are cleared once they exceed this, to bound the memory of the renamed ones. */
+  public static final int MAX_SIZE = 1 << 17;
+
+  @Nullable private static CollationKeyCache _instance;
+
+  @NonNull private final Locale _locale;
+  @NonNull private final Collator _collator;
+  @NonNull private final ConcurrentHashMap<String, CollationKey> _keys = new ConcurrentHashMap<>();
+
+  public CollationKeyCache(@NonNull Locale locale) {
+    this._locale = Objects.requireNonNull(locale);
+    this._collator = Collator.getInstance(this._locale);
+    this._collator.setStrength(Collator.SECONDARY);
+  }
+
+  /**
+   * @return Cache of the current app locale, replacing the previous one when the locale changed.
+   */
+  @NonNull
+  public static synchronized CollationKeyCache instance() {
+    final Locale locale =
+        Locale.forLanguageTag(AppCompatDelegate.getApplicationLocales().toLanguageTags());
+    final boolean isLocaleChanged =
+        CollationKeyCache._instance == null || !CollationKeyCache._instance.locale().equals(locale);
+    if (isLocaleChanged) CollationKeyCache._instance = new CollationKeyCache(locale);
+
+    return CollationKeyCache._instance;
+  }
+
+  @NonNull
+  public Locale locale() {
+    return this._locale;
+  }
+
+  @NonNull
+  public CollationKey keyOf(@NonNull String name) {
+    Objects.requireNonNull(name);
+
+    final CollationKey cachedKey = this._keys.get(name);
+    if (cachedKey != null) return cachedKey;
+
+    final CollationKey key;
+    // Collator isn't thread-safe, while the sorting might be done on any thread.
+    synchronized (this._collator) {
+      key = this._collator.getCollationKey(name);
+    }
+
+    if (this._keys.size() >= CollationKeyCache.MAX_SIZE) this._keys.clear();
+    this._keys.put(name, key);
+    return key;
+  }
+
+  public int size() {
+    return this._keys.size();
+  }
+}
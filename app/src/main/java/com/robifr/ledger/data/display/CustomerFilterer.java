@@ -40,13 +40,16 @@ public class CustomerFilterer {
     Objects.requireNonNull(customers);
 
     return customers.stream()
-        .filter(
-            customer ->
-                !this._shouldFilteredOutByBalance(customer)
-                    && !this._shouldFilteredOutByDebt(customer))
+        .filter(customer -> !this.isFilteredOut(customer))
         .collect(Collectors.toList());
   }
 
+  public boolean isFilteredOut(@NonNull CustomerModel customer) {
+    Objects.requireNonNull(customer);
+
+    return this._shouldFilteredOutByBalance(customer) || this._shouldFilteredOutByDebt(customer);
+  }
+
   private boolean _shouldFilteredOutByBalance(@NonNull CustomerModel customer) {
     Objects.requireNonNull(customer);
 
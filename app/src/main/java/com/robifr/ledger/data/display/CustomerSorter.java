@@ -17,13 +17,10 @@
 package com.robifr.ledger.data.display;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.app.AppCompatDelegate;
 import com.robifr.ledger.data.model.CustomerModel;
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 
 public class CustomerSorter {
@@ -44,40 +41,35 @@ public class CustomerSorter {
   public List<CustomerModel> sort(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    return switch (this._sortMethod.sortBy()) {
-      case NAME -> this._sortByName(customers);
-      case BALANCE -> this._sortByBalance(customers);
-    };
-  }
-
-  @NonNull
-  private List<CustomerModel> _sortByName(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    final Collator collator =
-        Collator.getInstance(
-            Locale.forLanguageTag(AppCompatDelegate.getApplicationLocales().toLanguageTags()));
-    collator.setStrength(Collator.SECONDARY);
-
-    final Comparator<CustomerModel> compare = Comparator.comparing(CustomerModel::name, collator);
-    final Comparator<CustomerModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
-
     final ArrayList<CustomerModel> sortedCustomers = new ArrayList<>(customers);
-    sortedCustomers.sort(comparator);
+    sortedCustomers.sort(this.comparator());
     return sortedCustomers;
   }
 
+  /**
+   * @return Comparator of the current sort method. Ties are broken by the ID, making it a total
+   *     order, so that the same customer always lands in the same position.
+   */
   @NonNull
-  private List<CustomerModel> _sortByBalance(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
+  public Comparator<CustomerModel> comparator() {
+    final Comparator<CustomerModel> compare =
+        switch (this._sortMethod.sortBy()) {
+          case NAME -> this._compareByName();
+          case BALANCE -> this._compareByBalance();
+        };
+    final Comparator<CustomerModel> totalCompare =
+        compare.thenComparing(CustomerModel::id, Comparator.nullsLast(Comparator.naturalOrder()));
+    return this._sortMethod.isAscending() ? totalCompare : totalCompare.reversed();
+  }
 
-    final Comparator<CustomerModel> compare = Comparator.comparing(CustomerModel::balance);
-    final Comparator<CustomerModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
+  @NonNull
+  private Comparator<CustomerModel> _compareByName() {
+    final CollationKeyCache collationKeys = CollationKeyCache.instance();
+    return Comparator.comparing((CustomerModel customer) -> collationKeys.keyOf(customer.name()));
+  }
 
-    final ArrayList<CustomerModel> sortedCustomers = new ArrayList<>(customers);
-    sortedCustomers.sort(comparator);
-    return sortedCustomers;
+  @NonNull
+  private Comparator<CustomerModel> _compareByBalance() {
+    return Comparator.comparing(CustomerModel::balance);
   }
 }
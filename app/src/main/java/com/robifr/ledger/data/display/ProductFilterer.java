@@ -39,10 +39,16 @@ public class ProductFilterer {
     Objects.requireNonNull(products);
 
     return products.stream()
-        .filter(product -> !this._shouldFilteredOutByPrice(product))
+        .filter(product -> !this.isFilteredOut(product))
         .collect(Collectors.toList());
   }
 
+  public boolean isFilteredOut(@NonNull ProductModel product) {
+    Objects.requireNonNull(product);
+
+    return this._shouldFilteredOutByPrice(product);
+  }
+
   private boolean _shouldFilteredOutByPrice(@NonNull ProductModel product) {
     Objects.requireNonNull(product);
 
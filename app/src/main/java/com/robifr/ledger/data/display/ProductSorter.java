@@ -17,13 +17,10 @@
 package com.robifr.ledger.data.display;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.app.AppCompatDelegate;
 import com.robifr.ledger.data.model.ProductModel;
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 
 public class ProductSorter {
@@ -44,40 +41,35 @@ public class ProductSorter {
   public List<ProductModel> sort(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    return switch (this._sortMethod.sortBy()) {
-      case NAME -> this._sortByName(products);
-      case PRICE -> this._sortByPrice(products);
-    };
-  }
-
-  @NonNull
-  private List<ProductModel> _sortByName(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
-
-    final Collator collator =
-        Collator.getInstance(
-            Locale.forLanguageTag(AppCompatDelegate.getApplicationLocales().toLanguageTags()));
-    collator.setStrength(Collator.SECONDARY);
-
-    final Comparator<ProductModel> compare = Comparator.comparing(ProductModel::name, collator);
-    final Comparator<ProductModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
-
     final ArrayList<ProductModel> sortedProducts = new ArrayList<>(products);
-    sortedProducts.sort(comparator);
+    sortedProducts.sort(this.comparator());
     return sortedProducts;
   }
 
+  /**
+   * @return Comparator of the current sort method. Ties are broken by the ID, making it a total
+   *     order, so that the same product always lands in the same position.
+   */
   @NonNull
-  private List<ProductModel> _sortByPrice(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
+  public Comparator<ProductModel> comparator() {
+    final Comparator<ProductModel> compare =
+        switch (this._sortMethod.sortBy()) {
+          case NAME -> this._compareByName();
+          case PRICE -> this._compareByPrice();
+        };
+    final Comparator<ProductModel> totalCompare =
+        compare.thenComparing(ProductModel::id, Comparator.nullsLast(Comparator.naturalOrder()));
+    return this._sortMethod.isAscending() ? totalCompare : totalCompare.reversed();
+  }
 
-    final Comparator<ProductModel> compare = Comparator.comparing(ProductModel::price);
-    final Comparator<ProductModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
+  @NonNull
+  private Comparator<ProductModel> _compareByName() {
+    final CollationKeyCache collationKeys = CollationKeyCache.instance();
+    return Comparator.comparing((ProductModel product) -> collationKeys.keyOf(product.name()));
+  }
 
-    final ArrayList<ProductModel> sortedProducts = new ArrayList<>(products);
-    sortedProducts.sort(comparator);
-    return sortedProducts;
+  @NonNull
+  private Comparator<ProductModel> _compareByPrice() {
+    return Comparator.comparing(ProductModel::price);
   }
 }
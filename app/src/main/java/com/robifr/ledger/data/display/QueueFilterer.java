@@ -24,6 +24,11 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Filter queues in-memory. The queues shown in the list are filtered by the database instead, see
+ * {@link com.robifr.ledger.local.access.QueueQuery}, while this one is kept as the fallback and
+ * the reference for what the query should result.
+ */
 public class QueueFilterer {
   @NonNull private QueueFilters _filters = QueueFilters.toBuilder().build();
 
@@ -41,15 +46,19 @@ public class QueueFilterer {
     Objects.requireNonNull(queues);
 
     return queues.stream()
-        .filter(
-            queue ->
-                !this._shouldFilteredOutByCustomerId(queue)
-                    && !this._shouldFilteredOutByStatus(queue)
-                    && !this._shouldFilteredOutByDate(queue)
-                    && !this._shouldFilteredOutByTotalPrice(queue))
+        .filter(queue -> !this.isFilteredOut(queue))
         .collect(Collectors.toList());
   }
 
+  public boolean isFilteredOut(@NonNull QueueModel queue) {
+    Objects.requireNonNull(queue);
+
+    return this._shouldFilteredOutByCustomerId(queue)
+        || this._shouldFilteredOutByStatus(queue)
+        || this._shouldFilteredOutByDate(queue)
+        || this._shouldFilteredOutByTotalPrice(queue);
+  }
+
   private boolean _shouldFilteredOutByCustomerId(@NonNull QueueModel queue) {
     Objects.requireNonNull(queue);
 
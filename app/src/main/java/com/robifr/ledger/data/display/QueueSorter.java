@@ -17,13 +17,10 @@
 package com.robifr.ledger.data.display;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.app.AppCompatDelegate;
 import com.robifr.ledger.data.model.QueueModel;
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 
 public class QueueSorter {
@@ -44,59 +41,45 @@ public class QueueSorter {
   public List<QueueModel> sort(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    return switch (this._sortMethod.sortBy()) {
-      case CUSTOMER_NAME -> this._sortByCustomerName(queues);
-      case DATE -> this._sortByDate(queues);
-      case TOTAL_PRICE -> this._sortByTotalPrice(queues);
-    };
-  }
-
-  @NonNull
-  private List<QueueModel> _sortByCustomerName(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
-
-    final Collator collator =
-        Collator.getInstance(
-            Locale.forLanguageTag(AppCompatDelegate.getApplicationLocales().toLanguageTags()));
-    collator.setStrength(Collator.SECONDARY);
-
-    final Comparator<String> compare = Comparator.nullsLast(collator);
-    final Comparator<String> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
-
     final ArrayList<QueueModel> sortedQueues = new ArrayList<>(queues);
-    sortedQueues.sort(
-        (a, b) -> {
-          final String first = a.customer() != null ? a.customer().name() : null;
-          final String second = b.customer() != null ? b.customer().name() : null;
-          return comparator.compare(first, second);
-        });
+    sortedQueues.sort(this.comparator());
     return sortedQueues;
   }
 
+  /**
+   * @return Comparator of the current sort method. Ties are broken by the ID, making it a total
+   *     order, so that the same queue always lands in the same position.
+   */
   @NonNull
-  private List<QueueModel> _sortByDate(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
-
-    final Comparator<QueueModel> compare = Comparator.comparing(QueueModel::date);
-    final Comparator<QueueModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
-
-    final ArrayList<QueueModel> sortedQueues = new ArrayList<>(queues);
-    sortedQueues.sort(comparator);
-    return sortedQueues;
+  public Comparator<QueueModel> comparator() {
+    final Comparator<QueueModel> compare =
+        switch (this._sortMethod.sortBy()) {
+          case CUSTOMER_NAME -> this._compareByCustomerName();
+          case DATE -> this._compareByDate();
+          case TOTAL_PRICE -> this._compareByTotalPrice();
+        };
+    final Comparator<QueueModel> totalCompare =
+        compare.thenComparing(QueueModel::id, Comparator.nullsLast(Comparator.naturalOrder()));
+    return this._sortMethod.isAscending() ? totalCompare : totalCompare.reversed();
   }
 
   @NonNull
-  private List<QueueModel> _sortByTotalPrice(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
+  private Comparator<QueueModel> _compareByCustomerName() {
+    final CollationKeyCache collationKeys = CollationKeyCache.instance();
+    // Queue without customer is placed last, or first when it's descending.
+    return Comparator.comparing(
+        (QueueModel queue) ->
+            queue.customer() != null ? collationKeys.keyOf(queue.customer().name()) : null,
+        Comparator.nullsLast(Comparator.naturalOrder()));
+  }
 
-    final Comparator<QueueModel> compare = Comparator.comparing(QueueModel::grandTotalPrice);
-    final Comparator<QueueModel> comparator =
-        this._sortMethod.isAscending() ? compare : compare.reversed();
+  @NonNull
+  private Comparator<QueueModel> _compareByDate() {
+    return Comparator.comparing(QueueModel::date);
+  }
 
-    final ArrayList<QueueModel> sortedQueues = new ArrayList<>(queues);
-    sortedQueues.sort(comparator);
-    return sortedQueues;
+  @NonNull
+  private Comparator<QueueModel> _compareByTotalPrice() {
+    return Comparator.comparing(QueueModel::grandTotalPrice);
   }
 }
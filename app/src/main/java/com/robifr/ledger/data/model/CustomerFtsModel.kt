@@ -19,10 +19,19 @@ package com.robifr.ledger.data.model
 import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.Fts4
+import androidx.room.FtsOptions
 import androidx.room.PrimaryKey
 
+/**
+ * Full-text index of [CustomerModel.name]. Its content is read from the `customer` table rather
+ * than being stored twice, while [com.robifr.ledger.local.trigger.NameFtsTrigger] keeps it in
+ * sync with triggers on the `customer` table.
+ */
 @JvmRecord
-@Fts4
+@Fts4(
+    contentEntity = CustomerModel::class,
+    tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+    tokenizerArgs = ["remove_diacritics=2"])
 @Entity(tableName = "customer_fts")
 data class CustomerFtsModel(
     @PrimaryKey @ColumnInfo(name = "rowid") val rowId: Long,
@@ -21,7 +21,9 @@ import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.Ignore
 import androidx.room.PrimaryKey
-import com.robifr.ledger.local.access.CustomerDao
+import androidx.room.TypeConverters
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter
+import com.robifr.ledger.local.trigger.CustomerDebtTrigger
 import java.math.BigDecimal
 import kotlinx.parcelize.Parcelize
 
@@ -31,8 +33,8 @@ import kotlinx.parcelize.Parcelize
  * @param name Product name.
  * @param balance Product balance.
  * @param debt Customer debt is stored as a negative number, by counting
- *   [ProductOrderModel.totalPrice] from queues whose status is [QueueModel.Status.UNPAID]. Use
- *   [CustomerDao.totalDebtById] to count current total debt.
+ *   [ProductOrderModel.totalPrice] from queues whose status is [QueueModel.Status.UNPAID]. The
+ *   column is maintained by [CustomerDebtTrigger], any value written into it will be recomputed.
  */
 @JvmRecord
 @Parcelize
@@ -41,11 +43,10 @@ data class CustomerModel(
     @PrimaryKey(autoGenerate = true) @ColumnInfo(name = "id") val id: Long? = null,
     @ColumnInfo(name = "name") val name: String,
     @ColumnInfo(name = "balance") val balance: Long = 0L,
-    @Ignore val debt: BigDecimal = 0.toBigDecimal()
+    @field:TypeConverters(MoneyConverter::class)
+    @ColumnInfo(name = "debt", defaultValue = "0")
+    val debt: BigDecimal = 0.toBigDecimal()
 ) : Model, Parcelable {
-  /** Reserved constructor to be used by Room upon querying. */
-  constructor(id: Long, name: String, balance: Long) : this(id, name, balance, 0.toBigDecimal())
-
   @Ignore override fun modelId(): Long? = id
 
   @Ignore fun withId(id: Long?): CustomerModel = copy(id = id)
@@ -63,7 +64,7 @@ data class CustomerModel(
   @Ignore
   fun isBalanceSufficient(oldQueue: QueueModel?, newQueue: QueueModel): Boolean {
     if (id != newQueue.customer?.id) return false
-    val oldTotalPrice: BigDecimal = oldQueue?.grandTotalPrice() ?: 0.toBigDecimal()
+    val oldTotalPrice: BigDecimal = oldQueue?.grandTotalPrice ?: 0.toBigDecimal()
     val originalBalance: BigDecimal =
         // Ensure customer is unchanged when they both exists.
         if (oldQueue?.customerId != null &&
@@ -74,7 +75,7 @@ data class CustomerModel(
         } else {
           balance.toBigDecimal()
         }
-    return (originalBalance - newQueue.grandTotalPrice()).compareTo(0.toBigDecimal()) >= 0
+    return (originalBalance - newQueue.grandTotalPrice).compareTo(0.toBigDecimal()) >= 0
   }
 
   /** Calculate balance when customer is assigned to pay a queue. */
@@ -83,8 +84,8 @@ data class CustomerModel(
       if (id == queue.customer?.id &&
           queue.status == QueueModel.Status.COMPLETED &&
           queue.paymentMethod == QueueModel.PaymentMethod.ACCOUNT_BALANCE &&
-          balance.toBigDecimal().compareTo(queue.grandTotalPrice()) >= 0) {
-        (balance.toBigDecimal() - queue.grandTotalPrice()).toLong()
+          balance.toBigDecimal().compareTo(queue.grandTotalPrice) >= 0) {
+        (balance.toBigDecimal() - queue.grandTotalPrice).toLong()
       } else {
         balance
       }
@@ -102,7 +103,7 @@ data class CustomerModel(
     val isPaymentAccountBalance: Boolean =
         newQueue.paymentMethod == QueueModel.PaymentMethod.ACCOUNT_BALANCE
     val isTotalPriceChanged: Boolean =
-        oldQueue.grandTotalPrice().compareTo(newQueue.grandTotalPrice()) != 0
+        oldQueue.grandTotalPrice.compareTo(newQueue.grandTotalPrice) != 0
 
     val isStatusWasCompleted: Boolean = oldQueue.status == QueueModel.Status.COMPLETED
     val isPaymentWasAccountBalance: Boolean =
@@ -124,8 +125,8 @@ data class CustomerModel(
           isOldQueueHaveCustomer &&
           !isCustomerSwitched) {
         return (balance.toBigDecimal() +
-                oldQueue.grandTotalPrice() - // Revert balance from old queue to obtain old balance.
-                newQueue.grandTotalPrice()) // Then subtract to deduct it again with the new one.
+                oldQueue.grandTotalPrice - // Revert balance from old queue to obtain old balance.
+                newQueue.grandTotalPrice) // Then subtract to deduct it again with the new one.
             .toLong()
         // Case when status simply switched from uncompleted to completed
         // or when old payment is non account balance,
@@ -135,7 +136,7 @@ data class CustomerModel(
           !isOldQueueHaveCustomer ||
           !isStatusWasCompleted ||
           !isPaymentWasAccountBalance) {
-        return (balance.toBigDecimal() - newQueue.grandTotalPrice()).toLong()
+        return (balance.toBigDecimal() - newQueue.grandTotalPrice).toLong()
       }
       // Revert balance.
     } else if (isOldQueueHaveCustomer &&
@@ -146,7 +147,7 @@ data class CustomerModel(
         // while payment method still saved as account balance.
         // Or when payment simply switched to cash.
         ((isPaymentAccountBalance && !isStatusCompleted) || isPaymentCash)) {
-      return (balance.toBigDecimal() + oldQueue.grandTotalPrice()).toLong()
+      return (balance.toBigDecimal() + oldQueue.grandTotalPrice).toLong()
     }
     return balance
   }
@@ -157,7 +158,7 @@ data class CustomerModel(
       if (id == queue.customer?.id &&
           queue.status == QueueModel.Status.COMPLETED &&
           queue.paymentMethod == QueueModel.PaymentMethod.ACCOUNT_BALANCE) {
-        (balance.toBigDecimal() + queue.grandTotalPrice()).toLong()
+        (balance.toBigDecimal() + queue.grandTotalPrice).toLong()
       } else {
         balance
       }
@@ -166,7 +167,7 @@ data class CustomerModel(
   @Ignore
   fun debtOnMadePayment(queue: QueueModel): BigDecimal =
       if (id == queue.customer?.id && queue.status == QueueModel.Status.UNPAID) {
-        debt - queue.grandTotalPrice()
+        debt - queue.grandTotalPrice
       } else {
         debt
       }
@@ -183,21 +184,21 @@ data class CustomerModel(
     val isStatusUnpaid: Boolean = newQueue.status == QueueModel.Status.UNPAID
     val isStatusWasUnpaid: Boolean = oldQueue.status == QueueModel.Status.UNPAID
     val isTotalPriceChanged: Boolean =
-        oldQueue.grandTotalPrice().compareTo(newQueue.grandTotalPrice()) != 0
+        oldQueue.grandTotalPrice.compareTo(newQueue.grandTotalPrice) != 0
     // Customer is CHANGED when its from non-null to non-null or null to non-null ID.
     // Don't accept for null to null ID.
     val isCustomerChanged: Boolean = id != null && id != oldQueue.customerId
 
     // Revert debt when changing queue status from unpaid to others.
     if (!isStatusUnpaid && isStatusWasUnpaid && (!isCustomerChanged || isTotalPriceChanged)) {
-      return debt + oldQueue.grandTotalPrice()
+      return debt + oldQueue.grandTotalPrice
       // Add more debt when changing queue status from others to unpaid.
     } else if (isStatusUnpaid && (!isStatusWasUnpaid || isCustomerChanged)) {
-      return debt - newQueue.grandTotalPrice()
+      return debt - newQueue.grandTotalPrice
       // Add more debt when queue total price changed by
       // calculating difference between old and new total price.
     } else if (isStatusUnpaid && isTotalPriceChanged) {
-      return debt + oldQueue.grandTotalPrice() - newQueue.grandTotalPrice()
+      return debt + oldQueue.grandTotalPrice - newQueue.grandTotalPrice
     }
     return debt
   }
@@ -206,7 +207,7 @@ data class CustomerModel(
   @Ignore
   fun debtOnRevertedPayment(queue: QueueModel): BigDecimal =
       if (id == queue.customer?.id && queue.status == QueueModel.Status.UNPAID) {
-        debt + queue.grandTotalPrice()
+        debt + queue.grandTotalPrice
       } else {
         debt
       }
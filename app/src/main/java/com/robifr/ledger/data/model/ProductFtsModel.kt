@@ -19,10 +19,19 @@ package com.robifr.ledger.data.model
 import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.Fts4
+import androidx.room.FtsOptions
 import androidx.room.PrimaryKey
 
+/**
+ * Full-text index of [ProductModel.name]. Its content is read from the `product` table rather
+ * than being stored twice, while [com.robifr.ledger.local.trigger.NameFtsTrigger] keeps it in
+ * sync with triggers on the `product` table.
+ */
 @JvmRecord
-@Fts4
+@Fts4(
+    contentEntity = ProductModel::class,
+    tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+    tokenizerArgs = ["remove_diacritics=2"])
 @Entity(tableName = "product_fts")
 data class ProductFtsModel(
     @PrimaryKey @ColumnInfo(name = "rowid") val rowId: Long,
@@ -28,6 +28,8 @@ import androidx.room.PrimaryKey
 import androidx.room.TypeConverters
 import com.robifr.ledger.R
 import com.robifr.ledger.local.ColumnConverter.InstantConverter
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter
+import com.robifr.ledger.local.trigger.QueueTotalTrigger
 import java.math.BigDecimal
 import java.time.Instant
 import kotlinx.parcelize.Parcelize
@@ -41,6 +43,11 @@ import kotlinx.parcelize.Parcelize
  * @param paymentMethod Queue payment method.
  * @param customer Referenced customer instance if [customerId] available.
  * @param productOrders List of referenced ordered products.
+ * @param grandTotalPrice Sum of [ProductOrderModel.totalPrice] from [productOrders]. It's persisted
+ *   and maintained by [QueueTotalTrigger], so that it's available without the product orders being
+ *   loaded.
+ * @param totalDiscount Sum of [ProductOrderModel.discount] from [productOrders]. Persisted the same
+ *   way as [grandTotalPrice].
  */
 @JvmRecord
 @Parcelize
@@ -54,7 +61,12 @@ import kotlinx.parcelize.Parcelize
                 childColumns = ["customer_id"],
                 onUpdate = ForeignKey.CASCADE,
                 onDelete = ForeignKey.SET_NULL)],
-    indices = [Index(value = ["customer_id"])])
+    indices =
+        [
+            Index(value = ["date"]),
+            Index(value = ["status", "date"]),
+            Index(value = ["customer_id", "status"]),
+            Index(value = ["grand_total"])])
 data class QueueModel(
     @PrimaryKey(autoGenerate = true) @ColumnInfo(name = "id") val id: Long? = null,
     @ColumnInfo(name = "customer_id") val customerId: Long? = null,
@@ -62,7 +74,13 @@ data class QueueModel(
     @field:TypeConverters(InstantConverter::class) @ColumnInfo(name = "date") val date: Instant,
     @ColumnInfo(name = "payment_method") val paymentMethod: PaymentMethod,
     @Ignore val customer: CustomerModel? = null,
-    @Ignore val productOrders: List<ProductOrderModel> = listOf()
+    @Ignore val productOrders: List<ProductOrderModel> = listOf(),
+    @field:TypeConverters(MoneyConverter::class)
+    @ColumnInfo(name = "grand_total", defaultValue = "0")
+    val grandTotalPrice: BigDecimal = productOrders.sumOf { it.totalPrice },
+    @field:TypeConverters(MoneyConverter::class)
+    @ColumnInfo(name = "total_discount", defaultValue = "0")
+    val totalDiscount: BigDecimal = productOrders.sumOf { it.discount.toBigDecimal() }
 ) : Model, Parcelable {
   /** Reserved constructor to be used by Room upon querying. */
   constructor(
@@ -70,8 +88,11 @@ data class QueueModel(
       customerId: Long?,
       status: Status,
       date: Instant,
-      paymentMethod: PaymentMethod
-  ) : this(id, customerId, status, date, paymentMethod, null, listOf())
+      paymentMethod: PaymentMethod,
+      grandTotalPrice: BigDecimal,
+      totalDiscount: BigDecimal
+  ) : this(
+      id, customerId, status, date, paymentMethod, null, listOf(), grandTotalPrice, totalDiscount)
 
   @Ignore override fun modelId(): Long? = id
 
@@ -91,11 +112,10 @@ data class QueueModel(
 
   @Ignore
   fun withProductOrders(productOrders: List<ProductOrderModel>): QueueModel =
-      copy(productOrders = productOrders)
-
-  @Ignore fun grandTotalPrice(): BigDecimal = productOrders.sumOf { it.totalPrice }
-
-  @Ignore fun totalDiscount(): BigDecimal = productOrders.sumOf { it.discount.toBigDecimal() }
+      copy(
+          productOrders = productOrders,
+          grandTotalPrice = productOrders.sumOf { it.totalPrice },
+          totalDiscount = productOrders.sumOf { it.discount.toBigDecimal() })
 
   companion object {
     @JvmStatic fun toBuilder(): StatusBuild = Builder()
@@ -14,18 +14,13 @@
  * limitations under the License.
  */
 
-package com.robifr.ledger.ui.dashboard.viewmodel;
+package com.robifr.ledger.data.model
 
-import androidx.annotation.NonNull;
-import com.robifr.ledger.data.model.Info;
-import com.robifr.ledger.data.model.Model;
-import java.util.List;
-import java.util.function.Function;
-
-interface InfoUpdaterFunction<M extends Model, I extends Info> {
-  @NonNull
-  public List<I> apply(
-      @NonNull List<M> models,
-      @NonNull List<I> oldInfo,
-      @NonNull Function<M, I> modelToInfoConverter);
+/**
+ * @param id ID of the customer or product.
+ * @param usage Number of the queues of the customer, or the product orders of the product.
+ */
+@JvmRecord
+data class UsageInfo(val id: Long?, val usage: Int) : Info {
+  override fun modelId(): Long? = id
 }
@@ -16,11 +16,13 @@
 
 package com.robifr.ledger.di
 
+import com.robifr.ledger.local.DatabaseExecutor
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
 import dagger.hilt.components.SingletonComponent
 import javax.inject.Qualifier
+import javax.inject.Singleton
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.Dispatchers
 
@@ -28,6 +30,10 @@ import kotlinx.coroutines.Dispatchers
 @InstallIn(SingletonComponent::class)
 object DispatcherModule {
   @Provides @IoDispatcher fun provideIoDispatcher(): CoroutineDispatcher = Dispatchers.IO
+
+  @Provides
+  @Singleton
+  fun provideDatabaseExecutor(): DatabaseExecutor = DatabaseExecutor.instance()
 }
 
 @Qualifier @Retention(AnnotationRetention.BINARY) annotation class IoDispatcher
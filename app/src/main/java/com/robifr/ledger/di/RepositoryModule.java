@@ -18,6 +18,7 @@ package com.robifr.ledger.di;
 
 import android.content.Context;
 import androidx.annotation.NonNull;
+import com.robifr.ledger.local.DatabaseExecutor;
 import com.robifr.ledger.repository.CustomerRepository;
 import com.robifr.ledger.repository.ProductOrderRepository;
 import com.robifr.ledger.repository.ProductRepository;
@@ -36,35 +37,41 @@ public class RepositoryModule {
   @NonNull
   @Provides
   public CustomerRepository provideCustomerRepository(
-      @NonNull @ApplicationContext Context context) {
+      @NonNull @ApplicationContext Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
-    return CustomerRepository.instance(context);
+    return CustomerRepository.instance(context, executor);
   }
 
   @NonNull
   @Provides
-  public ProductRepository provideProductRepository(@NonNull @ApplicationContext Context context) {
+  public ProductRepository provideProductRepository(
+      @NonNull @ApplicationContext Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
-    return ProductRepository.instance(context);
+    return ProductRepository.instance(context, executor);
   }
 
   @NonNull
   @Provides
   public ProductOrderRepository provideProductOrderRepository(
-      @NonNull @ApplicationContext Context context) {
+      @NonNull @ApplicationContext Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
-    return ProductOrderRepository.instance(context);
+    return ProductOrderRepository.instance(context, executor);
   }
 
   @NonNull
   @Provides
-  public QueueRepository provideQueueRepository(@NonNull @ApplicationContext Context context) {
+  public QueueRepository provideQueueRepository(
+      @NonNull @ApplicationContext Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
-    return QueueRepository.instance(context);
+    return QueueRepository.instance(context, executor);
   }
 
   @NonNull
@@ -18,76 +18,69 @@ package com.robifr.ledger.local;
 
 import androidx.annotation.NonNull;
 import androidx.room.TypeConverter;
-import androidx.room.TypeConverters;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.Objects;
 
 public class ColumnConverter {
   private ColumnConverter() {}
 
+  /**
+   * Date is stored as milliseconds since the epoch, so that it's compared and sorted as a number.
+   * Precision beyond milliseconds is truncated.
+   */
   public static class InstantConverter {
     @NonNull
     @TypeConverter
-    public static Instant toInstant(@NonNull String date) {
-      Objects.requireNonNull(date);
-
-      return Instant.parse(date);
+    public static Instant toInstant(long epochMilli) {
+      return Instant.ofEpochMilli(epochMilli);
     }
 
-    @NonNull
     @TypeConverter
-    public static String fromInstant(@NonNull Instant date) {
+    public static long fromInstant(@NonNull Instant date) {
       Objects.requireNonNull(date);
 
-      return date.toString();
-    }
-  }
-
-  public static class BigDecimalConverter {
-    @NonNull
-    @TypeConverter
-    public static BigDecimal toBigDecimal(@NonNull String number) {
-      Objects.requireNonNull(number);
-
-      return new BigDecimal(number);
-    }
-
-    @NonNull
-    @TypeConverter
-    public static String fromBigDecimal(@NonNull BigDecimal number) {
-      Objects.requireNonNull(number);
-
-      return number.toString();
+      return date.toEpochMilli();
     }
   }
 
   /**
-   * @apiNote This converter can't be used along with {@link TypeConverters} annotation. You have to
-   *     manually convert the string before inserting them as FTS row.
+   * Money is stored as a 64-bit integer of minor units, that is the amount multiplied by {@code
+   * 10^}{@link #SCALE}. Unlike a decimal string, SQLite can sum, compare and index it exactly.
    */
-  public static class FtsStringConverter {
+  public static class MoneyConverter {
     /**
-     * Adding whitespace after character except when the character is whitespace itself. Because FTS
-     * will only search by prefix, so that every single character could be a prefix. e.g. Assuming
-     * {@code _} is a whitespace, {@code "abc_def"} becomes {@code "a_b_c__d_e_f_"}.
+     * Number of fraction digits kept in the database. Matches the most digits that can be
+     * displayed by {@link com.robifr.ledger.util.CurrencyFormat}, anything beyond is rounded.
      */
-    @NonNull
-    public static String toFtsSpacedString(@NonNull String str) {
-      Objects.requireNonNull(str);
+    public static final int SCALE = 5;
 
-      return str.replaceAll("(?<=.)(?<![$\\s])", " ");
-    }
+    /** Value of a single major unit in minor units, e.g. the stored value of {@code 1}. */
+    public static final long UNIT = BigDecimal.ONE.scaleByPowerOfTen(SCALE).longValueExact();
 
     /**
-     * Remove whitespace after character except when the character is whitespace itself. e.g.
-     * Assuming {@code _} is a whitespace, {@code "a_b_c__d_e_f_"} becomes {@code "abc_def"}.
+     * Amount is always read with the scale of {@link #SCALE}, so that {@link BigDecimal#equals}
+     * holds between any two amounts read from the database. Use {@link BigDecimal#compareTo} when
+     * comparing it with an amount that hasn't been stored yet.
      */
     @NonNull
-    public static String fromFtsSpacedString(@NonNull String str) {
-      Objects.requireNonNull(str);
+    @TypeConverter
+    public static BigDecimal toBigDecimal(long minorUnits) {
+      return BigDecimal.valueOf(minorUnits, MoneyConverter.SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException If the amount doesn't fit in 64-bit integer of minor units.
+     */
+    @TypeConverter
+    public static long fromBigDecimal(@NonNull BigDecimal number) {
+      Objects.requireNonNull(number);
 
-      return str.replaceAll("\\s(?=\\S|$)", "");
+      return number
+          .setScale(MoneyConverter.SCALE, RoundingMode.HALF_UP)
+          .unscaledValue()
+          .longValueExact();
     }
   }
 }
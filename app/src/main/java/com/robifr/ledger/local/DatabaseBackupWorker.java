@@ -0,0 +1,85 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local;
+
+import android.content.Context;
+import android.os.Environment;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/** Background task to run {@link LocalDatabase#backup()}, periodically and on demand. */
+public class DatabaseBackupWorker extends Worker {
+  @NonNull private static final String _PERIODIC_WORK_NAME = "database_backup_periodic";
+  @NonNull private static final String _ONE_TIME_WORK_NAME = "database_backup_one_time";
+  private static final long _REPEAT_INTERVAL_HOURS = 6L;
+
+  public DatabaseBackupWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+    super(context, params);
+  }
+
+  /** Schedule the periodic backup, unless it's already scheduled. */
+  public static void schedule(@NonNull Context context) {
+    Objects.requireNonNull(context);
+
+    WorkManager.getInstance(context)
+        .enqueueUniquePeriodicWork(
+            DatabaseBackupWorker._PERIODIC_WORK_NAME,
+            ExistingPeriodicWorkPolicy.KEEP,
+            new PeriodicWorkRequest.Builder(
+                    DatabaseBackupWorker.class,
+                    DatabaseBackupWorker._REPEAT_INTERVAL_HOURS,
+                    TimeUnit.HOURS)
+                .setConstraints(
+                    new Constraints.Builder().setRequiresStorageNotLow(true).build())
+                .build());
+  }
+
+  /** Run the backup as soon as possible. Requests made while one is pending are merged. */
+  public static void backupNow(@NonNull Context context) {
+    Objects.requireNonNull(context);
+
+    WorkManager.getInstance(context)
+        .enqueueUniqueWork(
+            DatabaseBackupWorker._ONE_TIME_WORK_NAME,
+            ExistingWorkPolicy.KEEP,
+            OneTimeWorkRequest.from(DatabaseBackupWorker.class));
+  }
+
+  @NonNull
+  @Override
+  public Result doWork() {
+    // Nothing to do until the user grants the permission.
+    if (!Environment.isExternalStorageManager()) return Result.success();
+
+    try {
+      LocalDatabase.instance(this.getApplicationContext()).backup();
+      return Result.success();
+    } catch (IOException e) {
+      return Result.retry();
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executors dedicated to the database work, so that it doesn't compete with the common fork-join
+ * pool used by parallel streams. Reads are spread across a bounded pool while writes are
+ * serialized on a single thread, matching SQLite which only allows one writer at a time.
+ *
+ * <p>Continuations chained after a database future, such as notifying the listeners, should use
+ * {@link #continuation()}. In the inline mode they run on the thread completing the previous stage
+ * instead of hopping to another one.
+ */
+public final class DatabaseExecutor {
+  private static final long _READER_KEEP_ALIVE_SECONDS = 30L;
+  @Nullable private static DatabaseExecutor _instance;
+  @NonNull private final InstrumentedExecutor _reader;
+  @NonNull private final InstrumentedExecutor _writer;
+  private final boolean _isInlineContinuation;
+  @Nullable private volatile TaskListener _taskListener;
+
+  /**
+   * @param readerCount Maximum number of threads to read with.
+   * @param isInlineContinuation Whether to run continuations on the thread completing the previous
+   *     stage. Otherwise they're queued to the reader pool.
+   */
+  public DatabaseExecutor(int readerCount, boolean isInlineContinuation) {
+    if (readerCount <= 0) throw new IllegalArgumentException("Reader count must be positive");
+
+    this._reader = new InstrumentedExecutor(Kind.READER, readerCount);
+    this._writer = new InstrumentedExecutor(Kind.WRITER, 1);
+    this._isInlineContinuation = isInlineContinuation;
+  }
+
+  @NonNull
+  public static synchronized DatabaseExecutor instance() {
+    return DatabaseExecutor._instance =
+        DatabaseExecutor._instance == null
+            ? new DatabaseExecutor(
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), true)
+            : DatabaseExecutor._instance;
+  }
+
+  /**
+   * @return Executor for queries which don't modify the database.
+   */
+  @NonNull
+  public Executor reader() {
+    return this._reader;
+  }
+
+  /**
+   * @return Executor for inserts, updates and deletes. Tasks run one at a time in the order they
+   *     were submitted.
+   */
+  @NonNull
+  public Executor writer() {
+    return this._writer;
+  }
+
+  /**
+   * @return Executor for stages chained after a database future. Those stages must not block, as
+   *     in the inline mode they could run on a database thread, or on the calling thread when the
+   *     previous stage has already completed.
+   */
+  @NonNull
+  public Executor continuation() {
+    return this._isInlineContinuation ? Runnable::run : this._reader;
+  }
+
+  /**
+   * Run a query which doesn't modify the database.
+   *
+   * @see #reader()
+   */
+  @NonNull
+  public <T> CompletableFuture<T> read(@NonNull Supplier<T> query) {
+    Objects.requireNonNull(query);
+
+    return CompletableFuture.supplyAsync(query, this._reader);
+  }
+
+  /**
+   * Run a query which modifies the database.
+   *
+   * @see #writer()
+   */
+  @NonNull
+  public <T> CompletableFuture<T> write(@NonNull Supplier<T> query) {
+    Objects.requireNonNull(query);
+
+    return CompletableFuture.supplyAsync(query, this._writer);
+  }
+
+  public boolean isInlineContinuation() {
+    return this._isInlineContinuation;
+  }
+
+  /**
+   * @param listener Listener to be notified after each task, or null to remove it. It's invoked on
+   *     the thread executing the task, so it must return quickly.
+   */
+  public void setTaskListener(@Nullable TaskListener listener) {
+    this._taskListener = listener;
+  }
+
+  @NonNull
+  public Stats stats(@NonNull Kind kind) {
+    Objects.requireNonNull(kind);
+
+    return switch (kind) {
+      case READER -> this._reader.stats();
+      case WRITER -> this._writer.stats();
+    };
+  }
+
+  public enum Kind {
+    READER,
+    WRITER
+  }
+
+  /**
+   * @param queueDepth Number of tasks still waiting in the queue when this task was started.
+   * @param waitNanos Time between the task being submitted and started.
+   * @param executionNanos Time the task took to run.
+   */
+  public record TaskMetrics(
+      @NonNull Kind kind, int queueDepth, long waitNanos, long executionNanos) {}
+
+  /**
+   * Accumulated metrics of the tasks completed so far.
+   *
+   * @param queueDepth Number of tasks currently waiting in the queue.
+   * @param maxQueueDepth Highest number of tasks ever waiting in the queue.
+   */
+  public record Stats(
+      long taskCount,
+      int queueDepth,
+      int maxQueueDepth,
+      long totalWaitNanos,
+      long maxWaitNanos,
+      long totalExecutionNanos,
+      long maxExecutionNanos) {
+    public long averageWaitNanos() {
+      return this.taskCount == 0L ? 0L : this.totalWaitNanos / this.taskCount;
+    }
+
+    public long averageExecutionNanos() {
+      return this.taskCount == 0L ? 0L : this.totalExecutionNanos / this.taskCount;
+    }
+  }
+
+  @FunctionalInterface
+  public interface TaskListener {
+    void onTaskCompleted(@NonNull TaskMetrics metrics);
+  }
+
+  private final class InstrumentedExecutor implements Executor {
+    @NonNull private final Kind _kind;
+    @NonNull private final ThreadPoolExecutor _executor;
+    @NonNull private final AtomicInteger _queueDepth = new AtomicInteger();
+    @NonNull private final AtomicInteger _maxQueueDepth = new AtomicInteger();
+    @NonNull private final LongAdder _taskCount = new LongAdder();
+    @NonNull private final LongAdder _totalWaitNanos = new LongAdder();
+    @NonNull private final AtomicLong _maxWaitNanos = new AtomicLong();
+    @NonNull private final LongAdder _totalExecutionNanos = new LongAdder();
+    @NonNull private final AtomicLong _maxExecutionNanos = new AtomicLong();
+
+    private InstrumentedExecutor(@NonNull Kind kind, int threadCount) {
+      this._kind = Objects.requireNonNull(kind);
+      this._executor =
+          new ThreadPoolExecutor(
+              threadCount,
+              threadCount,
+              DatabaseExecutor._READER_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              this._threadFactory());
+      // Only the readers shrink when idle, a single writer thread is cheap to keep.
+      this._executor.allowCoreThreadTimeOut(kind == Kind.READER);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      Objects.requireNonNull(command);
+
+      final long submittedAt = System.nanoTime();
+      this._maxQueueDepth.accumulateAndGet(this._queueDepth.incrementAndGet(), Math::max);
+      this._executor.execute(
+          () -> {
+            final int queueDepth = this._queueDepth.decrementAndGet();
+            final long startedAt = System.nanoTime();
+
+            try {
+              command.run();
+            } finally {
+              this._complete(queueDepth, startedAt - submittedAt, System.nanoTime() - startedAt);
+            }
+          });
+    }
+
+    @NonNull
+    private Stats stats() {
+      return new Stats(
+          this._taskCount.sum(),
+          this._queueDepth.get(),
+          this._maxQueueDepth.get(),
+          this._totalWaitNanos.sum(),
+          this._maxWaitNanos.get(),
+          this._totalExecutionNanos.sum(),
+          this._maxExecutionNanos.get());
+    }
+
+    private void _complete(int queueDepth, long waitNanos, long executionNanos) {
+      this._taskCount.increment();
+      this._totalWaitNanos.add(waitNanos);
+      this._maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      this._totalExecutionNanos.add(executionNanos);
+      this._maxExecutionNanos.accumulateAndGet(executionNanos, Math::max);
+
+      final TaskListener listener = DatabaseExecutor.this._taskListener;
+      if (listener != null) {
+        listener.onTaskCompleted(
+            new TaskMetrics(this._kind, queueDepth, waitNanos, executionNanos));
+      }
+    }
+
+    @NonNull
+    private ThreadFactory _threadFactory() {
+      final AtomicInteger threadNumber = new AtomicInteger();
+      final String prefix = "database-" + this._kind.name().toLowerCase(Locale.ROOT) + "-";
+      return runnable -> {
+        final Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+}
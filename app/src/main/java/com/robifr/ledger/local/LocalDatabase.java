@@ -20,9 +20,11 @@ import android.content.Context;
 import android.os.Environment;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.robifr.ledger.data.model.CustomerFtsModel;
 import com.robifr.ledger.data.model.CustomerModel;
@@ -34,7 +36,19 @@ import com.robifr.ledger.local.access.CustomerDao;
 import com.robifr.ledger.local.access.ProductDao;
 import com.robifr.ledger.local.access.ProductOrderDao;
 import com.robifr.ledger.local.access.QueueDao;
+import com.robifr.ledger.local.migration.Migration1To2;
+import com.robifr.ledger.local.migration.Migration2To3;
+import com.robifr.ledger.local.migration.Migration3To4;
+import com.robifr.ledger.local.migration.Migration4To5;
+import com.robifr.ledger.local.migration.Migration5To6;
+import com.robifr.ledger.local.migration.Migration6To7;
+import com.robifr.ledger.local.trigger.CustomerDebtTrigger;
+import com.robifr.ledger.local.trigger.NameFtsTrigger;
+import com.robifr.ledger.local.trigger.QueueTotalTrigger;
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Database(
@@ -46,9 +60,9 @@ import java.util.Objects;
       ProductModel.class,
       ProductFtsModel.class
     },
-    version = 1)
+    version = 7)
 public abstract class LocalDatabase extends RoomDatabase {
-  @NonNull private static final String _DATA_PATH = LocalDatabase.fileDir() + "/data.db";
+  @NonNull private static final String _DATA_NAME = "data.db";
   @Nullable private static LocalDatabase _instance;
 
   @NonNull
@@ -57,26 +71,92 @@ public abstract class LocalDatabase extends RoomDatabase {
 
     return LocalDatabase._instance =
         LocalDatabase._instance == null
-            ? Room.databaseBuilder(
-                    context.getApplicationContext(), LocalDatabase.class, LocalDatabase._DATA_PATH)
+            ? StorageProfile.DEFAULT
+                .applyTo(
+                    Room.databaseBuilder(
+                        context.getApplicationContext(),
+                        LocalDatabase.class,
+                        LocalDatabase._DATA_NAME))
+                .openHelperFactory(
+                    new RelocatingOpenHelperFactory(
+                        new File(LocalDatabase._fileDirPath(), LocalDatabase._DATA_NAME)))
                 .addCallback(new Callback())
-                .fallbackToDestructiveMigration()
+                .addMigrations(LocalDatabase.migrations())
                 .build()
             : LocalDatabase._instance;
   }
 
+  /**
+   * @return Migrations to upgrade the database from any previous version to the current one.
+   */
+  @NonNull
+  public static Migration[] migrations() {
+    return new Migration[] {
+      new Migration1To2(),
+      new Migration2To3(),
+      new Migration3To4(),
+      new Migration4To5(),
+      new Migration5To6(),
+      new Migration6To7()
+    };
+  }
+
+  /**
+   * @return Directory on shared storage where the database is backed up, see {@link #backup()}.
+   *     Null if the directory can't be created.
+   */
   @Nullable
   public static String fileDir() {
-    final String directory =
-        Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS)
-                .getAbsolutePath()
-            + "/.ledger";
+    final String directory = LocalDatabase._fileDirPath();
     final File dir = new File(directory);
 
     if (!dir.exists() && !dir.mkdirs()) return null;
     return directory;
   }
 
+  /**
+   * Copy a consistent snapshot of the database into {@link #fileDir()}, where the user can access
+   * it. The live database is kept on internal storage, so that it doesn't pay the latency of
+   * shared storage on every read and write. The snapshot is written with {@code VACUUM INTO} into a
+   * temporary file, which then replaces the previous backup.
+   *
+   * @throws IOException If the directory isn't accessible or the previous backup can't be
+   *     replaced.
+   */
+  @WorkerThread
+  public void backup() throws IOException {
+    final String directory = LocalDatabase.fileDir();
+    if (directory == null) throw new IOException("Backup directory is inaccessible");
+
+    final File file = new File(directory, LocalDatabase._DATA_NAME);
+    final File tempFile = new File(directory, LocalDatabase._DATA_NAME + ".tmp");
+
+    if (tempFile.exists() && !tempFile.delete()) {
+      throw new IOException("Failed to delete file: " + tempFile);
+    }
+
+    this.getOpenHelper()
+        .getWritableDatabase()
+        .execSQL("VACUUM INTO ?", new Object[] {tempFile.getPath()});
+    // Leftover journal of the previous file would be replayed into the new one.
+    for (String suffix : List.of("-wal", "-shm", "-journal")) {
+      final File journal = new File(directory, LocalDatabase._DATA_NAME + suffix);
+      if (journal.exists() && !journal.delete()) {
+        throw new IOException("Failed to delete file: " + journal);
+      }
+    }
+
+    if (!tempFile.renameTo(file)) throw new IOException("Failed to move file: " + tempFile);
+  }
+
+  /**
+   * @return Storage settings currently in effect, see {@link StorageProfile#diagnostics}.
+   */
+  @NonNull
+  public Map<String, String> storageDiagnostics() {
+    return StorageProfile.diagnostics(this.getOpenHelper().getWritableDatabase());
+  }
+
   /**
    * @noinspection NullableProblems
    */
@@ -101,12 +181,26 @@ public abstract class LocalDatabase extends RoomDatabase {
   @NonNull
   public abstract ProductDao productDao();
 
+  @NonNull
+  private static String _fileDirPath() {
+    return Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS)
+            .getAbsolutePath()
+        + "/.ledger";
+  }
+
   public static class Callback extends RoomDatabase.Callback {
     @Override
     public void onCreate(@NonNull SupportSQLiteDatabase db) {
-      // Rebuild FTS index.
-      db.execSQL("INSERT INTO customer_fts(customer_fts) VALUES ('rebuild')");
+      CustomerDebtTrigger.create(db);
+      QueueTotalTrigger.create(db);
       super.onCreate(db);
     }
+
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+      // Called after both the creation and migrations, where Room recreates its FTS triggers.
+      NameFtsTrigger.create(db);
+      super.onOpen(db);
+    }
   }
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Environment;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Open helper which moves the database from its legacy location into the path opened by Room,
+ * right before the database is opened for the first time. The legacy file is left untouched, as
+ * it's then used as the location of {@link LocalDatabase#backup()}.
+ */
+public class RelocatingOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+  @NonNull private final File _legacyFile;
+
+  @NonNull
+  private final SupportSQLiteOpenHelper.Factory _delegate = new FrameworkSQLiteOpenHelperFactory();
+
+  public RelocatingOpenHelperFactory(@NonNull File legacyFile) {
+    this._legacyFile = Objects.requireNonNull(legacyFile);
+  }
+
+  @NonNull
+  @Override
+  public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration config) {
+    Objects.requireNonNull(config);
+
+    return new OpenHelper(
+        this._delegate.create(config),
+        config.context.getDatabasePath(Objects.requireNonNull(config.name)),
+        this._legacyFile);
+  }
+
+  private static class OpenHelper implements SupportSQLiteOpenHelper {
+    @NonNull private final SupportSQLiteOpenHelper _delegate;
+    @NonNull private final File _file;
+    @NonNull private final File _legacyFile;
+    private boolean _isRelocated = false;
+
+    private OpenHelper(
+        @NonNull SupportSQLiteOpenHelper delegate, @NonNull File file, @NonNull File legacyFile) {
+      this._delegate = Objects.requireNonNull(delegate);
+      this._file = Objects.requireNonNull(file);
+      this._legacyFile = Objects.requireNonNull(legacyFile);
+    }
+
+    @Nullable
+    @Override
+    public String getDatabaseName() {
+      return this._delegate.getDatabaseName();
+    }
+
+    @Override
+    public void setWriteAheadLoggingEnabled(boolean isEnabled) {
+      this._delegate.setWriteAheadLoggingEnabled(isEnabled);
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteDatabase getWritableDatabase() {
+      this._relocate();
+      return this._delegate.getWritableDatabase();
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteDatabase getReadableDatabase() {
+      this._relocate();
+      return this._delegate.getReadableDatabase();
+    }
+
+    @Override
+    public void close() {
+      this._delegate.close();
+    }
+
+    /**
+     * Copy the legacy database when there's no database yet on the current location. The copy is
+     * done with {@code VACUUM INTO}, which reads a consistent snapshot including transactions still
+     * in the write-ahead log. It's renamed once complete, so that an interrupted copy is retried on
+     * the next open rather than leaving a partial database.
+     *
+     * @throws IllegalStateException If the storage permission isn't granted while there's no
+     *     database yet, since the legacy database can't be told apart from a fresh install.
+     */
+    private synchronized void _relocate() {
+      if (this._isRelocated) return;
+      if (this._file.exists()) {
+        this._isRelocated = true;
+        return;
+      }
+
+      if (!Environment.isExternalStorageManager()) {
+        throw new IllegalStateException(
+            "Storage permission is required to look for the database on its legacy location");
+      }
+
+      if (this._legacyFile.exists()) {
+        final File parent = Objects.requireNonNull(this._file.getParentFile());
+        final File tempFile = new File(parent, this._file.getName() + ".tmp");
+
+        if (!parent.exists() && !parent.mkdirs()) {
+          throw new IllegalStateException("Failed to create directory: " + parent);
+        }
+
+        if (tempFile.exists() && !tempFile.delete()) {
+          throw new IllegalStateException("Failed to delete file: " + tempFile);
+        }
+
+        try (final SQLiteDatabase legacyDb =
+            SQLiteDatabase.openDatabase(
+                this._legacyFile.getPath(), null, SQLiteDatabase.OPEN_READWRITE)) {
+          legacyDb.execSQL("VACUUM INTO ?", new Object[] {tempFile.getPath()});
+        }
+
+        if (!tempFile.renameTo(this._file)) {
+          throw new IllegalStateException("Failed to move file: " + tempFile);
+        }
+      }
+
+      this._isRelocated = true;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * SQLite settings applied when the database is opened. Journal mode is applied database-wide
+ * through Room, while the rest are pragmas applied to every connection, including the ones read
+ * with under write-ahead logging.
+ *
+ * @param isWriteAheadLogging Whether to use write-ahead logging journal, where reads aren't blocked
+ *     by a write. Otherwise the rollback journal is truncated after each transaction.
+ * @param mmapSize Maximum bytes of the database file to be read through memory-mapped I/O. Zero to
+ *     disable it. SQLite caps it to the limit it was compiled with.
+ * @param cacheSize Page cache size in kibibytes.
+ * @param synchronous How often SQLite waits for the data to reach the disk. {@link
+ *     Synchronous#NORMAL} is only safe from corruption under write-ahead logging, where a power
+ *     loss could at worst roll back the last committed transactions.
+ * @param tempStore Where temporary tables and indexes are stored, such as for sorting.
+ */
+public record StorageProfile(
+    boolean isWriteAheadLogging,
+    long mmapSize,
+    int cacheSize,
+    @NonNull Synchronous synchronous,
+    @NonNull TempStore tempStore) {
+  /** Profile used by {@link LocalDatabase#instance}. */
+  @NonNull public static final StorageProfile DEFAULT = StorageProfile.toBuilder().build();
+
+  @NonNull
+  private static final List<String> _DIAGNOSTIC_PRAGMAS =
+      List.of(
+          "journal_mode",
+          "synchronous",
+          "mmap_size",
+          "cache_size",
+          "temp_store",
+          "page_size",
+          "page_count",
+          "freelist_count",
+          "wal_autocheckpoint");
+
+  public StorageProfile {
+    Objects.requireNonNull(synchronous);
+    Objects.requireNonNull(tempStore);
+
+    if (mmapSize < 0L) throw new IllegalArgumentException("Memory-mapped size can't be negative");
+    if (cacheSize <= 0) throw new IllegalArgumentException("Cache size must be positive");
+  }
+
+  @NonNull
+  public static Builder toBuilder() {
+    return new Builder();
+  }
+
+  @NonNull
+  public static Builder toBuilder(@NonNull StorageProfile profile) {
+    Objects.requireNonNull(profile);
+
+    return new Builder()
+        .setWriteAheadLogging(profile.isWriteAheadLogging())
+        .setMmapSize(profile.mmapSize())
+        .setCacheSize(profile.cacheSize())
+        .setSynchronous(profile.synchronous())
+        .setTempStore(profile.tempStore());
+  }
+
+  /**
+   * @return Current value of the storage settings and the database size, as reported by SQLite on
+   *     the connection used to query them.
+   */
+  @NonNull
+  public static Map<String, String> diagnostics(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    final LinkedHashMap<String, String> diagnostics = new LinkedHashMap<>();
+    diagnostics.put("sqlite_version", StorageProfile._queryString(db, "SELECT sqlite_version()"));
+    StorageProfile._DIAGNOSTIC_PRAGMAS.forEach(
+        pragma -> diagnostics.put(pragma, StorageProfile._queryString(db, "PRAGMA " + pragma)));
+    return Collections.unmodifiableMap(diagnostics);
+  }
+
+  /** Apply the journal mode and register the pragmas to be applied once the database is opened. */
+  @NonNull
+  public <T extends RoomDatabase> RoomDatabase.Builder<T> applyTo(
+      @NonNull RoomDatabase.Builder<T> builder) {
+    Objects.requireNonNull(builder);
+
+    return builder
+        .setJournalMode(
+            this.isWriteAheadLogging
+                ? RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING
+                : RoomDatabase.JournalMode.TRUNCATE)
+        .addCallback(new Callback(this));
+  }
+
+  /**
+   * Run the pragmas on the connections which are already open, and on the ones the connection pool
+   * opens later. Running them on the database object would only reach a single connection.
+   */
+  private void _applyPragmas(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    db.execPerConnectionSQL("PRAGMA mmap_size = " + this.mmapSize, null);
+    // Negative number is treated as the size in kibibytes, rather than number of pages.
+    db.execPerConnectionSQL("PRAGMA cache_size = " + -this.cacheSize, null);
+    db.execPerConnectionSQL("PRAGMA synchronous = " + this.synchronous.name(), null);
+    db.execPerConnectionSQL("PRAGMA temp_store = " + this.tempStore.name(), null);
+  }
+
+  @Nullable
+  private static String _queryString(@NonNull SupportSQLiteDatabase db, @NonNull String query) {
+    try (final Cursor cursor = db.query(query)) {
+      return cursor.moveToFirst() ? cursor.getString(0) : null;
+    }
+  }
+
+  public enum Synchronous {
+    OFF,
+    NORMAL,
+    FULL
+  }
+
+  public enum TempStore {
+    DEFAULT,
+    FILE,
+    MEMORY
+  }
+
+  public static class Builder {
+    private boolean _isWriteAheadLogging = true;
+    private long _mmapSize = 64L * 1024L * 1024L;
+    private int _cacheSize = 8 * 1024;
+    @NonNull private Synchronous _synchronous = Synchronous.NORMAL;
+    @NonNull private TempStore _tempStore = TempStore.MEMORY;
+
+    private Builder() {}
+
+    @NonNull
+    public Builder setWriteAheadLogging(boolean isWriteAheadLogging) {
+      this._isWriteAheadLogging = isWriteAheadLogging;
+      return this;
+    }
+
+    @NonNull
+    public Builder setMmapSize(long mmapSize) {
+      this._mmapSize = mmapSize;
+      return this;
+    }
+
+    @NonNull
+    public Builder setCacheSize(int cacheSize) {
+      this._cacheSize = cacheSize;
+      return this;
+    }
+
+    @NonNull
+    public Builder setSynchronous(@NonNull Synchronous synchronous) {
+      this._synchronous = Objects.requireNonNull(synchronous);
+      return this;
+    }
+
+    @NonNull
+    public Builder setTempStore(@NonNull TempStore tempStore) {
+      this._tempStore = Objects.requireNonNull(tempStore);
+      return this;
+    }
+
+    @NonNull
+    public StorageProfile build() {
+      return new StorageProfile(
+          this._isWriteAheadLogging,
+          this._mmapSize,
+          this._cacheSize,
+          this._synchronous,
+          this._tempStore);
+    }
+  }
+
+  private static class Callback extends RoomDatabase.Callback {
+    @NonNull private final StorageProfile _profile;
+
+    private Callback(@NonNull StorageProfile profile) {
+      this._profile = Objects.requireNonNull(profile);
+    }
+
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+      this._profile._applyPragmas(db);
+      super.onOpen(db);
+    }
+  }
+}
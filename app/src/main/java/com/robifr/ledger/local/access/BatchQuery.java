@@ -0,0 +1,87 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access;
+
+import androidx.annotation.NonNull;
+import com.robifr.ledger.data.model.Model;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for query with {@code IN (...)} clause. Each element inside the list is bound as a single
+ * host parameter, while SQLite limits how many of them can be used within a single statement.
+ */
+final class BatchQuery {
+  /**
+   * Default value of {@code SQLITE_MAX_VARIABLE_NUMBER} prior to SQLite 3.32.0, which is the one
+   * bundled with our minimum SDK.
+   */
+  static final int MAX_VARIABLE_NUMBER = 999;
+
+  private BatchQuery() {}
+
+  /**
+   * Split the arguments into chunks which fit the host parameters limit, then run the query for
+   * each chunk. Results are concatenated in the same order as the chunks.
+   *
+   * @param args Arguments to be bound into the {@code IN (...)} clause.
+   * @param query Query to run for each chunk of arguments.
+   */
+  @NonNull
+  static <T, R> List<R> chunked(
+      @NonNull List<T> args, @NonNull Function<List<T>, List<R>> query) {
+    Objects.requireNonNull(args);
+    Objects.requireNonNull(query);
+
+    if (args.isEmpty()) return new ArrayList<>();
+    if (args.size() <= BatchQuery.MAX_VARIABLE_NUMBER) return query.apply(args);
+
+    final ArrayList<R> results = new ArrayList<>();
+
+    for (int i = 0; i < args.size(); i += BatchQuery.MAX_VARIABLE_NUMBER) {
+      results.addAll(
+          query.apply(args.subList(i, Math.min(i + BatchQuery.MAX_VARIABLE_NUMBER, args.size()))));
+    }
+
+    return results;
+  }
+
+  /**
+   * Select models by their IDs using batched {@code IN (...)} clause.
+   *
+   * @param ids List of model ID to select.
+   * @param query Query selecting models whose ID is within the given chunk.
+   * @return List of selected models in the same order as {@code ids}. Null for the one that can't
+   *     be found.
+   */
+  @NonNull
+  static <M extends Model> List<M> selectById(
+      @NonNull List<Long> ids, @NonNull Function<List<Long>, List<M>> query) {
+    Objects.requireNonNull(ids);
+    Objects.requireNonNull(query);
+
+    final HashMap<Long, M> models = new HashMap<>();
+    final List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+
+    for (M model : BatchQuery.chunked(distinctIds, query)) models.put(model.modelId(), model);
+    return ids.stream().map(models::get).collect(Collectors.toList());
+  }
+}
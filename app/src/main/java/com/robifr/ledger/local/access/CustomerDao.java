@@ -28,13 +28,12 @@ import androidx.room.Update;
 import com.robifr.ledger.data.model.CustomerBalanceInfo;
 import com.robifr.ledger.data.model.CustomerDebtInfo;
 import com.robifr.ledger.data.model.CustomerModel;
-import com.robifr.ledger.local.ColumnConverter.BigDecimalConverter;
-import com.robifr.ledger.local.ColumnConverter.FtsStringConverter;
-import java.math.BigDecimal;
+import com.robifr.ledger.data.model.UsageInfo;
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter;
+import com.robifr.ledger.local.trigger.CustomerDebtTrigger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Dao
 public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
@@ -42,44 +41,22 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public long insert(@NonNull CustomerModel customer) {
-    Objects.requireNonNull(customer);
-
-    final long rowId = this._insert(customer);
-
-    this._insertFts(rowId, FtsStringConverter.toFtsSpacedString(customer.name()));
-    return rowId;
-  }
+  @Insert
+  public abstract long insert(@NonNull CustomerModel customer);
 
   /**
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public int update(@NonNull CustomerModel customer) {
-    Objects.requireNonNull(customer);
-
-    final long rowId = this.selectRowIdById(customer.id());
-    this._deleteFts(rowId);
-
-    final int effectedRow = this._update(customer);
-
-    this._insertFts(rowId, FtsStringConverter.toFtsSpacedString(customer.name()));
-    return effectedRow;
-  }
+  @Update
+  public abstract int update(@NonNull CustomerModel customer);
 
   /**
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public int delete(@NonNull CustomerModel customer) {
-    Objects.requireNonNull(customer);
-
-    this._deleteFts(this.selectRowIdById(customer.id()));
-    return this._delete(customer);
-  }
+  @Delete
+  public abstract int delete(@NonNull CustomerModel customer);
 
   /**
    * @noinspection NullableProblems
@@ -103,7 +80,7 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
   public List<CustomerModel> selectById(@NonNull List<Long> customerIds) {
     Objects.requireNonNull(customerIds);
 
-    return customerIds.stream().map(this::selectById).collect(Collectors.toList());
+    return BatchQuery.selectById(customerIds, this::_selectByIds);
   }
 
   @Override
@@ -131,22 +108,27 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
   public abstract List<CustomerBalanceInfo> selectAllInfoWithBalance();
 
   /**
+   * @return Debt info of customers having an unpaid queue, read from {@link CustomerModel#debt()}
+   *     column which is maintained by {@link CustomerDebtTrigger}.
    * @noinspection NullableProblems
    */
   @NonNull
-  @Transaction
-  public List<CustomerDebtInfo> selectAllInfoWithDebt() {
-    final ArrayList<CustomerDebtInfo> debtInfo = new ArrayList<>();
-    final ArrayList<Long> ids = new ArrayList<>(this._selectAllIds());
+  @Query("SELECT id, debt FROM customer WHERE debt < 0")
+  @TypeConverters(MoneyConverter.class)
+  public abstract List<CustomerDebtInfo> selectAllInfoWithDebt();
 
-    for (long id : ids) {
-      final BigDecimal debt = this.totalDebtById(id);
-
-      if (debt.compareTo(BigDecimal.ZERO) < 0) debtInfo.add(new CustomerDebtInfo(id, debt));
-    }
-
-    return debtInfo;
-  }
+  /**
+   * @return Number of the queues of each customer having any, to rank the search results.
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query(
+      """
+      SELECT customer_id AS id, COUNT(*) AS usage FROM queue
+      WHERE customer_id IS NOT NULL
+      GROUP BY customer_id
+      """)
+  public abstract List<UsageInfo> selectAllUsageInfo();
 
   /**
    * @noinspection NullableProblems
@@ -156,45 +138,38 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
   public List<CustomerModel> search(@NonNull String query) {
     Objects.requireNonNull(query);
 
-    final String escapedQuery = query.replaceAll("\"", "\"\"");
-    return this._search("*\"" + FtsStringConverter.toFtsSpacedString(escapedQuery) + "\"*");
+    final String matchQuery = FtsQuery.prefixMatchOf(query);
+    return matchQuery.isEmpty() ? new ArrayList<>() : this._search(matchQuery);
   }
 
   /**
-   * @return Current debt by counting all of product orders total price from unpaid queues.
+   * Recount debt of customers whose {@link CustomerModel#debt()} column no longer matches the
+   * debt counted from their unpaid queues. The column is kept by {@link CustomerDebtTrigger}, so
+   * any drift means the database was modified while the triggers were missing.
+   *
+   * @return IDs of the repaired customers.
    * @noinspection NullableProblems
    */
   @NonNull
   @Transaction
-  public BigDecimal totalDebtById(@Nullable Long customerId) {
-    return this._selectUnpaidQueueTotalPrice(customerId).stream()
-        .reduce(BigDecimal.ZERO, BigDecimal::subtract);
+  public List<Long> repairDebt() {
+    final List<Long> driftedIds = this._selectAllDriftedDebtIds();
+
+    BatchQuery.chunked(
+        driftedIds,
+        ids -> {
+          this._updateDebtByIds(ids);
+          return List.of();
+        });
+    return driftedIds;
   }
 
-  /**
-   * @noinspection NullableProblems
-   */
-  @Insert
-  protected abstract long _insert(@NonNull CustomerModel customer);
-
-  /**
-   * @noinspection NullableProblems
-   */
-  @Update
-  protected abstract int _update(@NonNull CustomerModel customer);
-
-  /**
-   * @noinspection NullableProblems
-   */
-  @Delete
-  protected abstract int _delete(@NonNull CustomerModel customer);
-
   /**
    * @noinspection NullableProblems
    */
   @NonNull
-  @Query("SELECT id FROM customer")
-  protected abstract List<Long> _selectAllIds();
+  @Query("SELECT * FROM customer WHERE id IN (:customerIds)")
+  protected abstract List<CustomerModel> _selectByIds(@NonNull List<Long> customerIds);
 
   /**
    * @noinspection NullableProblems
@@ -203,10 +178,6 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
   @Query(
       """
       SELECT * FROM customer
-      /**
-       * Use where-in clause because we don't want the data get overriden
-       * from the FTS field, since the string field is spaced.
-       */
       WHERE customer.rowid IN (
         SELECT customer_fts.rowid FROM customer_fts
         WHERE customer_fts MATCH :query
@@ -221,31 +192,26 @@ public abstract class CustomerDao implements QueryAccessible<CustomerModel> {
   @NonNull
   @Query(
       """
-      SELECT product_order.total_price FROM product_order
-      WHERE product_order.queue_id = (
-        SELECT queue.id FROM queue
-        WHERE queue.id = product_order.queue_id
-            AND queue.customer_id = :customerId
-            AND queue.status == 'UNPAID'
+      SELECT customer.id FROM customer
+      WHERE customer.debt != (
+        SELECT -IFNULL(SUM(product_order.total_price), 0) FROM product_order
+        INNER JOIN queue ON queue.id = product_order.queue_id
+        WHERE queue.customer_id = customer.id AND queue.status == 'UNPAID'
       )
       """)
-  @TypeConverters(BigDecimalConverter.class)
-  protected abstract List<BigDecimal> _selectUnpaidQueueTotalPrice(@Nullable Long customerId);
-
-  /**
-   * Delete customer virtual row from FTS table. It should be used before updating or deleting
-   * customer from the actual table.
-   */
-  @Query("DELETE FROM customer_fts WHERE docid = :rowId")
-  protected abstract void _deleteFts(long rowId);
+  protected abstract List<Long> _selectAllDriftedDebtIds();
 
   /**
-   * Insert customer virtual row into FTS table. It should be used after updating or inserting
-   * customer from the actual table.
-   *
-   * @return Inserted row ID.
    * @noinspection NullableProblems
    */
-  @Query("INSERT INTO customer_fts(docid, name) VALUES (:rowId, :customerName)")
-  protected abstract long _insertFts(long rowId, @NonNull String customerName);
+  @Query(
+      """
+      UPDATE customer SET debt = (
+        SELECT -IFNULL(SUM(product_order.total_price), 0) FROM product_order
+        INNER JOIN queue ON queue.id = product_order.queue_id
+        WHERE queue.customer_id = customer.id AND queue.status == 'UNPAID'
+      )
+      WHERE customer.id IN (:customerIds)
+      """)
+  protected abstract void _updateDebtByIds(@NonNull List<Long> customerIds);
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for {@code MATCH} query against the FTS tables, which are tokenized with {@code unicode61}
+ * tokenizer. The tokenizer folds the case and diacritics of both the indexed names and the query.
+ */
+final class FtsQuery {
+  /** Anything other than letters, marks and numbers separates the tokens for {@code unicode61}. */
+  @NonNull private static final Pattern _SEPARATOR = Pattern.compile("[^\\p{L}\\p{M}\\p{N}]+");
+
+  private FtsQuery() {}
+
+  /**
+   * Match rows having a word prefixed by each word in the query, e.g. {@code "ek pu"} matches
+   * {@code "Éka Putra"}. Since the query is split by the same separators as the tokenizer, the
+   * words never contain any syntax of {@code MATCH} query, like a quote or an operator.
+   *
+   * @return Query to be bound into {@code MATCH}. Empty if the query doesn't contain any word.
+   */
+  @NonNull
+  static String prefixMatchOf(@NonNull String query) {
+    Objects.requireNonNull(query);
+
+    return Arrays.stream(FtsQuery._SEPARATOR.split(query))
+        .filter(word -> !word.isEmpty())
+        .map(word -> "\"" + word + "*\"")
+        .collect(Collectors.joining(" "));
+  }
+}
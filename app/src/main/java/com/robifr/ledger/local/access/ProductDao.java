@@ -25,10 +25,10 @@ import androidx.room.Query;
 import androidx.room.Transaction;
 import androidx.room.Update;
 import com.robifr.ledger.data.model.ProductModel;
-import com.robifr.ledger.local.ColumnConverter.FtsStringConverter;
+import com.robifr.ledger.data.model.UsageInfo;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Dao
 public abstract class ProductDao implements QueryAccessible<ProductModel> {
@@ -36,44 +36,22 @@ public abstract class ProductDao implements QueryAccessible<ProductModel> {
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public long insert(@NonNull ProductModel product) {
-    Objects.requireNonNull(product);
-
-    final long rowId = this._insert(product);
-
-    this._insertFts(rowId, FtsStringConverter.toFtsSpacedString(product.name()));
-    return rowId;
-  }
+  @Insert
+  public abstract long insert(@NonNull ProductModel product);
 
   /**
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public int update(@NonNull ProductModel product) {
-    Objects.requireNonNull(product);
-
-    final long rowId = this.selectRowIdById(product.id());
-    this._deleteFts(rowId);
-
-    final int effectedRow = this._update(product);
-
-    this._insertFts(rowId, FtsStringConverter.toFtsSpacedString(product.name()));
-    return effectedRow;
-  }
+  @Update
+  public abstract int update(@NonNull ProductModel product);
 
   /**
    * @noinspection NullableProblems
    */
   @Override
-  @Transaction
-  public int delete(@NonNull ProductModel product) {
-    Objects.requireNonNull(product);
-
-    this._deleteFts(this.selectRowIdById(product.id()));
-    return this._delete(product);
-  }
+  @Delete
+  public abstract int delete(@NonNull ProductModel product);
 
   /**
    * @noinspection NullableProblems
@@ -97,7 +75,7 @@ public abstract class ProductDao implements QueryAccessible<ProductModel> {
   public List<ProductModel> selectById(@NonNull List<Long> productIds) {
     Objects.requireNonNull(productIds);
 
-    return productIds.stream().map(this::selectById).collect(Collectors.toList());
+    return BatchQuery.selectById(productIds, this::_selectByIds);
   }
 
   @Override
@@ -118,34 +96,36 @@ public abstract class ProductDao implements QueryAccessible<ProductModel> {
   public abstract boolean isExistsById(@Nullable Long productId);
 
   /**
+   * @return Number of the product orders of each product having any, to rank the search results.
    * @noinspection NullableProblems
    */
   @NonNull
-  @Transaction
-  public List<ProductModel> search(@NonNull String query) {
-    Objects.requireNonNull(query);
-
-    final String escapedQuery = query.replaceAll("\"", "\"\"");
-    return this._search("*\"" + FtsStringConverter.toFtsSpacedString(escapedQuery) + "\"*");
-  }
+  @Query(
+      """
+      SELECT product_id AS id, COUNT(*) AS usage FROM product_order
+      WHERE product_id IS NOT NULL
+      GROUP BY product_id
+      """)
+  public abstract List<UsageInfo> selectAllUsageInfo();
 
   /**
    * @noinspection NullableProblems
    */
-  @Insert
-  protected abstract long _insert(@NonNull ProductModel product);
+  @NonNull
+  @Transaction
+  public List<ProductModel> search(@NonNull String query) {
+    Objects.requireNonNull(query);
 
-  /**
-   * @noinspection NullableProblems
-   */
-  @Update
-  protected abstract int _update(@NonNull ProductModel product);
+    final String matchQuery = FtsQuery.prefixMatchOf(query);
+    return matchQuery.isEmpty() ? new ArrayList<>() : this._search(matchQuery);
+  }
 
   /**
    * @noinspection NullableProblems
    */
-  @Delete
-  protected abstract int _delete(@NonNull ProductModel product);
+  @NonNull
+  @Query("SELECT * FROM product WHERE id IN (:productIds)")
+  protected abstract List<ProductModel> _selectByIds(@NonNull List<Long> productIds);
 
   /**
    * @noinspection NullableProblems
@@ -154,10 +134,6 @@ public abstract class ProductDao implements QueryAccessible<ProductModel> {
   @Query(
       """
       SELECT * FROM product
-      /**
-       * Use where-in clause because we don't want the data get override from the FTS field,
-       * since the string field is spaced.
-       */
       WHERE product.rowid IN (
         SELECT product_fts.rowid FROM product_fts
         WHERE product_fts MATCH :query
@@ -165,21 +141,4 @@ public abstract class ProductDao implements QueryAccessible<ProductModel> {
       ORDER BY product.name
       """)
   protected abstract List<ProductModel> _search(@NonNull String query);
-
-  /**
-   * Delete product virtual row from FTS table. It should be used before updating or deleting
-   * product from the actual table.
-   */
-  @Query("DELETE FROM product_fts WHERE docid = :rowId")
-  protected abstract void _deleteFts(long rowId);
-
-  /**
-   * Insert product virtual row into FTS table. It should be used after updating or inserting
-   * product from the actual table.
-   *
-   * @return Inserted row ID.
-   * @noinspection NullableProblems
-   */
-  @Query("INSERT INTO product_fts(docid, name) VALUES (:rowId, :productName)")
-  protected abstract long _insertFts(long rowId, @NonNull String productName);
 }
@@ -26,6 +26,7 @@ import androidx.room.Transaction;
 import androidx.room.Update;
 import androidx.room.Upsert;
 import com.robifr.ledger.data.model.ProductOrderModel;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -97,7 +98,7 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   public List<ProductOrderModel> selectById(@NonNull List<Long> productOrderIds) {
     Objects.requireNonNull(productOrderIds);
 
-    return productOrderIds.stream().map(this::selectById).collect(Collectors.toList());
+    return BatchQuery.selectById(productOrderIds, this::_selectByIds);
   }
 
   @Override
@@ -106,6 +107,11 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   public abstract ProductOrderModel selectByRowId(long rowId);
 
   /**
+   * @return List of selected product orders in the same order as {@code rowIds}. Null for the one
+   *     that can't be found.
+   * @implNote {@link ProductOrderModel#id()} is declared as {@code INTEGER PRIMARY KEY}, which
+   *     makes it an alias of {@code rowid}. Therefore the selected rows can be matched back to the
+   *     given row IDs by their ID.
    * @noinspection NullableProblems
    */
   @NonNull
@@ -113,7 +119,7 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   public List<ProductOrderModel> selectByRowId(@NonNull List<Long> rowIds) {
     Objects.requireNonNull(rowIds);
 
-    return rowIds.stream().map(this::selectByRowId).collect(Collectors.toList());
+    return BatchQuery.selectById(rowIds, this::_selectByRowIds);
   }
 
   @Override
@@ -121,6 +127,9 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   public abstract long selectIdByRowId(long rowId);
 
   /**
+   * @return List of selected IDs in the same order as {@code rowIds}. Null for the one that can't
+   *     be found.
+   * @implNote See {@link #selectByRowId(List)} for why the row ID can be used to match the ID.
    * @noinspection NullableProblems
    */
   @NonNull
@@ -128,7 +137,13 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   public List<Long> selectIdByRowId(@NonNull List<Long> rowIds) {
     Objects.requireNonNull(rowIds);
 
-    return rowIds.stream().map(this::selectIdByRowId).collect(Collectors.toList());
+    final List<Long> distinctRowIds = rowIds.stream().distinct().collect(Collectors.toList());
+    final HashSet<Long> ids =
+        new HashSet<>(BatchQuery.chunked(distinctRowIds, this::_selectIdByRowIds));
+
+    return rowIds.stream()
+        .map(rowId -> ids.contains(rowId) ? rowId : null)
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -160,4 +175,48 @@ public abstract class ProductOrderDao implements QueryAccessible<ProductOrderMod
   @NonNull
   @Query("SELECT * FROM product_order WHERE queue_id = :queueId")
   public abstract List<ProductOrderModel> selectAllByQueueId(@Nullable Long queueId);
+
+  /**
+   * Bulk version of {@link #selectAllByQueueId(Long)}.
+   *
+   * @return List of product orders belonging to any of the given queues. The order of the rows
+   *     isn't guaranteed to follow {@code queueIds}, group them by {@link
+   *     ProductOrderModel#queueId()} instead.
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Transaction
+  public List<ProductOrderModel> selectAllByQueueId(@NonNull List<Long> queueIds) {
+    Objects.requireNonNull(queueIds);
+
+    return BatchQuery.chunked(queueIds, this::_selectAllByQueueIds);
+  }
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT * FROM product_order WHERE queue_id IN (:queueIds)")
+  protected abstract List<ProductOrderModel> _selectAllByQueueIds(@NonNull List<Long> queueIds);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT * FROM product_order WHERE id IN (:productOrderIds)")
+  protected abstract List<ProductOrderModel> _selectByIds(@NonNull List<Long> productOrderIds);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT * FROM product_order WHERE rowid IN (:rowIds)")
+  protected abstract List<ProductOrderModel> _selectByRowIds(@NonNull List<Long> rowIds);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT id FROM product_order WHERE rowid IN (:rowIds)")
+  protected abstract List<Long> _selectIdByRowIds(@NonNull List<Long> rowIds);
 }
@@ -22,12 +22,21 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Transaction;
 import androidx.room.TypeConverters;
 import androidx.room.Update;
+import androidx.room.Upsert;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.robifr.ledger.data.display.QueueFilters;
+import com.robifr.ledger.data.display.QueueSortMethod;
+import com.robifr.ledger.data.model.CustomerModel;
+import com.robifr.ledger.data.model.ProductOrderModel;
 import com.robifr.ledger.data.model.QueueModel;
 import com.robifr.ledger.local.ColumnConverter.InstantConverter;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -77,7 +86,7 @@ public abstract class QueueDao implements QueryAccessible<QueueModel> {
   public List<QueueModel> selectById(@NonNull List<Long> queueIds) {
     Objects.requireNonNull(queueIds);
 
-    return queueIds.stream().map(this::selectById).collect(Collectors.toList());
+    return BatchQuery.selectById(queueIds, this::_selectByIds);
   }
 
   @Override
@@ -106,4 +115,222 @@ public abstract class QueueDao implements QueryAccessible<QueueModel> {
   @TypeConverters(InstantConverter.class)
   public abstract List<QueueModel> selectAllInRange(
       @NonNull Instant startDate, @NonNull Instant endDate);
+
+  /**
+   * @return Queues matching the filters. The filtering is done by the database, see {@link
+   *     QueueQuery}.
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Transaction
+  public List<QueueModel> selectAll(@NonNull QueueFilters filters) {
+    Objects.requireNonNull(filters);
+
+    return this._selectByQuery(QueueQuery.toBuilder().setFilters(filters).build());
+  }
+
+  /**
+   * Select a page of queues ordered by the given sort method. Rather than skipping rows with an
+   * offset, the page is continued right after the sort key of the last queue from previous page
+   * (keyset pagination), so that selecting a deep page costs the same as the first one.
+   *
+   * <p>The sort key is bound from the given queue instead of being re-selected by its ID, so that
+   * the page still continues from where it was even after the queue is deleted.
+   *
+   * @param filters Filters to apply. Null to select queues without any filter.
+   * @param afterQueue Last queue from previous page. Null to select the first page. Its customer
+   *     is selected when it isn't mapped yet.
+   * @param limit Maximum number of queues to select.
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Transaction
+  public List<QueueModel> selectPage(
+      @Nullable QueueFilters filters,
+      @NonNull QueueSortMethod sortMethod,
+      @Nullable QueueModel afterQueue,
+      int limit) {
+    Objects.requireNonNull(sortMethod);
+
+    final QueueModel mappedAfterQueue =
+        afterQueue != null && afterQueue.customer() == null && afterQueue.customerId() != null
+            ? afterQueue.withCustomer(this._selectCustomerById(afterQueue.customerId()))
+            : afterQueue;
+    return this._selectByQuery(
+        QueueQuery.toBuilder()
+            .setFilters(filters)
+            .setSortMethod(sortMethod)
+            .setAfterQueue(mappedAfterQueue)
+            .setLimit(limit)
+            .build());
+  }
+
+  /**
+   * Insert the queue along with its product orders, then make its customer pay for it. Everything
+   * is done within a single transaction.
+   *
+   * @return Inserted queue ID. 0 for a failed operation.
+   * @noinspection NullableProblems
+   */
+  @Transaction
+  public long insertWithForeign(@NonNull QueueModel queue) {
+    Objects.requireNonNull(queue);
+
+    final long queueId = this.selectIdByRowId(this.insert(queue));
+    if (queueId == 0L) return 0L;
+
+    this._insertProductOrders(
+        queue.productOrders().stream()
+            .map(order -> order.withQueueId(queueId))
+            .collect(Collectors.toList()));
+
+    final QueueModel insertedQueue = Objects.requireNonNull(this._selectWithForeignById(queueId));
+    final CustomerModel customer = insertedQueue.customer();
+
+    if (customer != null) {
+      this._updateCustomerBalance(customer.id(), customer.balanceOnMadePayment(insertedQueue));
+    }
+    return queueId;
+  }
+
+  /**
+   * Update the queue along with its product orders, where the ones missing from the given queue
+   * are deleted. Balance of both the old and the new customer are then adjusted. Everything is
+   * done within a single transaction.
+   *
+   * @return The queue before being updated, along with its customer and product orders. Null when
+   *     there's no such queue to update.
+   * @noinspection NullableProblems
+   */
+  @Nullable
+  @Transaction
+  public QueueModel updateWithForeign(@NonNull QueueModel queue) {
+    Objects.requireNonNull(queue);
+
+    final QueueModel oldQueue = this._selectWithForeignById(queue.id());
+    if (oldQueue == null) return null;
+
+    final ArrayList<ProductOrderModel> ordersToUpsert = new ArrayList<>();
+    final HashMap<Long, ProductOrderModel> ordersToDelete = new HashMap<>();
+
+    oldQueue.productOrders().forEach(order -> ordersToDelete.put(order.id(), order));
+    for (ProductOrderModel productOrder : queue.productOrders()) {
+      // Set the queue ID, in case they're newly created.
+      ordersToUpsert.add(productOrder.withQueueId(queue.id()));
+      // Leave only the product orders which are no longer exists.
+      if (productOrder.id() != null) ordersToDelete.remove(productOrder.id());
+    }
+
+    this._upsertProductOrders(ordersToUpsert);
+    this._deleteProductOrders(new ArrayList<>(ordersToDelete.values()));
+    this.update(queue);
+
+    final QueueModel updatedQueue = Objects.requireNonNull(this._selectWithForeignById(queue.id()));
+    final CustomerModel oldCustomer = oldQueue.customer();
+    final CustomerModel updatedCustomer = updatedQueue.customer();
+
+    // Revert back old customer balance when different customer selected,
+    // even when the new one is null.
+    if (oldCustomer != null
+        && oldCustomer.id() != null
+        && (updatedCustomer == null || !oldCustomer.id().equals(updatedCustomer.id()))) {
+      this._updateCustomerBalance(
+          oldCustomer.id(), oldCustomer.balanceOnRevertedPayment(oldQueue));
+    }
+
+    // Update customer balance for newly selected customer.
+    if (updatedCustomer != null) {
+      this._updateCustomerBalance(
+          updatedCustomer.id(), updatedCustomer.balanceOnUpdatedPayment(oldQueue, updatedQueue));
+    }
+    return oldQueue;
+  }
+
+  /**
+   * Delete the queue, then revert back its customer balance. Associated product orders are deleted
+   * along by the foreign key. Everything is done within a single transaction.
+   *
+   * @return The deleted queue, along with its customer and product orders. Null when there's no
+   *     such queue to delete.
+   * @noinspection NullableProblems
+   */
+  @Nullable
+  @Transaction
+  public QueueModel deleteWithForeign(@NonNull QueueModel queue) {
+    Objects.requireNonNull(queue);
+
+    final QueueModel oldQueue = this._selectWithForeignById(queue.id());
+    if (oldQueue == null || this.delete(oldQueue) == 0) return null;
+
+    final CustomerModel customer = oldQueue.customer();
+
+    if (customer != null) {
+      this._updateCustomerBalance(customer.id(), customer.balanceOnRevertedPayment(oldQueue));
+    }
+    return oldQueue;
+  }
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @RawQuery
+  protected abstract List<QueueModel> _selectByQuery(@NonNull SupportSQLiteQuery query);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT * FROM queue WHERE id IN (:queueIds)")
+  protected abstract List<QueueModel> _selectByIds(@NonNull List<Long> queueIds);
+
+  /**
+   * @return Queue mapped with its customer and product orders, as they're currently stored.
+   */
+  @Nullable
+  protected QueueModel _selectWithForeignById(@Nullable Long queueId) {
+    final QueueModel queue = this.selectById(queueId);
+    if (queue == null) return null;
+
+    return queue
+        .withCustomer(this._selectCustomerById(queue.customerId()))
+        .withProductOrders(this._selectProductOrdersByQueueId(queueId));
+  }
+
+  @Nullable
+  @Query("SELECT * FROM customer WHERE id = :customerId")
+  protected abstract CustomerModel _selectCustomerById(@Nullable Long customerId);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @NonNull
+  @Query("SELECT * FROM product_order WHERE queue_id = :queueId")
+  protected abstract List<ProductOrderModel> _selectProductOrdersByQueueId(
+      @Nullable Long queueId);
+
+  /**
+   * Only the balance column is updated, unlike {@link CustomerDao#update(CustomerModel)}, so that
+   * the FTS row doesn't need to be rewritten.
+   */
+  @Query("UPDATE customer SET balance = :balance WHERE id = :customerId")
+  protected abstract void _updateCustomerBalance(@Nullable Long customerId, long balance);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @Insert
+  protected abstract void _insertProductOrders(@NonNull List<ProductOrderModel> productOrders);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @Upsert
+  protected abstract void _upsertProductOrders(@NonNull List<ProductOrderModel> productOrders);
+
+  /**
+   * @noinspection NullableProblems
+   */
+  @Delete
+  protected abstract void _deleteProductOrders(@NonNull List<ProductOrderModel> productOrders);
 }
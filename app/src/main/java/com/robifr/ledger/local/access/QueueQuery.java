@@ -0,0 +1,256 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.robifr.ledger.data.display.QueueFilterer;
+import com.robifr.ledger.data.display.QueueFilters;
+import com.robifr.ledger.data.display.QueueSortMethod;
+import com.robifr.ledger.data.model.QueueModel;
+import com.robifr.ledger.local.ColumnConverter.InstantConverter;
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Builder of a query selecting queues, which compiles {@link QueueFilters} into the where clause.
+ * It's the database counterpart of {@link QueueFilterer}, and both of them have to result the
+ * same queues.
+ */
+public final class QueueQuery {
+  @NonNull
+  private static final String _FROM =
+      " FROM queue LEFT JOIN customer ON customer.id = queue.customer_id";
+
+  private QueueQuery() {}
+
+  @NonNull
+  public static Builder toBuilder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    @Nullable private QueueFilters _filters = null;
+    @Nullable private QueueSortMethod _sortMethod = null;
+    @Nullable private QueueModel _afterQueue = null;
+    @Nullable private Integer _limit = null;
+
+    private Builder() {}
+
+    /**
+     * @param filters Filters to apply. Null to select queues without any filter.
+     */
+    @NonNull
+    public Builder setFilters(@Nullable QueueFilters filters) {
+      this._filters = filters;
+      return this;
+    }
+
+    /**
+     * @param sortMethod Order of the selected queues. Null to leave them unordered.
+     */
+    @NonNull
+    public Builder setSortMethod(@Nullable QueueSortMethod sortMethod) {
+      this._sortMethod = sortMethod;
+      return this;
+    }
+
+    /**
+     * @param queue Select only queues after this queue, based on the sort method. Its customer
+     *     has to be mapped when sorting by customer name. Null to select from the start.
+     * @see QueueDao#selectPage(QueueFilters, QueueSortMethod, QueueModel, int)
+     */
+    @NonNull
+    public Builder setAfterQueue(@Nullable QueueModel queue) {
+      this._afterQueue = queue;
+      return this;
+    }
+
+    /**
+     * @param limit Maximum number of queues to select. Null for unlimited.
+     */
+    @NonNull
+    public Builder setLimit(@Nullable Integer limit) {
+      this._limit = limit;
+      return this;
+    }
+
+    @NonNull
+    public SupportSQLiteQuery build() {
+      final ArrayList<String> conditions = new ArrayList<>();
+      final ArrayList<Object> args = new ArrayList<>();
+      final StringBuilder query = new StringBuilder("SELECT queue.*").append(QueueQuery._FROM);
+
+      if (this._filters != null) this._whereFilters(this._filters, conditions, args);
+
+      if (this._sortMethod != null && this._afterQueue != null) {
+        // Compare against the sort key bound from the queue rather than re-selected by its ID,
+        // which would match nothing once the queue is deleted.
+        final List<String> sortKeys = QueueQuery._sortKeysOf(this._sortMethod);
+        conditions.add(
+            "("
+                + String.join(", ", sortKeys)
+                + (this._sortMethod.isAscending() ? ") > (" : ") < (")
+                + sortKeys.stream().map(key -> "?").collect(Collectors.joining(", "))
+                + ")");
+        args.addAll(QueueQuery._sortKeyValuesOf(this._sortMethod, this._afterQueue));
+      }
+
+      if (!conditions.isEmpty()) query.append(" WHERE ").append(String.join(" AND ", conditions));
+
+      if (this._sortMethod != null) {
+        query
+            .append(" ORDER BY ")
+            .append(
+                QueueQuery._sortKeysOf(this._sortMethod).stream()
+                    .map(key -> key + (this._sortMethod.isAscending() ? " ASC" : " DESC"))
+                    .collect(Collectors.joining(", ")));
+      }
+
+      if (this._limit != null) {
+        query.append(" LIMIT ?");
+        args.add(this._limit);
+      }
+
+      return new SimpleSQLiteQuery(query.toString(), args.toArray());
+    }
+
+    private void _whereFilters(
+        @NonNull QueueFilters filters,
+        @NonNull List<String> conditions,
+        @NonNull List<Object> args) {
+      Objects.requireNonNull(filters);
+      Objects.requireNonNull(conditions);
+      Objects.requireNonNull(args);
+
+      // Customer IDs are inlined rather than bound, they're numbers anyway. Binding them could
+      // exceed the maximum number of host parameters when there are too many customers.
+      final String customerIds =
+          filters.filteredCustomerIds().stream()
+              .filter(Objects::nonNull)
+              .map(String::valueOf)
+              .collect(Collectors.joining(", "));
+      // Show all customers when the list empty.
+      final String nonNullCustomer =
+          filters.filteredCustomerIds().isEmpty()
+              ? "queue.customer_id IS NOT NULL"
+              : "queue.customer_id IN (" + customerIds + ")";
+
+      if (filters.isNullCustomerShown()) {
+        if (!filters.filteredCustomerIds().isEmpty()) {
+          conditions.add("(queue.customer_id IS NULL OR " + nonNullCustomer + ")");
+        }
+
+      } else {
+        conditions.add(nonNullCustomer);
+      }
+
+      if (filters.filteredStatus().size() < QueueModel.Status.values().length) {
+        conditions.add(
+            "queue.status IN ("
+                + filters.filteredStatus().stream()
+                    .map(status -> "?")
+                    .collect(Collectors.joining(", "))
+                + ")");
+        filters.filteredStatus().forEach(status -> args.add(status.name()));
+      }
+
+      // Both of the dates are inclusive by day, within the time zone of the start date.
+      final ZoneId zone = filters.filteredDate().dateStart().getZone();
+      conditions.add("queue.date >= ?");
+      args.add(
+          filters
+              .filteredDate()
+              .dateStart()
+              .toLocalDate()
+              .atStartOfDay(zone)
+              .toInstant()
+              .toEpochMilli());
+      conditions.add("queue.date < ?");
+      args.add(
+          filters
+              .filteredDate()
+              .dateEnd()
+              .toLocalDate()
+              .plusDays(1)
+              .atStartOfDay(zone)
+              .toInstant()
+              .toEpochMilli());
+
+      final BigDecimal minTotalPrice = filters.filteredTotalPrice().first;
+      final BigDecimal maxTotalPrice = filters.filteredTotalPrice().second;
+
+      if (minTotalPrice != null) {
+        conditions.add("queue.grand_total >= ?");
+        args.add(MoneyConverter.fromBigDecimal(minTotalPrice));
+      }
+
+      if (maxTotalPrice != null) {
+        conditions.add("queue.grand_total <= ?");
+        args.add(MoneyConverter.fromBigDecimal(maxTotalPrice));
+      }
+    }
+  }
+
+  /**
+   * @return Values of {@link #_sortKeysOf(QueueSortMethod)} for the given queue, in the same
+   *     order.
+   */
+  @NonNull
+  private static List<Object> _sortKeyValuesOf(
+      @NonNull QueueSortMethod sortMethod, @NonNull QueueModel queue) {
+    Objects.requireNonNull(sortMethod);
+    Objects.requireNonNull(queue);
+
+    return switch (sortMethod.sortBy()) {
+      case CUSTOMER_NAME ->
+          List.of(
+              queue.customer() == null ? 1L : 0L,
+              queue.customer() != null ? queue.customer().name() : "",
+              queue.id());
+      case DATE -> List.of(InstantConverter.fromInstant(queue.date()), queue.id());
+      case TOTAL_PRICE ->
+          List.of(MoneyConverter.fromBigDecimal(queue.grandTotalPrice()), queue.id());
+    };
+  }
+
+  /**
+   * @return Expressions to order queues by, with queue ID as the last one to break the tie.
+   */
+  @NonNull
+  private static List<String> _sortKeysOf(@NonNull QueueSortMethod sortMethod) {
+    Objects.requireNonNull(sortMethod);
+
+    return switch (sortMethod.sortBy()) {
+      // Queue without customer is placed last, or first when it's descending.
+      case CUSTOMER_NAME ->
+          List.of(
+              "customer.name IS NULL",
+              "IFNULL(customer.name, '') COLLATE LOCALIZED",
+              "queue.id");
+      case DATE -> List.of("queue.date", "queue.id");
+      case TOTAL_PRICE -> List.of("queue.grand_total", "queue.id");
+    };
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.Objects;
+
+/**
+ * Persist customer debt into {@code customer.debt} column, which is then maintained by triggers.
+ * The trigger statements are copied as they were on version 2, as the ones in {@link
+ * com.robifr.ledger.local.trigger.CustomerDebtTrigger} may change in later versions.
+ *
+ * <p>The decimal text of each total price is summed as an integer of minor units with scale of 5,
+ * rather than as a real number whose error adds up over the orders.
+ */
+public class Migration1To2 extends Migration {
+  @NonNull
+  private static final String _RECOUNT_DEBT =
+      """
+      UPDATE customer SET debt = (
+        SELECT printf(
+          '%%.5f',
+          -IFNULL(SUM(CAST(ROUND(product_order.total_price * 100000) AS INTEGER)), 0) / 100000.0
+        )
+        FROM product_order
+        INNER JOIN queue ON queue.id = product_order.queue_id
+        WHERE queue.customer_id = customer.id AND queue.status == 'UNPAID'
+      )
+      WHERE customer.id IN (%s);
+      """;
+
+  public Migration1To2() {
+    super(1, 2);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    db.execSQL("ALTER TABLE customer ADD COLUMN debt TEXT NOT NULL DEFAULT 0");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_insert "
+            + "AFTER INSERT ON queue WHEN NEW.customer_id IS NOT NULL BEGIN "
+            + Migration1To2._recountDebt("NEW.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_update "
+            + "AFTER UPDATE OF customer_id, status ON queue BEGIN "
+            + Migration1To2._recountDebt("OLD.customer_id, NEW.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_delete "
+            + "AFTER DELETE ON queue WHEN OLD.customer_id IS NOT NULL BEGIN "
+            + Migration1To2._recountDebt("OLD.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_insert "
+            + "AFTER INSERT ON product_order BEGIN "
+            + Migration1To2._recountDebt(
+                "SELECT queue.customer_id FROM queue WHERE queue.id = NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_update "
+            + "AFTER UPDATE OF queue_id, total_price ON product_order BEGIN "
+            + Migration1To2._recountDebt(
+                "SELECT queue.customer_id FROM queue "
+                    + "WHERE queue.id IN (OLD.queue_id, NEW.queue_id)")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_delete "
+            + "AFTER DELETE ON product_order BEGIN "
+            + Migration1To2._recountDebt(
+                "SELECT queue.customer_id FROM queue WHERE queue.id = OLD.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_insert "
+            + "AFTER INSERT ON customer BEGIN "
+            + Migration1To2._recountDebt("NEW.id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_update "
+            + "AFTER UPDATE OF debt ON customer WHEN NEW.debt IS NOT OLD.debt BEGIN "
+            + Migration1To2._recountDebt("NEW.id")
+            + " END");
+    // Backfill debt of the existing customers.
+    db.execSQL(Migration1To2._recountDebt("SELECT id FROM customer"));
+  }
+
+  @NonNull
+  private static String _recountDebt(@NonNull String customerIds) {
+    return Migration1To2._RECOUNT_DEBT.formatted(customerIds);
+  }
+}
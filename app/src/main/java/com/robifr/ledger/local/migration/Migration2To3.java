@@ -0,0 +1,43 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.Objects;
+
+/**
+ * Index queue by its date, status and customer. The previous `customer_id` index is replaced by
+ * `(customer_id, status)`, which still covers lookup by customer alone.
+ */
+public class Migration2To3 extends Migration {
+  public Migration2To3() {
+    super(2, 3);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    db.execSQL("DROP INDEX IF EXISTS index_queue_customer_id");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_date ON queue (date)");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_status_date ON queue (status, date)");
+    db.execSQL(
+        "CREATE INDEX IF NOT EXISTS index_queue_customer_id_status ON queue (customer_id, status)");
+  }
+}
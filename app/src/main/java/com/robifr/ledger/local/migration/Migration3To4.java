@@ -0,0 +1,92 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.Objects;
+
+/**
+ * Persist queue totals into {@code queue.grand_total} and {@code queue.total_discount} columns,
+ * which are then maintained by triggers. The trigger statements are copied as they were on version
+ * 4, as the ones in {@link com.robifr.ledger.local.trigger.QueueTotalTrigger} may change in later
+ * versions.
+ */
+public class Migration3To4 extends Migration {
+  @NonNull
+  private static final String _RECOUNT_TOTAL =
+      """
+      UPDATE queue SET
+        grand_total = (
+          SELECT IFNULL(SUM(CAST(product_order.total_price AS NUMERIC)), 0) FROM product_order
+          WHERE product_order.queue_id = queue.id
+        ),
+        total_discount = (
+          SELECT IFNULL(SUM(product_order.discount), 0) FROM product_order
+          WHERE product_order.queue_id = queue.id
+        )
+      WHERE queue.id IN (%s);
+      """;
+
+  public Migration3To4() {
+    super(3, 4);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    db.execSQL("ALTER TABLE queue ADD COLUMN grand_total REAL NOT NULL DEFAULT 0");
+    db.execSQL("ALTER TABLE queue ADD COLUMN total_discount INTEGER NOT NULL DEFAULT 0");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_grand_total ON queue (grand_total)");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_insert "
+            + "AFTER INSERT ON product_order BEGIN "
+            + Migration3To4._recountTotal("NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_update "
+            + "AFTER UPDATE OF queue_id, discount, total_price ON product_order BEGIN "
+            + Migration3To4._recountTotal("OLD.queue_id, NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_delete "
+            + "AFTER DELETE ON product_order BEGIN "
+            + Migration3To4._recountTotal("OLD.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_insert "
+            + "AFTER INSERT ON queue BEGIN "
+            + Migration3To4._recountTotal("NEW.id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_update "
+            + "AFTER UPDATE OF grand_total, total_discount ON queue "
+            + "WHEN NEW.grand_total IS NOT OLD.grand_total "
+            + "OR NEW.total_discount IS NOT OLD.total_discount BEGIN "
+            + Migration3To4._recountTotal("NEW.id")
+            + " END");
+    // Backfill totals of the existing queues.
+    db.execSQL(Migration3To4._recountTotal("SELECT id FROM queue"));
+  }
+
+  @NonNull
+  private static String _recountTotal(@NonNull String queueIds) {
+    return Migration3To4._RECOUNT_TOTAL.formatted(queueIds);
+  }
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Store money as 64-bit integer of minor units with scale of 5, instead of decimal text for {@code
+ * product_order.total_price} and {@code customer.debt}, or real number for {@code
+ * queue.grand_total}. SQLite can't change the type of a column, so those tables are rebuilt. The
+ * totals and debts are then recounted from the converted product orders. Statements are copied as
+ * they were on version 5, as the ones in {@link com.robifr.ledger.local.trigger} and {@link
+ * com.robifr.ledger.local.ColumnConverter.MoneyConverter} may change in later versions.
+ */
+public class Migration4To5 extends Migration {
+  private static final int _SCALE = 5;
+  private static final long _UNIT = 100_000L;
+
+  @NonNull
+  private static final List<String> _TRIGGER_NAMES =
+      List.of(
+          "customer_debt_after_queue_insert",
+          "customer_debt_after_queue_update",
+          "customer_debt_after_queue_delete",
+          "customer_debt_after_product_order_insert",
+          "customer_debt_after_product_order_update",
+          "customer_debt_after_product_order_delete",
+          "customer_debt_after_customer_insert",
+          "customer_debt_after_customer_update",
+          "queue_total_after_product_order_insert",
+          "queue_total_after_product_order_update",
+          "queue_total_after_product_order_delete",
+          "queue_total_after_queue_insert",
+          "queue_total_after_queue_update");
+
+  @NonNull
+  private static final String _RECOUNT_DEBT =
+      """
+      UPDATE customer SET debt = (
+        SELECT -IFNULL(SUM(product_order.total_price), 0) FROM product_order
+        INNER JOIN queue ON queue.id = product_order.queue_id
+        WHERE queue.customer_id = customer.id AND queue.status == 'UNPAID'
+      )
+      WHERE customer.id IN (%s);
+      """;
+
+  @NonNull
+  private static final String _RECOUNT_TOTAL =
+      """
+      UPDATE queue SET
+        grand_total = (
+          SELECT IFNULL(SUM(product_order.total_price), 0) FROM product_order
+          WHERE product_order.queue_id = queue.id
+        ),
+        total_discount = (
+          SELECT IFNULL(SUM(product_order.discount), 0) * %d FROM product_order
+          WHERE product_order.queue_id = queue.id
+        )
+      WHERE queue.id IN (%s);
+      """;
+
+  public Migration4To5() {
+    super(4, 5);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    // Triggers are referencing the tables to be rebuilt.
+    Migration4To5.dropTriggers(db);
+
+    db.execSQL(
+        """
+        CREATE TABLE IF NOT EXISTS product_order_new (
+          id INTEGER PRIMARY KEY AUTOINCREMENT,
+          queue_id INTEGER,
+          product_id INTEGER,
+          product_name TEXT,
+          product_price INTEGER,
+          quantity REAL NOT NULL,
+          discount INTEGER NOT NULL,
+          total_price INTEGER NOT NULL,
+          FOREIGN KEY(queue_id) REFERENCES queue(id) ON UPDATE CASCADE ON DELETE CASCADE,
+          FOREIGN KEY(product_id) REFERENCES product(id) ON UPDATE CASCADE ON DELETE SET NULL
+        )
+        """);
+    db.execSQL(
+        """
+        INSERT INTO product_order_new (
+          id, queue_id, product_id, product_name, product_price, quantity, discount, total_price
+        )
+        SELECT id, queue_id, product_id, product_name, product_price, quantity, discount, 0
+        FROM product_order
+        """);
+    Migration4To5._convertTotalPrice(db);
+    db.execSQL("DROP TABLE product_order");
+    db.execSQL("ALTER TABLE product_order_new RENAME TO product_order");
+    db.execSQL(
+        "CREATE INDEX IF NOT EXISTS index_product_order_queue_id ON product_order (queue_id)");
+    db.execSQL(
+        "CREATE INDEX IF NOT EXISTS index_product_order_product_id ON product_order (product_id)");
+
+    // Totals are left to zero, they're recounted once the triggers are back.
+    db.execSQL(
+        """
+        CREATE TABLE IF NOT EXISTS queue_new (
+          id INTEGER PRIMARY KEY AUTOINCREMENT,
+          customer_id INTEGER,
+          status TEXT NOT NULL,
+          date TEXT NOT NULL,
+          payment_method TEXT NOT NULL,
+          grand_total INTEGER NOT NULL DEFAULT 0,
+          total_discount INTEGER NOT NULL DEFAULT 0,
+          FOREIGN KEY(customer_id) REFERENCES customer(id) ON UPDATE CASCADE ON DELETE SET NULL
+        )
+        """);
+    db.execSQL(
+        """
+        INSERT INTO queue_new (id, customer_id, status, date, payment_method)
+        SELECT id, customer_id, status, date, payment_method FROM queue
+        """);
+    db.execSQL("DROP TABLE queue");
+    db.execSQL("ALTER TABLE queue_new RENAME TO queue");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_date ON queue (date)");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_status_date ON queue (status, date)");
+    db.execSQL(
+        "CREATE INDEX IF NOT EXISTS index_queue_customer_id_status ON queue (customer_id, status)");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_grand_total ON queue (grand_total)");
+
+    db.execSQL(
+        """
+        CREATE TABLE IF NOT EXISTS customer_new (
+          id INTEGER PRIMARY KEY AUTOINCREMENT,
+          name TEXT NOT NULL,
+          balance INTEGER NOT NULL,
+          debt INTEGER NOT NULL DEFAULT 0
+        )
+        """);
+    db.execSQL(
+        "INSERT INTO customer_new (id, name, balance) SELECT id, name, balance FROM customer");
+    db.execSQL("DROP TABLE customer");
+    db.execSQL("ALTER TABLE customer_new RENAME TO customer");
+
+    Migration4To5.createTriggers(db);
+    db.execSQL(Migration4To5._recountTotal("SELECT id FROM queue"));
+    db.execSQL(Migration4To5._recountDebt("SELECT id FROM customer"));
+  }
+
+  /**
+   * Convert the decimal text from the old {@code product_order} table into minor units. It's done
+   * with {@link BigDecimal} rather than SQL, since casting text into number would go through a
+   * floating point.
+   */
+  private static void _convertTotalPrice(@NonNull SupportSQLiteDatabase db) {
+    try (final Cursor cursor = db.query("SELECT id, total_price FROM product_order");
+        final SupportSQLiteStatement update =
+            db.compileStatement("UPDATE product_order_new SET total_price = ? WHERE id = ?")) {
+      while (cursor.moveToNext()) {
+        update.bindLong(
+            1,
+            new BigDecimal(cursor.getString(1))
+                .setScale(Migration4To5._SCALE, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact());
+        update.bindLong(2, cursor.getLong(0));
+        update.executeUpdateDelete();
+        update.clearBindings();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Create the triggers as they were on version 5. Later migrations which have to rebuild the
+   * tables can reuse it as long as the triggers are unchanged.
+   */
+  static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_insert "
+            + "AFTER INSERT ON queue WHEN NEW.customer_id IS NOT NULL BEGIN "
+            + Migration4To5._recountDebt("NEW.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_update "
+            + "AFTER UPDATE OF customer_id, status ON queue BEGIN "
+            + Migration4To5._recountDebt("OLD.customer_id, NEW.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_delete "
+            + "AFTER DELETE ON queue WHEN OLD.customer_id IS NOT NULL BEGIN "
+            + Migration4To5._recountDebt("OLD.customer_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_insert "
+            + "AFTER INSERT ON product_order BEGIN "
+            + Migration4To5._recountDebt(
+                "SELECT queue.customer_id FROM queue WHERE queue.id = NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_update "
+            + "AFTER UPDATE OF queue_id, total_price ON product_order BEGIN "
+            + Migration4To5._recountDebt(
+                "SELECT queue.customer_id FROM queue "
+                    + "WHERE queue.id IN (OLD.queue_id, NEW.queue_id)")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_delete "
+            + "AFTER DELETE ON product_order BEGIN "
+            + Migration4To5._recountDebt(
+                "SELECT queue.customer_id FROM queue WHERE queue.id = OLD.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_insert "
+            + "AFTER INSERT ON customer BEGIN "
+            + Migration4To5._recountDebt("NEW.id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_update "
+            + "AFTER UPDATE OF debt ON customer WHEN NEW.debt IS NOT OLD.debt BEGIN "
+            + Migration4To5._recountDebt("NEW.id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_insert "
+            + "AFTER INSERT ON product_order BEGIN "
+            + Migration4To5._recountTotal("NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_update "
+            + "AFTER UPDATE OF queue_id, discount, total_price ON product_order BEGIN "
+            + Migration4To5._recountTotal("OLD.queue_id, NEW.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_delete "
+            + "AFTER DELETE ON product_order BEGIN "
+            + Migration4To5._recountTotal("OLD.queue_id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_insert "
+            + "AFTER INSERT ON queue BEGIN "
+            + Migration4To5._recountTotal("NEW.id")
+            + " END");
+    db.execSQL(
+        "CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_update "
+            + "AFTER UPDATE OF grand_total, total_discount ON queue "
+            + "WHEN NEW.grand_total IS NOT OLD.grand_total "
+            + "OR NEW.total_discount IS NOT OLD.total_discount BEGIN "
+            + Migration4To5._recountTotal("NEW.id")
+            + " END");
+  }
+
+  /** Drop the triggers as they were on version 4 and 5. */
+  static void dropTriggers(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    Migration4To5._TRIGGER_NAMES.forEach(name -> db.execSQL("DROP TRIGGER IF EXISTS " + name));
+  }
+
+  @NonNull
+  private static String _recountDebt(@NonNull String customerIds) {
+    return Migration4To5._RECOUNT_DEBT.formatted(customerIds);
+  }
+
+  @NonNull
+  private static String _recountTotal(@NonNull String queueIds) {
+    return Migration4To5._RECOUNT_TOTAL.formatted(Migration4To5._UNIT, queueIds);
+  }
+}
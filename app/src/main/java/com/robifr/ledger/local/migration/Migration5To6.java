@@ -0,0 +1,96 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Store {@code queue.date} as epoch milliseconds instead of ISO-8601 text, which can't be compared
+ * as a string when some of the dates have fractional seconds while the others don't. The queue
+ * table is rebuilt, since SQLite can't change the type of a column. Triggers are unchanged from
+ * version 5.
+ */
+public class Migration5To6 extends Migration {
+  public Migration5To6() {
+    super(5, 6);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    // Triggers are referencing the table to be rebuilt.
+    Migration4To5.dropTriggers(db);
+
+    db.execSQL(
+        """
+        CREATE TABLE IF NOT EXISTS queue_new (
+          id INTEGER PRIMARY KEY AUTOINCREMENT,
+          customer_id INTEGER,
+          status TEXT NOT NULL,
+          date INTEGER NOT NULL,
+          payment_method TEXT NOT NULL,
+          grand_total INTEGER NOT NULL DEFAULT 0,
+          total_discount INTEGER NOT NULL DEFAULT 0,
+          FOREIGN KEY(customer_id) REFERENCES customer(id) ON UPDATE CASCADE ON DELETE SET NULL
+        )
+        """);
+    db.execSQL(
+        """
+        INSERT INTO queue_new
+          (id, customer_id, status, date, payment_method, grand_total, total_discount)
+        SELECT id, customer_id, status, 0, payment_method, grand_total, total_discount FROM queue
+        """);
+    Migration5To6._convertDate(db);
+    db.execSQL("DROP TABLE queue");
+    db.execSQL("ALTER TABLE queue_new RENAME TO queue");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_date ON queue (date)");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_status_date ON queue (status, date)");
+    db.execSQL(
+        "CREATE INDEX IF NOT EXISTS index_queue_customer_id_status ON queue (customer_id, status)");
+    db.execSQL("CREATE INDEX IF NOT EXISTS index_queue_grand_total ON queue (grand_total)");
+
+    Migration4To5.createTriggers(db);
+  }
+
+  /**
+   * Convert the ISO-8601 text from the old {@code queue} table into epoch milliseconds. It's parsed
+   * with {@link Instant} rather than SQL, as {@code julianday()} goes through a floating point.
+   */
+  private static void _convertDate(@NonNull SupportSQLiteDatabase db) {
+    try (final Cursor cursor = db.query("SELECT id, date FROM queue");
+        final SupportSQLiteStatement update =
+            db.compileStatement("UPDATE queue_new SET date = ? WHERE id = ?")) {
+      while (cursor.moveToNext()) {
+        update.bindLong(1, Instant.parse(cursor.getString(1)).toEpochMilli());
+        update.bindLong(2, cursor.getLong(0));
+        update.executeUpdateDelete();
+        update.clearBindings();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replace the FTS tables which stored a copy of the names with a space after every character, with
+ * external content ones tokenized by {@code unicode61}. They're then kept in sync by triggers,
+ * instead of from the DAOs. Statements are copied as they were on version 7, as the ones in {@link
+ * com.robifr.ledger.local.trigger.NameFtsTrigger} may change in later versions.
+ */
+public class Migration6To7 extends Migration {
+  public Migration6To7() {
+    super(6, 7);
+  }
+
+  @Override
+  public void migrate(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    for (String table : List.of("customer", "product")) {
+      db.execSQL("DROP TABLE IF EXISTS " + table + "_fts");
+      db.execSQL(
+          """
+          CREATE VIRTUAL TABLE IF NOT EXISTS `%1$s_fts` USING FTS4(
+            `name` TEXT NOT NULL, tokenize=unicode61 `remove_diacritics=2`, content=`%1$s`
+          )
+          """
+              .formatted(table));
+      // Index the existing names from the content table.
+      db.execSQL("INSERT INTO %1$s_fts(%1$s_fts) VALUES ('rebuild')".formatted(table));
+      Migration6To7._createTriggers(db, table);
+    }
+  }
+
+  private static void _createTriggers(@NonNull SupportSQLiteDatabase db, @NonNull String table) {
+    db.execSQL(
+        """
+        CREATE TRIGGER IF NOT EXISTS %1$s_fts_after_%1$s_insert
+        AFTER INSERT ON %1$s
+        BEGIN
+          INSERT INTO %1$s_fts(docid, name) VALUES (NEW.rowid, NEW.name);
+        END
+        """
+            .formatted(table));
+    db.execSQL(
+        """
+        CREATE TRIGGER IF NOT EXISTS %1$s_fts_before_%1$s_update
+        BEFORE UPDATE OF name ON %1$s
+        WHEN NEW.name IS NOT OLD.name
+        BEGIN
+          DELETE FROM %1$s_fts WHERE docid = OLD.rowid;
+        END
+        """
+            .formatted(table));
+    db.execSQL(
+        """
+        CREATE TRIGGER IF NOT EXISTS %1$s_fts_after_%1$s_update
+        AFTER UPDATE OF name ON %1$s
+        WHEN NEW.name IS NOT OLD.name
+        BEGIN
+          INSERT INTO %1$s_fts(docid, name) VALUES (NEW.rowid, NEW.name);
+        END
+        """
+            .formatted(table));
+    db.execSQL(
+        """
+        CREATE TRIGGER IF NOT EXISTS %1$s_fts_before_%1$s_delete
+        BEFORE DELETE ON %1$s
+        BEGIN
+          DELETE FROM %1$s_fts WHERE docid = OLD.rowid;
+        END
+        """
+            .formatted(table));
+  }
+}
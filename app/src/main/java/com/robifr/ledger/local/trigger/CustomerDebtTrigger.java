@@ -0,0 +1,144 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.trigger;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.robifr.ledger.data.model.CustomerModel;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Triggers to keep {@link CustomerModel#debt()} column up-to-date. Rather than applying the
+ * difference of each change, debt of the affected customer is recounted from their unpaid queues,
+ * so that the column can't drift away from the actual debt.
+ */
+public final class CustomerDebtTrigger {
+  private CustomerDebtTrigger() {}
+
+  @NonNull
+  private static final List<String> _TRIGGERS =
+      List.of(
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_insert
+          AFTER INSERT ON queue
+          WHEN NEW.customer_id IS NOT NULL
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt("NEW.customer_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_update
+          AFTER UPDATE OF customer_id, status ON queue
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt("OLD.customer_id, NEW.customer_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_queue_delete
+          AFTER DELETE ON queue
+          WHEN OLD.customer_id IS NOT NULL
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt("OLD.customer_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_insert
+          AFTER INSERT ON product_order
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt(
+                  "SELECT queue.customer_id FROM queue WHERE queue.id = NEW.queue_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_update
+          AFTER UPDATE OF queue_id, total_price ON product_order
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt(
+                  """
+                  SELECT queue.customer_id FROM queue
+                  WHERE queue.id IN (OLD.queue_id, NEW.queue_id)
+                  """)
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_product_order_delete
+          AFTER DELETE ON product_order
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt(
+                  "SELECT queue.customer_id FROM queue WHERE queue.id = OLD.queue_id")
+              + "END",
+          // Recount any debt written directly into the customer table.
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_insert
+          AFTER INSERT ON customer
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt("NEW.id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS customer_debt_after_customer_update
+          AFTER UPDATE OF debt ON customer
+          WHEN NEW.debt IS NOT OLD.debt
+          BEGIN
+          """
+              + CustomerDebtTrigger._recountDebt("NEW.id")
+              + "END");
+
+  @NonNull
+  private static final List<String> _TRIGGER_NAMES =
+      List.of(
+          "customer_debt_after_queue_insert",
+          "customer_debt_after_queue_update",
+          "customer_debt_after_queue_delete",
+          "customer_debt_after_product_order_insert",
+          "customer_debt_after_product_order_update",
+          "customer_debt_after_product_order_delete",
+          "customer_debt_after_customer_insert",
+          "customer_debt_after_customer_update");
+
+  public static void create(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    CustomerDebtTrigger._TRIGGERS.forEach(db::execSQL);
+  }
+
+  public static void drop(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    CustomerDebtTrigger._TRIGGER_NAMES.forEach(
+        name -> db.execSQL("DROP TRIGGER IF EXISTS " + name));
+  }
+
+  /**
+   * @param customerIds Expression resulting the customer IDs to recount, either a list of values
+   *     or a sub-query.
+   */
+  @NonNull
+  private static String _recountDebt(@NonNull String customerIds) {
+    return """
+        UPDATE customer SET debt = (
+          SELECT -IFNULL(SUM(product_order.total_price), 0) FROM product_order
+          INNER JOIN queue ON queue.id = product_order.queue_id
+          WHERE queue.customer_id = customer.id AND queue.status == 'UNPAID'
+        )
+        WHERE customer.id IN (%s);
+        """
+        .formatted(customerIds);
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.trigger;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.robifr.ledger.data.model.CustomerFtsModel;
+import com.robifr.ledger.data.model.ProductFtsModel;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Triggers to keep {@link CustomerFtsModel} and {@link ProductFtsModel} in sync with their content
+ * tables. They're used in place of the ones generated by Room, which re-index the name on every
+ * update of the row, including the ones made by {@link CustomerDebtTrigger}.
+ */
+public final class NameFtsTrigger {
+  private NameFtsTrigger() {}
+
+  @NonNull private static final List<String> _TABLES = List.of("customer", "product");
+
+  /**
+   * Content sync triggers generated by Room for the FTS tables. Room creates them along with the
+   * tables, and again after every migration, so they're dropped each time the database is opened.
+   */
+  @NonNull
+  private static final List<String> _ROOM_TRIGGER_NAMES =
+      NameFtsTrigger._TABLES.stream()
+          .flatMap(
+              table ->
+                  Stream.of("BEFORE_UPDATE", "BEFORE_DELETE", "AFTER_UPDATE", "AFTER_INSERT")
+                      .map(event -> "room_fts_content_sync_" + table + "_fts_" + event))
+          .collect(Collectors.toList());
+
+  /**
+   * Replace the content sync triggers generated by Room with our own. Both would index the same
+   * row, which fails on the duplicated docid.
+   */
+  public static void create(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    NameFtsTrigger._ROOM_TRIGGER_NAMES.forEach(
+        name -> db.execSQL("DROP TRIGGER IF EXISTS " + name));
+    NameFtsTrigger._TABLES.stream().flatMap(NameFtsTrigger::_triggersOf).forEach(db::execSQL);
+  }
+
+  /**
+   * The FTS tables read their content from the content table, so the old name has to be deleted
+   * from the index while it's still in the content table, and the new one inserted afterwards.
+   */
+  @NonNull
+  private static Stream<String> _triggersOf(@NonNull String table) {
+    return Stream.of(
+            """
+            CREATE TRIGGER IF NOT EXISTS %1$s_fts_after_%1$s_insert
+            AFTER INSERT ON %1$s
+            BEGIN
+              INSERT INTO %1$s_fts(docid, name) VALUES (NEW.rowid, NEW.name);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS %1$s_fts_before_%1$s_update
+            BEFORE UPDATE OF name ON %1$s
+            WHEN NEW.name IS NOT OLD.name
+            BEGIN
+              DELETE FROM %1$s_fts WHERE docid = OLD.rowid;
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS %1$s_fts_after_%1$s_update
+            AFTER UPDATE OF name ON %1$s
+            WHEN NEW.name IS NOT OLD.name
+            BEGIN
+              INSERT INTO %1$s_fts(docid, name) VALUES (NEW.rowid, NEW.name);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS %1$s_fts_before_%1$s_delete
+            BEFORE DELETE ON %1$s
+            BEGIN
+              DELETE FROM %1$s_fts WHERE docid = OLD.rowid;
+            END
+            """)
+        .map(trigger -> trigger.formatted(table));
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.trigger;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.robifr.ledger.data.model.ProductOrderModel;
+import com.robifr.ledger.data.model.QueueModel;
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Triggers to keep {@link QueueModel#grandTotalPrice()} and {@link QueueModel#totalDiscount()}
+ * columns up-to-date. They run within the same transaction as the product order changes, and
+ * recount the totals of the affected queue from its product orders.
+ */
+public final class QueueTotalTrigger {
+  private QueueTotalTrigger() {}
+
+  @NonNull
+  private static final List<String> _TRIGGERS =
+      List.of(
+          """
+          CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_insert
+          AFTER INSERT ON product_order
+          BEGIN
+          """
+              + QueueTotalTrigger._recountTotal("NEW.queue_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_update
+          AFTER UPDATE OF queue_id, discount, total_price ON product_order
+          BEGIN
+          """
+              + QueueTotalTrigger._recountTotal("OLD.queue_id, NEW.queue_id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS queue_total_after_product_order_delete
+          AFTER DELETE ON product_order
+          BEGIN
+          """
+              + QueueTotalTrigger._recountTotal("OLD.queue_id")
+              + "END",
+          // Recount any total written directly into the queue table.
+          """
+          CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_insert
+          AFTER INSERT ON queue
+          BEGIN
+          """
+              + QueueTotalTrigger._recountTotal("NEW.id")
+              + "END",
+          """
+          CREATE TRIGGER IF NOT EXISTS queue_total_after_queue_update
+          AFTER UPDATE OF grand_total, total_discount ON queue
+          WHEN NEW.grand_total IS NOT OLD.grand_total
+              OR NEW.total_discount IS NOT OLD.total_discount
+          BEGIN
+          """
+              + QueueTotalTrigger._recountTotal("NEW.id")
+              + "END");
+
+  public static void create(@NonNull SupportSQLiteDatabase db) {
+    Objects.requireNonNull(db);
+
+    QueueTotalTrigger._TRIGGERS.forEach(db::execSQL);
+  }
+
+  /**
+   * @param queueIds Expression resulting the queue IDs to recount.
+   * @implNote {@link ProductOrderModel#discount()} is stored as a whole number, unlike the total
+   *     columns which are stored in minor units of {@link MoneyConverter}.
+   */
+  @NonNull
+  private static String _recountTotal(@NonNull String queueIds) {
+    return """
+        UPDATE queue SET
+          grand_total = (
+            SELECT IFNULL(SUM(product_order.total_price), 0) FROM product_order
+            WHERE product_order.queue_id = queue.id
+          ),
+          total_discount = (
+            SELECT IFNULL(SUM(product_order.discount), 0) * %d FROM product_order
+            WHERE product_order.queue_id = queue.id
+          )
+        WHERE queue.id IN (%s);
+        """
+        .formatted(MoneyConverter.UNIT, queueIds);
+  }
+}
@@ -19,14 +19,19 @@ package com.robifr.ledger.repository;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.robifr.ledger.data.ModelListPipeline;
+import com.robifr.ledger.data.display.CustomerSorter;
 import com.robifr.ledger.data.model.CustomerBalanceInfo;
 import com.robifr.ledger.data.model.CustomerDebtInfo;
 import com.robifr.ledger.data.model.CustomerModel;
+import com.robifr.ledger.data.model.UsageInfo;
+import com.robifr.ledger.local.DatabaseExecutor;
 import com.robifr.ledger.local.LocalDatabase;
 import com.robifr.ledger.local.access.CustomerDao;
-import java.math.BigDecimal;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -37,24 +42,59 @@ public final class CustomerRepository
         QueryModifiable<CustomerModel> {
   @Nullable private static CustomerRepository _instance;
   @NonNull private final CustomerDao _localDao;
+  @NonNull private final DatabaseExecutor _executor;
+
+  @NonNull private final ModelChangedBus<CustomerModel> _modelChangedBus = new ModelChangedBus<>();
+
+  @NonNull
+  private final ModelSnapshotStore<CustomerModel> _snapshotStore =
+      new ModelSnapshotStore<>(this::selectAll);
 
   @NonNull
-  private final HashSet<ModelChangedListener<CustomerModel>> _modelChangedListeners =
-      new HashSet<>();
+  private final NameSearchIndex<CustomerModel> _nameIndex =
+      new NameSearchIndex<>(
+          this._snapshotStore,
+          ModelListPipeline.defaultExecutor(),
+          CustomerModel::name,
+          () -> new CustomerSorter().comparator());
 
-  private CustomerRepository(@NonNull Context context) {
+  /** Number of the queues of each customer by their ID, refreshed by {@link #warmUpSearch()}. */
+  @NonNull private volatile Map<Long, Integer> _usages = Collections.emptyMap();
+
+  /**
+   * Cached customers by their ID, invalidated by the writes of this repository and by the queues
+   * which change their balance or debt.
+   */
+  @NonNull private final ModelCache<CustomerModel> _cache = new ModelCache<>();
+
+  private CustomerRepository(@NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
 
     this._localDao = LocalDatabase.instance(context.getApplicationContext()).customerDao();
+    this._executor = Objects.requireNonNull(executor);
+
+    this._modelChangedBus.addListener(this._snapshotStore);
+    this._snapshotStore.addListener(this._nameIndex);
   }
 
   @NonNull
-  public static synchronized CustomerRepository instance(@NonNull Context context) {
+  public static CustomerRepository instance(@NonNull Context context) {
+    return CustomerRepository.instance(context, DatabaseExecutor.instance());
+  }
+
+  /**
+   * @param executor Executor to run the queries with. Only used the first time the repository is
+   *     created.
+   */
+  @NonNull
+  public static synchronized CustomerRepository instance(
+      @NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
     return CustomerRepository._instance =
         CustomerRepository._instance == null
-            ? new CustomerRepository(context)
+            ? new CustomerRepository(context, executor)
             : CustomerRepository._instance;
   }
 
@@ -62,71 +102,132 @@ public final class CustomerRepository
   public void addModelChangedListener(@NonNull ModelChangedListener<CustomerModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.add(listener);
+    this._modelChangedBus.addListener(listener);
   }
 
   @Override
   public void removeModelChangedListener(@NonNull ModelChangedListener<CustomerModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.remove(listener);
+    this._modelChangedBus.removeListener(listener);
   }
 
   @Override
   public void notifyModelAdded(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelAdded(customers));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.ADDED, customers);
   }
 
   @Override
   public void notifyModelUpdated(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpdated(customers));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPDATED, customers);
   }
 
   @Override
   public void notifyModelDeleted(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelDeleted(customers));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.DELETED, customers);
   }
 
   @Override
   public void notifyModelUpserted(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpserted(customers));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPSERTED, customers);
+  }
+
+  @Override
+  @NonNull
+  public ModelChangedBus.Stats modelChangedStats() {
+    return this._modelChangedBus.stats();
+  }
+
+  /**
+   * @return Shared snapshot of all customers, kept up to date with the changes of this repository.
+   */
+  @NonNull
+  public ModelSnapshotStore<CustomerModel> snapshotStore() {
+    return this._snapshotStore;
+  }
+
+  @NonNull
+  public ModelCache.Stats cacheStats() {
+    return this._cache.stats();
+  }
+
+  /** Disable the cache to always select from the database, like when testing the queries. */
+  public void setCacheEnabled(boolean isEnabled) {
+    this._cache.setEnabled(isEnabled);
+  }
+
+  /**
+   * Invalidate the cached customers whose balance or debt were changed by writing the other
+   * tables, like the queues.
+   */
+  public void invalidateCache(@NonNull List<Long> customerIds) {
+    Objects.requireNonNull(customerIds);
+
+    this._cache.invalidate(customerIds);
+  }
+
+  /**
+   * @see #invalidateCache(List)
+   */
+  public void invalidateCache() {
+    this._cache.invalidateAll();
   }
 
   @Override
   @NonNull
   public CompletableFuture<List<CustomerModel>> selectAll() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAll)
-        .thenComposeAsync(this::_mapFields);
+    return this._executor.read(this._localDao::selectAll);
   }
 
   @Override
   @NonNull
   public CompletableFuture<CustomerModel> selectById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(id))
-        .thenComposeAsync(this::_mapFields);
+    final CustomerModel cachedCustomer = this._cache.get(id);
+    if (cachedCustomer != null) return CompletableFuture.completedFuture(cachedCustomer);
+
+    return this._executor.read(
+        () -> {
+          final long version = this._cache.version();
+          final CustomerModel customer = this._localDao.selectById(id);
+          if (customer != null) this._cache.putAll(List.of(customer), version);
+          return customer;
+        });
   }
 
+  /**
+   * Cached customers are merged with the selected ones, in the same order as {@code ids}. Null for
+   * the one that can't be found.
+   */
   @Override
   @NonNull
   public CompletableFuture<List<CustomerModel>> selectById(@NonNull List<Long> ids) {
     Objects.requireNonNull(ids);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(ids))
-        .thenComposeAsync(this::_mapFields);
+    final ArrayList<CustomerModel> cachedCustomers = new ArrayList<>();
+    final List<Long> missedIds = this._cache.getAll(ids, cachedCustomers);
+    if (missedIds.isEmpty()) return CompletableFuture.completedFuture(cachedCustomers);
+
+    return this._executor.read(
+        () -> {
+          final long version = this._cache.version();
+          final List<CustomerModel> customers = this._localDao.selectById(missedIds);
+          this._cache.putAll(customers, version);
+          return ModelCache.merge(ids, cachedCustomers, customers);
+        });
   }
 
   @Override
   @NonNull
   public CompletableFuture<Boolean> isExistsById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.isExistsById(id));
+    return this._executor.read(() -> this._localDao.isExistsById(id));
   }
 
   @Override
@@ -135,10 +236,10 @@ public final class CustomerRepository
     Objects.requireNonNull(customer);
 
     final CompletableFuture<Long> insert =
-        CompletableFuture.supplyAsync(() -> this._localDao.insert(customer))
+        this._executor.write(() -> this._localDao.insert(customer))
             .thenComposeAsync(
-                rowId ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowId)));
+                rowId -> this._executor.read(() -> this._localDao.selectIdByRowId(rowId)),
+                this._executor.continuation());
 
     return insert.thenComposeAsync(
         insertedCustomerId -> {
@@ -146,9 +247,11 @@ public final class CustomerRepository
               .thenAcceptAsync(
                   insertedCustomer -> {
                     if (insertedCustomer != null) this.notifyModelAdded(List.of(insertedCustomer));
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(insertedCustomerId);
-        });
+        },
+        this._executor.continuation());
   }
 
   @Override
@@ -157,7 +260,12 @@ public final class CustomerRepository
     Objects.requireNonNull(customer);
 
     final CompletableFuture<Integer> update =
-        CompletableFuture.supplyAsync(() -> this._localDao.update(customer));
+        this._executor.write(
+            () -> {
+              final int effected = this._localDao.update(customer);
+              this._cache.invalidate(Collections.singletonList(customer.id()));
+              return effected;
+            });
 
     update.thenAcceptAsync(
         effected -> {
@@ -167,8 +275,10 @@ public final class CustomerRepository
               .thenAcceptAsync(
                   updatedCustomer -> {
                     if (updatedCustomer != null) this.notifyModelUpdated(List.of(updatedCustomer));
-                  });
-        });
+                  },
+                  this._executor.continuation());
+        },
+        this._executor.continuation());
     return update;
   }
 
@@ -184,62 +294,119 @@ public final class CustomerRepository
               if (customerToDelete == null) return CompletableFuture.completedFuture(0);
 
               final CompletableFuture<Integer> delete =
-                  CompletableFuture.supplyAsync(() -> this._localDao.delete(customerToDelete));
+                  this._executor.write(
+                      () -> {
+                        final int effected = this._localDao.delete(customerToDelete);
+                        this._cache.invalidate(Collections.singletonList(customerToDelete.id()));
+                        return effected;
+                      });
 
               delete.thenAcceptAsync(
                   effected -> {
                     if (effected > 0) this.notifyModelDeleted(List.of(customerToDelete));
-                  });
+                  },
+                  this._executor.continuation());
               return delete;
-            });
+            },
+            this._executor.continuation());
+  }
+
+  /**
+   * Start building the in-memory index ahead of the first search, and count the usage of each
+   * customer to rank the results of {@link #searchRanked(String)}.
+   *
+   * @see #search(String)
+   */
+  public void warmUpSearch() {
+    this._nameIndex.warm();
+    this._executor
+        .read(this._localDao::selectAllUsageInfo)
+        .thenAccept(
+            usages ->
+                this._usages =
+                    usages.stream()
+                        .filter(usage -> usage.id() != null)
+                        .collect(Collectors.toMap(UsageInfo::id, UsageInfo::usage)));
   }
 
+  /**
+   * Search customers by their name, ordered by the name. The search is answered right away from
+   * {@link NameSearchIndex} once it's warm, or by the FTS table while it's still cold. Unlike the
+   * index, the FTS table only matches the start of each word in the name.
+   */
   @NonNull
   public CompletableFuture<List<CustomerModel>> search(@NonNull String query) {
     Objects.requireNonNull(query);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.search(query))
-        .thenComposeAsync(this::_mapFields);
+    final List<CustomerModel> indexedCustomers = this._nameIndex.search(query);
+    if (indexedCustomers != null) return CompletableFuture.completedFuture(indexedCustomers);
+
+    return this._executor.read(() -> this._localDao.search(query));
   }
 
+  /**
+   * Search customers by their name, even with a few typos. Up to {@link
+   * NameSearchIndex#RANKED_LIMIT} of the best matching customers are taken, ranked by the match
+   * quality, then by how often they're used. Falls back to {@link #search(String)} while the
+   * in-memory index is still cold.
+   */
   @NonNull
-  public CompletableFuture<List<CustomerBalanceInfo>> selectAllInfoWithBalance() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAllInfoWithBalance);
+  public CompletableFuture<List<CustomerModel>> searchRanked(@NonNull String query) {
+    Objects.requireNonNull(query);
+
+    final Map<Long, Integer> usages = this._usages;
+    return this._executor
+        .read(
+            () ->
+                this._nameIndex.searchRanked(
+                    query,
+                    NameSearchIndex.RANKED_LIMIT,
+                    customer -> usages.getOrDefault(customer.id(), 0)))
+        .thenComposeAsync(
+            customers ->
+                customers != null
+                    ? CompletableFuture.completedFuture(customers)
+                    : this.search(query)
+                        .thenApply(
+                            result ->
+                                result.stream()
+                                    .limit(NameSearchIndex.RANKED_LIMIT)
+                                    .collect(Collectors.toList())),
+            this._executor.continuation());
   }
 
   @NonNull
-  public CompletableFuture<List<CustomerDebtInfo>> selectAllInfoWithDebt() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAllInfoWithDebt);
+  public CompletableFuture<List<CustomerBalanceInfo>> selectAllInfoWithBalance() {
+    return this._executor.read(this._localDao::selectAllInfoWithBalance);
   }
 
-  /**
-   * Specifically used when query returning object model, mostly select query. Like when {@link
-   * CustomerModel} consisting {@link CustomerModel#debt()} field, which can only be obtained from
-   * database. We have to make sure those field mapped into it.
-   */
   @NonNull
-  private CompletableFuture<CustomerModel> _mapFields(@Nullable CustomerModel customer) {
-    if (customer == null) return CompletableFuture.completedFuture(null);
-
-    final CompletableFuture<BigDecimal> countDebt =
-        CompletableFuture.supplyAsync(() -> this._localDao.totalDebtById(customer.id()));
-
-    return countDebt.thenApplyAsync(customer::withDebt);
+  public CompletableFuture<List<CustomerDebtInfo>> selectAllInfoWithDebt() {
+    return this._executor.read(this._localDao::selectAllInfoWithDebt);
   }
 
   /**
-   * @see #_mapFields(CustomerModel)
+   * Repair customers debt which has drifted away from their unpaid queues.
+   *
+   * @return Repaired customers.
+   * @see CustomerDao#repairDebt()
    */
   @NonNull
-  private CompletableFuture<List<CustomerModel>> _mapFields(
-      @Nullable List<CustomerModel> customers) {
-    if (customers == null) return CompletableFuture.completedFuture(null);
-
-    final List<CompletableFuture<CustomerModel>> mapFields =
-        customers.stream().map(this::_mapFields).collect(Collectors.toList());
-
-    return CompletableFuture.allOf(mapFields.stream().toArray(CompletableFuture[]::new))
-        .thenApplyAsync(
-            ignore -> mapFields.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  public CompletableFuture<List<CustomerModel>> repairDebt() {
+    final CompletableFuture<List<CustomerModel>> repair =
+        this._executor.write(
+                () -> {
+                  final List<Long> repairedIds = this._localDao.repairDebt();
+                  this._cache.invalidate(repairedIds);
+                  return repairedIds;
+                })
+            .thenComposeAsync(this::selectById, this._executor.continuation());
+
+    repair.thenAcceptAsync(
+        repairedCustomers -> {
+          if (!repairedCustomers.isEmpty()) this.notifyModelUpdated(repairedCustomers);
+        },
+        this._executor.continuation());
+    return repair;
   }
 }
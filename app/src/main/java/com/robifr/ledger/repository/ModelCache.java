@@ -0,0 +1,204 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.robifr.ledger.data.ModelIdIndex;
+import com.robifr.ledger.data.model.Model;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Size-bounded cache of models by their ID, where the least recently used one is evicted first.
+ * Entries are only invalidated by the repository which owns them, so they must be invalidated on
+ * every write that might change them.
+ *
+ * <p>A model selected before an invalidation might arrive after it. Such model is discarded by
+ * comparing the version taken before selecting it, so that stale model is never cached.
+ *
+ * @param <M> Model to cache.
+ */
+public final class ModelCache<M extends Model> {
+  public static final int DEFAULT_MAX_SIZE = 512;
+
+  private final int _maxSize;
+  @NonNull private final LinkedHashMap<Long, M> _models;
+
+  /** Incremented on every invalidation. */
+  private long _version = 0L;
+
+  private boolean _isEnabled = true;
+  private long _hitCount = 0L;
+  private long _missCount = 0L;
+  private long _evictionCount = 0L;
+  private long _invalidationCount = 0L;
+
+  public ModelCache(int maxSize) {
+    if (maxSize <= 0) throw new IllegalArgumentException("Max size must be positive");
+
+    this._maxSize = maxSize;
+    this._models =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(@NonNull Map.Entry<Long, M> eldest) {
+            final boolean isEvicted = this.size() > ModelCache.this._maxSize;
+            if (isEvicted) ModelCache.this._evictionCount++;
+            return isEvicted;
+          }
+        };
+  }
+
+  public ModelCache() {
+    this(ModelCache.DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @return Cached model, or null when it's not cached or the cache is disabled.
+   */
+  @Nullable
+  public synchronized M get(@Nullable Long id) {
+    if (!this._isEnabled || id == null) return null;
+
+    final M model = this._models.get(id);
+    if (model != null) this._hitCount++;
+    else this._missCount++;
+    return model;
+  }
+
+  /**
+   * @param ids IDs to look up, where the cached ones are put into {@code hits}.
+   * @return IDs which aren't cached, in the same order.
+   */
+  @NonNull
+  public synchronized List<Long> getAll(@NonNull List<Long> ids, @NonNull List<M> hits) {
+    Objects.requireNonNull(ids);
+    Objects.requireNonNull(hits);
+
+    final ArrayList<Long> missedIds = new ArrayList<>();
+
+    for (Long id : ids) {
+      final M model = this.get(id);
+      if (model != null) hits.add(model);
+      else missedIds.add(id);
+    }
+
+    return missedIds;
+  }
+
+  /**
+   * Merge the cached models with the ones selected for the missed IDs, where the cached one is
+   * preferred when both have the same ID.
+   *
+   * @param ids IDs which were looked up.
+   * @param hits Cached models put by {@link #getAll(List, List)}.
+   * @param selectedModels Models selected for the missed IDs, in any order.
+   * @return Models in the same order as {@code ids}. Null for the one that can't be found.
+   */
+  @NonNull
+  public static <M extends Model> List<M> merge(
+      @NonNull List<Long> ids, @NonNull List<M> hits, @NonNull List<M> selectedModels) {
+    Objects.requireNonNull(ids);
+    Objects.requireNonNull(hits);
+    Objects.requireNonNull(selectedModels);
+
+    final ArrayList<M> models = new ArrayList<>(hits.size() + selectedModels.size());
+    hits.stream().filter(Objects::nonNull).forEach(models::add);
+    selectedModels.stream().filter(Objects::nonNull).forEach(models::add);
+
+    final ModelIdIndex index = ModelIdIndex.ofModels(models);
+    final ArrayList<M> result = new ArrayList<>(ids.size());
+
+    for (Long id : ids) {
+      final int position = id != null ? index.indexOf(id) : -1;
+      result.add(position != -1 ? models.get(position) : null);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Version to be passed when putting the models selected after this call.
+   */
+  public synchronized long version() {
+    return this._version;
+  }
+
+  /**
+   * Cache the models, unless there was an invalidation since the version was taken.
+   *
+   * @param version Version taken before selecting the models.
+   * @see #version()
+   */
+  public synchronized void putAll(@NonNull List<M> models, long version) {
+    Objects.requireNonNull(models);
+
+    if (!this._isEnabled || version != this._version) return;
+
+    for (M model : models) {
+      if (model != null && model.modelId() != null) this._models.put(model.modelId(), model);
+    }
+  }
+
+  public synchronized void invalidate(@NonNull List<Long> ids) {
+    Objects.requireNonNull(ids);
+
+    this._version++;
+    this._invalidationCount++;
+
+    for (Long id : ids) {
+      if (id != null) this._models.remove(id);
+    }
+  }
+
+  public synchronized void invalidateAll() {
+    this._version++;
+    this._invalidationCount++;
+    this._models.clear();
+  }
+
+  public synchronized boolean isEnabled() {
+    return this._isEnabled;
+  }
+
+  /** Disabling the cache also drops any cached model, like when testing the queries. */
+  public synchronized void setEnabled(boolean isEnabled) {
+    this._isEnabled = isEnabled;
+    if (!isEnabled) this.invalidateAll();
+  }
+
+  @NonNull
+  public synchronized Stats stats() {
+    return new Stats(
+        this._models.size(),
+        this._hitCount,
+        this._missCount,
+        this._evictionCount,
+        this._invalidationCount);
+  }
+
+  public record Stats(
+      int size, long hitCount, long missCount, long evictionCount, long invalidationCount) {
+    public double hitRate() {
+      final long lookupCount = this.hitCount + this.missCount;
+      return lookupCount > 0L ? (double) this.hitCount / lookupCount : 0.0;
+    }
+  }
+}
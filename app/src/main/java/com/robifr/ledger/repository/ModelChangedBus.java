@@ -0,0 +1,265 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.robifr.ledger.data.model.Model;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of {@link ModelChangedListener} which delivers the changes in batches. Changes published
+ * within a frame are coalesced by their model ID into a single {@link Batch}, so that a bulk
+ * operation doesn't make each listener re-filter and re-sort its models for every single event.
+ *
+ * <p>Listeners are weakly referenced, the registrant is responsible to hold them for as long as
+ * they're needed. Both registering and publishing are safe from any thread.
+ */
+public final class ModelChangedBus<M extends Model> {
+  /** Delay between the first change being published and the batch being delivered. */
+  public static final long FRAME_MILLIS = 16L;
+
+  @NonNull
+  private static final ScheduledExecutorService _DISPATCHER =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            final Thread thread = new Thread(runnable, "model-changed-bus");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  @NonNull private final ScheduledExecutorService _dispatcher;
+  private final long _delayMillis;
+
+  @NonNull
+  private final CopyOnWriteArrayList<WeakReference<ModelChangedListener<M>>> _listeners =
+      new CopyOnWriteArrayList<>();
+
+  /** Pending changes keyed by model ID, or by a unique key for a model without ID. */
+  @NonNull private LinkedHashMap<Object, PendingChange<M>> _pendingChanges = new LinkedHashMap<>();
+
+  private boolean _isDeliveryScheduled = false;
+  @NonNull private final Object _pendingLock = new Object();
+  @NonNull private final Object _deliveryLock = new Object();
+  @NonNull private final LongAdder _publishedCount = new LongAdder();
+  @NonNull private final LongAdder _mergedCount = new LongAdder();
+  @NonNull private final LongAdder _deliveredCount = new LongAdder();
+  @NonNull private final LongAdder _batchCount = new LongAdder();
+  @NonNull private final AtomicLong _maxBatchSize = new AtomicLong();
+
+  public ModelChangedBus() {
+    this(ModelChangedBus._DISPATCHER, ModelChangedBus.FRAME_MILLIS);
+  }
+
+  /**
+   * @param dispatcher Executor to deliver the batches with. It must run one task at a time to keep
+   *     the batches in order.
+   * @param delayMillis Delay to wait for more changes before delivering them.
+   */
+  public ModelChangedBus(@NonNull ScheduledExecutorService dispatcher, long delayMillis) {
+    if (delayMillis < 0L) throw new IllegalArgumentException("Delay can't be negative");
+
+    this._dispatcher = Objects.requireNonNull(dispatcher);
+    this._delayMillis = delayMillis;
+  }
+
+  public void addListener(@NonNull ModelChangedListener<M> listener) {
+    Objects.requireNonNull(listener);
+
+    synchronized (this._listeners) {
+      this._listeners.removeIf(ref -> ref.get() == null);
+      if (this._listeners.stream().noneMatch(ref -> ref.get() == listener)) {
+        this._listeners.add(new WeakReference<>(listener));
+      }
+    }
+  }
+
+  public void removeListener(@NonNull ModelChangedListener<M> listener) {
+    Objects.requireNonNull(listener);
+
+    synchronized (this._listeners) {
+      this._listeners.removeIf(ref -> ref.get() == null || ref.get() == listener);
+    }
+  }
+
+  /**
+   * Queue the changes to be delivered with the next batch. A model changed more than once before
+   * then is delivered once, with its latest state and the combined kind of change. Like a model
+   * being added then updated is delivered as added, while a model being added then deleted isn't
+   * delivered at all.
+   */
+  public void publish(@NonNull Kind kind, @NonNull List<M> models) {
+    Objects.requireNonNull(kind);
+    Objects.requireNonNull(models);
+
+    if (models.isEmpty()) return;
+
+    synchronized (this._pendingLock) {
+      for (M model : models) {
+        this._publishedCount.increment();
+
+        final Object key = model.modelId() != null ? model.modelId() : new Object();
+        final PendingChange<M> pendingChange = this._pendingChanges.get(key);
+        if (pendingChange == null) {
+          this._pendingChanges.put(key, new PendingChange<>(kind, model));
+          continue;
+        }
+
+        final Kind mergedKind = ModelChangedBus._merge(pendingChange.kind(), kind);
+        this._mergedCount.increment();
+        if (mergedKind != null) {
+          this._pendingChanges.put(key, new PendingChange<>(mergedKind, model));
+        } else {
+          // Both of the changes are cancelled out.
+          this._mergedCount.increment();
+          this._pendingChanges.remove(key);
+        }
+      }
+
+      if (!this._isDeliveryScheduled) {
+        this._isDeliveryScheduled = true;
+        this._dispatcher.schedule(this::flush, this._delayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /** Deliver the pending changes right away on the calling thread. */
+  public void flush() {
+    synchronized (this._deliveryLock) {
+      final LinkedHashMap<Object, PendingChange<M>> pendingChanges;
+      synchronized (this._pendingLock) {
+        pendingChanges = this._pendingChanges;
+        this._pendingChanges = new LinkedHashMap<>();
+        this._isDeliveryScheduled = false;
+      }
+
+      if (pendingChanges.isEmpty()) return;
+
+      final Batch<M> batch = Batch.of(pendingChanges.values());
+      this._deliveredCount.add(pendingChanges.size());
+      this._batchCount.increment();
+      this._maxBatchSize.accumulateAndGet(pendingChanges.size(), Math::max);
+
+      for (WeakReference<ModelChangedListener<M>> ref : this._listeners) {
+        final ModelChangedListener<M> listener = ref.get();
+        if (listener != null) listener.onModelChanged(batch);
+      }
+    }
+  }
+
+  @NonNull
+  public Stats stats() {
+    return new Stats(
+        this._publishedCount.sum(),
+        this._mergedCount.sum(),
+        this._deliveredCount.sum(),
+        this._batchCount.sum(),
+        this._maxBatchSize.get());
+  }
+
+  /**
+   * @return Kind of the combined changes, or null when they cancel each other out.
+   */
+  @Nullable
+  private static Kind _merge(@NonNull Kind oldKind, @NonNull Kind newKind) {
+    Objects.requireNonNull(oldKind);
+    Objects.requireNonNull(newKind);
+
+    if (newKind == Kind.DELETED) return oldKind == Kind.ADDED ? null : Kind.DELETED;
+    if (oldKind == Kind.ADDED) return Kind.ADDED;
+    if (oldKind == Kind.UPDATED && newKind == Kind.UPDATED) return Kind.UPDATED;
+    // The model might not have been known by the listeners, or might have been deleted.
+    return Kind.UPSERTED;
+  }
+
+  public enum Kind {
+    ADDED,
+    UPDATED,
+    DELETED,
+    UPSERTED
+  }
+
+  /** Coalesced changes, where each model only appears once across all the kinds. */
+  public record Batch<M extends Model>(
+      @NonNull List<M> addedModels,
+      @NonNull List<M> updatedModels,
+      @NonNull List<M> deletedModels,
+      @NonNull List<M> upsertedModels) {
+    public Batch {
+      Objects.requireNonNull(addedModels);
+      Objects.requireNonNull(updatedModels);
+      Objects.requireNonNull(deletedModels);
+      Objects.requireNonNull(upsertedModels);
+    }
+
+    @NonNull
+    private static <M extends Model> Batch<M> of(@NonNull Iterable<PendingChange<M>> changes) {
+      Objects.requireNonNull(changes);
+
+      final ArrayList<M> added = new ArrayList<>();
+      final ArrayList<M> updated = new ArrayList<>();
+      final ArrayList<M> deleted = new ArrayList<>();
+      final ArrayList<M> upserted = new ArrayList<>();
+
+      for (PendingChange<M> change : changes) {
+        switch (change.kind()) {
+          case ADDED -> added.add(change.model());
+          case UPDATED -> updated.add(change.model());
+          case DELETED -> deleted.add(change.model());
+          case UPSERTED -> upserted.add(change.model());
+        }
+      }
+
+      return new Batch<>(
+          List.copyOf(added), List.copyOf(updated), List.copyOf(deleted), List.copyOf(upserted));
+    }
+
+    public int size() {
+      return this.addedModels.size()
+          + this.updatedModels.size()
+          + this.deletedModels.size()
+          + this.upsertedModels.size();
+    }
+  }
+
+  /**
+   * @param publishedCount Number of model changes published.
+   * @param mergedCount Number of model changes folded into another one, or cancelled out, before
+   *     being delivered.
+   * @param deliveredCount Number of model changes delivered.
+   * @param batchCount Number of batches delivered.
+   * @param maxBatchSize Highest number of model changes delivered in a single batch.
+   */
+  public record Stats(
+      long publishedCount,
+      long mergedCount,
+      long deliveredCount,
+      long batchCount,
+      long maxBatchSize) {}
+
+  private record PendingChange<M extends Model>(@NonNull Kind kind, @NonNull M model) {}
+}
@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
 import com.robifr.ledger.data.model.Model;
 import java.util.List;
+import java.util.Objects;
 
 public interface ModelChangedListener<M extends Model> {
   @WorkerThread
@@ -34,6 +35,22 @@ public interface ModelChangedListener<M extends Model> {
   @WorkerThread
   public void onModelUpserted(@NonNull List<M> models);
 
+  /**
+   * Called once for each batch of coalesced changes. By default, each non-empty kind of change is
+   * passed to its respective callback. Override this to react only once for the whole batch.
+   *
+   * @see ModelChangedBus
+   */
+  @WorkerThread
+  public default void onModelChanged(@NonNull ModelChangedBus.Batch<M> batch) {
+    Objects.requireNonNull(batch);
+
+    if (!batch.deletedModels().isEmpty()) this.onModelDeleted(batch.deletedModels());
+    if (!batch.addedModels().isEmpty()) this.onModelAdded(batch.addedModels());
+    if (!batch.updatedModels().isEmpty()) this.onModelUpdated(batch.updatedModels());
+    if (!batch.upsertedModels().isEmpty()) this.onModelUpserted(batch.upsertedModels());
+  }
+
   public sealed interface Source<M extends Model>
       permits CustomerRepository, ProductOrderRepository, ProductRepository, QueueRepository {
     public void addModelChangedListener(@NonNull ModelChangedListener<M> listener);
@@ -47,5 +64,8 @@ public interface ModelChangedListener<M extends Model> {
     public void notifyModelDeleted(@NonNull List<M> models);
 
     public void notifyModelUpserted(@NonNull List<M> models);
+
+    @NonNull
+    public ModelChangedBus.Stats modelChangedStats();
   }
 }
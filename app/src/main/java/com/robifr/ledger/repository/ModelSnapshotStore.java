@@ -0,0 +1,268 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.robifr.ledger.data.ModelIdIndex;
+import com.robifr.ledger.data.model.Model;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide copy of every model from a repository, shared by the screens showing them, so
+ * that each of them doesn't have to select and keep its own copy. The models are selected once,
+ * then kept up to date by applying every {@link ModelChangedBus.Batch} into a new {@link Snapshot}.
+ *
+ * <p>Listeners are weakly referenced, the registrant is responsible to hold them for as long as
+ * they're needed. Both registering and reading the snapshot are safe from any thread.
+ *
+ * @param <M> Model of the repository.
+ */
+public final class ModelSnapshotStore<M extends Model> implements ModelChangedListener<M> {
+  @NonNull private final Supplier<CompletableFuture<List<M>>> _selectAll;
+
+  @NonNull
+  private final CopyOnWriteArrayList<WeakReference<Listener<M>>> _listeners =
+      new CopyOnWriteArrayList<>();
+
+  /** Latest snapshot, or null when the models haven't been selected yet. */
+  @Nullable private Snapshot<M> _snapshot = null;
+
+  /** Snapshot being selected, or null when there's none. */
+  @Nullable private CompletableFuture<Snapshot<M>> _loadingSnapshot = null;
+
+  /**
+   * Batches delivered while the snapshot is being selected. They're applied again onto the
+   * selected models, which might have been selected before the changes were committed.
+   */
+  @NonNull private final ArrayList<ModelChangedBus.Batch<M>> _pendingBatches = new ArrayList<>();
+
+  private long _version = 0L;
+
+  /**
+   * @param selectAll Query to select every model with, only called when there's no snapshot yet.
+   *     It either returns null or completes exceptionally for a failed operation.
+   */
+  public ModelSnapshotStore(@NonNull Supplier<CompletableFuture<List<M>>> selectAll) {
+    this._selectAll = Objects.requireNonNull(selectAll);
+  }
+
+  public void addListener(@NonNull Listener<M> listener) {
+    Objects.requireNonNull(listener);
+
+    synchronized (this._listeners) {
+      this._listeners.removeIf(ref -> ref.get() == null);
+      if (this._listeners.stream().noneMatch(ref -> ref.get() == listener)) {
+        this._listeners.add(new WeakReference<>(listener));
+      }
+    }
+  }
+
+  public void removeListener(@NonNull Listener<M> listener) {
+    Objects.requireNonNull(listener);
+
+    synchronized (this._listeners) {
+      this._listeners.removeIf(ref -> ref.get() == null || ref.get() == listener);
+    }
+  }
+
+  /**
+   * @return Latest snapshot, which is only selected from the database the first time. Null for a
+   *     failed operation, in which case it will be selected again on the next call.
+   */
+  @NonNull
+  public synchronized CompletableFuture<Snapshot<M>> snapshot() {
+    if (this._snapshot != null) return CompletableFuture.completedFuture(this._snapshot);
+    if (this._loadingSnapshot != null) return this._loadingSnapshot;
+
+    // An exceptional query is treated like a failed one, otherwise the failed future would be
+    // returned forever while the pending batches are kept piling up.
+    final CompletableFuture<Snapshot<M>> loadingSnapshot =
+        this._selectAll
+            .get()
+            .handle(
+                (models, throwable) ->
+                    this._onSnapshotSelected(throwable == null ? models : null));
+    // The query might have been completed right away, where the snapshot is already set.
+    this._loadingSnapshot = !loadingSnapshot.isDone() ? loadingSnapshot : null;
+    return loadingSnapshot;
+  }
+
+  /**
+   * @return Models of the latest snapshot. Null for a failed operation.
+   * @see #snapshot()
+   */
+  @NonNull
+  public CompletableFuture<List<M>> models() {
+    return this.snapshot().thenApply(snapshot -> snapshot != null ? snapshot.models() : null);
+  }
+
+  /**
+   * @return Latest snapshot, or null when it's neither selected nor being selected. Unlike {@link
+   *     #snapshot()}, this never selects the models from the database.
+   */
+  @Nullable
+  public synchronized CompletableFuture<Snapshot<M>> selectedSnapshot() {
+    if (this._snapshot != null) return CompletableFuture.completedFuture(this._snapshot);
+    return this._loadingSnapshot;
+  }
+
+  @Override
+  @WorkerThread
+  public void onModelAdded(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    this.onModelChanged(new ModelChangedBus.Batch<>(models, List.of(), List.of(), List.of()));
+  }
+
+  @Override
+  @WorkerThread
+  public void onModelUpdated(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    this.onModelChanged(new ModelChangedBus.Batch<>(List.of(), models, List.of(), List.of()));
+  }
+
+  @Override
+  @WorkerThread
+  public void onModelDeleted(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    this.onModelChanged(new ModelChangedBus.Batch<>(List.of(), List.of(), models, List.of()));
+  }
+
+  @Override
+  @WorkerThread
+  public void onModelUpserted(@NonNull List<M> models) {
+    Objects.requireNonNull(models);
+
+    this.onModelChanged(new ModelChangedBus.Batch<>(List.of(), List.of(), List.of(), models));
+  }
+
+  /** Apply the whole batch into a single new snapshot, then pass it to the listeners. */
+  @Override
+  @WorkerThread
+  public void onModelChanged(@NonNull ModelChangedBus.Batch<M> batch) {
+    Objects.requireNonNull(batch);
+
+    final Snapshot<M> snapshot;
+    synchronized (this) {
+      if (this._snapshot == null) {
+        // Without any snapshot, the changes will be selected along with the rest of the models.
+        if (this._loadingSnapshot != null) this._pendingBatches.add(batch);
+        return;
+      }
+
+      snapshot =
+          new Snapshot<>(
+              ++this._version, ModelSnapshotStore._apply(this._snapshot.models(), batch));
+      this._snapshot = snapshot;
+    }
+
+    for (WeakReference<Listener<M>> ref : this._listeners) {
+      final Listener<M> listener = ref.get();
+      if (listener != null) listener.onSnapshotChanged(snapshot, batch);
+    }
+  }
+
+  @Nullable
+  private synchronized Snapshot<M> _onSnapshotSelected(@Nullable List<M> models) {
+    this._loadingSnapshot = null;
+
+    if (models == null) {
+      this._pendingBatches.clear();
+      return null;
+    }
+
+    List<M> snapshotModels = models;
+    for (ModelChangedBus.Batch<M> batch : this._pendingBatches) {
+      snapshotModels = ModelSnapshotStore._apply(snapshotModels, batch);
+    }
+
+    this._pendingBatches.clear();
+    this._snapshot = new Snapshot<>(++this._version, snapshotModels);
+    return this._snapshot;
+  }
+
+  /**
+   * Apply the batch in linear time, where the changed models are replaced in place and the new
+   * ones are appended. Applying the same batch twice results in the same models.
+   */
+  @NonNull
+  private static <M extends Model> List<M> _apply(
+      @NonNull List<M> models, @NonNull ModelChangedBus.Batch<M> batch) {
+    Objects.requireNonNull(models);
+    Objects.requireNonNull(batch);
+
+    final ArrayList<M> changedModels = new ArrayList<>(batch.addedModels());
+    changedModels.addAll(batch.updatedModels());
+    changedModels.addAll(batch.upsertedModels());
+
+    final ModelIdIndex changedIndex = ModelIdIndex.ofModels(changedModels);
+    final ModelIdIndex deletedIndex = ModelIdIndex.ofModels(batch.deletedModels());
+    final boolean[] isReplaced = new boolean[changedModels.size()];
+    final ArrayList<M> result = new ArrayList<>(models.size() + changedModels.size());
+
+    for (M model : models) {
+      final Long id = model.modelId();
+      if (id != null && deletedIndex.contains(id)) continue;
+
+      final int changedPosition = id != null ? changedIndex.indexOf(id) : -1;
+      if (changedPosition != -1) {
+        result.add(changedModels.get(changedPosition));
+        isReplaced[changedPosition] = true;
+      } else {
+        result.add(model);
+      }
+    }
+
+    for (int i = 0; i < changedModels.size(); i++) {
+      if (!isReplaced[i]) result.add(changedModels.get(i));
+    }
+
+    return result;
+  }
+
+  /**
+   * Immutable state of every model at a point in time.
+   *
+   * @param version Incremented for every applied batch, to tell which of two snapshots is newer.
+   * @param models Models in no particular order.
+   */
+  public record Snapshot<M extends Model>(long version, @NonNull List<M> models) {
+    public Snapshot {
+      models = Collections.unmodifiableList(Objects.requireNonNull(models));
+    }
+  }
+
+  public interface Listener<M extends Model> {
+    /**
+     * Called on the worker thread once for every applied batch, with the snapshot containing it.
+     */
+    @WorkerThread
+    public void onSnapshotChanged(
+        @NonNull Snapshot<M> snapshot, @NonNull ModelChangedBus.Batch<M> batch);
+  }
+}
@@ -0,0 +1,618 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.robifr.ledger.data.model.Model;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index to search models by any part of their name, ignoring the case and diacritics.
+ * Each name is indexed by its bigrams (every two consecutive characters), so that a search only
+ * compares the names containing the rarest bigram of the query, instead of every name.
+ *
+ * <p>The index is cold until the first search, which starts building it from the {@link
+ * ModelSnapshotStore} in the background. Afterwards, it's kept up to date by applying each
+ * snapshot's batch. A changed model takes a new slot while its old one is left unused, and the
+ * whole index is rebuilt once most of the slots are unused. Slots are assigned in the result order
+ * while rebuilding, so a search merges its matches rather than sorting all of them.
+ *
+ * @param <M> Model to search.
+ */
+public final class NameSearchIndex<M extends Model> implements ModelSnapshotStore.Listener<M> {
+  /** Number of the results taken by {@link #searchRanked}. */
+  public static final int RANKED_LIMIT = 100;
+
+  @NonNull private static final Pattern _DIACRITICS = Pattern.compile("\\p{M}+");
+
+  /** Query length for each typo allowed in {@link #searchRanked}. */
+  private static final int _CHARS_PER_TYPO = 5;
+
+  private static final int _MAX_TYPOS = 2;
+
+  @NonNull private final ModelSnapshotStore<M> _snapshotStore;
+  @NonNull private final Executor _executor;
+  @NonNull private final Function<M, String> _nameOf;
+  @NonNull private final Supplier<Comparator<M>> _order;
+
+  /** Model of each slot, or null when the slot is no longer used. */
+  @NonNull private final ArrayList<M> _models = new ArrayList<>();
+
+  /** Normalized name of each slot, or null when the slot is no longer used. */
+  @NonNull private final ArrayList<String> _names = new ArrayList<>();
+
+  @NonNull private final HashMap<Long, Integer> _slotsById = new HashMap<>();
+  @NonNull private final HashMap<Integer, Postings> _postingsByBigram = new HashMap<>();
+  @Nullable private Comparator<M> _comparator = null;
+
+  /**
+   * Slots below this are assigned in the order of {@link #_comparator} while rebuilding, so that
+   * only the models changed afterwards have to be sorted.
+   */
+  private int _sortedSlotCount = 0;
+
+  private int _unusedSlotCount = 0;
+
+  /** Number of the query bigrams found on each slot, reused across {@link #searchRanked}. */
+  @NonNull private int[] _commonBigramCounts = new int[0];
+
+  /** Version of the snapshot the index is built from, or 0 when it's still cold. */
+  private long _version = 0L;
+
+  private boolean _isWarming = false;
+
+  /**
+   * @param executor Executor to build the index on when it's warmed up.
+   * @param nameOf Name of the model to index.
+   * @param order Order of the search results, which is taken every time the index is rebuilt.
+   */
+  public NameSearchIndex(
+      @NonNull ModelSnapshotStore<M> snapshotStore,
+      @NonNull Executor executor,
+      @NonNull Function<M, String> nameOf,
+      @NonNull Supplier<Comparator<M>> order) {
+    this._snapshotStore = Objects.requireNonNull(snapshotStore);
+    this._executor = Objects.requireNonNull(executor);
+    this._nameOf = Objects.requireNonNull(nameOf);
+    this._order = Objects.requireNonNull(order);
+  }
+
+  /**
+   * @return Lowercased name without any diacritic, to compare the names with.
+   */
+  @NonNull
+  public static String normalize(@NonNull String name) {
+    Objects.requireNonNull(name);
+
+    final String decomposedName = Normalizer.normalize(name, Normalizer.Form.NFD);
+    return NameSearchIndex._DIACRITICS
+        .matcher(decomposedName)
+        .replaceAll("")
+        .toLowerCase(Locale.ROOT);
+  }
+
+  public synchronized boolean isWarm() {
+    return this._version != 0L;
+  }
+
+  /** Start building the index in the background, unless it's already warm or warming. */
+  public synchronized void warm() {
+    if (this.isWarm() || this._isWarming) return;
+
+    this._isWarming = true;
+    this._snapshotStore
+        .snapshot()
+        .thenAcceptAsync(
+            snapshot -> {
+              synchronized (this) {
+                this._isWarming = false;
+                if (snapshot != null && snapshot.version() > this._version) {
+                  this._rebuild(snapshot);
+                }
+              }
+            },
+            this._executor);
+  }
+
+  /**
+   * @return Models whose name contains the query. Null when the index is still cold, in which case
+   *     it starts being built for the next search.
+   */
+  @Nullable
+  public synchronized List<M> search(@NonNull String query) {
+    Objects.requireNonNull(query);
+
+    if (!this.isWarm()) {
+      this.warm();
+      return null;
+    }
+
+    final String normalizedQuery = NameSearchIndex.normalize(query);
+    final ArrayList<Integer> matchedSlots = new ArrayList<>();
+    if (normalizedQuery.isEmpty()) return List.of();
+
+    if (normalizedQuery.length() < 2) {
+      for (int slot = 0; slot < this._names.size(); slot++) {
+        this._addIfMatched(slot, normalizedQuery, matchedSlots);
+      }
+
+    } else {
+      Postings rarestPostings = null;
+
+      for (int i = 0; i < normalizedQuery.length() - 1; i++) {
+        final Postings postings =
+            this._postingsByBigram.get(NameSearchIndex._bigramOf(normalizedQuery, i));
+        if (postings == null) return List.of();
+        if (rarestPostings == null || postings.size() < rarestPostings.size()) {
+          rarestPostings = postings;
+        }
+      }
+
+      for (int i = 0; i < rarestPostings.size(); i++) {
+        this._addIfMatched(rarestPostings.slotAt(i), normalizedQuery, matchedSlots);
+      }
+    }
+
+    return this._sortedModelsOf(matchedSlots);
+  }
+
+  /**
+   * Search models whose name contains the query, even with a few typos. One typo is allowed for
+   * every {@value #_CHARS_PER_TYPO} characters of the query, up to {@value #_MAX_TYPOS}. Since a
+   * typo can change at most three bigrams of the query, the names sharing too few bigrams with the
+   * query are skipped without comparing them.
+   *
+   * @param limit Maximum number of the results.
+   * @param usageOf How often the model is used, e.g. the number of its queues.
+   * @return Best matching models, ranked by the number of typos, then whether the query matches
+   *     the start of the name, the start of a word, or anywhere else, then the usage, and then the
+   *     order of {@link #search}. Null when the index is still cold, in which case it starts being
+   *     built for the next search.
+   */
+  @Nullable
+  public synchronized List<M> searchRanked(
+      @NonNull String query, int limit, @NonNull ToIntFunction<M> usageOf) {
+    Objects.requireNonNull(query);
+    Objects.requireNonNull(usageOf);
+
+    if (!this.isWarm()) {
+      this.warm();
+      return null;
+    }
+
+    final String normalizedQuery = NameSearchIndex.normalize(query);
+    if (normalizedQuery.isEmpty() || limit <= 0) return List.of();
+
+    final ArrayList<Integer> candidateSlots = new ArrayList<>();
+    int maxTypos =
+        normalizedQuery.length() <= Long.SIZE
+            ? Math.min(
+                normalizedQuery.length() / NameSearchIndex._CHARS_PER_TYPO,
+                NameSearchIndex._MAX_TYPOS)
+            : 0;
+
+    if (normalizedQuery.length() < 2) {
+      for (int slot = 0; slot < this._names.size(); slot++) {
+        if (this._names.get(slot) != null) candidateSlots.add(slot);
+      }
+
+    } else {
+      final int[] bigrams =
+          IntStream.range(0, normalizedQuery.length() - 1)
+              .map(i -> NameSearchIndex._bigramOf(normalizedQuery, i))
+              .distinct()
+              .toArray();
+      // Candidates should still share a bigram with the query, even if it mostly repeats the same
+      // bigram, like "aaaa".
+      maxTypos = Math.min(maxTypos, (bigrams.length - 1) / 3);
+      this._addCandidates(bigrams, bigrams.length - maxTypos * 3, candidateSlots);
+    }
+
+    final BestRankedSlots bestRankedSlots =
+        new BestRankedSlots(
+            limit,
+            Comparator.comparingInt(RankedSlot::quality)
+                .thenComparing(Comparator.comparingInt(RankedSlot::usage).reversed())
+                .thenComparing((first, second) -> this._compareSlots(first.slot(), second.slot())));
+    final ArrayList<Integer> typoCandidateSlots = new ArrayList<>();
+
+    for (int slot : candidateSlots) {
+      final int quality =
+          NameSearchIndex._positionQualityOf(this._names.get(slot), normalizedQuery);
+
+      if (quality < 0) {
+        if (maxTypos > 0) typoCandidateSlots.add(slot);
+      } else if (bestRankedSlots.hasRoomFor(quality)) {
+        bestRankedSlots.add(
+            new RankedSlot(slot, quality, usageOf.applyAsInt(this._models.get(slot))));
+      }
+    }
+
+    // Matches with typos are ranked below the exact ones, so they're only compared while there's
+    // still room for them.
+    if (!typoCandidateSlots.isEmpty()) {
+      final TypoMatcher typoMatcher = new TypoMatcher(normalizedQuery);
+
+      for (int slot : typoCandidateSlots) {
+        if (!bestRankedSlots.hasRoomFor(NameSearchIndex._typoQualityOf(1))) break;
+
+        final int typos = typoMatcher.fewestTyposWithin(this._names.get(slot));
+        final int quality = NameSearchIndex._typoQualityOf(typos);
+
+        if (typos <= maxTypos && bestRankedSlots.hasRoomFor(quality)) {
+          bestRankedSlots.add(
+              new RankedSlot(slot, quality, usageOf.applyAsInt(this._models.get(slot))));
+        }
+      }
+    }
+
+    return bestRankedSlots.toSortedList().stream()
+        .map(rankedSlot -> this._models.get(rankedSlot.slot()))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  @WorkerThread
+  public synchronized void onSnapshotChanged(
+      @NonNull ModelSnapshotStore.Snapshot<M> snapshot,
+      @NonNull ModelChangedBus.Batch<M> batch) {
+    Objects.requireNonNull(snapshot);
+    Objects.requireNonNull(batch);
+
+    if ((!this.isWarm() && !this._isWarming) || snapshot.version() <= this._version) return;
+
+    // Some of the batches were missed while warming up, start over from the given snapshot.
+    if (snapshot.version() != this._version + 1L) {
+      this._rebuild(snapshot);
+      return;
+    }
+
+    final ArrayList<M> changedModels = new ArrayList<>(batch.addedModels());
+    changedModels.addAll(batch.updatedModels());
+    changedModels.addAll(batch.upsertedModels());
+
+    for (M model : batch.deletedModels()) this._remove(model.modelId());
+    for (M model : changedModels) {
+      this._remove(model.modelId());
+      this._add(model);
+    }
+
+    this._version = snapshot.version();
+    if (this._unusedSlotCount > this._names.size() / 2) this._rebuild(snapshot);
+  }
+
+  private void _rebuild(@NonNull ModelSnapshotStore.Snapshot<M> snapshot) {
+    Objects.requireNonNull(snapshot);
+
+    this._models.clear();
+    this._names.clear();
+    this._slotsById.clear();
+    this._postingsByBigram.clear();
+    this._unusedSlotCount = 0;
+    this._comparator = this._order.get();
+
+    final ArrayList<M> sortedModels = new ArrayList<>(snapshot.models());
+    sortedModels.sort(this._comparator);
+
+    for (M model : sortedModels) this._add(model);
+    this._sortedSlotCount = this._names.size();
+    this._version = snapshot.version();
+  }
+
+  private void _add(@NonNull M model) {
+    Objects.requireNonNull(model);
+
+    if (model.modelId() == null) return;
+
+    final String name = NameSearchIndex.normalize(this._nameOf.apply(model));
+    final int slot = this._names.size();
+    this._models.add(model);
+    this._names.add(name);
+    this._slotsById.put(model.modelId(), slot);
+
+    // Each slot is only listed once for the same bigram.
+    final HashSet<Integer> bigrams = new HashSet<>();
+
+    for (int i = 0; i < name.length() - 1; i++) {
+      final int bigram = NameSearchIndex._bigramOf(name, i);
+      if (bigrams.add(bigram)) {
+        this._postingsByBigram.computeIfAbsent(bigram, key -> new Postings()).add(slot);
+      }
+    }
+  }
+
+  /** Leave the slot unused, where its postings are skipped when searching. */
+  private void _remove(@Nullable Long id) {
+    if (id == null) return;
+
+    final Integer slot = this._slotsById.remove(id);
+    if (slot == null) return;
+
+    this._models.set(slot, null);
+    this._names.set(slot, null);
+    this._unusedSlotCount++;
+  }
+
+  private void _addIfMatched(
+      int slot, @NonNull String normalizedQuery, @NonNull List<Integer> matchedSlots) {
+    final String name = this._names.get(slot);
+    if (name != null && name.contains(normalizedQuery)) matchedSlots.add(slot);
+  }
+
+  /**
+   * Add the used slots sharing at least the given number of bigrams with the query.
+   *
+   * @param bigrams Distinct bigrams of the query.
+   */
+  private void _addCandidates(
+      @NonNull int[] bigrams, int minCommonBigrams, @NonNull List<Integer> candidateSlots) {
+    Objects.requireNonNull(bigrams);
+    Objects.requireNonNull(candidateSlots);
+
+    if (this._commonBigramCounts.length < this._names.size()) {
+      this._commonBigramCounts = new int[this._names.size()];
+    }
+
+    for (int bigram : bigrams) {
+      final Postings postings = this._postingsByBigram.get(bigram);
+      if (postings == null) continue;
+
+      for (int i = 0; i < postings.size(); i++) {
+        final int slot = postings.slotAt(i);
+        if (++this._commonBigramCounts[slot] == minCommonBigrams
+            && this._names.get(slot) != null) {
+          candidateSlots.add(slot);
+        }
+      }
+    }
+
+    // Reset only the counted slots, rather than the whole array.
+    for (int bigram : bigrams) {
+      final Postings postings = this._postingsByBigram.get(bigram);
+      if (postings == null) continue;
+
+      for (int i = 0; i < postings.size(); i++) this._commonBigramCounts[postings.slotAt(i)] = 0;
+    }
+  }
+
+  /**
+   * @param matchedSlots Slots in ascending order, as they're always listed by the postings.
+   */
+  @NonNull
+  private List<M> _sortedModelsOf(@NonNull List<Integer> matchedSlots) {
+    Objects.requireNonNull(matchedSlots);
+    Objects.requireNonNull(this._comparator);
+
+    // Slots assigned after rebuilding are the only ones not in order yet.
+    final ArrayList<M> sortedModels = new ArrayList<>(matchedSlots.size());
+    final ArrayList<M> unsortedModels = new ArrayList<>();
+
+    for (int slot : matchedSlots) {
+      if (slot < this._sortedSlotCount) sortedModels.add(this._models.get(slot));
+      else unsortedModels.add(this._models.get(slot));
+    }
+
+    if (unsortedModels.isEmpty()) return sortedModels;
+
+    unsortedModels.sort(this._comparator);
+    final ArrayList<M> models = new ArrayList<>(matchedSlots.size());
+
+    for (int i = 0, j = 0; i < sortedModels.size() || j < unsortedModels.size(); ) {
+      final boolean isSortedFirst =
+          j == unsortedModels.size()
+              || (i < sortedModels.size()
+                  && this._comparator.compare(sortedModels.get(i), unsortedModels.get(j)) <= 0);
+      models.add(isSortedFirst ? sortedModels.get(i++) : unsortedModels.get(j++));
+    }
+
+    return models;
+  }
+
+  /** Compare the models of both slots in the order of {@link #search}. */
+  private int _compareSlots(int firstSlot, int secondSlot) {
+    Objects.requireNonNull(this._comparator);
+
+    if (firstSlot < this._sortedSlotCount && secondSlot < this._sortedSlotCount) {
+      return Integer.compare(firstSlot, secondSlot);
+    }
+
+    return this._comparator.compare(this._models.get(firstSlot), this._models.get(secondSlot));
+  }
+
+  private static int _bigramOf(@NonNull String str, int index) {
+    return (str.charAt(index) << 16) | str.charAt(index + 1);
+  }
+
+  /**
+   * @return 0 when the name starts with the query, 1 when a word within the name does, 2 when the
+   *     name contains the query anywhere else, or -1 when it doesn't contain the query at all.
+   */
+  private static int _positionQualityOf(@NonNull String name, @NonNull String query) {
+    int index = name.indexOf(query);
+    if (index <= 0) return index;
+
+    for (; index >= 0; index = name.indexOf(query, index + 1)) {
+      if (!Character.isLetterOrDigit(name.charAt(index - 1))) return 1;
+    }
+
+    return 2;
+  }
+
+  /**
+   * @return Quality of a match with typos, which is ranked below any exact match since the
+   *     position of the match isn't tracked.
+   */
+  private static int _typoQualityOf(int typos) {
+    return typos * 3 + 2;
+  }
+
+  /**
+   * @param quality Lower is better, see {@link #searchRanked}.
+   */
+  private record RankedSlot(int slot, int quality, int usage) {}
+
+  /** Bounded heap keeping the best ranked slots, with the worst of them at the head. */
+  private static final class BestRankedSlots {
+    @NonNull private final PriorityQueue<RankedSlot> _rankedSlots;
+    @NonNull private final Comparator<RankedSlot> _rankOrder;
+    private final int _limit;
+
+    public BestRankedSlots(int limit, @NonNull Comparator<RankedSlot> rankOrder) {
+      this._limit = limit;
+      this._rankOrder = Objects.requireNonNull(rankOrder);
+      this._rankedSlots = new PriorityQueue<>(limit + 1, rankOrder.reversed());
+    }
+
+    /** Whether a slot with the given quality could still be added, before ranking it further. */
+    public boolean hasRoomFor(int quality) {
+      final RankedSlot worstRankedSlot = this._rankedSlots.peek();
+      return this._rankedSlots.size() < this._limit
+          || worstRankedSlot == null
+          || quality <= worstRankedSlot.quality();
+    }
+
+    public void add(@NonNull RankedSlot rankedSlot) {
+      Objects.requireNonNull(rankedSlot);
+
+      if (this._rankedSlots.size() < this._limit) {
+        this._rankedSlots.add(rankedSlot);
+      } else if (this._rankOrder.compare(rankedSlot, this._rankedSlots.peek()) < 0) {
+        this._rankedSlots.poll();
+        this._rankedSlots.add(rankedSlot);
+      }
+    }
+
+    @NonNull
+    public List<RankedSlot> toSortedList() {
+      final ArrayList<RankedSlot> rankedSlots = new ArrayList<>(this._rankedSlots);
+      rankedSlots.sort(this._rankOrder);
+      return rankedSlots;
+    }
+  }
+
+  /**
+   * Approximate matching with the bit-parallel algorithm of Myers, extended by Hyyrö to count a
+   * swap of two adjacent characters as a single typo. It finds the fewest typos (insertions,
+   * deletions, substitutions, or swaps) to turn the query into any part of a name, within a single
+   * pass over the name. Each bit of the vectors is the typo count of a query character.
+   */
+  private static final class TypoMatcher {
+    @NonNull private final HashMap<Character, Long> _charMasks = new HashMap<>();
+
+    /** Masks of the ASCII characters, which are most of the names, to skip the boxing. */
+    @NonNull private final long[] _asciiMasks = new long[128];
+
+    private final int _queryLength;
+
+    /**
+     * @param query Query with at most 64 characters, as each of them takes a bit.
+     */
+    public TypoMatcher(@NonNull String query) {
+      Objects.requireNonNull(query);
+
+      this._queryLength = query.length();
+
+      for (int i = 0; i < query.length(); i++) {
+        final char c = query.charAt(i);
+        if (c < this._asciiMasks.length) this._asciiMasks[c] |= 1L << i;
+        else this._charMasks.merge(c, 1L << i, (mask, bit) -> mask | bit);
+      }
+    }
+
+    public int fewestTyposWithin(@NonNull String name) {
+      final long lastBit = 1L << (this._queryLength - 1);
+      long positiveVertical = -1L;
+      long negativeVertical = 0L;
+      long previousEqual = 0L;
+      long previousDiagonal = 0L;
+      int typos = this._queryLength;
+      int fewestTypos = typos;
+
+      for (int i = 0; i < name.length() && fewestTypos > 0; i++) {
+        final long equal = this._maskOf(name.charAt(i));
+        final long swapped = ((~previousDiagonal & equal) << 1) & previousEqual;
+        final long diagonal =
+            (((equal & positiveVertical) + positiveVertical) ^ positiveVertical)
+                | equal
+                | negativeVertical
+                | swapped;
+        long positiveHorizontal = negativeVertical | ~(diagonal | positiveVertical);
+        long negativeHorizontal = positiveVertical & diagonal;
+
+        if ((positiveHorizontal & lastBit) != 0L) typos++;
+        else if ((negativeHorizontal & lastBit) != 0L) typos--;
+
+        // Nothing is shifted in, as the query may start anywhere within the name.
+        positiveHorizontal <<= 1;
+        negativeHorizontal <<= 1;
+        positiveVertical = negativeHorizontal | ~(diagonal | positiveHorizontal);
+        negativeVertical = positiveHorizontal & diagonal;
+        previousEqual = equal;
+        previousDiagonal = diagonal;
+        fewestTypos = Math.min(fewestTypos, typos);
+      }
+
+      return fewestTypos;
+    }
+
+    private long _maskOf(char c) {
+      return c < this._asciiMasks.length
+          ? this._asciiMasks[c]
+          : this._charMasks.getOrDefault(c, 0L);
+    }
+  }
+
+  /** Growable list of slots having the same bigram. */
+  private static final class Postings {
+    @NonNull private int[] _slots = new int[4];
+    private int _size = 0;
+
+    public void add(int slot) {
+      if (this._size == this._slots.length) {
+        this._slots = Arrays.copyOf(this._slots, this._size * 2);
+      }
+
+      this._slots[this._size++] = slot;
+    }
+
+    public int slotAt(int index) {
+      return this._slots[index];
+    }
+
+    public int size() {
+      return this._size;
+    }
+  }
+}
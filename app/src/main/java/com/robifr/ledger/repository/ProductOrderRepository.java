@@ -20,12 +20,13 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.robifr.ledger.data.model.ProductOrderModel;
+import com.robifr.ledger.local.DatabaseExecutor;
 import com.robifr.ledger.local.LocalDatabase;
 import com.robifr.ledger.local.access.ProductOrderDao;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public final class ProductOrderRepository
@@ -34,24 +35,39 @@ public final class ProductOrderRepository
         QueryModifiable<ProductOrderModel> {
   @Nullable private static ProductOrderRepository _instance;
   @NonNull private final ProductOrderDao _localDao;
+  @NonNull private final DatabaseExecutor _executor;
+  @NonNull private final CustomerRepository _customerRepository;
 
   @NonNull
-  private final HashSet<ModelChangedListener<ProductOrderModel>> _modelChangedListeners =
-      new HashSet<>();
+  private final ModelChangedBus<ProductOrderModel> _modelChangedBus = new ModelChangedBus<>();
 
-  private ProductOrderRepository(@NonNull Context context) {
+  private ProductOrderRepository(@NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
 
     this._localDao = LocalDatabase.instance(context.getApplicationContext()).productOrderDao();
+    this._executor = Objects.requireNonNull(executor);
+    this._customerRepository =
+        CustomerRepository.instance(context.getApplicationContext(), executor);
   }
 
   @NonNull
-  public static synchronized ProductOrderRepository instance(@NonNull Context context) {
+  public static ProductOrderRepository instance(@NonNull Context context) {
+    return ProductOrderRepository.instance(context, DatabaseExecutor.instance());
+  }
+
+  /**
+   * @param executor Executor to run the queries with. Only used the first time the repository is
+   *     created.
+   */
+  @NonNull
+  public static synchronized ProductOrderRepository instance(
+      @NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
     return ProductOrderRepository._instance =
         ProductOrderRepository._instance == null
-            ? new ProductOrderRepository(context)
+            ? new ProductOrderRepository(context, executor)
             : ProductOrderRepository._instance;
   }
 
@@ -59,7 +75,7 @@ public final class ProductOrderRepository
   public void addModelChangedListener(@NonNull ModelChangedListener<ProductOrderModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.add(listener);
+    this._modelChangedBus.addListener(listener);
   }
 
   @Override
@@ -67,47 +83,53 @@ public final class ProductOrderRepository
       @NonNull ModelChangedListener<ProductOrderModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.remove(listener);
+    this._modelChangedBus.removeListener(listener);
   }
 
   @Override
   public void notifyModelAdded(@NonNull List<ProductOrderModel> productOrders) {
     Objects.requireNonNull(productOrders);
 
-    this._modelChangedListeners.forEach(listeners -> listeners.onModelAdded(productOrders));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.ADDED, productOrders);
   }
 
   @Override
   public void notifyModelUpdated(@NonNull List<ProductOrderModel> productOrders) {
     Objects.requireNonNull(productOrders);
 
-    this._modelChangedListeners.forEach(listeners -> listeners.onModelUpdated(productOrders));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPDATED, productOrders);
   }
 
   @Override
   public void notifyModelDeleted(@NonNull List<ProductOrderModel> productOrders) {
     Objects.requireNonNull(productOrders);
 
-    this._modelChangedListeners.forEach(listeners -> listeners.onModelDeleted(productOrders));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.DELETED, productOrders);
   }
 
   @Override
   public void notifyModelUpserted(@NonNull List<ProductOrderModel> productOrders) {
     Objects.requireNonNull(productOrders);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpserted(productOrders));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPSERTED, productOrders);
+  }
+
+  @Override
+  @NonNull
+  public ModelChangedBus.Stats modelChangedStats() {
+    return this._modelChangedBus.stats();
   }
 
   @Override
   @NonNull
   public CompletableFuture<List<ProductOrderModel>> selectAll() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAll);
+    return this._executor.read(this._localDao::selectAll);
   }
 
   @Override
   @NonNull
   public CompletableFuture<ProductOrderModel> selectById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(id));
+    return this._executor.read(() -> this._localDao.selectById(id));
   }
 
   @Override
@@ -115,13 +137,13 @@ public final class ProductOrderRepository
   public CompletableFuture<List<ProductOrderModel>> selectById(@NonNull List<Long> ids) {
     Objects.requireNonNull(ids);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(ids));
+    return this._executor.read(() -> this._localDao.selectById(ids));
   }
 
   @Override
   @NonNull
   public CompletableFuture<Boolean> isExistsById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.isExistsById(id));
+    return this._executor.read(() -> this._localDao.isExistsById(id));
   }
 
   @Override
@@ -130,10 +152,10 @@ public final class ProductOrderRepository
     Objects.requireNonNull(productOrder);
 
     final CompletableFuture<Long> insert =
-        CompletableFuture.supplyAsync(() -> this._localDao.insert(productOrder))
+        this._write(() -> this._localDao.insert(productOrder))
             .thenComposeAsync(
-                rowId ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowId)));
+                rowId -> this._executor.read(() -> this._localDao.selectIdByRowId(rowId)),
+                this._executor.continuation());
 
     return insert.thenComposeAsync(
         insertedOrderId -> {
@@ -141,9 +163,11 @@ public final class ProductOrderRepository
               .thenAcceptAsync(
                   insertedOrder -> {
                     if (insertedOrder != null) this.notifyModelAdded(List.of(insertedOrder));
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(insertedOrderId);
-        });
+        },
+        this._executor.continuation());
   }
 
   /**
@@ -154,10 +178,10 @@ public final class ProductOrderRepository
     Objects.requireNonNull(productOrders);
 
     final CompletableFuture<List<Long>> insert =
-        CompletableFuture.supplyAsync(() -> this._localDao.insert(productOrders))
+        this._write(() -> this._localDao.insert(productOrders))
             .thenComposeAsync(
-                rowIds ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowIds)));
+                rowIds -> this._executor.read(() -> this._localDao.selectIdByRowId(rowIds)),
+                this._executor.continuation());
 
     return insert.thenComposeAsync(
         insertedOrderIds -> {
@@ -170,9 +194,11 @@ public final class ProductOrderRepository
                             .filter(Objects::nonNull)
                             .collect(Collectors.toList());
                     this.notifyModelAdded(notifiedOrders);
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(insertedOrderIds);
-        });
+        },
+        this._executor.continuation());
   }
 
   @Override
@@ -181,7 +207,7 @@ public final class ProductOrderRepository
     Objects.requireNonNull(productOrder);
 
     final CompletableFuture<Integer> update =
-        CompletableFuture.supplyAsync(() -> this._localDao.update(productOrder));
+        this._write(() -> this._localDao.update(productOrder));
 
     update.thenAcceptAsync(
         effected -> {
@@ -191,8 +217,10 @@ public final class ProductOrderRepository
               .thenAcceptAsync(
                   updatedOrder -> {
                     if (updatedOrder != null) this.notifyModelUpdated(List.of(updatedOrder));
-                  });
-        });
+                  },
+                  this._executor.continuation());
+        },
+        this._executor.continuation());
     return update;
   }
 
@@ -206,7 +234,7 @@ public final class ProductOrderRepository
     final List<Long> ids =
         productOrders.stream().map(ProductOrderModel::id).collect(Collectors.toList());
     final CompletableFuture<Integer> update =
-        CompletableFuture.supplyAsync(() -> this._localDao.update(productOrders));
+        this._write(() -> this._localDao.update(productOrders));
 
     update.thenAcceptAsync(
         effected -> {
@@ -220,8 +248,10 @@ public final class ProductOrderRepository
                             .filter(Objects::nonNull) // Only notify the one with a valid ID.
                             .collect(Collectors.toList());
                     this.notifyModelUpdated(notifiedOrders);
-                  });
-        });
+                  },
+                  this._executor.continuation());
+        },
+        this._executor.continuation());
     return update;
   }
 
@@ -236,14 +266,16 @@ public final class ProductOrderRepository
               if (orderToDelete == null) return CompletableFuture.completedFuture(0);
 
               final CompletableFuture<Integer> delete =
-                  CompletableFuture.supplyAsync(() -> this._localDao.delete(orderToDelete));
+                  this._write(() -> this._localDao.delete(orderToDelete));
 
               delete.thenAcceptAsync(
                   effected -> {
                     if (effected > 0) this.notifyModelDeleted(List.of(orderToDelete));
-                  });
+                  },
+                  this._executor.continuation());
               return delete;
-            });
+            },
+            this._executor.continuation());
   }
 
   /**
@@ -260,7 +292,7 @@ public final class ProductOrderRepository
         .thenComposeAsync(
             ordersToDelete -> {
               final CompletableFuture<Integer> delete =
-                  CompletableFuture.supplyAsync(() -> this._localDao.delete(ordersToDelete));
+                  this._write(() -> this._localDao.delete(ordersToDelete));
 
               delete.thenAcceptAsync(
                   effected -> {
@@ -271,9 +303,11 @@ public final class ProductOrderRepository
                             .filter(Objects::nonNull) // Only notify the one with a valid ID.
                             .collect(Collectors.toList());
                     this.notifyModelDeleted(notifiedOrders);
-                  });
+                  },
+                  this._executor.continuation());
               return delete;
-            });
+            },
+            this._executor.continuation());
   }
 
   /**
@@ -284,10 +318,10 @@ public final class ProductOrderRepository
     Objects.requireNonNull(productOrder);
 
     final CompletableFuture<Long> upsert =
-        CompletableFuture.supplyAsync(() -> this._localDao.upsert(productOrder))
+        this._write(() -> this._localDao.upsert(productOrder))
             .thenComposeAsync(
-                rowId ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowId)));
+                rowId -> this._executor.read(() -> this._localDao.selectIdByRowId(rowId)),
+                this._executor.continuation());
 
     return upsert.thenComposeAsync(
         upsertedOrderId -> {
@@ -295,9 +329,11 @@ public final class ProductOrderRepository
               .thenAcceptAsync(
                   upsertedOrder -> {
                     if (upsertedOrder != null) this.notifyModelUpserted(List.of(upsertedOrder));
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(upsertedOrderId);
-        });
+        },
+        this._executor.continuation());
   }
 
   /**
@@ -308,10 +344,10 @@ public final class ProductOrderRepository
     Objects.requireNonNull(productOrders);
 
     final CompletableFuture<List<Long>> upsert =
-        CompletableFuture.supplyAsync(() -> this._localDao.upsert(productOrders))
+        this._write(() -> this._localDao.upsert(productOrders))
             .thenComposeAsync(
-                rowIds ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowIds)));
+                rowIds -> this._executor.read(() -> this._localDao.selectIdByRowId(rowIds)),
+                this._executor.continuation());
 
     return upsert.thenComposeAsync(
         upsertedOrderIds -> {
@@ -324,13 +360,43 @@ public final class ProductOrderRepository
                             .filter(Objects::nonNull)
                             .collect(Collectors.toList());
                     this.notifyModelUpserted(notifiedOrders);
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(upsertedOrderIds);
-        });
+        },
+        this._executor.continuation());
   }
 
   @NonNull
   public CompletableFuture<List<ProductOrderModel>> selectAllByQueueId(@Nullable Long queueId) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectAllByQueueId(queueId));
+    return this._executor.read(() -> this._localDao.selectAllByQueueId(queueId));
+  }
+
+  /**
+   * @return List of product orders belonging to any of the given queues, regardless of their
+   *     order. Empty list for a failed operation.
+   */
+  @NonNull
+  public CompletableFuture<List<ProductOrderModel>> selectAllByQueueId(
+      @NonNull List<Long> queueIds) {
+    Objects.requireNonNull(queueIds);
+
+    return this._executor.read(() -> this._localDao.selectAllByQueueId(queueIds));
+  }
+
+  /**
+   * Write to the database, while invalidating every cached customer after. Their debt is computed
+   * by triggers from the orders, which customer isn't known without selecting the queue.
+   */
+  @NonNull
+  private <T> CompletableFuture<T> _write(@NonNull Supplier<T> write) {
+    Objects.requireNonNull(write);
+
+    return this._executor.write(
+        () -> {
+          final T result = write.get();
+          this._customerRepository.invalidateCache();
+          return result;
+        });
   }
 }
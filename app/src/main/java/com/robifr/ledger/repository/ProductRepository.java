@@ -19,13 +19,20 @@ package com.robifr.ledger.repository;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.robifr.ledger.data.ModelListPipeline;
+import com.robifr.ledger.data.display.ProductSorter;
 import com.robifr.ledger.data.model.ProductModel;
+import com.robifr.ledger.data.model.UsageInfo;
+import com.robifr.ledger.local.DatabaseExecutor;
 import com.robifr.ledger.local.LocalDatabase;
 import com.robifr.ledger.local.access.ProductDao;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public final class ProductRepository
     implements ModelChangedListener.Source<ProductModel>,
@@ -33,24 +40,59 @@ public final class ProductRepository
         QueryModifiable<ProductModel> {
   @Nullable private static ProductRepository _instance;
   @NonNull private final ProductDao _localDao;
+  @NonNull private final DatabaseExecutor _executor;
+
+  @NonNull private final ModelChangedBus<ProductModel> _modelChangedBus = new ModelChangedBus<>();
 
   @NonNull
-  private final HashSet<ModelChangedListener<ProductModel>> _modelChangedListeners =
-      new HashSet<>();
+  private final ModelSnapshotStore<ProductModel> _snapshotStore =
+      new ModelSnapshotStore<>(this::selectAll);
 
-  private ProductRepository(@NonNull Context context) {
+  @NonNull
+  private final NameSearchIndex<ProductModel> _nameIndex =
+      new NameSearchIndex<>(
+          this._snapshotStore,
+          ModelListPipeline.defaultExecutor(),
+          ProductModel::name,
+          () -> new ProductSorter().comparator());
+
+  /**
+   * Number of the product orders of each product by their ID, refreshed by {@link
+   * #warmUpSearch()}.
+   */
+  @NonNull private volatile Map<Long, Integer> _usages = Collections.emptyMap();
+
+  /** Cached products by their ID, invalidated by the writes of this repository. */
+  @NonNull private final ModelCache<ProductModel> _cache = new ModelCache<>();
+
+  private ProductRepository(@NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
 
     this._localDao = LocalDatabase.instance(context.getApplicationContext()).productDao();
+    this._executor = Objects.requireNonNull(executor);
+
+    this._modelChangedBus.addListener(this._snapshotStore);
+    this._snapshotStore.addListener(this._nameIndex);
   }
 
   @NonNull
-  public static synchronized ProductRepository instance(@NonNull Context context) {
+  public static ProductRepository instance(@NonNull Context context) {
+    return ProductRepository.instance(context, DatabaseExecutor.instance());
+  }
+
+  /**
+   * @param executor Executor to run the queries with. Only used the first time the repository is
+   *     created.
+   */
+  @NonNull
+  public static synchronized ProductRepository instance(
+      @NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
     return ProductRepository._instance =
         ProductRepository._instance == null
-            ? new ProductRepository(context)
+            ? new ProductRepository(context, executor)
             : ProductRepository._instance;
   }
 
@@ -58,68 +100,115 @@ public final class ProductRepository
   public void addModelChangedListener(@NonNull ModelChangedListener<ProductModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.add(listener);
+    this._modelChangedBus.addListener(listener);
   }
 
   @Override
   public void removeModelChangedListener(@NonNull ModelChangedListener<ProductModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.remove(listener);
+    this._modelChangedBus.removeListener(listener);
   }
 
   @Override
   public void notifyModelAdded(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelAdded(products));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.ADDED, products);
   }
 
   @Override
   public void notifyModelUpdated(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpdated(products));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPDATED, products);
   }
 
   @Override
   public void notifyModelDeleted(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelDeleted(products));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.DELETED, products);
   }
 
   @Override
   public void notifyModelUpserted(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpserted(products));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPSERTED, products);
+  }
+
+  @Override
+  @NonNull
+  public ModelChangedBus.Stats modelChangedStats() {
+    return this._modelChangedBus.stats();
+  }
+
+  /**
+   * @return Shared snapshot of all products, kept up to date with the changes of this repository.
+   */
+  @NonNull
+  public ModelSnapshotStore<ProductModel> snapshotStore() {
+    return this._snapshotStore;
+  }
+
+  @NonNull
+  public ModelCache.Stats cacheStats() {
+    return this._cache.stats();
+  }
+
+  /** Disable the cache to always select from the database, like when testing the queries. */
+  public void setCacheEnabled(boolean isEnabled) {
+    this._cache.setEnabled(isEnabled);
   }
 
   @Override
   @NonNull
   public CompletableFuture<List<ProductModel>> selectAll() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAll);
+    return this._executor.read(this._localDao::selectAll);
   }
 
   @Override
   @NonNull
   public CompletableFuture<ProductModel> selectById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(id));
+    final ProductModel cachedProduct = this._cache.get(id);
+    if (cachedProduct != null) return CompletableFuture.completedFuture(cachedProduct);
+
+    return this._executor.read(
+        () -> {
+          final long version = this._cache.version();
+          final ProductModel product = this._localDao.selectById(id);
+          if (product != null) this._cache.putAll(List.of(product), version);
+          return product;
+        });
   }
 
+  /**
+   * Cached products are merged with the selected ones, in the same order as {@code ids}. Null for
+   * the one that can't be found.
+   */
   @Override
   @NonNull
   public CompletableFuture<List<ProductModel>> selectById(@NonNull List<Long> ids) {
     Objects.requireNonNull(ids);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(ids));
+    final ArrayList<ProductModel> cachedProducts = new ArrayList<>();
+    final List<Long> missedIds = this._cache.getAll(ids, cachedProducts);
+    if (missedIds.isEmpty()) return CompletableFuture.completedFuture(cachedProducts);
+
+    return this._executor.read(
+        () -> {
+          final long version = this._cache.version();
+          final List<ProductModel> products = this._localDao.selectById(missedIds);
+          this._cache.putAll(products, version);
+          return ModelCache.merge(ids, cachedProducts, products);
+        });
   }
 
   @Override
   @NonNull
   public CompletableFuture<Boolean> isExistsById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.isExistsById(id));
+    return this._executor.read(() -> this._localDao.isExistsById(id));
   }
 
   @Override
@@ -128,10 +217,10 @@ public final class ProductRepository
     Objects.requireNonNull(product);
 
     final CompletableFuture<Long> insert =
-        CompletableFuture.supplyAsync(() -> this._localDao.insert(product))
+        this._executor.write(() -> this._localDao.insert(product))
             .thenComposeAsync(
-                rowId ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowId)));
+                rowId -> this._executor.read(() -> this._localDao.selectIdByRowId(rowId)),
+                this._executor.continuation());
 
     return insert.thenComposeAsync(
         insertedProductId -> {
@@ -139,9 +228,11 @@ public final class ProductRepository
               .thenAcceptAsync(
                   insertedProduct -> {
                     if (insertedProduct != null) this.notifyModelAdded(List.of(insertedProduct));
-                  });
+                  },
+                  this._executor.continuation());
           return CompletableFuture.completedFuture(insertedProductId);
-        });
+        },
+        this._executor.continuation());
   }
 
   @Override
@@ -150,7 +241,12 @@ public final class ProductRepository
     Objects.requireNonNull(product);
 
     final CompletableFuture<Integer> update =
-        CompletableFuture.supplyAsync(() -> this._localDao.update(product));
+        this._executor.write(
+            () -> {
+              final int effected = this._localDao.update(product);
+              this._cache.invalidate(Collections.singletonList(product.id()));
+              return effected;
+            });
 
     update.thenAcceptAsync(
         effected -> {
@@ -160,8 +256,10 @@ public final class ProductRepository
               .thenAcceptAsync(
                   updatedProduct -> {
                     if (updatedProduct != null) this.notifyModelUpdated(List.of(updatedProduct));
-                  });
-        });
+                  },
+                  this._executor.continuation());
+        },
+        this._executor.continuation());
     return update;
   }
 
@@ -178,20 +276,84 @@ public final class ProductRepository
               if (productToDelete == null) return CompletableFuture.completedFuture(0);
 
               final CompletableFuture<Integer> delete =
-                  CompletableFuture.supplyAsync(() -> this._localDao.delete(productToDelete));
+                  this._executor.write(
+                      () -> {
+                        final int effected = this._localDao.delete(productToDelete);
+                        this._cache.invalidate(Collections.singletonList(productToDelete.id()));
+                        return effected;
+                      });
 
               delete.thenAcceptAsync(
                   effected -> {
                     if (effected > 0) this.notifyModelDeleted(List.of(productToDelete));
-                  });
+                  },
+                  this._executor.continuation());
               return delete;
-            });
+            },
+            this._executor.continuation());
   }
 
+  /**
+   * Start building the in-memory index ahead of the first search, and count the usage of each
+   * product to rank the results of {@link #searchRanked(String)}.
+   *
+   * @see #search(String)
+   */
+  public void warmUpSearch() {
+    this._nameIndex.warm();
+    this._executor
+        .read(this._localDao::selectAllUsageInfo)
+        .thenAccept(
+            usages ->
+                this._usages =
+                    usages.stream()
+                        .filter(usage -> usage.id() != null)
+                        .collect(Collectors.toMap(UsageInfo::id, UsageInfo::usage)));
+  }
+
+  /**
+   * Search products by their name, ordered by the name. The search is answered right away from
+   * {@link NameSearchIndex} once it's warm, or by the FTS table while it's still cold. Unlike the
+   * index, the FTS table only matches the start of each word in the name.
+   */
   @NonNull
   public CompletableFuture<List<ProductModel>> search(@NonNull String query) {
     Objects.requireNonNull(query);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.search(query));
+    final List<ProductModel> indexedProducts = this._nameIndex.search(query);
+    if (indexedProducts != null) return CompletableFuture.completedFuture(indexedProducts);
+
+    return this._executor.read(() -> this._localDao.search(query));
+  }
+
+  /**
+   * Search products by their name, even with a few typos. Up to {@link
+   * NameSearchIndex#RANKED_LIMIT} of the best matching products are taken, ranked by the match
+   * quality, then by how often they're used. Falls back to {@link #search(String)} while the
+   * in-memory index is still cold.
+   */
+  @NonNull
+  public CompletableFuture<List<ProductModel>> searchRanked(@NonNull String query) {
+    Objects.requireNonNull(query);
+
+    final Map<Long, Integer> usages = this._usages;
+    return this._executor
+        .read(
+            () ->
+                this._nameIndex.searchRanked(
+                    query,
+                    NameSearchIndex.RANKED_LIMIT,
+                    product -> usages.getOrDefault(product.id(), 0)))
+        .thenComposeAsync(
+            products ->
+                products != null
+                    ? CompletableFuture.completedFuture(products)
+                    : this.search(query)
+                        .thenApply(
+                            result ->
+                                result.stream()
+                                    .limit(NameSearchIndex.RANKED_LIMIT)
+                                    .collect(Collectors.toList())),
+            this._executor.continuation());
   }
 }
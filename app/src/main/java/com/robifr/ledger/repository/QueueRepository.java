@@ -19,18 +19,25 @@ package com.robifr.ledger.repository;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.robifr.ledger.data.ModelIdIndex;
+import com.robifr.ledger.data.display.QueueFilterer;
+import com.robifr.ledger.data.display.QueueFilters;
+import com.robifr.ledger.data.display.QueueSortMethod;
 import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.data.model.ProductOrderModel;
 import com.robifr.ledger.data.model.QueueModel;
+import com.robifr.ledger.local.DatabaseExecutor;
 import com.robifr.ledger.local.LocalDatabase;
 import com.robifr.ledger.local.access.QueueDao;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -40,27 +47,51 @@ public final class QueueRepository
         QueryModifiable<QueueModel> {
   @Nullable private static QueueRepository _instance;
   @NonNull private final QueueDao _localDao;
+  @NonNull private final DatabaseExecutor _executor;
   @NonNull private final CustomerRepository _customerRepository;
   @NonNull private final ProductOrderRepository _productOrderRepository;
 
+  @NonNull private final ModelChangedBus<QueueModel> _modelChangedBus = new ModelChangedBus<>();
+
+  @NonNull
+  private final ModelSnapshotStore<QueueModel> _snapshotStore =
+      new ModelSnapshotStore<>(this::selectAll);
+
   @NonNull
-  private final HashSet<ModelChangedListener<QueueModel>> _modelChangedListeners = new HashSet<>();
+  private final CustomerChangedListener _customerChangedListener = new CustomerChangedListener();
 
-  private QueueRepository(@NonNull Context context) {
+  private QueueRepository(@NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
 
     this._localDao = LocalDatabase.instance(context.getApplicationContext()).queueDao();
-    this._customerRepository = CustomerRepository.instance(context.getApplicationContext());
-    this._productOrderRepository = ProductOrderRepository.instance(context.getApplicationContext());
+    this._executor = Objects.requireNonNull(executor);
+    this._customerRepository =
+        CustomerRepository.instance(context.getApplicationContext(), executor);
+    this._productOrderRepository =
+        ProductOrderRepository.instance(context.getApplicationContext(), executor);
+
+    this._modelChangedBus.addListener(this._snapshotStore);
+    this._customerRepository.addModelChangedListener(this._customerChangedListener);
+  }
+
+  @NonNull
+  public static QueueRepository instance(@NonNull Context context) {
+    return QueueRepository.instance(context, DatabaseExecutor.instance());
   }
 
+  /**
+   * @param executor Executor to run the queries with. Only used the first time the repository is
+   *     created.
+   */
   @NonNull
-  public static synchronized QueueRepository instance(@NonNull Context context) {
+  public static synchronized QueueRepository instance(
+      @NonNull Context context, @NonNull DatabaseExecutor executor) {
     Objects.requireNonNull(context);
+    Objects.requireNonNull(executor);
 
     return QueueRepository._instance =
         QueueRepository._instance == null
-            ? new QueueRepository(context)
+            ? new QueueRepository(context, executor)
             : QueueRepository._instance;
   }
 
@@ -68,56 +99,70 @@ public final class QueueRepository
   public void addModelChangedListener(@NonNull ModelChangedListener<QueueModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.add(listener);
+    this._modelChangedBus.addListener(listener);
   }
 
   @Override
   public void removeModelChangedListener(@NonNull ModelChangedListener<QueueModel> listener) {
     Objects.requireNonNull(listener);
 
-    this._modelChangedListeners.remove(listener);
+    this._modelChangedBus.removeListener(listener);
   }
 
   @Override
   public void notifyModelAdded(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelAdded(queues));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.ADDED, queues);
   }
 
   @Override
   public void notifyModelUpdated(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpdated(queues));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPDATED, queues);
   }
 
   @Override
   public void notifyModelDeleted(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelDeleted(queues));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.DELETED, queues);
   }
 
   @Override
   public void notifyModelUpserted(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._modelChangedListeners.forEach(listener -> listener.onModelUpserted(queues));
+    this._modelChangedBus.publish(ModelChangedBus.Kind.UPSERTED, queues);
+  }
+
+  @Override
+  @NonNull
+  public ModelChangedBus.Stats modelChangedStats() {
+    return this._modelChangedBus.stats();
+  }
+
+  /**
+   * @return Shared snapshot of all queues, kept up to date with the changes of this repository.
+   */
+  @NonNull
+  public ModelSnapshotStore<QueueModel> snapshotStore() {
+    return this._snapshotStore;
   }
 
   @Override
   @NonNull
   public CompletableFuture<List<QueueModel>> selectAll() {
-    return CompletableFuture.supplyAsync(this._localDao::selectAll)
-        .thenComposeAsync(this::_mapFields);
+    return this._executor.read(this._localDao::selectAll)
+        .thenComposeAsync(this::_mapFields, this._executor.continuation());
   }
 
   @Override
   @NonNull
   public CompletableFuture<QueueModel> selectById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(id))
-        .thenComposeAsync(this::_mapFields);
+    return this._executor.read(() -> this._localDao.selectById(id))
+        .thenComposeAsync(this::_mapFields, this._executor.continuation());
   }
 
   @Override
@@ -125,199 +170,153 @@ public final class QueueRepository
   public CompletableFuture<List<QueueModel>> selectById(@NonNull List<Long> ids) {
     Objects.requireNonNull(ids);
 
-    return CompletableFuture.supplyAsync(() -> this._localDao.selectById(ids))
-        .thenComposeAsync(this::_mapFields);
+    return this._executor.read(() -> this._localDao.selectById(ids))
+        .thenComposeAsync(this::_mapFields, this._executor.continuation());
+  }
+
+  /**
+   * @see QueueDao#selectPage(QueueFilters, QueueSortMethod, QueueModel, int)
+   */
+  @NonNull
+  public CompletableFuture<List<QueueModel>> selectPage(
+      @NonNull QueueSortMethod sortMethod, @Nullable QueueModel afterQueue, int limit) {
+    Objects.requireNonNull(sortMethod);
+
+    return this._executor.read(() -> this._localDao.selectPage(null, sortMethod, afterQueue, limit))
+        .thenComposeAsync(this::_mapFields, this._executor.continuation());
+  }
+
+  /**
+   * Select a page of queues matching the filters, which are applied by the database. When the
+   * query fails, the filters will be applied in-memory by {@link QueueFilterer} instead.
+   *
+   * @see QueueDao#selectPage(QueueFilters, QueueSortMethod, QueueModel, int)
+   */
+  @NonNull
+  public CompletableFuture<List<QueueModel>> selectPage(
+      @NonNull QueueFilters filters,
+      @NonNull QueueSortMethod sortMethod,
+      @Nullable QueueModel afterQueue,
+      int limit) {
+    Objects.requireNonNull(filters);
+    Objects.requireNonNull(sortMethod);
+
+    return this._executor.read(
+            () -> this._localDao.selectPage(filters, sortMethod, afterQueue, limit))
+        .thenComposeAsync(this::_mapFields, this._executor.continuation())
+        .handleAsync(
+            (queues, throwable) -> {
+              if (throwable == null) return CompletableFuture.completedFuture(queues);
+
+              final QueueFilterer filterer = new QueueFilterer();
+              filterer.setFilters(filters);
+              return this._selectPageFilteredInMemory(
+                  filterer, sortMethod, afterQueue, limit, new ArrayList<>());
+            },
+            this._executor.continuation())
+        .thenComposeAsync(Function.identity(), this._executor.continuation());
   }
 
   @Override
   @NonNull
   public CompletableFuture<Boolean> isExistsById(@Nullable Long id) {
-    return CompletableFuture.supplyAsync(() -> this._localDao.isExistsById(id));
+    return this._executor.read(() -> this._localDao.isExistsById(id));
   }
 
+  /**
+   * @see QueueDao#insertWithForeign(QueueModel)
+   */
   @Override
   @NonNull
   public CompletableFuture<Long> add(@NonNull QueueModel queue) {
     Objects.requireNonNull(queue);
 
-    final BiFunction<List<ProductOrderModel>, Long, CompletableFuture<List<Long>>>
-        insertProductOrders =
-            (productOrders, queueId) -> {
-              final List<ProductOrderModel> orders =
-                  productOrders.stream()
-                      .map(order -> order.withQueueId(queueId))
-                      .collect(Collectors.toList());
-              return this._productOrderRepository.add(orders);
-            };
-
-    final Function<QueueModel, CompletableFuture<Integer>> updateCustomer =
-        insertedQueue ->
-            this._customerRepository
-                .selectById(insertedQueue.customerId())
-                .thenComposeAsync(
-                    selectedCustomer -> {
-                      // Make customer pay the already inserted queue.
-                      return this._customerRepository.update(
-                          selectedCustomer.withBalance(
-                              selectedCustomer.balanceOnMadePayment(insertedQueue)));
-                    });
-
     final CompletableFuture<Long> insert =
-        CompletableFuture.supplyAsync(() -> this._localDao.insert(queue))
-            .thenComposeAsync(
-                rowId ->
-                    CompletableFuture.supplyAsync(() -> this._localDao.selectIdByRowId(rowId)));
+        this._executor.write(
+            () -> {
+              final long insertedQueueId = this._localDao.insertWithForeign(queue);
+              this._customerRepository.invalidateCache(
+                  Collections.singletonList(queue.customerId()));
+              return insertedQueueId;
+            });
 
-    return insert.thenComposeAsync(
+    insert.thenAcceptAsync(
         insertedQueueId -> {
-          if (insertedQueueId == 0L) return CompletableFuture.completedFuture(0L);
-
-          final CompletableFuture<QueueModel> updateForeign =
-              insertProductOrders
-                  .apply(queue.productOrders(), insertedQueueId)
-                  // First select query to get a queue mapped with newly inserted orders.
-                  .thenComposeAsync(ignore -> this.selectById(insertedQueueId))
-                  .thenAcceptAsync(updateCustomer::apply)
-                  // Re-select to get a queue mapped with an updated customer.
-                  .thenComposeAsync(ignore -> this.selectById(insertedQueueId));
-
-          // Update foreign column firstly, so that queue
-          // already provided with an updated value when notified.
-          updateForeign.thenAcceptAsync(
-              updatedQueue -> {
-                if (updatedQueue != null) this.notifyModelAdded(List.of(updatedQueue));
-              });
-          return CompletableFuture.completedFuture(insertedQueueId);
-        });
+          if (insertedQueueId == 0L) return;
+
+          this._notifyWithCustomers(
+              insertedQueueId,
+              List.of(),
+              insertedQueue -> this.notifyModelAdded(List.of(insertedQueue)));
+        },
+        this._executor.continuation());
+    return insert;
   }
 
+  /**
+   * @see QueueDao#updateWithForeign(QueueModel)
+   */
   @Override
   @NonNull
   public CompletableFuture<Integer> update(@NonNull QueueModel queue) {
     Objects.requireNonNull(queue);
 
-    final BiFunction<QueueModel, QueueModel, CompletableFuture<Void>> updateProductOrders =
-        (oldQueue, updatedQueue) -> {
-          final ArrayList<ProductOrderModel> ordersToUpsert = new ArrayList<>();
-          final ArrayList<ProductOrderModel> ordersToDelete =
-              new ArrayList<>(oldQueue.productOrders());
-
-          for (ProductOrderModel productOrder : updatedQueue.productOrders()) {
-            // Set the queue ID, in case they're newly created.
-            final ProductOrderModel orderToUpsert = productOrder.withQueueId(updatedQueue.id());
-
-            ordersToUpsert.add(orderToUpsert);
-            // Remove product order with equal ID if they're exists inside `ordersToDelete`,
-            // so that they will get an upsert, while leaving product orders to delete.
-            ordersToDelete.stream()
-                .filter(order -> order.id() != null && order.id().equals(orderToUpsert.id()))
-                .findFirst()
-                .ifPresent(ordersToDelete::remove);
-          }
-
-          return CompletableFuture.allOf(
-              this._productOrderRepository.upsert(ordersToUpsert),
-              this._productOrderRepository.delete(ordersToDelete));
-        };
-
-    final BiFunction<QueueModel, QueueModel, CompletableFuture<Void>> updateCustomer =
-        (oldQueue, updatedQueue) -> {
-          final CompletableFuture<CustomerModel> selectUpdatedCustomer =
-              this._customerRepository.selectById(updatedQueue.customerId());
-          final CompletableFuture<CustomerModel> selectOldCustomer =
-              this._customerRepository.selectById(oldQueue.customerId());
-
-          final BiFunction<CustomerModel, CustomerModel, CompletableFuture<Integer>>
-              updateOldCustomer =
-                  (oldCustomer, updatedCustomer) ->
-                      oldCustomer != null
-                              && oldCustomer.id() != null
-                              && (updatedCustomer == null
-                                  || !oldCustomer.id().equals(updatedCustomer.id()))
-                          // Revert back old customer balance when different customer selected,
-                          // even when the new one is null.
-                          ? this._customerRepository.update(
-                              oldCustomer.withBalance(
-                                  oldCustomer.balanceOnRevertedPayment(oldQueue)))
-                          : CompletableFuture.completedFuture(0);
-          final BiFunction<CustomerModel, CustomerModel, CompletableFuture<Integer>>
-              updateNewCustomer =
-                  (oldCustomer, updatedCustomer) ->
-                      updatedCustomer != null
-                          // Update customer balance for newly selected customer.
-                          ? this._customerRepository.update(
-                              updatedCustomer.withBalance(
-                                  updatedCustomer.balanceOnUpdatedPayment(oldQueue, updatedQueue)))
-                          : CompletableFuture.completedFuture(0);
-
-          return selectUpdatedCustomer.thenAcceptAsync(
-              updatedCustomer ->
-                  selectOldCustomer.thenAcceptAsync(
-                      oldCustomer ->
-                          CompletableFuture.allOf(
-                              updateOldCustomer.apply(oldCustomer, updatedCustomer),
-                              updateNewCustomer.apply(oldCustomer, updatedCustomer))));
-        };
-
-    return this.selectById(queue.id())
-        .thenComposeAsync(
-            oldQueue -> {
-              if (oldQueue == null) return CompletableFuture.completedFuture(0);
-
-              final CompletableFuture<Void> updateForeignFuture =
-                  updateProductOrders
-                      .apply(oldQueue, queue)
-                      .thenRunAsync(() -> updateCustomer.apply(oldQueue, queue));
-              final CompletableFuture<Integer> update =
-                  updateForeignFuture.thenApplyAsync(ignore -> this._localDao.update(queue));
-
-              // Update foreign column firstly, so that queue
-              // already provided with an updated value when returned.
-              update.thenAcceptAsync(
-                  effected -> {
-                    if (effected == 0) return;
-
-                    this.selectById(queue.id())
-                        .thenAcceptAsync(
-                            updatedQueue -> this.notifyModelUpdated(List.of(updatedQueue)));
-                  });
-              return update;
+    final CompletableFuture<QueueModel> update =
+        this._executor.write(
+            () -> {
+              final QueueModel oldQueue = this._localDao.updateWithForeign(queue);
+              if (oldQueue != null) {
+                this._customerRepository.invalidateCache(
+                    Arrays.asList(queue.customerId(), oldQueue.customerId()));
+              }
+              return oldQueue;
             });
+
+    update.thenAcceptAsync(
+        oldQueue -> {
+          if (oldQueue == null) return;
+
+          this._notifyWithCustomers(
+              queue.id(),
+              Collections.singletonList(oldQueue.customerId()),
+              updatedQueue -> this.notifyModelUpdated(List.of(updatedQueue)));
+        },
+        this._executor.continuation());
+    return update.thenApplyAsync(
+        oldQueue -> oldQueue != null ? 1 : 0, this._executor.continuation());
   }
 
+  /**
+   * @see QueueDao#deleteWithForeign(QueueModel)
+   */
   @Override
   @NonNull
   public CompletableFuture<Integer> delete(@NonNull QueueModel queue) {
     Objects.requireNonNull(queue);
 
-    // Note: Associated rows on product order table will automatically deleted upon queue deletion.
-
-    final Function<QueueModel, CompletableFuture<Integer>> updateCustomer =
-        (oldQueue) ->
-            this._customerRepository
-                .selectById(oldQueue.customerId())
-                .thenComposeAsync(
-                    customer -> {
-                      // Revert back customer balance.
-                      return this._customerRepository.update(
-                          customer.withBalance(customer.balanceOnRevertedPayment(oldQueue)));
-                    });
-
-    return this.selectById(queue.id())
-        .thenComposeAsync(
-            oldQueue -> {
-              final CompletableFuture<Integer> delete =
-                  CompletableFuture.supplyAsync(() -> this._localDao.delete(queue));
-
-              delete.thenAcceptAsync(
-                  effected -> {
-                    if (effected == 0) return;
-
-                    updateCustomer.apply(oldQueue);
-                    this.notifyModelDeleted(List.of(oldQueue));
-                  });
-              return delete;
+    final CompletableFuture<QueueModel> delete =
+        this._executor.write(
+            () -> {
+              final QueueModel deletedQueue = this._localDao.deleteWithForeign(queue);
+              if (deletedQueue != null) {
+                this._customerRepository.invalidateCache(
+                    Collections.singletonList(deletedQueue.customerId()));
+              }
+              return deletedQueue;
             });
+
+    delete.thenAcceptAsync(
+        deletedQueue -> {
+          if (deletedQueue == null) return;
+
+          this._notifyCustomers(Collections.singletonList(deletedQueue.customerId()))
+              .thenRunAsync(
+                  () -> this.notifyModelDeleted(List.of(deletedQueue)),
+                  this._executor.continuation());
+        },
+        this._executor.continuation());
+    return delete.thenApplyAsync(
+        deletedQueue -> deletedQueue != null ? 1 : 0, this._executor.continuation());
   }
 
   @NonNull
@@ -326,9 +325,138 @@ public final class QueueRepository
     Objects.requireNonNull(startDate);
     Objects.requireNonNull(endDate);
 
-    return CompletableFuture.supplyAsync(
+    return this._executor.read(
             () -> this._localDao.selectAllInRange(startDate.toInstant(), endDate.toInstant()))
-        .thenComposeAsync(this::_mapFields);
+        .thenComposeAsync(this::_mapFields, this._executor.continuation());
+  }
+
+  /**
+   * Notify customers of the queue along with the given customer IDs, whose balance and debt might
+   * have been changed by the queue. The queue itself is then notified with its final state.
+   */
+  private void _notifyWithCustomers(
+      @Nullable Long queueId,
+      @NonNull List<Long> otherCustomerIds,
+      @NonNull Consumer<QueueModel> notifyQueue) {
+    Objects.requireNonNull(otherCustomerIds);
+    Objects.requireNonNull(notifyQueue);
+
+    this.selectById(queueId)
+        .thenComposeAsync(
+            queue -> {
+              if (queue == null) return CompletableFuture.completedFuture(null);
+
+              final ArrayList<Long> customerIds = new ArrayList<>(otherCustomerIds);
+              customerIds.add(queue.customerId());
+              return this._notifyCustomers(customerIds)
+                  .thenApplyAsync(ignore -> queue, this._executor.continuation());
+            },
+            this._executor.continuation())
+        .thenAcceptAsync(
+            queue -> {
+              if (queue != null) notifyQueue.accept(queue);
+            },
+            this._executor.continuation());
+  }
+
+  @NonNull
+  private CompletableFuture<Void> _notifyCustomers(@NonNull List<Long> customerIds) {
+    Objects.requireNonNull(customerIds);
+
+    final List<Long> ids =
+        customerIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    if (ids.isEmpty()) return CompletableFuture.completedFuture(null);
+
+    return this._customerRepository
+        .selectById(ids)
+        .thenAcceptAsync(
+            customers -> {
+              final List<CustomerModel> updatedCustomers =
+                  customers.stream().filter(Objects::nonNull).collect(Collectors.toList());
+              if (!updatedCustomers.isEmpty()) {
+                this._customerRepository.notifyModelUpdated(updatedCustomers);
+              }
+            },
+            this._executor.continuation());
+  }
+
+  /**
+   * Notify the queues from the snapshot which hold any of the changed customers, with the customer
+   * replaced. Queue of a deleted customer is detached from it, as the {@code customer_id} column
+   * is set to null upon the deletion.
+   */
+  private void _onCustomersChanged(@NonNull ModelChangedBus.Batch<CustomerModel> batch) {
+    Objects.requireNonNull(batch);
+
+    final CompletableFuture<ModelSnapshotStore.Snapshot<QueueModel>> selectedSnapshot =
+        this._snapshotStore.selectedSnapshot();
+    // Queues selected later on will already have the changed customers mapped into them.
+    if (selectedSnapshot == null) return;
+
+    // Newly added customers don't own any queue yet.
+    final ArrayList<CustomerModel> changedCustomers = new ArrayList<>(batch.updatedModels());
+    changedCustomers.addAll(batch.upsertedModels());
+    final ModelIdIndex changedIndex = ModelIdIndex.ofModels(changedCustomers);
+    final ModelIdIndex deletedIndex = ModelIdIndex.ofModels(batch.deletedModels());
+
+    selectedSnapshot.thenAcceptAsync(
+        snapshot -> {
+          if (snapshot == null) return;
+
+          final ArrayList<QueueModel> updatedQueues = new ArrayList<>();
+
+          for (QueueModel queue : snapshot.models()) {
+            if (queue.customerId() == null) continue;
+
+            if (deletedIndex.contains(queue.customerId())) {
+              updatedQueues.add(queue.withCustomerId(null).withCustomer(null));
+              continue;
+            }
+
+            final int changedPosition = changedIndex.indexOf(queue.customerId());
+            if (changedPosition != -1
+                && !changedCustomers.get(changedPosition).equals(queue.customer())) {
+              updatedQueues.add(queue.withCustomer(changedCustomers.get(changedPosition)));
+            }
+          }
+
+          if (!updatedQueues.isEmpty()) this.notifyModelUpdated(updatedQueues);
+        },
+        this._executor.continuation());
+  }
+
+  /**
+   * Select pages without any filter, then filter them in-memory until there are as many queues
+   * as the limit or until there are no more queues left.
+   */
+  @NonNull
+  private CompletableFuture<List<QueueModel>> _selectPageFilteredInMemory(
+      @NonNull QueueFilterer filterer,
+      @NonNull QueueSortMethod sortMethod,
+      @Nullable QueueModel afterQueue,
+      int limit,
+      @NonNull List<QueueModel> filteredQueues) {
+    Objects.requireNonNull(filterer);
+    Objects.requireNonNull(sortMethod);
+    Objects.requireNonNull(filteredQueues);
+
+    return this.selectPage(sortMethod, afterQueue, limit)
+        .thenComposeAsync(
+            queues -> {
+              if (queues == null) return CompletableFuture.completedFuture(null);
+
+              for (QueueModel queue : filterer.filter(queues)) {
+                if (filteredQueues.size() < limit) filteredQueues.add(queue);
+              }
+
+              if (queues.size() < limit || filteredQueues.size() >= limit) {
+                return CompletableFuture.completedFuture(filteredQueues);
+              }
+
+              return this._selectPageFilteredInMemory(
+                  filterer, sortMethod, queues.get(queues.size() - 1), limit, filteredQueues);
+            },
+            this._executor.continuation());
   }
 
   /**
@@ -340,31 +468,88 @@ public final class QueueRepository
   private CompletableFuture<QueueModel> _mapFields(@Nullable QueueModel queue) {
     if (queue == null) return CompletableFuture.completedFuture(null);
 
-    final CompletableFuture<CustomerModel> selectCustomer =
-        this._customerRepository.selectById(queue.customerId());
-    final CompletableFuture<List<ProductOrderModel>> selectProductOrders =
-        this._productOrderRepository.selectAllByQueueId(queue.id());
-
-    return CompletableFuture.allOf(selectCustomer, selectProductOrders)
-        .thenApplyAsync(
-            ignore ->
-                queue
-                    .withCustomer(selectCustomer.join())
-                    .withProductOrders(selectProductOrders.join()));
+    return this._mapFields(List.of(queue))
+        .thenApplyAsync(queues -> queues.get(0), this._executor.continuation());
   }
 
   /**
+   * Load the whole graph at once. Instead of selecting customer and product orders for each queue,
+   * all of them are selected using a constant number of queries, then stitched back in-memory.
+   *
    * @see #_mapFields(QueueModel)
    */
   @NonNull
   private CompletableFuture<List<QueueModel>> _mapFields(@Nullable List<QueueModel> queues) {
     if (queues == null) return CompletableFuture.completedFuture(null);
 
-    final List<CompletableFuture<QueueModel>> mapFields =
-        queues.stream().map(this::_mapFields).collect(Collectors.toList());
+    final List<Long> queueIds =
+        queues.stream()
+            .filter(Objects::nonNull)
+            .map(QueueModel::id)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    final List<Long> customerIds =
+        queues.stream()
+            .filter(Objects::nonNull)
+            .map(QueueModel::customerId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+
+    final CompletableFuture<List<CustomerModel>> selectCustomers =
+        this._customerRepository.selectById(customerIds);
+    final CompletableFuture<List<ProductOrderModel>> selectProductOrders =
+        this._productOrderRepository.selectAllByQueueId(queueIds);
 
-    return CompletableFuture.allOf(mapFields.stream().toArray(CompletableFuture[]::new))
+    return CompletableFuture.allOf(selectCustomers, selectProductOrders)
         .thenApplyAsync(
-            ignore -> mapFields.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+            ignore -> {
+              final HashMap<Long, CustomerModel> customers = new HashMap<>();
+              final HashMap<Long, List<ProductOrderModel>> productOrders = new HashMap<>();
+
+              for (CustomerModel customer : selectCustomers.join()) {
+                if (customer != null) customers.put(customer.id(), customer);
+              }
+
+              for (ProductOrderModel productOrder : selectProductOrders.join()) {
+                productOrders
+                    .computeIfAbsent(productOrder.queueId(), id -> new ArrayList<>())
+                    .add(productOrder);
+              }
+
+              return queues.stream()
+                  .map(
+                      queue ->
+                          queue != null
+                              ? queue
+                                  .withCustomer(customers.get(queue.customerId()))
+                                  .withProductOrders(
+                                      productOrders.getOrDefault(queue.id(), List.of()))
+                              : null)
+                  .collect(Collectors.toList());
+            },
+            this._executor.continuation());
+  }
+
+  /** Changes are always delivered in batches by {@link ModelChangedBus}. */
+  private class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
+    @Override
+    public void onModelAdded(@NonNull List<CustomerModel> customers) {}
+
+    @Override
+    public void onModelUpdated(@NonNull List<CustomerModel> customers) {}
+
+    @Override
+    public void onModelDeleted(@NonNull List<CustomerModel> customers) {}
+
+    @Override
+    public void onModelUpserted(@NonNull List<CustomerModel> customers) {}
+
+    @Override
+    public void onModelChanged(@NonNull ModelChangedBus.Batch<CustomerModel> batch) {
+      Objects.requireNonNull(batch);
+
+      QueueRepository.this._onCustomersChanged(batch);
+    }
   }
 }
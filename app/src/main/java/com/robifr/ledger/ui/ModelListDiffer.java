@@ -0,0 +1,152 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.ui;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+import com.robifr.ledger.data.model.Model;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Dispatch only the changed ranges of the models into the adapter, instead of rebinding the whole
+ * list. The diff is calculated off the main thread, where models are identified by their {@link
+ * Model#modelId()}.
+ *
+ * @param <M> Model to display.
+ */
+public class ModelListDiffer<M extends Model> {
+  /** Stable ID for the holders placed before the models, like a header. */
+  public static final long HEADER_ITEM_ID = Long.MIN_VALUE;
+
+  @NonNull private final AsyncListDiffer<M> _differ;
+  private final int _headerCount;
+
+  /**
+   * @param headerCount Number of holders placed before the models.
+   * @param payloadOf Payload to partially rebind the changed model with, given the old and the new
+   *     one. Return null to rebind it entirely.
+   */
+  public ModelListDiffer(
+      @NonNull RecyclerView.Adapter<?> adapter,
+      int headerCount,
+      @NonNull BiFunction<M, M, Object> payloadOf) {
+    Objects.requireNonNull(adapter);
+    Objects.requireNonNull(payloadOf);
+
+    this._headerCount = headerCount;
+    this._differ =
+        new AsyncListDiffer<>(
+            new OffsetListUpdateCallback(adapter, headerCount),
+            new AsyncDifferConfig.Builder<>(new ModelItemCallback<>(payloadOf)).build());
+  }
+
+  public ModelListDiffer(@NonNull RecyclerView.Adapter<?> adapter, int headerCount) {
+    this(adapter, headerCount, (oldModel, newModel) -> null);
+  }
+
+  /**
+   * @return Models which are currently displayed. Might be behind the latest submitted list until
+   *     its diff is dispatched.
+   */
+  @NonNull
+  public List<M> currentList() {
+    return this._differ.getCurrentList();
+  }
+
+  /**
+   * @param commitCallback Called on the main thread after the diff is dispatched.
+   */
+  public void submitList(@NonNull List<M> models, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(models);
+
+    this._differ.submitList(models, commitCallback);
+  }
+
+  /**
+   * @param index Adapter position, including the headers.
+   * @return Stable ID of the holder at the position.
+   */
+  public long itemIdOf(int index) {
+    if (index < this._headerCount) return HEADER_ITEM_ID + index;
+
+    final Long id = this.currentList().get(index - this._headerCount).modelId();
+    return id != null ? id : RecyclerView.NO_ID;
+  }
+
+  private static class OffsetListUpdateCallback implements ListUpdateCallback {
+    @NonNull private final RecyclerView.Adapter<?> _adapter;
+    private final int _offset;
+
+    public OffsetListUpdateCallback(@NonNull RecyclerView.Adapter<?> adapter, int offset) {
+      this._adapter = Objects.requireNonNull(adapter);
+      this._offset = offset;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+      this._adapter.notifyItemRangeInserted(position + this._offset, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+      this._adapter.notifyItemRangeRemoved(position + this._offset, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+      this._adapter.notifyItemMoved(fromPosition + this._offset, toPosition + this._offset);
+    }
+
+    @Override
+    public void onChanged(int position, int count, @Nullable Object payload) {
+      this._adapter.notifyItemRangeChanged(position + this._offset, count, payload);
+    }
+  }
+
+  private static class ModelItemCallback<M extends Model> extends DiffUtil.ItemCallback<M> {
+    @NonNull private final BiFunction<M, M, Object> _payloadOf;
+
+    public ModelItemCallback(@NonNull BiFunction<M, M, Object> payloadOf) {
+      this._payloadOf = Objects.requireNonNull(payloadOf);
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull M oldModel, @NonNull M newModel) {
+      return oldModel.modelId() != null
+          ? oldModel.modelId().equals(newModel.modelId())
+          : oldModel.equals(newModel);
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull M oldModel, @NonNull M newModel) {
+      return oldModel.equals(newModel);
+    }
+
+    @Override
+    @Nullable
+    public Object getChangePayload(@NonNull M oldModel, @NonNull M newModel) {
+      return this._payloadOf.apply(oldModel, newModel);
+    }
+  }
+}
@@ -151,8 +151,8 @@ open class CreateQueueFragment : Fragment(), Toolbar.OnMenuItemClickListener {
     _inputPaymentMethod.setEnabledButtons(state.allowedPaymentMethods)
     _inputPaymentMethod.setVisible(state.isPaymentMethodVisible)
     _inputProductOrder.setInputtedProductOrders(state.productOrders)
-    _inputProductOrder.setTotalDiscount(createQueueViewModel.inputtedQueue.totalDiscount())
-    _inputProductOrder.setGrandTotalPrice(createQueueViewModel.inputtedQueue.grandTotalPrice())
+    _inputProductOrder.setTotalDiscount(createQueueViewModel.inputtedQueue.totalDiscount)
+    _inputProductOrder.setGrandTotalPrice(createQueueViewModel.inputtedQueue.grandTotalPrice)
   }
 
   private fun _onMakeProductOrderState(state: MakeProductOrderState) {
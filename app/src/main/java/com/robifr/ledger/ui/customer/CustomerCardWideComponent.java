@@ -30,6 +30,13 @@ import java.math.BigDecimal;
 import java.util.Objects;
 
 public class CustomerCardWideComponent {
+  /**
+   * Payload to rebind only the balance and debt, which are the ones mostly changed by the queues.
+   *
+   * @see #balancePayloadOf(CustomerModel, CustomerModel)
+   */
+  public static final Object BALANCE_PAYLOAD = new Object();
+
   @NonNull private final Context _context;
   @NonNull private final CustomerCardWideBinding _binding;
 
@@ -66,6 +73,22 @@ public class CustomerCardWideComponent {
     this._setDebt(customer.debt(), false);
   }
 
+  /**
+   * Rebind only the balance and debt, while the rest of the card is left as it is. Expanded card is
+   * only filled when it's shown on screen.
+   */
+  public void setCardCustomerBalance(@NonNull CustomerModel customer) {
+    Objects.requireNonNull(customer);
+
+    this._setBalance(customer.balance(), true);
+    this._setDebt(customer.debt(), true);
+
+    if (this._binding.expandedCard.getRoot().getVisibility() == View.VISIBLE) {
+      this._setBalance(customer.balance(), false);
+      this._setDebt(customer.debt(), false);
+    }
+  }
+
   public void setCardExpanded(boolean isExpanded) {
     final int normalCardVisibility = isExpanded ? View.GONE : View.VISIBLE;
     final int expandedCardVisibility = isExpanded ? View.VISIBLE : View.GONE;
@@ -107,6 +130,23 @@ public class CustomerCardWideComponent {
     this._binding.expandedCard.debt.setTextColor(0);
   }
 
+  /**
+   * @return {@link #BALANCE_PAYLOAD} when only the balance or debt are changed, otherwise null.
+   */
+  @Nullable
+  public static Object balancePayloadOf(
+      @NonNull CustomerModel oldCustomer, @NonNull CustomerModel newCustomer) {
+    Objects.requireNonNull(oldCustomer);
+    Objects.requireNonNull(newCustomer);
+
+    final boolean isOnlyBalanceChanged =
+        oldCustomer
+            .withBalance(newCustomer.balance())
+            .withDebt(newCustomer.debt())
+            .equals(newCustomer);
+    return isOnlyBalanceChanged ? BALANCE_PAYLOAD : null;
+  }
+
   private void _setId(@Nullable Long id, boolean isNormalCard) {
     final boolean isIdExists = id != null;
     final String customerId =
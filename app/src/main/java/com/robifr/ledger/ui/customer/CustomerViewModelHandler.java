@@ -77,7 +77,15 @@ public class CustomerViewModelHandler {
   private void _onCustomers(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            customers,
+            () -> {
+              this._fragment.adapter().notifyItemChanged(0); // Notify header holder.
+              // The expanded card might have been moved by the changes.
+              this._onExpandedCustomerIndex(this._viewModel.expandedCustomerIndex().getValue());
+            });
   }
 
   private void _onExpandedCustomerIndex(int index) {
@@ -19,12 +19,15 @@ package com.robifr.ledger.ui.customer.recycler;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.databinding.CustomerCardWideBinding;
 import com.robifr.ledger.databinding.ListableListTextBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.customer.CustomerAction;
+import com.robifr.ledger.ui.customer.CustomerCardWideComponent;
 import com.robifr.ledger.ui.customer.CustomerFragment;
 import com.robifr.ledger.ui.customer.CustomerListAction;
 import java.util.Arrays;
@@ -50,9 +53,14 @@ public class CustomerAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?,
   }
 
   @NonNull private final CustomerFragment _fragment;
+  @NonNull private final ModelListDiffer<CustomerModel> _differ;
 
   public CustomerAdapter(@NonNull CustomerFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    // 1 for header holder.
+    this._differ = new ModelListDiffer<>(this, 1, CustomerCardWideComponent::balancePayloadOf);
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -87,14 +95,38 @@ public class CustomerAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?,
 
     } else if (holder instanceof CustomerListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(this._fragment.customerViewModel().customers().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
+    }
+  }
+
+  @Override
+  public void onBindViewHolder(
+      @NonNull RecyclerViewHolder holder, int index, @NonNull List<Object> payloads) {
+    Objects.requireNonNull(holder);
+    Objects.requireNonNull(payloads);
+
+    final boolean isOnlyBalanceChanged =
+        !payloads.isEmpty()
+            && payloads.stream().allMatch(CustomerCardWideComponent.BALANCE_PAYLOAD::equals);
+
+    if (holder instanceof CustomerListHolder<?> listHolder && isOnlyBalanceChanged) {
+      // -1 offset because header holder.
+      listHolder.bindBalance(this._differ.currentList().get(index - 1));
+
+    } else {
+      super.onBindViewHolder(holder, index, payloads);
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.customerViewModel().customers().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -105,6 +137,18 @@ public class CustomerAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?,
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed customers is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(
+      @NonNull List<CustomerModel> customers, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(customers);
+
+    this._differ.submitList(customers, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<CustomerModel> customers() {
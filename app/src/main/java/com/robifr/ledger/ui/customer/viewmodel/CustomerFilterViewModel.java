@@ -204,8 +204,7 @@ public class CustomerFilterViewModel {
     this.onMaxDebtTextChanged(maxDebt);
     this._filterer.setFilters(filters);
 
-    final List<CustomerModel> filteredCustomers = this._filterer.filter(customers);
-    // Re-sort the list, after previously re-populating the list with a new filtered value.
-    this._viewModel.onSortMethodChanged(this._viewModel.sortMethod().getValue(), filteredCustomers);
+    // Re-filter and re-sort the list off the main thread, with the new filters.
+    this._viewModel.onSortMethodChanged(this._viewModel.sortMethod().getValue(), customers);
   }
 }
@@ -16,11 +16,15 @@
 
 package com.robifr.ledger.ui.customer.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.robifr.ledger.R;
+import com.robifr.ledger.data.ModelListPipeline;
+import com.robifr.ledger.data.SortedModelList;
 import com.robifr.ledger.data.display.CustomerFilterer;
 import com.robifr.ledger.data.display.CustomerSortMethod;
 import com.robifr.ledger.data.display.CustomerSorter;
@@ -34,6 +38,7 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 
 @HiltViewModel
@@ -46,6 +51,15 @@ public class CustomerViewModel extends ViewModel {
 
   @NonNull private final CustomerFilterViewModel _filterView;
   @NonNull private final CustomerSorter _sorter = new CustomerSorter();
+  @NonNull private final CustomerFilterer _filterer = new CustomerFilterer();
+
+  @NonNull
+  private final ModelListPipeline<CustomerModel> _customersPipeline =
+      new ModelListPipeline<>(
+          new Handler(Looper.getMainLooper())::post,
+          this._sorter.comparator(),
+          customer -> true,
+          this::_onCustomersComputed);
 
   @NonNull
   private final MutableLiveData<SafeEvent<StringResources>> _snackbarMessage =
@@ -69,9 +83,9 @@ public class CustomerViewModel extends ViewModel {
   @Inject
   public CustomerViewModel(@NonNull CustomerRepository customerRepository) {
     this._customerRepository = Objects.requireNonNull(customerRepository);
-    this._filterView = new CustomerFilterViewModel(this, new CustomerFilterer());
+    this._filterView = new CustomerFilterViewModel(this, this._filterer);
 
-    this._customerRepository.addModelChangedListener(this._customerChangedListener);
+    this._customerRepository.snapshotStore().addListener(this._customerChangedListener);
 
     // Setting up initial values inside a fragment is painful. See commit d5604599.
     SafeEvent.observeOnce(
@@ -83,7 +97,7 @@ public class CustomerViewModel extends ViewModel {
 
   @Override
   public void onCleared() {
-    this._customerRepository.removeModelChangedListener(this._customerChangedListener);
+    this._customerRepository.snapshotStore().removeListener(this._customerChangedListener);
   }
 
   @NonNull
@@ -118,7 +132,8 @@ public class CustomerViewModel extends ViewModel {
     final MutableLiveData<List<CustomerModel>> result = new MutableLiveData<>();
 
     this._customerRepository
-        .selectAll()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             customers -> {
               if (customers == null) {
@@ -154,8 +169,16 @@ public class CustomerViewModel extends ViewModel {
     this._customers.setValue(Collections.unmodifiableList(customers));
   }
 
+  /**
+   * Re-sort the current {@link #_customers}, including the changes which aren't published yet. The
+   * sorting is done off the main thread.
+   */
   public void onSortMethodChanged(@NonNull CustomerSortMethod sortMethod) {
-    this.onSortMethodChanged(sortMethod, this._customers.getValue());
+    Objects.requireNonNull(sortMethod);
+
+    this._sortMethod.setValue(sortMethod);
+    this._sorter.setSortMethod(sortMethod);
+    this._customersPipeline.resort(this._sorter.comparator());
   }
 
   public void onSortMethodChanged(
@@ -165,14 +188,16 @@ public class CustomerViewModel extends ViewModel {
 
     this._sortMethod.setValue(sortMethod);
     this._sorter.setSortMethod(sortMethod);
-    this.onCustomersChanged(this._sorter.sort(customers));
+    this._customersPipeline.reset(this._sorter.comparator(), this._filterSnapshot(), customers);
   }
 
   /**
    * @see #onSortMethodChanged(CustomerSortMethod.SortBy, List)
    */
   public void onSortMethodChanged(@NonNull CustomerSortMethod.SortBy sortBy) {
-    this.onSortMethodChanged(sortBy, this._customers.getValue());
+    Objects.requireNonNull(sortBy);
+
+    this.onSortMethodChanged(this._sortMethodOf(sortBy));
   }
 
   /**
@@ -185,13 +210,79 @@ public class CustomerViewModel extends ViewModel {
     Objects.requireNonNull(sortBy);
     Objects.requireNonNull(customers);
 
+    this.onSortMethodChanged(this._sortMethodOf(sortBy), customers);
+  }
+
+  /**
+   * Apply the changed customers into {@link #_customers} by relocating them within the current
+   * order, instead of re-filtering and re-sorting the whole list. The changes are computed off the
+   * main thread, so this might be called from any thread.
+   */
+  void _onCustomersChanged(
+      @NonNull List<CustomerModel> deletedCustomers,
+      @NonNull List<CustomerModel> upsertedCustomers) {
+    Objects.requireNonNull(deletedCustomers);
+    Objects.requireNonNull(upsertedCustomers);
+
+    this._customersPipeline.apply(deletedCustomers, upsertedCustomers);
+  }
+
+  private void _onCustomersComputed(@NonNull ModelListPipeline.Result<CustomerModel> result) {
+    Objects.requireNonNull(result);
+
+    int expandedCustomerIndex = this._expandedCustomerIndex.getValue();
+
+    // Keep the same customer expanded, wherever it's moved to.
+    if (result.isReordered()) {
+      final Long expandedCustomerId =
+          expandedCustomerIndex >= 0 && expandedCustomerIndex < this._customers.getValue().size()
+              ? this._customers.getValue().get(expandedCustomerIndex).id()
+              : null;
+      expandedCustomerIndex = -1;
+
+      for (int i = 0; expandedCustomerId != null && i < result.models().size(); i++) {
+        if (expandedCustomerId.equals(result.models().get(i).id())) {
+          expandedCustomerIndex = i;
+          break;
+        }
+      }
+
+    } else {
+      if (result.changes().isEmpty()) return;
+
+      for (SortedModelList.Change change : result.changes()) {
+        expandedCustomerIndex = change.positionAfter(expandedCustomerIndex);
+      }
+    }
+
+    this.onExpandedCustomerIndexChanged(expandedCustomerIndex);
+    this.onCustomersChanged(result.models());
+  }
+
+  /**
+   * @return Filter of the current filters, which isn't affected by the upcoming changes.
+   */
+  @NonNull
+  private Predicate<CustomerModel> _filterSnapshot() {
+    final CustomerFilterer filterer = new CustomerFilterer();
+    filterer.setFilters(this._filterer.filters());
+    return customer -> !filterer.isFilteredOut(customer);
+  }
+
+  /**
+   * @return Sort method of the specified type, in reversed order when it's the same as the
+   *     current one.
+   */
+  @NonNull
+  private CustomerSortMethod _sortMethodOf(@NonNull CustomerSortMethod.SortBy sortBy) {
+    Objects.requireNonNull(sortBy);
+
     // Reverse sort order when selecting same sort option.
     final boolean isAscending =
         this._sortMethod.getValue().sortBy() == sortBy
             ? !this._sortMethod.getValue().isAscending()
             : this._sortMethod.getValue().isAscending();
-
-    this.onSortMethodChanged(new CustomerSortMethod(sortBy, isAscending), customers);
+    return new CustomerSortMethod(sortBy, isAscending);
   }
 
   public void onExpandedCustomerIndexChanged(int index) {
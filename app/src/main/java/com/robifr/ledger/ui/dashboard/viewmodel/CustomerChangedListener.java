@@ -20,16 +20,12 @@ import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
-import com.robifr.ledger.data.InfoUpdater;
-import com.robifr.ledger.data.model.CustomerBalanceInfo;
-import com.robifr.ledger.data.model.CustomerDebtInfo;
 import com.robifr.ledger.data.model.CustomerModel;
-import com.robifr.ledger.repository.ModelChangedListener;
-import java.math.BigDecimal;
-import java.util.List;
+import com.robifr.ledger.repository.ModelChangedBus;
+import com.robifr.ledger.repository.ModelSnapshotStore;
 import java.util.Objects;
 
-class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
+class CustomerChangedListener implements ModelSnapshotStore.Listener<CustomerModel> {
   @NonNull private final DashboardViewModel _viewModel;
 
   public CustomerChangedListener(@NonNull DashboardViewModel viewModel) {
@@ -38,76 +34,13 @@ class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
 
   @Override
   @WorkerThread
-  public void onModelAdded(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
+  public void onSnapshotChanged(
+      @NonNull ModelSnapshotStore.Snapshot<CustomerModel> snapshot,
+      @NonNull ModelChangedBus.Batch<CustomerModel> batch) {
+    Objects.requireNonNull(snapshot);
+    Objects.requireNonNull(batch);
 
     new Handler(Looper.getMainLooper())
-        .post(
-            () -> {
-              this._updateBalanceInfo(customers, InfoUpdater::addInfo);
-              this._updateDebtInfo(customers, InfoUpdater::addInfo);
-            });
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelUpdated(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    new Handler(Looper.getMainLooper())
-        .post(
-            () -> {
-              this._updateBalanceInfo(customers, InfoUpdater::updateInfo);
-              this._updateDebtInfo(customers, InfoUpdater::updateInfo);
-            });
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelDeleted(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    new Handler(Looper.getMainLooper())
-        .post(
-            () -> {
-              this._updateBalanceInfo(customers, InfoUpdater::deleteInfo);
-              this._updateDebtInfo(customers, InfoUpdater::deleteInfo);
-            });
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelUpserted(@NonNull List<CustomerModel> customers) {}
-
-  private void _updateBalanceInfo(
-      @NonNull List<CustomerModel> customers,
-      @NonNull InfoUpdaterFunction<CustomerModel, CustomerBalanceInfo> updater) {
-    Objects.requireNonNull(customers);
-    Objects.requireNonNull(updater);
-
-    final List<CustomerBalanceInfo> balanceInfo =
-        updater.apply(
-            customers,
-            this._viewModel._customersWithBalance().getValue(),
-            CustomerBalanceInfo::withModel);
-
-    balanceInfo.removeIf(info -> info.balance() == 0L);
-    this._viewModel._onCustomersWithBalanceChanged(balanceInfo);
-  }
-
-  private void _updateDebtInfo(
-      @NonNull List<CustomerModel> customers,
-      @NonNull InfoUpdaterFunction<CustomerModel, CustomerDebtInfo> updater) {
-    Objects.requireNonNull(customers);
-    Objects.requireNonNull(updater);
-
-    final List<CustomerDebtInfo> debtInfo =
-        updater.apply(
-            customers,
-            this._viewModel._customersWithDebt().getValue(),
-            CustomerDebtInfo::withModel);
-
-    debtInfo.removeIf(info -> info.debt().compareTo(BigDecimal.ZERO) == 0);
-    this._viewModel._onCustomersWithDebtChanged(debtInfo);
+        .post(() -> this._viewModel._onCustomerSnapshotChanged(snapshot.models()));
   }
 }
@@ -24,6 +24,7 @@ import com.robifr.ledger.R;
 import com.robifr.ledger.data.display.QueueDate;
 import com.robifr.ledger.data.model.CustomerBalanceInfo;
 import com.robifr.ledger.data.model.CustomerDebtInfo;
+import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.data.model.QueueModel;
 import com.robifr.ledger.repository.CustomerRepository;
 import com.robifr.ledger.repository.QueueRepository;
@@ -33,10 +34,13 @@ import com.robifr.ledger.util.livedata.SafeEvent;
 import com.robifr.ledger.util.livedata.SafeLiveData;
 import com.robifr.ledger.util.livedata.SafeMutableLiveData;
 import dagger.hilt.android.lifecycle.HiltViewModel;
-import java.time.ZonedDateTime;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 
 @HiltViewModel
@@ -83,28 +87,20 @@ public class DashboardViewModel extends ViewModel {
     this._balanceView = new DashboardBalanceViewModel(this);
     this._revenueView = new DashboardRevenueViewModel(this);
 
-    this._queueRepository.addModelChangedListener(this._queueChangedListener);
-    this._customerRepository.addModelChangedListener(this._customerChangedListener);
+    this._queueRepository.snapshotStore().addListener(this._queueChangedListener);
+    this._customerRepository.snapshotStore().addListener(this._customerChangedListener);
     this._revenueView.onDisplayedChartChanged(DashboardRevenue.OverviewType.RECEIVED_INCOME);
 
     // Setting up initial values inside a fragment is painful. See commit d5604599.
+    SafeEvent.observeOnce(this._selectAllQueues(), this::_onQueueSnapshotChanged, Objects::nonNull);
     SafeEvent.observeOnce(
-        this._selectAllQueuesInRange(
-            this._date.getValue().dateStart(), this._date.getValue().dateEnd()),
-        this::_onQueuesChanged,
-        Objects::nonNull);
-    SafeEvent.observeOnce(
-        this._selectAllCustomersWithBalance(),
-        this::_onCustomersWithBalanceChanged,
-        Objects::nonNull);
-    SafeEvent.observeOnce(
-        this._selectAllCustomersWithDebt(), this::_onCustomersWithDebtChanged, Objects::nonNull);
+        this._selectAllCustomers(), this::_onCustomerSnapshotChanged, Objects::nonNull);
   }
 
   @Override
   public void onCleared() {
-    this._queueRepository.removeModelChangedListener(this._queueChangedListener);
-    this._customerRepository.removeModelChangedListener(this._customerChangedListener);
+    this._queueRepository.snapshotStore().removeListener(this._queueChangedListener);
+    this._customerRepository.snapshotStore().removeListener(this._customerChangedListener);
   }
 
   @NonNull
@@ -136,37 +132,20 @@ public class DashboardViewModel extends ViewModel {
     Objects.requireNonNull(date);
 
     this._date.setValue(date);
-    SafeEvent.observeOnce(
-        this._selectAllQueuesInRange(date.dateStart(), date.dateEnd()),
-        this::_onQueuesChanged,
-        Objects::nonNull);
-  }
-
-  @NonNull
-  private LiveData<List<CustomerBalanceInfo>> _selectAllCustomersWithBalance() {
-    final MutableLiveData<List<CustomerBalanceInfo>> result = new MutableLiveData<>();
-
-    this._customerRepository
-        .selectAllInfoWithBalance()
-        .thenAcceptAsync(
-            customers -> {
-              if (customers == null) {
-                this._snackbarMessage.postValue(
-                    new SafeEvent<>(
-                        new StringResources.Strings(R.string.dashboard_fetchAllCustomerError)));
-              }
-
-              result.postValue(customers);
-            });
-    return result;
+    SafeEvent.observeOnce(this._selectAllQueues(), this::_onQueueSnapshotChanged, Objects::nonNull);
   }
 
+  /**
+   * Select every customer from the snapshot shared across the screens, which only hits the
+   * database the first time.
+   */
   @NonNull
-  private LiveData<List<CustomerDebtInfo>> _selectAllCustomersWithDebt() {
-    final MutableLiveData<List<CustomerDebtInfo>> result = new MutableLiveData<>();
+  private LiveData<List<CustomerModel>> _selectAllCustomers() {
+    final MutableLiveData<List<CustomerModel>> result = new MutableLiveData<>();
 
     this._customerRepository
-        .selectAllInfoWithDebt()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             customers -> {
               if (customers == null) {
@@ -180,16 +159,16 @@ public class DashboardViewModel extends ViewModel {
     return result;
   }
 
+  /**
+   * @see #_selectAllCustomers()
+   */
   @NonNull
-  private LiveData<List<QueueModel>> _selectAllQueuesInRange(
-      @NonNull ZonedDateTime startDate, @NonNull ZonedDateTime endDate) {
-    Objects.requireNonNull(startDate);
-    Objects.requireNonNull(endDate);
-
+  private LiveData<List<QueueModel>> _selectAllQueues() {
     final MutableLiveData<List<QueueModel>> result = new MutableLiveData<>();
 
     this._queueRepository
-        .selectAllInRange(startDate, endDate)
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             queues -> {
               if (queues == null) {
@@ -218,21 +197,43 @@ public class DashboardViewModel extends ViewModel {
     return this._queues;
   }
 
-  void _onCustomersWithBalanceChanged(@NonNull List<CustomerBalanceInfo> balanceInfo) {
-    Objects.requireNonNull(balanceInfo);
+  /**
+   * Project the customers having a balance or a debt from every customer of the snapshot.
+   *
+   * @param customers Every customer, which isn't modified.
+   */
+  void _onCustomerSnapshotChanged(@NonNull List<CustomerModel> customers) {
+    Objects.requireNonNull(customers);
 
-    this._customersWithBalance.setValue(Collections.unmodifiableList(balanceInfo));
-  }
+    final ArrayList<CustomerBalanceInfo> balanceInfo = new ArrayList<>();
+    final ArrayList<CustomerDebtInfo> debtInfo = new ArrayList<>();
 
-  void _onCustomersWithDebtChanged(@NonNull List<CustomerDebtInfo> debtInfo) {
-    Objects.requireNonNull(debtInfo);
+    for (CustomerModel customer : customers) {
+      if (customer.balance() > 0L) balanceInfo.add(CustomerBalanceInfo.withModel(customer));
+      if (customer.debt().compareTo(BigDecimal.ZERO) < 0) {
+        debtInfo.add(CustomerDebtInfo.withModel(customer));
+      }
+    }
 
+    this._customersWithBalance.setValue(Collections.unmodifiableList(balanceInfo));
     this._customersWithDebt.setValue(Collections.unmodifiableList(debtInfo));
   }
 
-  void _onQueuesChanged(@NonNull List<QueueModel> queues) {
+  /**
+   * Project the queues within the current {@link #_date} from every queue of the snapshot.
+   *
+   * @param queues Every queue, which isn't modified.
+   */
+  void _onQueueSnapshotChanged(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._queues.setValue(Collections.unmodifiableList(queues));
+    final Instant dateStart = this._date.getValue().dateStart().toInstant();
+    final Instant dateEnd = this._date.getValue().dateEnd().toInstant();
+    final List<QueueModel> queuesInRange =
+        queues.stream()
+            .filter(queue -> !queue.date().isBefore(dateStart) && !queue.date().isAfter(dateEnd))
+            .collect(Collectors.toList());
+
+    this._queues.setValue(Collections.unmodifiableList(queuesInRange));
   }
 }
@@ -20,14 +20,12 @@ import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
-import com.robifr.ledger.data.ModelUpdater;
 import com.robifr.ledger.data.model.QueueModel;
-import com.robifr.ledger.repository.ModelChangedListener;
-import java.util.List;
+import com.robifr.ledger.repository.ModelChangedBus;
+import com.robifr.ledger.repository.ModelSnapshotStore;
 import java.util.Objects;
-import java.util.function.BiFunction;
 
-class QueueChangedListeners implements ModelChangedListener<QueueModel> {
+class QueueChangedListeners implements ModelSnapshotStore.Listener<QueueModel> {
   @NonNull private final DashboardViewModel _viewModel;
 
   public QueueChangedListeners(@NonNull DashboardViewModel viewModel) {
@@ -36,53 +34,13 @@ class QueueChangedListeners implements ModelChangedListener<QueueModel> {
 
   @Override
   @WorkerThread
-  public void onModelAdded(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
+  public void onSnapshotChanged(
+      @NonNull ModelSnapshotStore.Snapshot<QueueModel> snapshot,
+      @NonNull ModelChangedBus.Batch<QueueModel> batch) {
+    Objects.requireNonNull(snapshot);
+    Objects.requireNonNull(batch);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::addModel));
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelUpdated(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::updateModel));
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelDeleted(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::deleteModel));
-  }
-
-  @Override
-  @WorkerThread
-  public void onModelUpserted(@NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(queues);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::upsertModel));
-  }
-
-  private void _updateQueues(
-      @NonNull List<QueueModel> queues,
-      @NonNull BiFunction<List<QueueModel>, List<QueueModel>, List<QueueModel>> updater) {
-    Objects.requireNonNull(queues);
-    Objects.requireNonNull(updater);
-
-    final List<QueueModel> filteredQueues =
-        updater.apply(this._viewModel._queues().getValue(), queues);
-
-    filteredQueues.removeIf(
-        info ->
-            info.date().isBefore(this._viewModel.date().getValue().dateStart().toInstant())
-                || info.date().isAfter(this._viewModel.date().getValue().dateEnd().toInstant()));
-    this._viewModel._onQueuesChanged(filteredQueues);
+        .post(() -> this._viewModel._onQueueSnapshotChanged(snapshot.models()));
   }
 }
@@ -83,7 +83,14 @@ public class FilterCustomerViewModelHandler {
   private void _onCustomers(@NonNull List<CustomerModel> customers) {
     Objects.requireNonNull(customers);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            customers,
+            () -> {
+              // The expanded card might have been moved by the changes.
+              this._onExpandedCustomerIndex(this._viewModel.expandedCustomerIndex().getValue());
+            });
   }
 
   private void _onExpandedCustomerIndex(int index) {
@@ -19,10 +19,12 @@ package com.robifr.ledger.ui.filtercustomer.recycler;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.databinding.CustomerCardWideBinding;
 import com.robifr.ledger.databinding.ListableListSelectedItemBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.customer.CustomerListAction;
 import com.robifr.ledger.ui.filtercustomer.FilterCustomerAction;
@@ -50,9 +52,13 @@ public class FilterCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
   }
 
   @NonNull private final FilterCustomerFragment _fragment;
+  @NonNull private final ModelListDiffer<CustomerModel> _differ;
 
   public FilterCustomerAdapter(@NonNull FilterCustomerFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    this._differ = new ModelListDiffer<>(this, 1); // 1 for header holder.
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -88,15 +94,19 @@ public class FilterCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
 
     } else if (holder instanceof FilterCustomerListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(
-          this._fragment.filterCustomerViewModel().customers().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.filterCustomerViewModel().customers().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -107,6 +117,18 @@ public class FilterCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed customers is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(
+      @NonNull List<CustomerModel> customers, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(customers);
+
+    this._differ.submitList(customers, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<CustomerModel> customers() {
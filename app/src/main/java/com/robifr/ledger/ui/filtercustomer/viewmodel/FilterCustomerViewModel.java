@@ -158,7 +158,8 @@ public class FilterCustomerViewModel extends ViewModel {
     final MutableLiveData<List<CustomerModel>> result = new MutableLiveData<>();
 
     this._customerRepository
-        .selectAll()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             customers -> {
               if (customers == null) {
@@ -40,6 +40,8 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.navigation.NavigationBarView;
 import com.robifr.ledger.R;
 import com.robifr.ledger.databinding.MainActivityBinding;
+import com.robifr.ledger.local.DatabaseBackupWorker;
+import com.robifr.ledger.repository.CustomerRepository;
 import com.robifr.ledger.repository.SettingsRepository;
 import com.robifr.ledger.util.Compats;
 import dagger.hilt.android.AndroidEntryPoint;
@@ -145,7 +147,23 @@ public class MainActivity extends AppCompatActivity
                 this.getSupportFragmentManager().findFragmentById(R.id.fragmentContainer));
     navHostFragment.getNavController().addOnDestinationChangedListener(this);
 
-    if (!Environment.isExternalStorageManager()) this.requireStoragePermission();
+    if (!Environment.isExternalStorageManager()) {
+      this.requireStoragePermission();
+    } else if (savedInstance == null) {
+      // The database could've been moved from shared storage, where it might have been modified
+      // without triggers. Only done on a fresh start, as recreating the activity, such as on
+      // rotation, doesn't touch the database.
+      CustomerRepository.instance(this).repairDebt();
+    }
+  }
+
+  @Override
+  protected void onStop() {
+    super.onStop();
+    // Back up the changes once the user leaves the app.
+    if (!this.isChangingConfigurations() && Environment.isExternalStorageManager()) {
+      DatabaseBackupWorker.backupNow(this);
+    }
   }
 
   @NonNull
@@ -69,7 +69,15 @@ public class ProductViewModelHandler {
   private void _onProducts(@NonNull List<ProductModel> products) {
     Objects.requireNonNull(products);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            products,
+            () -> {
+              this._fragment.adapter().notifyItemChanged(0); // Notify header holder.
+              // The expanded card might have been moved by the changes.
+              this._onExpandedProductIndex(this._viewModel.expandedProductIndex().getValue());
+            });
   }
 
   private void _onExpandedProductIndex(int index) {
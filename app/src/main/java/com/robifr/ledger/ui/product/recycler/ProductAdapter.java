@@ -19,10 +19,12 @@ package com.robifr.ledger.ui.product.recycler;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.ProductModel;
 import com.robifr.ledger.databinding.ListableListTextBinding;
 import com.robifr.ledger.databinding.ProductCardWideBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.product.ProductAction;
 import com.robifr.ledger.ui.product.ProductFragment;
@@ -50,9 +52,13 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?
   }
 
   @NonNull private final ProductFragment _fragment;
+  @NonNull private final ModelListDiffer<ProductModel> _differ;
 
   public ProductAdapter(@NonNull ProductFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    this._differ = new ModelListDiffer<>(this, 1); // 1 for header holder.
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -86,14 +92,19 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?
 
     } else if (holder instanceof ProductListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(this._fragment.productViewModel().products().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.productViewModel().products().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -104,6 +115,17 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed products is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(@NonNull List<ProductModel> products, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(products);
+
+    this._differ.submitList(products, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<ProductModel> products() {
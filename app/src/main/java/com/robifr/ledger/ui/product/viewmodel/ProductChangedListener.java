@@ -16,17 +16,14 @@
 
 package com.robifr.ledger.ui.product.viewmodel;
 
-import android.os.Handler;
-import android.os.Looper;
 import androidx.annotation.NonNull;
-import com.robifr.ledger.data.ModelUpdater;
 import com.robifr.ledger.data.model.ProductModel;
-import com.robifr.ledger.repository.ModelChangedListener;
-import java.util.List;
+import com.robifr.ledger.repository.ModelChangedBus;
+import com.robifr.ledger.repository.ModelSnapshotStore;
+import java.util.ArrayList;
 import java.util.Objects;
-import java.util.function.BiFunction;
 
-class ProductChangedListener implements ModelChangedListener<ProductModel> {
+class ProductChangedListener implements ModelSnapshotStore.Listener<ProductModel> {
   private final ProductViewModel _viewModel;
 
   public ProductChangedListener(@NonNull ProductViewModel viewModel) {
@@ -34,47 +31,15 @@ class ProductChangedListener implements ModelChangedListener<ProductModel> {
   }
 
   @Override
-  public void onModelAdded(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateProducts(products, ModelUpdater::addModel));
-  }
-
-  @Override
-  public void onModelUpdated(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateProducts(products, ModelUpdater::updateModel));
-  }
-
-  @Override
-  public void onModelDeleted(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateProducts(products, ModelUpdater::deleteModel));
-  }
-
-  @Override
-  public void onModelUpserted(@NonNull List<ProductModel> products) {
-    Objects.requireNonNull(products);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateProducts(products, ModelUpdater::upsertModel));
-  }
-
-  private void _updateProducts(
-      @NonNull List<ProductModel> products,
-      @NonNull BiFunction<List<ProductModel>, List<ProductModel>, List<ProductModel>> updater) {
-    Objects.requireNonNull(products);
-    Objects.requireNonNull(updater);
-
-    this._viewModel
-        .filterView()
-        .onFiltersChanged(
-            this._viewModel.filterView().inputtedFilters(),
-            updater.apply(this._viewModel.products().getValue(), products));
+  public void onSnapshotChanged(
+      @NonNull ModelSnapshotStore.Snapshot<ProductModel> snapshot,
+      @NonNull ModelChangedBus.Batch<ProductModel> batch) {
+    Objects.requireNonNull(snapshot);
+    Objects.requireNonNull(batch);
+
+    final ArrayList<ProductModel> upsertedProducts = new ArrayList<>(batch.addedModels());
+    upsertedProducts.addAll(batch.updatedModels());
+    upsertedProducts.addAll(batch.upsertedModels());
+    this._viewModel._onProductsChanged(batch.deletedModels(), upsertedProducts);
   }
 }
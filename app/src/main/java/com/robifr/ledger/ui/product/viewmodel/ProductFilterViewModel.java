@@ -135,8 +135,7 @@ public class ProductFilterViewModel {
     this.onMaxPriceTextChanged(maxTotalPrice);
     this._filterer.setFilters(filters);
 
-    final List<ProductModel> filteredProducts = this._filterer.filter(products);
-    // Re-sort the list, after previously re-populating the list with a new filtered value.
-    this._viewModel.onSortMethodChanged(this._viewModel.sortMethod().getValue(), filteredProducts);
+    // Re-filter and re-sort the list off the main thread, with the new filters.
+    this._viewModel.onSortMethodChanged(this._viewModel.sortMethod().getValue(), products);
   }
 }
@@ -16,11 +16,15 @@
 
 package com.robifr.ledger.ui.product.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.robifr.ledger.R;
+import com.robifr.ledger.data.ModelListPipeline;
+import com.robifr.ledger.data.SortedModelList;
 import com.robifr.ledger.data.display.ProductFilterer;
 import com.robifr.ledger.data.display.ProductSortMethod;
 import com.robifr.ledger.data.display.ProductSorter;
@@ -34,6 +38,7 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 
 @HiltViewModel
@@ -45,6 +50,15 @@ public class ProductViewModel extends ViewModel {
 
   @NonNull private final ProductFilterViewModel _filterView;
   @NonNull private final ProductSorter _sorter = new ProductSorter();
+  @NonNull private final ProductFilterer _filterer = new ProductFilterer();
+
+  @NonNull
+  private final ModelListPipeline<ProductModel> _productsPipeline =
+      new ModelListPipeline<>(
+          new Handler(Looper.getMainLooper())::post,
+          this._sorter.comparator(),
+          product -> true,
+          this::_onProductsComputed);
 
   @NonNull
   private final MutableLiveData<SafeEvent<StringResources>> _snackbarMessage =
@@ -67,9 +81,9 @@ public class ProductViewModel extends ViewModel {
   @Inject
   public ProductViewModel(@NonNull ProductRepository productRepository) {
     this._productRepository = Objects.requireNonNull(productRepository);
-    this._filterView = new ProductFilterViewModel(this, new ProductFilterer());
+    this._filterView = new ProductFilterViewModel(this, this._filterer);
 
-    this._productRepository.addModelChangedListener(this._productChangedListener);
+    this._productRepository.snapshotStore().addListener(this._productChangedListener);
 
     // Setting up initial values inside a fragment is painful. See commit d5604599.
     SafeEvent.observeOnce(
@@ -80,7 +94,7 @@ public class ProductViewModel extends ViewModel {
 
   @Override
   public void onCleared() {
-    this._productRepository.removeModelChangedListener(this._productChangedListener);
+    this._productRepository.snapshotStore().removeListener(this._productChangedListener);
   }
 
   @NonNull
@@ -115,7 +129,8 @@ public class ProductViewModel extends ViewModel {
     final MutableLiveData<List<ProductModel>> result = new MutableLiveData<>();
 
     this._productRepository
-        .selectAll()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             products -> {
               if (products == null) {
@@ -151,8 +166,16 @@ public class ProductViewModel extends ViewModel {
     this._products.setValue(Collections.unmodifiableList(products));
   }
 
+  /**
+   * Re-sort the current {@link #_products}, including the changes which aren't published yet. The
+   * sorting is done off the main thread.
+   */
   public void onSortMethodChanged(@NonNull ProductSortMethod sortMethod) {
-    this.onSortMethodChanged(sortMethod, this._products.getValue());
+    Objects.requireNonNull(sortMethod);
+
+    this._sortMethod.setValue(sortMethod);
+    this._sorter.setSortMethod(sortMethod);
+    this._productsPipeline.resort(this._sorter.comparator());
   }
 
   public void onSortMethodChanged(
@@ -162,14 +185,16 @@ public class ProductViewModel extends ViewModel {
 
     this._sortMethod.setValue(sortMethod);
     this._sorter.setSortMethod(sortMethod);
-    this.onProductsChanged(this._sorter.sort(products));
+    this._productsPipeline.reset(this._sorter.comparator(), this._filterSnapshot(), products);
   }
 
   /**
    * @see #onSortMethodChanged(ProductSortMethod.SortBy, List)
    */
   public void onSortMethodChanged(@NonNull ProductSortMethod.SortBy sortBy) {
-    this.onSortMethodChanged(sortBy, this._products.getValue());
+    Objects.requireNonNull(sortBy);
+
+    this.onSortMethodChanged(this._sortMethodOf(sortBy));
   }
 
   /**
@@ -181,13 +206,79 @@ public class ProductViewModel extends ViewModel {
       @NonNull ProductSortMethod.SortBy sortBy, @NonNull List<ProductModel> products) {
     Objects.requireNonNull(sortBy);
 
+    this.onSortMethodChanged(this._sortMethodOf(sortBy), products);
+  }
+
+  /**
+   * Apply the changed products into {@link #_products} by relocating them within the current
+   * order, instead of re-filtering and re-sorting the whole list. The changes are computed off the
+   * main thread, so this might be called from any thread.
+   */
+  void _onProductsChanged(
+      @NonNull List<ProductModel> deletedProducts,
+      @NonNull List<ProductModel> upsertedProducts) {
+    Objects.requireNonNull(deletedProducts);
+    Objects.requireNonNull(upsertedProducts);
+
+    this._productsPipeline.apply(deletedProducts, upsertedProducts);
+  }
+
+  private void _onProductsComputed(@NonNull ModelListPipeline.Result<ProductModel> result) {
+    Objects.requireNonNull(result);
+
+    int expandedProductIndex = this._expandedProductIndex.getValue();
+
+    // Keep the same product expanded, wherever it's moved to.
+    if (result.isReordered()) {
+      final Long expandedProductId =
+          expandedProductIndex >= 0 && expandedProductIndex < this._products.getValue().size()
+              ? this._products.getValue().get(expandedProductIndex).id()
+              : null;
+      expandedProductIndex = -1;
+
+      for (int i = 0; expandedProductId != null && i < result.models().size(); i++) {
+        if (expandedProductId.equals(result.models().get(i).id())) {
+          expandedProductIndex = i;
+          break;
+        }
+      }
+
+    } else {
+      if (result.changes().isEmpty()) return;
+
+      for (SortedModelList.Change change : result.changes()) {
+        expandedProductIndex = change.positionAfter(expandedProductIndex);
+      }
+    }
+
+    this.onExpandedProductIndexChanged(expandedProductIndex);
+    this.onProductsChanged(result.models());
+  }
+
+  /**
+   * @return Filter of the current filters, which isn't affected by the upcoming changes.
+   */
+  @NonNull
+  private Predicate<ProductModel> _filterSnapshot() {
+    final ProductFilterer filterer = new ProductFilterer();
+    filterer.setFilters(this._filterer.filters());
+    return product -> !filterer.isFilteredOut(product);
+  }
+
+  /**
+   * @return Sort method of the specified type, in reversed order when it's the same as the
+   *     current one.
+   */
+  @NonNull
+  private ProductSortMethod _sortMethodOf(@NonNull ProductSortMethod.SortBy sortBy) {
+    Objects.requireNonNull(sortBy);
+
     // Reverse sort order when selecting same sort option.
     final boolean isAscending =
         this._sortMethod.getValue().sortBy() == sortBy
             ? !this._sortMethod.getValue().isAscending()
             : this._sortMethod.getValue().isAscending();
-
-    this.onSortMethodChanged(new ProductSortMethod(sortBy, isAscending), products);
+    return new ProductSortMethod(sortBy, isAscending);
   }
 
   public void onExpandedProductIndexChanged(int index) {
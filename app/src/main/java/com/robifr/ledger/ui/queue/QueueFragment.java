@@ -32,6 +32,7 @@ import com.robifr.ledger.R;
 import com.robifr.ledger.databinding.ListableFragmentBinding;
 import com.robifr.ledger.ui.queue.filter.QueueFilter;
 import com.robifr.ledger.ui.queue.recycler.QueueAdapter;
+import com.robifr.ledger.ui.queue.recycler.QueueScrollListener;
 import com.robifr.ledger.ui.queue.viewmodel.QueueViewModel;
 import dagger.hilt.android.AndroidEntryPoint;
 import java.util.Objects;
@@ -84,6 +85,7 @@ public class QueueFragment extends Fragment implements Toolbar.OnMenuItemClickLi
         new LinearLayoutManager(this.requireContext()));
     this._fragmentBinding.recyclerView.setAdapter(this._adapter);
     this._fragmentBinding.recyclerView.setItemViewCacheSize(0);
+    this._fragmentBinding.recyclerView.addOnScrollListener(new QueueScrollListener(this));
   }
 
   @Override
@@ -82,7 +82,15 @@ public class QueueViewModelHandler {
   private void _onQueues(@NonNull List<QueueModel> queues) {
     Objects.requireNonNull(queues);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            queues,
+            () -> {
+              this._fragment.adapter().notifyItemChanged(0); // Notify header holder.
+              // The expanded card might have been moved by the changes.
+              this._onExpandedQueueIndex(this._viewModel.expandedQueueIndex().getValue());
+            });
   }
 
   private void _onExpandedQueueIndex(int index) {
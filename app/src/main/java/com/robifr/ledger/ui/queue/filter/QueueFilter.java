@@ -60,15 +60,8 @@ public class QueueFilter implements DialogInterface.OnDismissListener {
 
     this._fragment
         .queueViewModel()
-        .selectAllQueues()
-        .observe(
-            this._fragment,
-            queues ->
-                this._fragment
-                    .queueViewModel()
-                    .filterView()
-                    .onFiltersChanged(
-                        this._fragment.queueViewModel().filterView().inputtedFilters(), queues));
+        .filterView()
+        .onFiltersChanged(this._fragment.queueViewModel().filterView().inputtedFilters());
 
     if (this._dialog.getCurrentFocus() != null) this._dialog.getCurrentFocus().clearFocus();
   }
@@ -19,10 +19,12 @@ package com.robifr.ledger.ui.queue.recycler;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.QueueModel;
 import com.robifr.ledger.databinding.ListableListTextBinding;
 import com.robifr.ledger.databinding.QueueCardWideBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.queue.QueueAction;
 import com.robifr.ledger.ui.queue.QueueFragment;
@@ -50,9 +52,13 @@ public class QueueAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?>>
   }
 
   @NonNull private final QueueFragment _fragment;
+  @NonNull private final ModelListDiffer<QueueModel> _differ;
 
   public QueueAdapter(@NonNull QueueFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    this._differ = new ModelListDiffer<>(this, 1); // 1 for header holder.
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -85,14 +91,19 @@ public class QueueAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?>>
 
     } else if (holder instanceof QueueListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(this._fragment.queueViewModel().queues().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.queueViewModel().queues().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -103,6 +114,17 @@ public class QueueAdapter extends RecyclerView.Adapter<RecyclerViewHolder<?, ?>>
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed queues is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(@NonNull List<QueueModel> queues, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(queues);
+
+    this._differ.submitList(queues, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<QueueModel> queues() {
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.ui.queue.recycler;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.robifr.ledger.ui.queue.QueueFragment;
+import java.util.Objects;
+
+/** Load the next page of queues as the list is scrolled near to its end. */
+public class QueueScrollListener extends RecyclerView.OnScrollListener {
+  /** Number of remaining items below the last visible one before loading the next page. */
+  private static final int _PREFETCH_DISTANCE = 20;
+
+  @NonNull private final QueueFragment _fragment;
+
+  public QueueScrollListener(@NonNull QueueFragment fragment) {
+    this._fragment = Objects.requireNonNull(fragment);
+  }
+
+  @Override
+  public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+    Objects.requireNonNull(recyclerView);
+
+    if (dy <= 0
+        || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager layoutManager)) {
+      return;
+    }
+
+    final int lastVisibleIndex = layoutManager.findLastVisibleItemPosition();
+    final int itemCount = this._fragment.adapter().getItemCount();
+
+    if (lastVisibleIndex + QueueScrollListener._PREFETCH_DISTANCE >= itemCount) {
+      this._fragment.queueViewModel().onLoadNextPage();
+    }
+  }
+}
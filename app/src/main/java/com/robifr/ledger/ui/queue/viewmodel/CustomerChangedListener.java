@@ -21,11 +21,13 @@ import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
 import com.robifr.ledger.data.model.CustomerModel;
-import com.robifr.ledger.data.model.QueueModel;
+import com.robifr.ledger.repository.ModelChangedBus;
 import com.robifr.ledger.repository.ModelChangedListener;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
   @NonNull private final QueueViewModel _viewModel;
@@ -41,56 +43,23 @@ class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
   @Override
   @WorkerThread
   public void onModelUpdated(@NonNull List<CustomerModel> customers) {
-    new Handler(Looper.getMainLooper())
-        .post(
-            () -> {
-              final ArrayList<QueueModel> queues =
-                  new ArrayList<>(this._viewModel.queues().getValue());
+    Objects.requireNonNull(customers);
 
-              for (CustomerModel customer : customers) {
-                for (int i = 0; i < queues.size(); i++) {
-                  final QueueModel queue = queues.get(i);
-
-                  // When customer updated, apply those changes into the queue model.
-                  if (queue.customerId() != null && queue.customerId().equals(customer.id())) {
-                    final QueueModel updatedQueue =
-                        queue.withCustomerId(customer.id()).withCustomer(customer);
-                    queues.set(i, updatedQueue);
-                  }
-                }
-              }
-
-              this._viewModel
-                  .filterView()
-                  .onFiltersChanged(this._viewModel.filterView().inputtedFilters(), queues);
-            });
+    // Customer name might affect the order, reload to apply the changes into the queue model.
+    if (this._isAnyQueueOwnedBy(customers)) {
+      new Handler(Looper.getMainLooper()).post(this._viewModel::onReloadQueues);
+    }
   }
 
   @Override
   @WorkerThread
   public void onModelDeleted(@NonNull List<CustomerModel> customers) {
-    new Handler(Looper.getMainLooper())
-        .post(
-            () -> {
-              final ArrayList<QueueModel> queues =
-                  new ArrayList<>(this._viewModel.queues().getValue());
-
-              for (CustomerModel customer : customers) {
-                for (int i = 0; i < queues.size(); i++) {
-                  final QueueModel queue = queues.get(i);
+    Objects.requireNonNull(customers);
 
-                  // When customer deleted, remove them from the queue model.
-                  if (queue.customerId() != null && queue.customerId().equals(customer.id())) {
-                    final QueueModel updatedQueue = queue.withCustomerId(null).withCustomer(null);
-                    queues.set(i, updatedQueue);
-                  }
-                }
-              }
-
-              this._viewModel
-                  .filterView()
-                  .onFiltersChanged(this._viewModel.filterView().inputtedFilters(), queues);
-            });
+    // `customer_id` on `queue` table is set to null upon customer deletion.
+    if (this._isAnyQueueOwnedBy(customers)) {
+      new Handler(Looper.getMainLooper()).post(this._viewModel::onReloadQueues);
+    }
   }
 
   @Override
@@ -100,4 +69,27 @@ class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
     // and ignore for any inserted customer.
     this.onModelUpdated(customers);
   }
+
+  @Override
+  @WorkerThread
+  public void onModelChanged(@NonNull ModelChangedBus.Batch<CustomerModel> batch) {
+    Objects.requireNonNull(batch);
+
+    final ArrayList<CustomerModel> customers = new ArrayList<>(batch.updatedModels());
+    customers.addAll(batch.deletedModels());
+    customers.addAll(batch.upsertedModels());
+    // Reload once even when the batch has both updated and deleted customers.
+    if (this._isAnyQueueOwnedBy(customers)) {
+      new Handler(Looper.getMainLooper()).post(this._viewModel::onReloadQueues);
+    }
+  }
+
+  private boolean _isAnyQueueOwnedBy(@NonNull List<CustomerModel> customers) {
+    Objects.requireNonNull(customers);
+
+    final Set<Long> customerIds =
+        customers.stream().map(CustomerModel::id).collect(Collectors.toSet());
+    return this._viewModel.queues().getValue().stream()
+        .anyMatch(queue -> queue.customerId() != null && customerIds.contains(queue.customerId()));
+  }
 }
@@ -19,12 +19,12 @@ package com.robifr.ledger.ui.queue.viewmodel;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
-import com.robifr.ledger.data.ModelUpdater;
 import com.robifr.ledger.data.model.QueueModel;
+import com.robifr.ledger.repository.ModelChangedBus;
 import com.robifr.ledger.repository.ModelChangedListener;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.BiFunction;
 
 class QueueChangedListener implements ModelChangedListener<QueueModel> {
   private final QueueViewModel _viewModel;
@@ -38,7 +38,7 @@ class QueueChangedListener implements ModelChangedListener<QueueModel> {
     Objects.requireNonNull(queues);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::addModel));
+        .post(() -> this._viewModel._onQueuesChanged(List.of(), queues));
   }
 
   @Override
@@ -46,7 +46,7 @@ class QueueChangedListener implements ModelChangedListener<QueueModel> {
     Objects.requireNonNull(queues);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::updateModel));
+        .post(() -> this._viewModel._onQueuesChanged(List.of(), queues));
   }
 
   @Override
@@ -54,7 +54,7 @@ class QueueChangedListener implements ModelChangedListener<QueueModel> {
     Objects.requireNonNull(queues);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::deleteModel));
+        .post(() -> this._viewModel._onQueuesChanged(queues, List.of()));
   }
 
   @Override
@@ -62,19 +62,17 @@ class QueueChangedListener implements ModelChangedListener<QueueModel> {
     Objects.requireNonNull(queues);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateQueues(queues, ModelUpdater::upsertModel));
+        .post(() -> this._viewModel._onQueuesChanged(List.of(), queues));
   }
 
-  private void _updateQueues(
-      @NonNull List<QueueModel> queues,
-      @NonNull BiFunction<List<QueueModel>, List<QueueModel>, List<QueueModel>> updater) {
-    Objects.requireNonNull(queues);
-    Objects.requireNonNull(updater);
+  @Override
+  public void onModelChanged(@NonNull ModelChangedBus.Batch<QueueModel> batch) {
+    Objects.requireNonNull(batch);
 
-    this._viewModel
-        .filterView()
-        .onFiltersChanged(
-            this._viewModel.filterView().inputtedFilters(),
-            updater.apply(this._viewModel.queues().getValue(), queues));
+    final ArrayList<QueueModel> upsertedQueues = new ArrayList<>(batch.addedModels());
+    upsertedQueues.addAll(batch.updatedModels());
+    upsertedQueues.addAll(batch.upsertedModels());
+    new Handler(Looper.getMainLooper())
+        .post(() -> this._viewModel._onQueuesChanged(batch.deletedModels(), upsertedQueues));
   }
 }
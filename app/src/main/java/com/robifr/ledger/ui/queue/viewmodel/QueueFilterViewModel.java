@@ -176,12 +176,7 @@ public class QueueFilterViewModel {
   }
 
   public void onFiltersChanged(@NonNull QueueFilters filters) {
-    this.onFiltersChanged(filters, this._viewModel.queues().getValue());
-  }
-
-  public void onFiltersChanged(@NonNull QueueFilters filters, @NonNull List<QueueModel> queues) {
     Objects.requireNonNull(filters);
-    Objects.requireNonNull(queues);
 
     final String minTotalPrice =
         filters.filteredTotalPrice().first != null
@@ -203,9 +198,7 @@ public class QueueFilterViewModel {
     this.onMinTotalPriceTextChanged(minTotalPrice);
     this.onMaxTotalPriceTextChanged(maxTotalPrice);
     this._filterer.setFilters(filters);
-
-    final List<QueueModel> filteredQueues = this._filterer.filter(queues);
-    // Re-sort the list, after previously re-populating the list with a new filtered value.
-    this._viewModel.onSortMethodChanged(this._viewModel.sortMethod().getValue(), filteredQueues);
+    // Re-populate the list from the first page, as the loaded pages are using the old filters.
+    this._viewModel.onReloadQueues();
   }
 }
@@ -16,11 +16,15 @@
 
 package com.robifr.ledger.ui.queue.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 import com.robifr.ledger.R;
+import com.robifr.ledger.data.SortedModelList;
 import com.robifr.ledger.data.display.QueueFilterer;
 import com.robifr.ledger.data.display.QueueSortMethod;
 import com.robifr.ledger.data.display.QueueSorter;
@@ -32,13 +36,19 @@ import com.robifr.ledger.util.livedata.SafeEvent;
 import com.robifr.ledger.util.livedata.SafeLiveData;
 import com.robifr.ledger.util.livedata.SafeMutableLiveData;
 import dagger.hilt.android.lifecycle.HiltViewModel;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import javax.inject.Inject;
 
 @HiltViewModel
 public class QueueViewModel extends ViewModel {
+  /** Number of queues to be shown for each loaded page. */
+  private static final int _PAGE_SIZE = 50;
+
   @NonNull private final QueueRepository _queueRepository;
   @NonNull private final CustomerRepository _customerRepository;
 
@@ -49,13 +59,26 @@ public class QueueViewModel extends ViewModel {
   private final CustomerChangedListener _customerChangedListener =
       new CustomerChangedListener(this);
 
-  @NonNull private final QueueFilterViewModel _filterView;
+  @NonNull private final QueueFilterer _filterer = new QueueFilterer();
   @NonNull private final QueueSorter _sorter = new QueueSorter();
 
+  /**
+   * Queues from the loaded pages, to apply the changed queues into without reloading the pages.
+   *
+   * @see #_onQueuesChanged(List, List)
+   */
+  @NonNull
+  private final SortedModelList<QueueModel> _loadedQueues =
+      new SortedModelList<>(
+          this._sorter.comparator(), queue -> !this._filterer.isFilteredOut(queue));
+  @NonNull private final QueueFilterViewModel _filterView;
+  @NonNull private final Executor _mainExecutor = new Handler(Looper.getMainLooper())::post;
+
   @NonNull
   private final MutableLiveData<SafeEvent<StringResources>> _snackbarMessage =
       new MutableLiveData<>();
 
+  /** Queues from the loaded pages, which are sorted by the database. */
   @NonNull
   private final SafeMutableLiveData<List<QueueModel>> _queues =
       new SafeMutableLiveData<>(List.of());
@@ -68,21 +91,26 @@ public class QueueViewModel extends ViewModel {
   @NonNull
   private final SafeMutableLiveData<Integer> _expandedQueueIndex = new SafeMutableLiveData<>(-1);
 
+  /** Last queue from the loaded pages, to continue the next page from its sort key. */
+  @Nullable private QueueModel _lastSelectedQueue = null;
+
+  private boolean _isNextPageAvailable = true;
+  private boolean _isPageLoading = false;
+
+  /** Incremented every time queues are reloaded, to discard pages loaded before that. */
+  private int _pageGeneration = 0;
+
   @Inject
   public QueueViewModel(
       @NonNull QueueRepository queueRepository, @NonNull CustomerRepository customerRepository) {
     this._queueRepository = Objects.requireNonNull(queueRepository);
     this._customerRepository = Objects.requireNonNull(customerRepository);
-    this._filterView = new QueueFilterViewModel(this, new QueueFilterer());
+    this._filterView = new QueueFilterViewModel(this, this._filterer);
 
     this._queueRepository.addModelChangedListener(this._queueChangedListener);
     this._customerRepository.addModelChangedListener(this._customerChangedListener);
 
-    // Setting up initial values inside a fragment is painful. See commit d5604599.
-    SafeEvent.observeOnce(
-        this.selectAllQueues(),
-        queues -> this._filterView.onFiltersChanged(this._filterView.inputtedFilters(), queues),
-        Objects::nonNull);
+    this._filterView.onFiltersChanged(this._filterView.inputtedFilters());
   }
 
   @Override
@@ -118,25 +146,6 @@ public class QueueViewModel extends ViewModel {
     return this._expandedQueueIndex;
   }
 
-  @NonNull
-  public LiveData<List<QueueModel>> selectAllQueues() {
-    final MutableLiveData<List<QueueModel>> result = new MutableLiveData<>();
-
-    this._queueRepository
-        .selectAll()
-        .thenAcceptAsync(
-            queues -> {
-              if (queues == null) {
-                this._snackbarMessage.postValue(
-                    new SafeEvent<>(
-                        new StringResources.Strings(R.string.queue_fetchAllQueueError)));
-              }
-
-              result.postValue(queues);
-            });
-    return result;
-  }
-
   public void onDeleteQueue(@NonNull QueueModel queue) {
     Objects.requireNonNull(queue);
 
@@ -176,25 +185,63 @@ public class QueueViewModel extends ViewModel {
     this._queues.setValue(Collections.unmodifiableList(queues));
   }
 
-  public void onSortMethodChanged(@NonNull QueueSortMethod sortMethod) {
-    this.onSortMethodChanged(sortMethod, this._queues.getValue());
-  }
+  /**
+   * Load the next page of queues, which will be appended into {@link #_queues}. Do nothing when
+   * there's a page being loaded or when all of the queues are already loaded.
+   */
+  public void onLoadNextPage() {
+    if (this._isPageLoading || !this._isNextPageAvailable) return;
 
-  public void onSortMethodChanged(
-      @NonNull QueueSortMethod sortMethod, @NonNull List<QueueModel> queues) {
-    Objects.requireNonNull(sortMethod);
-    Objects.requireNonNull(queues);
+    final int generation = this._pageGeneration;
+    this._isPageLoading = true;
 
-    this._sortMethod.setValue(sortMethod);
-    this._sorter.setSortMethod(sortMethod);
-    this.onQueuesChanged(this._sorter.sort(queues));
+    this._selectPage(this._lastSelectedQueue, QueueViewModel._PAGE_SIZE)
+        .thenAcceptAsync(
+            page -> {
+              if (generation != this._pageGeneration) return;
+
+              this._isPageLoading = false;
+              if (page == null) return;
+
+              final ArrayList<QueueModel> queues = new ArrayList<>(this._queues.getValue());
+              queues.addAll(page.queues());
+              this._lastSelectedQueue = page.lastSelectedQueue();
+              this._isNextPageAvailable = page.isNextPageAvailable();
+              this._resetLoadedQueues(queues);
+              this.onQueuesChanged(queues);
+            },
+            this._mainExecutor);
   }
 
   /**
-   * @see #onSortMethodChanged(QueueSortMethod.SortBy, List)
+   * Reload queues from the first page, while keeping as many queues loaded as before. Any page
+   * that is still being loaded will be discarded.
    */
-  public void onSortMethodChanged(@NonNull QueueSortMethod.SortBy sortBy) {
-    this.onSortMethodChanged(sortBy, this._queues.getValue());
+  public void onReloadQueues() {
+    final int generation = ++this._pageGeneration;
+    this._isPageLoading = true;
+
+    this._selectPage(null, Math.max(QueueViewModel._PAGE_SIZE, this._queues.getValue().size()))
+        .thenAcceptAsync(
+            page -> {
+              if (generation != this._pageGeneration) return;
+
+              this._isPageLoading = false;
+              if (page == null) return;
+
+              this._lastSelectedQueue = page.lastSelectedQueue();
+              this._isNextPageAvailable = page.isNextPageAvailable();
+              this._resetLoadedQueues(page.queues());
+              this.onQueuesChanged(page.queues());
+            },
+            this._mainExecutor);
+  }
+
+  public void onSortMethodChanged(@NonNull QueueSortMethod sortMethod) {
+    Objects.requireNonNull(sortMethod);
+
+    this._sortMethod.setValue(sortMethod);
+    this.onReloadQueues();
   }
 
   /**
@@ -202,10 +249,8 @@ public class QueueViewModel extends ViewModel {
    * reverse the order — Ascending becomes descending and vice versa. Use {@link
    * #onSortMethodChanged(QueueSortMethod)} if you want to apply the order by yourself.
    */
-  public void onSortMethodChanged(
-      @NonNull QueueSortMethod.SortBy sortBy, @NonNull List<QueueModel> queues) {
+  public void onSortMethodChanged(@NonNull QueueSortMethod.SortBy sortBy) {
     Objects.requireNonNull(sortBy);
-    Objects.requireNonNull(queues);
 
     // Reverse sort order when selecting same sort option.
     final boolean isAscending =
@@ -213,10 +258,82 @@ public class QueueViewModel extends ViewModel {
             ? !this._sortMethod.getValue().isAscending()
             : this._sortMethod.getValue().isAscending();
 
-    this.onSortMethodChanged(new QueueSortMethod(sortBy, isAscending), queues);
+    this.onSortMethodChanged(new QueueSortMethod(sortBy, isAscending));
+  }
+
+  /**
+   * Apply the changed queues into the loaded pages by relocating them within the current order,
+   * instead of reloading the pages. Queue relocated after the last loaded one is left out, as it
+   * belongs to the pages that aren't loaded yet.
+   */
+  void _onQueuesChanged(
+      @NonNull List<QueueModel> deletedQueues, @NonNull List<QueueModel> upsertedQueues) {
+    Objects.requireNonNull(deletedQueues);
+    Objects.requireNonNull(upsertedQueues);
+
+    // Customer name is ordered by the database collation, which might not agree with the one
+    // used in-memory. While a page being loaded might have been selected before the changes.
+    if (this._sortMethod.getValue().sortBy() == QueueSortMethod.SortBy.CUSTOMER_NAME
+        || this._isPageLoading) {
+      this.onReloadQueues();
+      return;
+    }
+
+    this._loadedQueues.delete(deletedQueues);
+
+    for (QueueModel queue : upsertedQueues) {
+      final List<SortedModelList.Change> changes = this._loadedQueues.upsert(List.of(queue));
+      final boolean isBeyondLoadedPages =
+          this._isNextPageAvailable
+              && !changes.isEmpty()
+              && changes.get(0).type() != SortedModelList.Change.Type.REMOVED
+              && changes.get(0).toPosition() == this._loadedQueues.size() - 1;
+      if (isBeyondLoadedPages) this._loadedQueues.delete(List.of(queue));
+    }
+
+    final List<QueueModel> queues = this._loadedQueues.toList();
+    // The last queue might have been moved or deleted, continue the next page from the new one.
+    this._lastSelectedQueue = !queues.isEmpty() ? queues.get(queues.size() - 1) : null;
+    this.onQueuesChanged(queues);
   }
 
   public void onExpandedQueueIndexChanged(int index) {
     this._expandedQueueIndex.setValue(index);
   }
+
+  private void _resetLoadedQueues(@NonNull List<QueueModel> queues) {
+    Objects.requireNonNull(queues);
+
+    this._sorter.setSortMethod(this._sortMethod.getValue());
+    this._loadedQueues.reset(
+        this._sorter.comparator(), queue -> !this._filterer.isFilteredOut(queue), queues);
+  }
+
+  @NonNull
+  private CompletableFuture<QueuePage> _selectPage(@Nullable QueueModel afterQueue, int limit) {
+    return this._queueRepository
+        .selectPage(this._filterer.filters(), this._sortMethod.getValue(), afterQueue, limit)
+        .thenApply(
+            queues -> {
+              if (queues == null) {
+                this._snackbarMessage.postValue(
+                    new SafeEvent<>(
+                        new StringResources.Strings(R.string.queue_fetchAllQueueError)));
+                return null;
+              }
+
+              return new QueuePage(
+                  queues,
+                  !queues.isEmpty() ? queues.get(queues.size() - 1) : afterQueue,
+                  queues.size() >= limit);
+            });
+  }
+
+  /**
+   * @param lastSelectedQueue Last queue from the page, to continue the next page from.
+   */
+  private record QueuePage(
+      @NonNull List<QueueModel> queues,
+      @Nullable QueueModel lastSelectedQueue,
+      boolean isNextPageAvailable) {}
 }
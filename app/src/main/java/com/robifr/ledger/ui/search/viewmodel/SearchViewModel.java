@@ -54,6 +54,9 @@ public class SearchViewModel extends ViewModel {
       @NonNull ProductRepository productRepository) {
     this._customerRepository = Objects.requireNonNull(customerRepository);
     this._productRepository = Objects.requireNonNull(productRepository);
+
+    this._customerRepository.warmUpSearch();
+    this._productRepository.warmUpSearch();
   }
 
   @NonNull
@@ -74,24 +77,28 @@ public class SearchViewModel extends ViewModel {
   public void onSearch(@NonNull String query) {
     this._query = Objects.requireNonNull(query);
 
-    // Remove old runnable to ensure old query result wouldn't appear in future.
-    this._handler.removeCallbacksAndMessages(null);
-    this._handler.postDelayed(
-        () -> {
-          // Send null when user hasn't type anything to prevent
-          // no-results-found illustration shows up.
-          if (this._query.isEmpty()) {
-            this._customers.postValue(Optional.empty());
-            this._products.postValue(Optional.empty());
-          } else {
-            this._customerRepository
-                .search(this._query)
-                .thenAcceptAsync(customers -> this._customers.postValue(Optional.of(customers)));
-            this._productRepository
-                .search(this._query)
-                .thenAcceptAsync(products -> this._products.postValue(Optional.of(products)));
-          }
-        },
-        300);
+    // Send null when user hasn't type anything to prevent
+    // no-results-found illustration shows up.
+    if (query.isEmpty()) {
+      this._customers.setValue(Optional.empty());
+      this._products.setValue(Optional.empty());
+      return;
+    }
+
+    // Results are ranked in the background, so the result of an older query might arrive later.
+    this._customerRepository
+        .searchRanked(query)
+        .thenAcceptAsync(
+            customers -> {
+              if (query.equals(this._query)) this._customers.setValue(Optional.of(customers));
+            },
+            this._handler::post);
+    this._productRepository
+        .searchRanked(query)
+        .thenAcceptAsync(
+            products -> {
+              if (query.equals(this._query)) this._products.setValue(Optional.of(products));
+            },
+            this._handler::post);
   }
 }
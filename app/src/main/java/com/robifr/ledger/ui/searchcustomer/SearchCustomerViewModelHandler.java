@@ -88,7 +88,15 @@ public class SearchCustomerViewModelHandler {
   private void _onCustomers(@NonNull Optional<List<CustomerModel>> customers) {
     Objects.requireNonNull(customers);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            customers.orElse(List.of()),
+            () -> {
+              this._fragment.adapter().notifyItemChanged(0); // Notify header holder.
+              // The expanded card might have been moved by the changes.
+              this._onExpandedCustomerIndex(this._viewModel.expandedCustomerIndex().getValue());
+            });
 
     final int noResultsVisibility =
         // Only show illustration when customers are empty list.
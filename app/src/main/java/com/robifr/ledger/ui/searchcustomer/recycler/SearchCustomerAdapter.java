@@ -24,8 +24,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.databinding.CustomerCardWideBinding;
 import com.robifr.ledger.databinding.ListableListTextBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.customer.CustomerAction;
+import com.robifr.ledger.ui.customer.CustomerCardWideComponent;
 import com.robifr.ledger.ui.customer.CustomerListAction;
 import com.robifr.ledger.ui.customer.recycler.CustomerListHolder;
 import com.robifr.ledger.ui.searchcustomer.SearchCustomerAction;
@@ -55,9 +57,14 @@ public class SearchCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
   }
 
   @NonNull private final SearchCustomerFragment _fragment;
+  @NonNull private final ModelListDiffer<CustomerModel> _differ;
 
   public SearchCustomerAdapter(@NonNull SearchCustomerFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    // 1 for header holder.
+    this._differ = new ModelListDiffer<>(this, 1, CustomerCardWideComponent::balancePayloadOf);
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -99,28 +106,47 @@ public class SearchCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
       headerHolder.bind(Optional.empty());
 
     } else if (holder instanceof CustomerListHolder<?> listHolder) {
-      this._fragment
-          .searchCustomerViewModel()
-          .customers()
-          .getValue()
-          .map(customers -> customers.get(index - 1)) // -1 offset because header holder.
-          .ifPresent(listHolder::bind);
+      // -1 offset because header holder.
+      listHolder.bind(this._differ.currentList().get(index - 1));
 
     } else if (holder instanceof SelectCustomerListHolder<?> listHolder) {
-      this._fragment
-          .searchCustomerViewModel()
-          .customers()
-          .getValue()
-          .map(customers -> customers.get(index - 1)) // -1 offset because header holder.
-          .ifPresent(listHolder::bind);
+      // -1 offset because header holder.
+      listHolder.bind(this._differ.currentList().get(index - 1));
+    }
+  }
+
+  @Override
+  public void onBindViewHolder(
+      @NonNull RecyclerViewHolder holder, int index, @NonNull List<Object> payloads) {
+    Objects.requireNonNull(holder);
+    Objects.requireNonNull(payloads);
+
+    final boolean isOnlyBalanceChanged =
+        !payloads.isEmpty()
+            && payloads.stream().allMatch(CustomerCardWideComponent.BALANCE_PAYLOAD::equals);
+
+    if (holder instanceof CustomerListHolder<?> listHolder && isOnlyBalanceChanged) {
+      // -1 offset because header holder.
+      listHolder.bindBalance(this._differ.currentList().get(index - 1));
+
+    } else if (holder instanceof SelectCustomerListHolder<?> listHolder && isOnlyBalanceChanged) {
+      // -1 offset because header holder.
+      listHolder.bindBalance(this._differ.currentList().get(index - 1));
+
+    } else {
+      super.onBindViewHolder(holder, index, payloads);
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.searchCustomerViewModel().customers().getValue().map(List::size).orElse(0)
-        + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -131,6 +157,18 @@ public class SearchCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed customers is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(
+      @NonNull List<CustomerModel> customers, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(customers);
+
+    this._differ.submitList(customers, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<CustomerModel> customers() {
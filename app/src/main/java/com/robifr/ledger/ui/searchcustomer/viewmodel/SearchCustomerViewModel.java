@@ -45,6 +45,7 @@ import javax.inject.Inject;
 public class SearchCustomerViewModel extends ViewModel {
   @NonNull private final CustomerRepository _customerRepository;
   @NonNull private final Handler _handler = new Handler(Looper.getMainLooper());
+  @NonNull private String _query = "";
   @NonNull private final String _initialQuery;
   @NonNull private final List<Long> _initialSelectedCustomerIds;
 
@@ -102,6 +103,7 @@ public class SearchCustomerViewModel extends ViewModel {
             false);
 
     this._customerRepository.addModelChangedListener(this._customerChangedListener);
+    this._customerRepository.warmUpSearch();
   }
 
   @Override
@@ -149,23 +151,24 @@ public class SearchCustomerViewModel extends ViewModel {
   }
 
   public void onSearch(@NonNull String query) {
-    Objects.requireNonNull(query);
-
-    // Remove old runnable to ensure old query result wouldn't appear in future.
-    this._handler.removeCallbacksAndMessages(null);
-    this._handler.postDelayed(
-        () -> {
-          // Send null when user hasn't type anything to prevent
-          // no-results-found illustration shows up.
-          if (query.isEmpty()) {
-            this._customers.postValue(Optional.empty());
-          } else {
-            this._customerRepository
-                .search(query)
-                .thenAcceptAsync(customers -> this._customers.postValue(Optional.of(customers)));
-          }
-        },
-        300);
+    this._query = Objects.requireNonNull(query);
+
+    // Send null when user hasn't type anything to prevent
+    // no-results-found illustration shows up.
+    if (query.isEmpty()) {
+      this._customers.setValue(Optional.empty());
+      return;
+    }
+
+    this._customerRepository
+        .searchRanked(query)
+        .thenAcceptAsync(
+            customers -> {
+              // Results are ranked in the background, so the result of an older query might
+              // arrive later.
+              if (query.equals(this._query)) this._customers.setValue(Optional.of(customers));
+            },
+            this._handler::post);
   }
 
   public void onDeleteCustomer(@NonNull CustomerModel customer) {
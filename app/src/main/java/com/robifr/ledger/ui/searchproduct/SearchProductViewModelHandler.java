@@ -88,7 +88,15 @@ public class SearchProductViewModelHandler {
   private void _onProducts(@NonNull Optional<List<ProductModel>> products) {
     Objects.requireNonNull(products);
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            products.orElse(List.of()),
+            () -> {
+              this._fragment.adapter().notifyItemChanged(0); // Notify header holder.
+              // The expanded card might have been moved by the changes.
+              this._onExpandedProductIndex(this._viewModel.expandedProductIndex().getValue());
+            });
 
     final int noResultsVisibility =
         // Only show illustration when products are empty list.
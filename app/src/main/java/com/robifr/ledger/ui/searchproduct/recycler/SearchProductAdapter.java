@@ -24,6 +24,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.ProductModel;
 import com.robifr.ledger.databinding.ListableListTextBinding;
 import com.robifr.ledger.databinding.ProductCardWideBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.product.ProductAction;
 import com.robifr.ledger.ui.product.ProductListAction;
@@ -55,9 +56,13 @@ public class SearchProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
   }
 
   @NonNull private final SearchProductFragment _fragment;
+  @NonNull private final ModelListDiffer<ProductModel> _differ;
 
   public SearchProductAdapter(@NonNull SearchProductFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    this._differ = new ModelListDiffer<>(this, 1); // 1 for header holder.
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -99,28 +104,24 @@ public class SearchProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
       headerHolder.bind(Optional.empty());
 
     } else if (holder instanceof ProductListHolder<?> listHolder) {
-      this._fragment
-          .searchProductViewModel()
-          .products()
-          .getValue()
-          .map(products -> products.get(index - 1)) // -1 offset because header holder.
-          .ifPresent(listHolder::bind);
+      // -1 offset because header holder.
+      listHolder.bind(this._differ.currentList().get(index - 1));
 
     } else if (holder instanceof SelectProductListHolder<?> listHolder) {
-      this._fragment
-          .searchProductViewModel()
-          .products()
-          .getValue()
-          .map(products -> products.get(index - 1)) // -1 offset because header holder.
-          .ifPresent(listHolder::bind);
+      // -1 offset because header holder.
+      listHolder.bind(this._differ.currentList().get(index - 1));
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.searchProductViewModel().products().getValue().map(List::size).orElse(0)
-        + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -131,6 +132,17 @@ public class SearchProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed products is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(@NonNull List<ProductModel> products, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(products);
+
+    this._differ.submitList(products, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<ProductModel> products() {
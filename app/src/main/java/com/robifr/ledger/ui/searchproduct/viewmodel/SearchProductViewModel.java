@@ -45,6 +45,7 @@ import javax.inject.Inject;
 public class SearchProductViewModel extends ViewModel {
   @NonNull private final ProductRepository _productRepository;
   @NonNull private final Handler _handler = new Handler(Looper.getMainLooper());
+  @NonNull private String _query = "";
   @NonNull private final String _initialQuery;
   @NonNull private final List<Long> _initialSelectedProductIds;
 
@@ -100,6 +101,7 @@ public class SearchProductViewModel extends ViewModel {
             false);
 
     this._productRepository.addModelChangedListener(this._productChangedListener);
+    this._productRepository.warmUpSearch();
   }
 
   @Override
@@ -147,23 +149,24 @@ public class SearchProductViewModel extends ViewModel {
   }
 
   public void onSearch(@NonNull String query) {
-    Objects.requireNonNull(query);
-
-    // Remove old runnable to ensure old query result wouldn't appear in future.
-    this._handler.removeCallbacksAndMessages(null);
-    this._handler.postDelayed(
-        () -> {
-          // Send null when user hasn't type anything to prevent
-          // no-results-found illustration shows up.
-          if (query.isEmpty()) {
-            this._products.postValue(Optional.empty());
-          } else {
-            this._productRepository
-                .search(query)
-                .thenAcceptAsync(products -> this._products.postValue(Optional.of(products)));
-          }
-        },
-        300);
+    this._query = Objects.requireNonNull(query);
+
+    // Send null when user hasn't type anything to prevent
+    // no-results-found illustration shows up.
+    if (query.isEmpty()) {
+      this._products.setValue(Optional.empty());
+      return;
+    }
+
+    this._productRepository
+        .searchRanked(query)
+        .thenAcceptAsync(
+            products -> {
+              // Results are ranked in the background, so the result of an older query might
+              // arrive later.
+              if (query.equals(this._query)) this._products.setValue(Optional.of(products));
+            },
+            this._handler::post);
   }
 
   public void onDeleteProduct(@NonNull ProductModel product) {
@@ -132,7 +132,14 @@ public class SelectCustomerViewModelHandler {
       }
     }
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            customers,
+            () -> {
+              // The expanded card might have been moved by the changes.
+              this._onExpandedCustomerIndex(this._viewModel.expandedCustomerIndex().getValue());
+            });
   }
 
   private void _onSelectedCustomerExpanded(boolean isExpanded) {
@@ -24,7 +24,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.CustomerModel;
 import com.robifr.ledger.databinding.CustomerCardWideBinding;
 import com.robifr.ledger.databinding.ListableListSelectedItemBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
+import com.robifr.ledger.ui.customer.CustomerCardWideComponent;
 import com.robifr.ledger.ui.customer.CustomerListAction;
 import com.robifr.ledger.ui.selectcustomer.SelectCustomerAction;
 import com.robifr.ledger.ui.selectcustomer.SelectCustomerFragment;
@@ -52,9 +54,14 @@ public class SelectCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
   }
 
   @NonNull private final SelectCustomerFragment _fragment;
+  @NonNull private final ModelListDiffer<CustomerModel> _differ;
 
   public SelectCustomerAdapter(@NonNull SelectCustomerFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    // 1 for header holder.
+    this._differ = new ModelListDiffer<>(this, 1, CustomerCardWideComponent::balancePayloadOf);
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -91,15 +98,38 @@ public class SelectCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
 
     } else if (holder instanceof SelectCustomerListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(
-          this._fragment.selectCustomerViewModel().customers().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
+    }
+  }
+
+  @Override
+  public void onBindViewHolder(
+      @NonNull RecyclerViewHolder holder, int index, @NonNull List<Object> payloads) {
+    Objects.requireNonNull(holder);
+    Objects.requireNonNull(payloads);
+
+    final boolean isOnlyBalanceChanged =
+        !payloads.isEmpty()
+            && payloads.stream().allMatch(CustomerCardWideComponent.BALANCE_PAYLOAD::equals);
+
+    if (holder instanceof SelectCustomerListHolder<?> listHolder && isOnlyBalanceChanged) {
+      // -1 offset because header holder.
+      listHolder.bindBalance(this._differ.currentList().get(index - 1));
+
+    } else {
+      super.onBindViewHolder(holder, index, payloads);
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.selectCustomerViewModel().customers().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -110,6 +140,18 @@ public class SelectCustomerAdapter extends RecyclerView.Adapter<RecyclerViewHold
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed customers is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(
+      @NonNull List<CustomerModel> customers, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(customers);
+
+    this._differ.submitList(customers, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<CustomerModel> customers() {
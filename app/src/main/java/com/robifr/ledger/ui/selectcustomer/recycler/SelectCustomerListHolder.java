@@ -66,6 +66,17 @@ public class SelectCustomerListHolder<T extends CustomerListAction & SelectCusto
     this.setCardExpanded(shouldCardExpanded);
   }
 
+  /**
+   * Partially rebind the same customer whose only the balance or debt are changed.
+   *
+   * @see CustomerCardWideComponent#BALANCE_PAYLOAD
+   */
+  public void bindBalance(@NonNull CustomerModel customer) {
+    this._boundCustomer = Objects.requireNonNull(customer);
+
+    this._card.setCardCustomerBalance(this._boundCustomer);
+  }
+
   @Override
   public void onClick(@NonNull View view) {
     Objects.requireNonNull(view);
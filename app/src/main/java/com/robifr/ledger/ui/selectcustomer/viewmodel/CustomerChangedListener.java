@@ -19,14 +19,12 @@ package com.robifr.ledger.ui.selectcustomer.viewmodel;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
-import com.robifr.ledger.data.ModelUpdater;
 import com.robifr.ledger.data.model.CustomerModel;
-import com.robifr.ledger.repository.ModelChangedListener;
-import java.util.List;
+import com.robifr.ledger.repository.ModelChangedBus;
+import com.robifr.ledger.repository.ModelSnapshotStore;
 import java.util.Objects;
-import java.util.function.BiFunction;
 
-class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
+class CustomerChangedListener implements ModelSnapshotStore.Listener<CustomerModel> {
   private final SelectCustomerViewModel _viewModel;
 
   public CustomerChangedListener(@NonNull SelectCustomerViewModel viewModel) {
@@ -34,44 +32,13 @@ class CustomerChangedListener implements ModelChangedListener<CustomerModel> {
   }
 
   @Override
-  public void onModelAdded(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
+  public void onSnapshotChanged(
+      @NonNull ModelSnapshotStore.Snapshot<CustomerModel> snapshot,
+      @NonNull ModelChangedBus.Batch<CustomerModel> batch) {
+    Objects.requireNonNull(snapshot);
+    Objects.requireNonNull(batch);
 
     new Handler(Looper.getMainLooper())
-        .post(() -> this._updateCustomers(customers, ModelUpdater::addModel));
-  }
-
-  @Override
-  public void onModelUpdated(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateCustomers(customers, ModelUpdater::updateModel));
-  }
-
-  @Override
-  public void onModelDeleted(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateCustomers(customers, ModelUpdater::deleteModel));
-  }
-
-  @Override
-  public void onModelUpserted(@NonNull List<CustomerModel> customers) {
-    Objects.requireNonNull(customers);
-
-    new Handler(Looper.getMainLooper())
-        .post(() -> this._updateCustomers(customers, ModelUpdater::upsertModel));
-  }
-
-  private void _updateCustomers(
-      @NonNull List<CustomerModel> customers,
-      @NonNull BiFunction<List<CustomerModel>, List<CustomerModel>, List<CustomerModel>> updater) {
-    Objects.requireNonNull(customers);
-    Objects.requireNonNull(updater);
-
-    this._viewModel._onCustomersChanged(
-        updater.apply(this._viewModel.customers().getValue(), customers));
+        .post(() -> this._viewModel._onCustomersChanged(snapshot.models()));
   }
 }
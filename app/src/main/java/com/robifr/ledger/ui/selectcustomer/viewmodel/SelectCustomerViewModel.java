@@ -85,7 +85,7 @@ public class SelectCustomerViewModel extends ViewModel {
             SelectCustomerFragment.Arguments.INITIAL_SELECTED_CUSTOMER_PARCELABLE.key());
 
     this._sorter.setSortMethod(new CustomerSortMethod(CustomerSortMethod.SortBy.NAME, true));
-    this._customerRepository.addModelChangedListener(this._customerChangedListener);
+    this._customerRepository.snapshotStore().addListener(this._customerChangedListener);
 
     // Setting up initial values inside a fragment is painful. See commit d5604599.
     SafeEvent.observeOnce(this._selectAllCustomers(), this::_onCustomersChanged, Objects::nonNull);
@@ -93,7 +93,7 @@ public class SelectCustomerViewModel extends ViewModel {
 
   @Override
   public void onCleared() {
-    this._customerRepository.removeModelChangedListener(this._customerChangedListener);
+    this._customerRepository.snapshotStore().removeListener(this._customerChangedListener);
   }
 
   @Nullable
@@ -148,7 +148,8 @@ public class SelectCustomerViewModel extends ViewModel {
     final MutableLiveData<List<CustomerModel>> result = new MutableLiveData<>();
 
     this._customerRepository
-        .selectAll()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             customers -> {
               if (customers == null) {
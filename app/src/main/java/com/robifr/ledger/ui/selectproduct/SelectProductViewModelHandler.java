@@ -125,7 +125,14 @@ public class SelectProductViewModelHandler {
       }
     }
 
-    this._fragment.adapter().notifyDataSetChanged();
+    this._fragment
+        .adapter()
+        .submitList(
+            products,
+            () -> {
+              // The expanded card might have been moved by the changes.
+              this._onExpandedProductIndex(this._viewModel.expandedProductIndex().getValue());
+            });
   }
 
   private void _onSelectedProductExpanded(boolean isExpanded) {
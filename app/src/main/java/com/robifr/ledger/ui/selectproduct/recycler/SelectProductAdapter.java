@@ -24,6 +24,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.robifr.ledger.data.model.ProductModel;
 import com.robifr.ledger.databinding.ListableListSelectedItemBinding;
 import com.robifr.ledger.databinding.ProductCardWideBinding;
+import com.robifr.ledger.ui.ModelListDiffer;
 import com.robifr.ledger.ui.RecyclerViewHolder;
 import com.robifr.ledger.ui.product.ProductListAction;
 import com.robifr.ledger.ui.selectproduct.SelectProductAction;
@@ -52,9 +53,13 @@ public class SelectProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
   }
 
   @NonNull private final SelectProductFragment _fragment;
+  @NonNull private final ModelListDiffer<ProductModel> _differ;
 
   public SelectProductAdapter(@NonNull SelectProductFragment fragment) {
     this._fragment = Objects.requireNonNull(fragment);
+    this._differ = new ModelListDiffer<>(this, 1); // 1 for header holder.
+
+    this.setHasStableIds(true);
   }
 
   @Override
@@ -91,14 +96,19 @@ public class SelectProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
 
     } else if (holder instanceof SelectProductListHolder<?> listHolder) {
       // -1 offset because header holder.
-      listHolder.bind(this._fragment.selectProductViewModel().products().getValue().get(index - 1));
+      listHolder.bind(this._differ.currentList().get(index - 1));
     }
   }
 
   @Override
   public int getItemCount() {
     // +1 offset because header holder.
-    return this._fragment.selectProductViewModel().products().getValue().size() + 1;
+    return this._differ.currentList().size() + 1;
+  }
+
+  @Override
+  public long getItemId(int index) {
+    return this._differ.itemIdOf(index);
   }
 
   @Override
@@ -109,6 +119,17 @@ public class SelectProductAdapter extends RecyclerView.Adapter<RecyclerViewHolde
     };
   }
 
+  /**
+   * Dispatch only the changed ranges once the diff against the displayed products is calculated.
+   *
+   * @param commitCallback Called after the diff is dispatched.
+   */
+  public void submitList(@NonNull List<ProductModel> products, @Nullable Runnable commitCallback) {
+    Objects.requireNonNull(products);
+
+    this._differ.submitList(products, commitCallback);
+  }
+
   @Override
   @NonNull
   public List<ProductModel> products() {
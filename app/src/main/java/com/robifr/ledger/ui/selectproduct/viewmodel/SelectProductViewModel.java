@@ -83,7 +83,7 @@ public class SelectProductViewModel extends ViewModel {
             SelectProductFragment.Arguments.INITIAL_SELECTED_PRODUCT_PARCELABLE.key());
 
     this._sorter.setSortMethod(new ProductSortMethod(ProductSortMethod.SortBy.NAME, true));
-    this._productRepository.addModelChangedListener(this._productChangedListener);
+    this._productRepository.snapshotStore().addListener(this._productChangedListener);
 
     // Setting up initial values inside a fragment is painful. See commit d5604599.
     SafeEvent.observeOnce(this._selectAllProducts(), this::_onProductsChanged, Objects::nonNull);
@@ -91,7 +91,7 @@ public class SelectProductViewModel extends ViewModel {
 
   @Override
   public void onCleared() {
-    this._productRepository.removeModelChangedListener(this._productChangedListener);
+    this._productRepository.snapshotStore().removeListener(this._productChangedListener);
   }
 
   @Nullable
@@ -146,7 +146,8 @@ public class SelectProductViewModel extends ViewModel {
     final MutableLiveData<List<ProductModel>> result = new MutableLiveData<>();
 
     this._productRepository
-        .selectAll()
+        .snapshotStore()
+        .models()
         .thenAcceptAsync(
             products -> {
               if (products == null) {
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data
+
+import com.robifr.ledger.data.model.CustomerModel
+import java.util.ArrayDeque
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class ModelListPipelineTest {
+  private val _byName: Comparator<CustomerModel> =
+      compareBy<CustomerModel> { it.name }.thenBy { it.id }
+  private val _pendingTasks: ArrayDeque<Runnable> = ArrayDeque()
+  private val _results: ArrayList<ModelListPipeline.Result<CustomerModel>> = arrayListOf()
+  private lateinit var _pipeline: ModelListPipeline<CustomerModel>
+
+  @BeforeEach
+  fun beforeEach() {
+    _pendingTasks.clear()
+    _results.clear()
+    _pipeline =
+        ModelListPipeline(
+            { _pendingTasks.add(it) }, Runnable::run, _byName, { true }, { _results.add(it) })
+  }
+
+  @Test
+  fun `publish only the final result of superseded operations`() {
+    _pipeline.reset(_byName, { true }, listOf(_customer(1L, "Cal"), _customer(2L, "Amy")))
+    _pipeline.apply(listOf(), listOf(_customer(3L, "Ben")))
+    _pipeline.reset(
+        _byName.reversed(),
+        { it.balance >= 0L },
+        listOf(_customer(1L, "Cal"), _customer(2L, "Amy")))
+    _runPendingTasks()
+
+    assertEquals(
+        listOf(
+            ModelListPipeline.Result(
+                listOf(_customer(1L, "Cal"), _customer(3L, "Ben"), _customer(2L, "Amy")),
+                listOf(),
+                true)),
+        _results,
+        "Compute once, where the changes before the last reset are applied after it")
+  }
+
+  @Test
+  fun `publish positional changes of applied models`() {
+    _pipeline.reset(_byName, { true }, listOf(_customer(1L, "Amy"), _customer(2L, "Cal")))
+    _runPendingTasks()
+    _pipeline.apply(listOf(_customer(1L)), listOf(_customer(3L, "Ben")))
+    _runPendingTasks()
+
+    assertEquals(
+        ModelListPipeline.Result(
+            listOf(_customer(3L, "Ben"), _customer(2L, "Cal")),
+            listOf(
+                SortedModelList.Change(SortedModelList.Change.Type.REMOVED, 0, -1),
+                SortedModelList.Change(SortedModelList.Change.Type.INSERTED, -1, 0)),
+            false),
+        _results.last())
+  }
+
+  @Test
+  fun `resort with the latest changes`() {
+    _pipeline.reset(_byName, { it.balance >= 0L }, listOf(_customer(1L, "Amy")))
+    _pipeline.apply(listOf(), listOf(_customer(2L, "Ben"), _customer(3L, "Cal", -100L)))
+    _pipeline.resort(_byName.reversed())
+    _runPendingTasks()
+
+    assertEquals(
+        listOf(_customer(2L, "Ben"), _customer(1L, "Amy")),
+        _results.last().models(),
+        "Keep filtering with the filter of the last reset")
+  }
+
+  private fun _runPendingTasks() {
+    while (_pendingTasks.isNotEmpty()) _pendingTasks.poll()?.run()
+  }
+
+  private fun _customer(id: Long, name: String = "Amy", balance: Long = 0L): CustomerModel =
+      CustomerModel(id = id, name = name, balance = balance)
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data
+
+import com.robifr.ledger.data.model.CustomerModel
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class ModelUpdaterTest {
+  private val _customers: List<CustomerModel> = listOf(_customer(1L), _customer(2L), _customer(3L))
+
+  @Test
+  fun `update only existing models`() {
+    assertEquals(
+        listOf(_customer(1L), _customer(2L, "Ben"), _customer(3L)),
+        ModelUpdater.updateModel(_customers, listOf(_customer(2L, "Ben"), _customer(4L))))
+  }
+
+  @Test
+  fun `delete models with the same id`() {
+    assertEquals(
+        listOf(_customer(1L), _customer(3L)),
+        ModelUpdater.deleteModel(_customers, listOf(_customer(2L), _customer(4L))))
+  }
+
+  @Test
+  fun `upsert models`() {
+    assertEquals(
+        listOf(_customer(1L), _customer(2L), _customer(3L, "Ben"), _customer(4L)),
+        ModelUpdater.upsertModel(_customers, listOf(_customer(3L, "Ben"), _customer(4L))))
+  }
+
+  @Test
+  fun `upsert models into empty list`() {
+    assertEquals(
+        listOf(_customer(1L, "Ben"), _customer(2L)),
+        ModelUpdater.upsertModel(
+            listOf(), listOf(_customer(1L), _customer(2L), _customer(1L, "Ben"))),
+        "Add the new models, while the later duplicate replaces the earlier one")
+  }
+
+  @Test
+  fun `index ids beyond initial capacity`() {
+    val ids: List<Long> = (0 until 10_000).map { it * 7_919L - 5_000_000L }
+    val index: ModelIdIndex = ModelIdIndex(0)
+    ids.forEachIndexed { i, id -> index.put(id, i) }
+
+    assertEquals(ids.size, index.size())
+    ids.forEachIndexed { i, id -> assertEquals(i, index.indexOf(id)) }
+    assertEquals(-1, index.indexOf(1L), "Missing ID isn't indexed")
+  }
+
+  private fun _customer(id: Long, name: String = "Amy"): CustomerModel =
+      CustomerModel.toBuilder().withName(name).withId(id)
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data
+
+import com.robifr.ledger.data.model.CustomerModel
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class SortedModelListTest {
+  private val _byName: Comparator<CustomerModel> =
+      compareBy<CustomerModel> { it.name }.thenBy { it.id }
+  private lateinit var _customers: SortedModelList<CustomerModel>
+
+  @BeforeEach
+  fun beforeEach() {
+    _customers = SortedModelList(_byName) { it.balance >= 0L }
+    _customers.reset(
+        _byName,
+        { it.balance >= 0L },
+        listOf(_customer(3L, "Cal"), _customer(1L, "Amy"), _customer(2L, "Ben")))
+  }
+
+  @Test
+  fun `reset sorted list`() {
+    assertEquals(
+        listOf(_customer(1L, "Amy"), _customer(2L, "Ben"), _customer(3L, "Cal")),
+        _customers.toList())
+  }
+
+  @Test
+  fun `upsert into sorted position`() {
+    val changes: List<SortedModelList.Change> =
+        _customers.upsert(
+            listOf(_customer(4L, "Bob"), _customer(1L, "Dan"), _customer(2L, "Bea")))
+
+    assertEquals(
+        listOf(
+            _customer(2L, "Bea"), _customer(4L, "Bob"), _customer(3L, "Cal"), _customer(1L, "Dan")),
+        _customers.toList())
+    assertEquals(
+        listOf(
+            SortedModelList.Change(SortedModelList.Change.Type.INSERTED, -1, 2),
+            SortedModelList.Change(SortedModelList.Change.Type.MOVED, 0, 3),
+            SortedModelList.Change(SortedModelList.Change.Type.CHANGED, 0, 0)),
+        changes)
+  }
+
+  @Test
+  fun `remove model which no longer passes the filter`() {
+    val changes: List<SortedModelList.Change> =
+        _customers.upsert(listOf(_customer(2L, "Ben", -100L), _customer(5L, "Eve", -100L)))
+
+    assertEquals(listOf(_customer(1L, "Amy"), _customer(3L, "Cal")), _customers.toList())
+    assertEquals(
+        listOf(SortedModelList.Change(SortedModelList.Change.Type.REMOVED, 1, -1)),
+        changes,
+        "Filtered out model which wasn't in the list has no change")
+  }
+
+  @Test
+  fun `delete models with the same id`() {
+    val changes: List<SortedModelList.Change> =
+        _customers.delete(listOf(_customer(1L), _customer(4L)))
+
+    assertEquals(listOf(_customer(2L, "Ben"), _customer(3L, "Cal")), _customers.toList())
+    assertEquals(
+        listOf(SortedModelList.Change(SortedModelList.Change.Type.REMOVED, 0, -1)), changes)
+  }
+
+  @Test
+  fun `track position across changes`() {
+    val moved: SortedModelList.Change =
+        SortedModelList.Change(SortedModelList.Change.Type.MOVED, 0, 2)
+    assertEquals(2, moved.positionAfter(0), "Moved model follows its new position")
+    assertEquals(0, moved.positionAfter(1), "Model after the old position shifts back")
+    assertEquals(3, moved.positionAfter(3), "Model after both positions stays")
+
+    val removed: SortedModelList.Change =
+        SortedModelList.Change(SortedModelList.Change.Type.REMOVED, 1, -1)
+    assertEquals(-1, removed.positionAfter(1), "Removed model has no position")
+    assertEquals(1, removed.positionAfter(2))
+
+    val inserted: SortedModelList.Change =
+        SortedModelList.Change(SortedModelList.Change.Type.INSERTED, -1, 1)
+    assertEquals(0, inserted.positionAfter(0))
+    assertEquals(2, inserted.positionAfter(1))
+  }
+
+  private fun _customer(id: Long, name: String = "Amy", balance: Long = 0L): CustomerModel =
+      CustomerModel(id = id, name = name, balance = balance)
+}
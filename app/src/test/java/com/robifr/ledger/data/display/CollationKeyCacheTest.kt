@@ -0,0 +1,54 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.data.display
+
+import java.text.Collator
+import java.util.Locale
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+
+class CollationKeyCacheTest {
+  private val _locale: Locale = Locale.forLanguageTag("id-ID")
+
+  @Test
+  fun `sort by keys in the same order as collator`() {
+    val names: List<String> = listOf("amy", "Ben", "ámy", "Amy", "cal", "Émile", "ben", "")
+    val collator: Collator = Collator.getInstance(_locale).apply { strength = Collator.SECONDARY }
+    val collationKeys: CollationKeyCache = CollationKeyCache(_locale)
+
+    assertEquals(
+        names.sortedWith(collator),
+        names.sortedWith(compareBy { collationKeys.keyOf(it) }))
+  }
+
+  @Test
+  fun `reuse key of the same name`() {
+    val collationKeys: CollationKeyCache = CollationKeyCache(_locale)
+
+    assertSame(collationKeys.keyOf("Amy"), collationKeys.keyOf("Amy"))
+    assertEquals(1, collationKeys.size(), "Only compute key once per name")
+  }
+
+  @Test
+  fun `bound cached keys`() {
+    val collationKeys: CollationKeyCache = CollationKeyCache(_locale)
+    repeat(CollationKeyCache.MAX_SIZE + 1) { collationKeys.keyOf("Customer $it") }
+
+    assertEquals(1, collationKeys.size(), "Clear the keys once they exceed the limit")
+  }
+}
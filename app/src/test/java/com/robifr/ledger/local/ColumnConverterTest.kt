@@ -0,0 +1,87 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local
+
+import com.robifr.ledger.local.ColumnConverter.InstantConverter
+import com.robifr.ledger.local.ColumnConverter.MoneyConverter
+import java.math.BigDecimal
+import java.time.Instant
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+
+class ColumnConverterTest {
+  @ParameterizedTest
+  @ValueSource(strings = ["0", "1", "2500", "-2400", "0.5", "1.00001", "123456789.12345"])
+  fun `convert money back and forth without loss`(number: String) {
+    val minorUnits: Long = MoneyConverter.fromBigDecimal(number.toBigDecimal())
+    assertEquals(
+        0,
+        number.toBigDecimal().compareTo(MoneyConverter.toBigDecimal(minorUnits)),
+        "Keep the value after being stored")
+    assertEquals(
+        minorUnits,
+        MoneyConverter.fromBigDecimal(MoneyConverter.toBigDecimal(minorUnits)),
+        "Store the same minor units after being read")
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = ["10.50", "10.5", "100", "1E+2", "0.000001"])
+  fun `read money with fixed scale`(number: String) {
+    val storedNumber: BigDecimal =
+        MoneyConverter.toBigDecimal(MoneyConverter.fromBigDecimal(number.toBigDecimal()))
+    assertEquals(MoneyConverter.SCALE, storedNumber.scale(), "Read with the declared scale")
+    assertEquals(
+        storedNumber,
+        MoneyConverter.toBigDecimal(MoneyConverter.fromBigDecimal(storedNumber)),
+        "Keep equality between values read from the database")
+  }
+
+  @Test
+  fun `convert money into minor units`() {
+    assertEquals(250_000L, MoneyConverter.fromBigDecimal(2.5.toBigDecimal()))
+    assertEquals(MoneyConverter.UNIT, MoneyConverter.fromBigDecimal(BigDecimal.ONE))
+    assertEquals(
+        12_346L,
+        MoneyConverter.fromBigDecimal("0.123456".toBigDecimal()),
+        "Round digits beyond the declared scale")
+    assertEquals(
+        "1000.00000",
+        MoneyConverter.toBigDecimal(100_000_000L).toString(),
+        "Don't turn whole number into exponent notation")
+  }
+
+  @Test
+  fun `convert money exceeding minor units range`() {
+    assertThrows(ArithmeticException::class.java) {
+      MoneyConverter.fromBigDecimal(Long.MAX_VALUE.toBigDecimal())
+    }
+  }
+
+  @Test
+  fun `convert date into epoch milliseconds`() {
+    val date: Instant = Instant.parse("2024-01-03T10:00:00.500Z")
+    assertEquals(1_704_276_000_500L, InstantConverter.fromInstant(date))
+    assertEquals(date, InstantConverter.toInstant(InstantConverter.fromInstant(date)))
+    assertEquals(
+        date,
+        InstantConverter.toInstant(InstantConverter.fromInstant(date.plusNanos(999_999L))),
+        "Truncate precision beyond milliseconds")
+  }
+}
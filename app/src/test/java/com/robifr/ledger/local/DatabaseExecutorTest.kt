@@ -0,0 +1,142 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DatabaseExecutorTest {
+  @Test
+  fun `write one at a time in submitted order`() {
+    val executor: DatabaseExecutor = DatabaseExecutor(4, true)
+    val running: AtomicInteger = AtomicInteger()
+    val order: MutableList<Int> = mutableListOf()
+
+    val writes: List<CompletableFuture<Int>> =
+        (0 until 50).map { index ->
+          executor.write {
+            assertEquals(1, running.incrementAndGet(), "Never write concurrently")
+            synchronized(order) { order.add(index) }
+            running.decrementAndGet()
+            index
+          }
+        }
+    CompletableFuture.allOf(*writes.toTypedArray()).get(5, TimeUnit.SECONDS)
+
+    assertEquals((0 until 50).toList(), order)
+  }
+
+  @Test
+  fun `read on multiple threads`() {
+    val executor: DatabaseExecutor = DatabaseExecutor(2, true)
+    val bothStarted: CountDownLatch = CountDownLatch(2)
+
+    val reads: List<CompletableFuture<Boolean>> =
+        (0 until 2).map {
+          executor.read {
+            bothStarted.countDown()
+            bothStarted.await(5, TimeUnit.SECONDS)
+          }
+        }
+
+    assertTrue(
+        reads.all { it.get(5, TimeUnit.SECONDS) }, "Run reads concurrently up to the reader count")
+  }
+
+  @Test
+  fun `run continuation inline`() {
+    for (isInline in listOf(true, false)) {
+      val executor: DatabaseExecutor = DatabaseExecutor(1, isInline)
+      val release: CountDownLatch = CountDownLatch(1)
+      val write: CompletableFuture<Thread> =
+          executor.write {
+            release.await(5, TimeUnit.SECONDS)
+            Thread.currentThread()
+          }
+      // Chain before the write completes, otherwise the inline continuation runs on this thread.
+      val continuation: CompletableFuture<Thread> =
+          write.thenApplyAsync({ Thread.currentThread() }, executor.continuation())
+      release.countDown()
+
+      val writerThread: Thread = write.get(5, TimeUnit.SECONDS)
+      assertTrue(writerThread.name.startsWith("database-writer-"))
+      if (isInline) {
+        assertEquals(
+            writerThread,
+            continuation.get(5, TimeUnit.SECONDS),
+            "Continue on the thread completing the write")
+      } else {
+        assertTrue(
+            continuation.get(5, TimeUnit.SECONDS).name.startsWith("database-reader-"),
+            "Hop to the reader pool")
+      }
+    }
+  }
+
+  @Test
+  fun `measure queue depth, wait and execution time`() {
+    val executor: DatabaseExecutor = DatabaseExecutor(1, true)
+    val metrics: MutableList<DatabaseExecutor.TaskMetrics> = mutableListOf()
+    executor.setTaskListener { synchronized(metrics) { metrics.add(it) } }
+
+    val started: CountDownLatch = CountDownLatch(1)
+    val release: CountDownLatch = CountDownLatch(1)
+    executor.read {
+      started.countDown()
+      release.await(5, TimeUnit.SECONDS)
+    }
+    started.await(5, TimeUnit.SECONDS)
+    (0 until 3).forEach { executor.read { it } }
+    assertEquals(3, executor.stats(DatabaseExecutor.Kind.READER).queueDepth())
+
+    Thread.sleep(20L)
+    release.countDown()
+    // Metrics are recorded right after the task returns, which is after its future completes.
+    val deadline: Long = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L)
+    while (executor.stats(DatabaseExecutor.Kind.READER).taskCount() < 4L &&
+        System.nanoTime() < deadline) {
+      Thread.sleep(1L)
+    }
+
+    val stats: DatabaseExecutor.Stats = executor.stats(DatabaseExecutor.Kind.READER)
+    assertEquals(4L, stats.taskCount())
+    assertEquals(0, stats.queueDepth(), "Queue is drained")
+    assertEquals(3, stats.maxQueueDepth())
+    assertTrue(
+        stats.maxExecutionNanos() >= TimeUnit.MILLISECONDS.toNanos(20L),
+        "Measure the blocking read execution time")
+    assertTrue(
+        stats.maxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20L),
+        "Measure the queued reads waiting behind the blocking read")
+    assertEquals(0L, executor.stats(DatabaseExecutor.Kind.WRITER).taskCount())
+    synchronized(metrics) {
+      assertEquals(listOf(0, 2, 1, 0), metrics.map { it.queueDepth() })
+      assertTrue(metrics.all { it.kind() == DatabaseExecutor.Kind.READER })
+    }
+  }
+
+  @Test
+  fun `reject non-positive reader count`() {
+    assertThrows(IllegalArgumentException::class.java) { DatabaseExecutor(0, true) }
+  }
+}
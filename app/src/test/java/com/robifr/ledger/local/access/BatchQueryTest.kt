@@ -0,0 +1,67 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.local.access
+
+import com.robifr.ledger.data.model.ProductModel
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class BatchQueryTest {
+  private val _products: Map<Long, ProductModel> =
+      (1L..2500L).associateWith { ProductModel(id = it, name = "Product $it") }
+
+  @Test
+  fun `chunk arguments within host parameters limit`() {
+    val chunkSizes: MutableList<Int> = mutableListOf()
+    val results: List<Long> =
+        BatchQuery.chunked((1L..2500L).toList()) { chunk ->
+          chunkSizes.add(chunk.size)
+          chunk
+        }
+    assertTrue(
+        chunkSizes.all { it <= BatchQuery.MAX_VARIABLE_NUMBER },
+        "Each chunk shouldn't exceed the host parameters limit")
+    assertEquals((1L..2500L).toList(), results, "Concatenate results in the order of the chunks")
+  }
+
+  @Test
+  fun `chunk empty arguments`() {
+    var queryCount: Int = 0
+    val results: List<Long> =
+        BatchQuery.chunked(listOf<Long>()) { chunk ->
+          queryCount++
+          chunk
+        }
+    assertEquals(0, queryCount, "Don't run any query for empty arguments")
+    assertTrue(results.isEmpty(), "Return empty list for empty arguments")
+  }
+
+  @Test
+  fun `select by id in caller's order`() {
+    val ids: List<Long?> = listOf(2000L, 3L, 9999L, null, 3L, 1L)
+    val results: List<ProductModel?> =
+        BatchQuery.selectById(ids) { chunk ->
+          // Simulate database returning rows in arbitrary order.
+          chunk.mapNotNull { _products[it] }.sortedBy { it.id }
+        }
+    assertEquals(
+        listOf(_products[2000L], _products[3L], null, null, _products[3L], _products[1L]),
+        results,
+        "Keep the caller's order, including duplicates and null for missing ID")
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository
+
+import com.robifr.ledger.data.model.CustomerModel
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+
+class ModelCacheTest {
+  private fun _customer(id: Long): CustomerModel = CustomerModel(id = id, name = "Customer $id")
+
+  @Test
+  fun `evict least recently used model`() {
+    val cache: ModelCache<CustomerModel> = ModelCache(2)
+    cache.putAll(listOf(_customer(1L), _customer(2L)), cache.version())
+    cache.get(1L)
+    cache.putAll(listOf(_customer(3L)), cache.version())
+
+    assertNull(cache.get(2L), "Evict the least recently used model")
+    assertEquals(1L, cache.stats().evictionCount, "Count the evicted model")
+    assertEquals(2, cache.stats().size, "Keep the cache bounded")
+  }
+
+  @Test
+  fun `count hits and misses`() {
+    val cache: ModelCache<CustomerModel> = ModelCache()
+    cache.putAll(listOf(_customer(1L), _customer(2L)), cache.version())
+    val hits: MutableList<CustomerModel> = mutableListOf()
+    val missedIds: List<Long> = cache.getAll(listOf(1L, 3L, 2L), hits)
+
+    assertEquals(listOf(1L, 2L), hits.map { it.id }, "Put the cached models into hits")
+    assertEquals(listOf(3L), missedIds, "Return the IDs which aren't cached")
+    assertEquals(2L, cache.stats().hitCount, "Count the hits")
+    assertEquals(1L, cache.stats().missCount, "Count the misses")
+  }
+
+  @Test
+  fun `merge cached and selected models in order of IDs`() {
+    val cache: ModelCache<CustomerModel> = ModelCache()
+    cache.putAll(listOf(_customer(2L), _customer(4L)), cache.version())
+    val ids: List<Long> = listOf(3L, 2L, 5L, 1L, 4L)
+    val hits: MutableList<CustomerModel> = mutableListOf()
+    val missedIds: List<Long> = cache.getAll(ids, hits)
+    // Selected from the database in a different order, without the one that can't be found.
+    val selectedCustomers: List<CustomerModel?> = listOf(_customer(1L), null, _customer(3L))
+
+    assertEquals(listOf(3L, 5L, 1L), missedIds, "Only select the IDs which aren't cached")
+    assertEquals(
+        listOf(3L, 2L, null, 1L, 4L),
+        ModelCache.merge(ids, hits, selectedCustomers).map { it?.id },
+        "Keep the same order as the given IDs, with null for the missing one")
+  }
+
+  @Test
+  fun `discard model selected before invalidation`() {
+    val cache: ModelCache<CustomerModel> = ModelCache()
+    val version: Long = cache.version()
+    cache.invalidate(listOf(1L))
+    cache.putAll(listOf(_customer(1L)), version)
+
+    assertNull(cache.get(1L), "Don't cache a model selected before the invalidation")
+  }
+
+  @Test
+  fun `invalidate given IDs only`() {
+    val cache: ModelCache<CustomerModel> = ModelCache()
+    val customer: CustomerModel = _customer(2L)
+    cache.putAll(listOf(_customer(1L), customer), cache.version())
+    cache.invalidate(listOf(1L, null))
+
+    assertNull(cache.get(1L), "Drop the invalidated model")
+    assertSame(customer, cache.get(2L), "Keep the other models")
+  }
+
+  @Test
+  fun `bypass disabled cache`() {
+    val cache: ModelCache<CustomerModel> = ModelCache()
+    cache.putAll(listOf(_customer(1L)), cache.version())
+    cache.setEnabled(false)
+    cache.putAll(listOf(_customer(2L)), cache.version())
+
+    assertNull(cache.get(1L), "Drop the cached models when disabled")
+    assertNull(cache.get(2L), "Don't cache any model when disabled")
+    assertEquals(0, cache.stats().size, "Keep the disabled cache empty")
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository
+
+import com.robifr.ledger.data.model.CustomerModel
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class ModelChangedBusTest {
+  private lateinit var _dispatcher: ScheduledExecutorService
+  private lateinit var _bus: ModelChangedBus<CustomerModel>
+  private lateinit var _listener: RecordingListener
+
+  @BeforeEach
+  fun beforeEach() {
+    _dispatcher = Executors.newSingleThreadScheduledExecutor()
+    // Long enough delay for the batches to only be delivered by flushing them manually.
+    _bus = ModelChangedBus(_dispatcher, TimeUnit.HOURS.toMillis(1L))
+    _listener = RecordingListener()
+    _bus.addListener(_listener)
+  }
+
+  @AfterEach
+  fun afterEach() {
+    _dispatcher.shutdownNow()
+  }
+
+  @Test
+  fun `deliver changes within a frame as one batch`() {
+    _bus.publish(ModelChangedBus.Kind.ADDED, listOf(_customer(1L), _customer(2L)))
+    _bus.publish(ModelChangedBus.Kind.UPDATED, listOf(_customer(3L)))
+    _bus.publish(ModelChangedBus.Kind.DELETED, listOf(_customer(4L)))
+    assertTrue(_listener.batches.isEmpty(), "Hold the changes until the frame ends")
+
+    _bus.flush()
+    assertEquals(1, _listener.batches.size, "Deliver a single batch")
+    assertEquals(
+        ModelChangedBus.Batch(
+            listOf(_customer(1L), _customer(2L)),
+            listOf(_customer(3L)),
+            listOf(_customer(4L)),
+            listOf()),
+        _listener.batches.first())
+  }
+
+  @Test
+  fun `coalesce changes of the same model`() {
+    _bus.publish(ModelChangedBus.Kind.ADDED, listOf(_customer(1L)))
+    _bus.publish(ModelChangedBus.Kind.UPDATED, listOf(_customer(1L, "Ben")))
+    _bus.publish(ModelChangedBus.Kind.ADDED, listOf(_customer(2L)))
+    _bus.publish(ModelChangedBus.Kind.DELETED, listOf(_customer(2L)))
+    _bus.publish(ModelChangedBus.Kind.UPDATED, listOf(_customer(3L)))
+    _bus.publish(ModelChangedBus.Kind.DELETED, listOf(_customer(3L)))
+    _bus.publish(ModelChangedBus.Kind.DELETED, listOf(_customer(4L)))
+    _bus.publish(ModelChangedBus.Kind.ADDED, listOf(_customer(4L)))
+    _bus.flush()
+
+    assertEquals(
+        ModelChangedBus.Batch(
+            listOf(_customer(1L, "Ben")), listOf(), listOf(_customer(3L)), listOf(_customer(4L))),
+        _listener.batches.first(),
+        "Keep the latest model with the combined kind of change")
+    assertEquals(ModelChangedBus.Stats(8L, 5L, 3L, 1L, 3L), _bus.stats())
+  }
+
+  @Test
+  fun `deliver after a frame`() {
+    val bus: ModelChangedBus<CustomerModel> =
+        ModelChangedBus(_dispatcher, ModelChangedBus.FRAME_MILLIS)
+    val delivered: CountDownLatch = CountDownLatch(1)
+    val listener: RecordingListener = RecordingListener { delivered.countDown() }
+    bus.addListener(listener)
+
+    bus.publish(ModelChangedBus.Kind.UPDATED, listOf(_customer(1L)))
+    bus.publish(ModelChangedBus.Kind.UPDATED, listOf(_customer(2L)))
+    assertTrue(delivered.await(5L, TimeUnit.SECONDS), "Deliver without being flushed")
+    assertEquals(listOf(2), listener.batches.map { it.size() })
+  }
+
+  @Test
+  fun `stop delivering to removed listener`() {
+    _bus.removeListener(_listener)
+    _bus.publish(ModelChangedBus.Kind.ADDED, listOf(_customer(1L)))
+    _bus.flush()
+
+    assertTrue(_listener.batches.isEmpty())
+  }
+
+  private fun _customer(id: Long, name: String = "Amy"): CustomerModel =
+      CustomerModel.toBuilder().withName(name).withId(id)
+
+  private class RecordingListener(private val _onBatch: () -> Unit = {}) :
+      ModelChangedListener<CustomerModel> {
+    val batches: MutableList<ModelChangedBus.Batch<CustomerModel>> =
+        Collections.synchronizedList(mutableListOf())
+
+    override fun onModelAdded(models: List<CustomerModel>) {}
+
+    override fun onModelUpdated(models: List<CustomerModel>) {}
+
+    override fun onModelDeleted(models: List<CustomerModel>) {}
+
+    override fun onModelUpserted(models: List<CustomerModel>) {}
+
+    override fun onModelChanged(batch: ModelChangedBus.Batch<CustomerModel>) {
+      batches.add(batch)
+      _onBatch()
+    }
+  }
+}
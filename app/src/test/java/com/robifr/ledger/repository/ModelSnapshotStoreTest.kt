@@ -0,0 +1,119 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository
+
+import com.robifr.ledger.data.model.CustomerModel
+import java.util.concurrent.CompletableFuture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class ModelSnapshotStoreTest {
+  private lateinit var _selectedCustomers: CompletableFuture<List<CustomerModel>?>
+  private lateinit var _store: ModelSnapshotStore<CustomerModel>
+  private var _selectCount: Int = 0
+
+  @BeforeEach
+  fun beforeEach() {
+    _selectedCustomers = CompletableFuture()
+    _selectCount = 0
+    _store =
+        ModelSnapshotStore {
+          _selectCount++
+          _selectedCustomers
+        }
+  }
+
+  @Test
+  fun `select models only once`() {
+    val snapshot: CompletableFuture<ModelSnapshotStore.Snapshot<CustomerModel>> = _store.snapshot()
+    _store.snapshot()
+    _selectedCustomers.complete(listOf(_customer(1L)))
+    _store.snapshot()
+
+    assertEquals(1, _selectCount, "Select from the database only once")
+    assertSame(snapshot.get(), _store.snapshot().get(), "Share the same snapshot")
+  }
+
+  @Test
+  fun `apply batch into new snapshot`() {
+    _store.snapshot()
+    _selectedCustomers.complete(listOf(_customer(1L), _customer(2L)))
+    val snapshots: MutableList<ModelSnapshotStore.Snapshot<CustomerModel>> = mutableListOf()
+    val listener: ModelSnapshotStore.Listener<CustomerModel> =
+        ModelSnapshotStore.Listener { snapshot, _ -> snapshots.add(snapshot) }
+    _store.addListener(listener)
+    _store.onModelChanged(
+        ModelChangedBus.Batch(
+            listOf(_customer(3L)),
+            listOf(_customer(1L, "Updated")),
+            listOf(_customer(2L)),
+            listOf()))
+
+    assertEquals(
+        listOf(_customer(1L, "Updated"), _customer(3L)),
+        _store.snapshot().get().models(),
+        "Replace the updated, remove the deleted, and append the added customers")
+    assertEquals(2L, _store.snapshot().get().version(), "Increment the version once per batch")
+    assertSame(_store.snapshot().get(), snapshots.single(), "Pass the new snapshot to listeners")
+  }
+
+  @Test
+  fun `apply batch delivered while selecting`() {
+    _store.snapshot()
+    _store.onModelChanged(
+        ModelChangedBus.Batch(listOf(_customer(2L)), listOf(), listOf(), listOf()))
+    _selectedCustomers.complete(listOf(_customer(1L), _customer(2L)))
+
+    assertEquals(
+        listOf(_customer(1L), _customer(2L)),
+        _store.snapshot().get().models(),
+        "Apply the batch onto the selected customers without any duplicate")
+  }
+
+  @Test
+  fun `select again after failure`() {
+    _store.snapshot()
+    _selectedCustomers.complete(null)
+
+    assertNull(_store.selectedSnapshot(), "Discard the failed snapshot")
+    _selectedCustomers = CompletableFuture.completedFuture(listOf(_customer(1L)))
+    assertEquals(listOf(_customer(1L)), _store.snapshot().get().models(), "Select them again")
+  }
+
+  @Test
+  fun `select again after exceptional failure`() {
+    val snapshot: CompletableFuture<ModelSnapshotStore.Snapshot<CustomerModel>> = _store.snapshot()
+    _store.onModelChanged(
+        ModelChangedBus.Batch(listOf(_customer(2L)), listOf(), listOf(), listOf()))
+    _selectedCustomers.completeExceptionally(IllegalStateException())
+
+    assertNull(snapshot.get(), "Complete the failed snapshot with null")
+    assertNull(_store.selectedSnapshot(), "Discard the failed snapshot")
+    _selectedCustomers = CompletableFuture.completedFuture(listOf(_customer(1L)))
+    assertEquals(
+        listOf(_customer(1L)),
+        _store.snapshot().get().models(),
+        "Select them again without the batch delivered before the failure")
+    assertEquals(2, _selectCount, "Select from the database again")
+  }
+
+  private fun _customer(id: Long, name: String = "Customer $id"): CustomerModel =
+      CustomerModel(id = id, name = name)
+}
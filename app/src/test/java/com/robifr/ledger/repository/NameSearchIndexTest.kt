@@ -0,0 +1,147 @@
+/**
+ * Copyright 2024 Robi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robifr.ledger.repository
+
+import com.robifr.ledger.data.ModelListPipeline
+import com.robifr.ledger.data.model.CustomerModel
+import java.util.concurrent.CompletableFuture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+class NameSearchIndexTest {
+  private lateinit var _store: ModelSnapshotStore<CustomerModel>
+  private lateinit var _index: NameSearchIndex<CustomerModel>
+
+  @BeforeEach
+  fun beforeEach() {
+    _store =
+        ModelSnapshotStore {
+          CompletableFuture.completedFuture(
+              listOf(
+                  _customer(1L, "Siti Rahma"),
+                  _customer(2L, "Éka Putra"),
+                  _customer(3L, "Budi Santoso")))
+        }
+    _index =
+        NameSearchIndex(_store, ModelListPipeline.defaultExecutor(), CustomerModel::name) {
+          compareBy { NameSearchIndex.normalize(it.name) }
+        }
+    _store.addListener(_index)
+  }
+
+  @Test
+  fun `search while cold`() {
+    assertNull(_index.search("siti"), "Return null to let the caller fall back to the database")
+    _awaitWarm()
+    assertEquals(listOf(_customer(1L, "Siti Rahma")), _index.search("siti"), "Warm on first search")
+  }
+
+  @Test
+  fun `search ignoring case and diacritics`() {
+    _index.warm()
+    _awaitWarm()
+
+    assertEquals(
+        listOf(_customer(2L, "Éka Putra")),
+        _index.search("EKA P"),
+        "Match names regardless of the case and diacritics")
+    assertEquals(
+        listOf(
+            _customer(3L, "Budi Santoso"),
+            _customer(2L, "Éka Putra"),
+            _customer(1L, "Siti Rahma")),
+        _index.search("t"),
+        "Match single character query in order")
+    assertEquals(listOf<CustomerModel>(), _index.search("xyz"), "Match nothing")
+  }
+
+  @Test
+  fun `search after batch`() {
+    _index.warm()
+    _awaitWarm()
+    _store.onModelChanged(
+        ModelChangedBus.Batch(
+            listOf(_customer(4L, "Agus Santoso")),
+            listOf(_customer(1L, "Siti Santoso")),
+            listOf(_customer(3L, "Budi Santoso")),
+            listOf()))
+
+    assertEquals(
+        listOf(_customer(4L, "Agus Santoso"), _customer(1L, "Siti Santoso")),
+        _index.search("santoso"),
+        "Include the added and updated customers in order, excluding the deleted one")
+    assertEquals(listOf<CustomerModel>(), _index.search("rahma"), "Forget the previous name")
+  }
+
+  @Test
+  fun `search ranked with typos`() {
+    _index.warm()
+    _awaitWarm()
+
+    assertEquals(
+        listOf(_customer(3L, "Budi Santoso")),
+        _index.searchRanked("santsoo", 10) { 0 },
+        "Match names with a swapped pair of characters")
+    assertEquals(
+        listOf<CustomerModel>(),
+        _index.searchRanked("snatsoo", 10) { 0 },
+        "Exclude names with more typos than allowed")
+  }
+
+  @Test
+  fun `search ranked by match quality then usage`() {
+    _index.warm()
+    _awaitWarm()
+    _store.onModelChanged(
+        ModelChangedBus.Batch(
+            listOf(
+                _customer(4L, "Agus Santoso"),
+                _customer(5L, "Santoso Jaya"),
+                _customer(6L, "Tokosantoso"),
+                _customer(7L, "Santso")),
+            listOf(),
+            listOf(),
+            listOf()))
+    val usages: Map<Long, Int> = mapOf(4L to 5, 7L to 10)
+
+    assertEquals(
+        listOf(
+            _customer(5L, "Santoso Jaya"),
+            _customer(4L, "Agus Santoso"),
+            _customer(3L, "Budi Santoso"),
+            _customer(6L, "Tokosantoso"),
+            _customer(7L, "Santso")),
+        _index.searchRanked("santoso", 10) { usages[it.id] ?: 0 },
+        "Rank the start of the name, the start of a word, anywhere else, then the typos")
+    assertEquals(
+        listOf(_customer(5L, "Santoso Jaya"), _customer(4L, "Agus Santoso")),
+        _index.searchRanked("santoso", 2) { usages[it.id] ?: 0 },
+        "Take only the best ranked customers")
+  }
+
+  private fun _awaitWarm() {
+    val deadline: Long = System.currentTimeMillis() + 5_000L
+    while (!_index.isWarm() && System.currentTimeMillis() < deadline) Thread.sleep(5L)
+    assertTrue(_index.isWarm(), "Warm the index")
+  }
+
+  private fun _customer(id: Long, name: String): CustomerModel =
+      CustomerModel(id = id, name = name)
+}
@@ -125,7 +125,7 @@ class CreateQueueViewModelTest(
     assertEquals(
         _customer.copy(
             balance =
-                if (balance == 500L) balance - _queue.grandTotalPrice().toLong() else balance),
+                if (balance == 500L) balance - _queue.grandTotalPrice.toLong() else balance),
         _viewModel.uiState.safeValue.temporalCustomer,
         "Temporal customer must be updated when the customer change")
     assertEquals(
@@ -226,7 +226,7 @@ class CreateQueueViewModelTest(
         _customer.copy(
             balance =
                 if (paymentMethod == QueueModel.PaymentMethod.ACCOUNT_BALANCE) {
-                  _customer.balance - _queue.grandTotalPrice().toLong()
+                  _customer.balance - _queue.grandTotalPrice.toLong()
                 } else {
                   _customer.balance
                 }),